@@ -21,6 +21,7 @@ package org.dllearner.algorithms;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.query.*;
+import org.dllearner.algorithms.schema.ClassCooccurrenceMatrix;
 import org.dllearner.core.*;
 import org.dllearner.core.annotations.Unused;
 import org.dllearner.core.config.ConfigOption;
@@ -69,6 +70,12 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 	private boolean suggestMostGeneralClasses = true;
 	@ConfigOption(description = "include instance count / popularity when computing scores", defaultValue = "true")
 	private boolean useClassPopularity = true;
+	@ConfigOption(description = "compute the number of (shared) instances of classes from a class co-occurrence matrix, " +
+			"which is built once by a single pass over all class assertions, instead of sending a query per class " +
+			"(pair)", defaultValue = "false")
+	private boolean useCooccurrenceMatrix = false;
+
+	private ClassCooccurrenceMatrix cooccurrenceMatrix;
 
 	private Set<OWLClass> allClasses;
 
@@ -121,7 +128,7 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 			progressMonitor.learningProgressChanged(axiomType, i++, candidates.size());
 			
 			// get the popularity of the candidate
-			int candidatePopularity = reasoner.getPopularity(cls);
+			int candidatePopularity = getInstanceCount(cls);
 			
 			if(candidatePopularity == 0){// skip empty classes
 				logger.warn("Cannot compute disjointness statements for empty candidate class " + cls);
@@ -129,9 +136,14 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 			}
 			
 			// get the number of overlapping instances, i.e. instances asserted to both classes
-			GIVEN_CLASS_OVERLAP_QUERY.setIri("cls_other", cls.toStringID());
-			ResultSet rs = executeSelectQuery(GIVEN_CLASS_OVERLAP_QUERY.toString());
-			int overlap = rs.next().getLiteral("overlap").getInt();
+			int overlap;
+			if (useCooccurrenceMatrix) {
+				overlap = getCooccurrenceMatrix().getOverlap(entityToDescribe, cls);
+			} else {
+				GIVEN_CLASS_OVERLAP_QUERY.setIri("cls_other", cls.toStringID());
+				ResultSet rs = executeSelectQuery(GIVEN_CLASS_OVERLAP_QUERY.toString());
+				overlap = rs.next().getLiteral("overlap").getInt();
+			}
 			
 			// compute the score
 			double score = computeScore(candidatePopularity, popularity, overlap);
@@ -204,6 +216,51 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		return candidates;
 	}
 	
+	/* (non-Javadoc)
+	 * @see org.dllearner.core.AbstractAxiomLearningAlgorithm#getPopularity()
+	 */
+	@Override
+	protected int getPopularity() {
+		// keep the popularity consistent with the counts of the candidates
+		return useCooccurrenceMatrix ? getInstanceCount(entityToDescribe) : super.getPopularity();
+	}
+
+	/**
+	 * Returns the class co-occurrence matrix of the knowledge source. The matrix
+	 * is computed on first access and reused afterwards, e.g. when learning
+	 * disjointness axioms for several classes.
+	 * @return the class co-occurrence matrix
+	 */
+	public ClassCooccurrenceMatrix getCooccurrenceMatrix() {
+		if (cooccurrenceMatrix == null) {
+			if (ks.isRemote()) {
+				cooccurrenceMatrix = ClassCooccurrenceMatrix.compute(ks.getQueryExecutionFactory());
+			} else {
+				cooccurrenceMatrix = ClassCooccurrenceMatrix.compute(((LocalModelBasedSparqlEndpointKS) ks).getModel());
+			}
+		}
+		return cooccurrenceMatrix;
+	}
+
+	/**
+	 * Sets the class co-occurrence matrix, e.g. to share a precomputed one between
+	 * learning algorithms on the same knowledge source.
+	 * @param cooccurrenceMatrix the class co-occurrence matrix
+	 */
+	public void setCooccurrenceMatrix(ClassCooccurrenceMatrix cooccurrenceMatrix) {
+		this.cooccurrenceMatrix = cooccurrenceMatrix;
+	}
+
+	private int getInstanceCount(OWLClass cls) {
+		return useCooccurrenceMatrix ? getCooccurrenceMatrix().getPopularity(cls) : reasoner.getPopularity(cls);
+	}
+
+	private int getInstanceCount(OWLClass clsA, OWLClass clsB) {
+		return useCooccurrenceMatrix
+				? getCooccurrenceMatrix().getOverlap(clsA, clsB)
+				: reasoner.getPopularityOf(df.getOWLObjectIntersectionOf(clsA, clsB));
+	}
+
 	private double computeScore(int candidatePopularity, int popularity, int overlap){
 		// compute the estimated precision
 		double precision = Heuristics.getConfidenceInterval95WaldAverage(candidatePopularity, overlap);
@@ -241,6 +298,14 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		this.useClassPopularity = useClassPopularity;
 	}
 
+	public boolean isUseCooccurrenceMatrix() {
+		return useCooccurrenceMatrix;
+	}
+
+	public void setUseCooccurrenceMatrix(boolean useCooccurrenceMatrix) {
+		this.useCooccurrenceMatrix = useCooccurrenceMatrix;
+	}
+
 	/* (non-Javadoc)
 	 * @see org.dllearner.core.AbstractAxiomLearningAlgorithm#getSampleQuery()
 	 */
@@ -433,7 +498,7 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		Set<EvaluatedDescription> evaluatedDescriptions = new HashSet<>();
 
 		//get number of instances of A
-		int instanceCountA = reasoner.getPopularity(cls);
+		int instanceCountA = getInstanceCount(cls);
 
 		if (instanceCountA > 0) {
 			//we compute the disjointness to all sibling classes
@@ -441,20 +506,13 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 
 			for (OWLClass sib : siblingClasses) {
 				//get number of instances of B
-				int instanceCountB = reasoner.getPopularity(sib);
+				int instanceCountB = getInstanceCount(sib);
 
 				if (instanceCountB > 0) {
 					//get number of instances of (A and B)
-					int instanceCountAB = reasoner.getPopularityOf(df.getOWLObjectIntersectionOf(cls, sib));
+					int instanceCountAB = getInstanceCount(cls, sib);
 
-					// compute the estimated precision
-					double precision = Heuristics.getConfidenceInterval95WaldAverage(instanceCountB, instanceCountAB);
-
-					// compute the estimated recall
-					double recall = Heuristics.getConfidenceInterval95WaldAverage(instanceCountA, instanceCountAB);
-
-					// compute the final score
-					double score = 1 - Heuristics.getFScore(recall, precision);
+					double score = computeDisjointnessScore(instanceCountA, instanceCountB, instanceCountAB);
 
 					EvaluatedDescription evalDesc = new EvaluatedDescription(sib, new AxiomScore(score));
 					evaluatedDescriptions.add(evalDesc);
@@ -483,24 +541,16 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		double scoreValue = 0;
 
 		//get number of instances of A
-		int instanceCountA = reasoner.getPopularity(clsA);
+		int instanceCountA = getInstanceCount(clsA);
 
 		//get number of instances of B
-		int instanceCountB = reasoner.getPopularity(clsB);
+		int instanceCountB = getInstanceCount(clsB);
 
 		if (instanceCountA > 0 && instanceCountB > 0) {
 			//get number of instances of (A and B)
-			int instanceCountAB = reasoner.getPopularityOf(df.getOWLObjectIntersectionOf(clsA, clsB));
-
-			// compute the estimated precision
-			double precision = Heuristics.getConfidenceInterval95WaldAverage(instanceCountB, instanceCountAB);
-
-			// compute the estimated recall
-			double recall = Heuristics.getConfidenceInterval95WaldAverage(instanceCountA, instanceCountAB);
-
-			// compute the final score
-			scoreValue = 1 - Heuristics.getFScore(recall, precision);
+			int instanceCountAB = getInstanceCount(clsA, clsB);
 
+			scoreValue = computeDisjointnessScore(instanceCountA, instanceCountB, instanceCountAB);
 		}
 
 		AxiomScore score = new AxiomScore(scoreValue);
@@ -508,6 +558,17 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		return new EvaluatedAxiom<>(df.getOWLDisjointClassesAxiom(clsA, clsB), score);
 	}
 
+	private double computeDisjointnessScore(int instanceCountA, int instanceCountB, int instanceCountAB) {
+		// compute the estimated precision
+		double precision = Heuristics.getConfidenceInterval95WaldAverage(instanceCountB, instanceCountAB);
+
+		// compute the estimated recall
+		double recall = Heuristics.getConfidenceInterval95WaldAverage(instanceCountA, instanceCountAB);
+
+		// compute the final score
+		return 1 - Heuristics.getFScore(recall, precision);
+	}
+
 	public Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> computeSchemaDisjointness() {
 		Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> axioms = new HashSet<>();
 
@@ -526,6 +587,10 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 	}
 
 	public Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> computeDisjointness(Set<OWLClass> classes) {
+		if (useCooccurrenceMatrix) {
+			return computeDisjointnessFromMatrix(classes);
+		}
+
 		Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> axioms = new HashSet<>();
 
 		for (OWLClass clsA : classes) {
@@ -537,6 +602,51 @@ public class DisjointClassesLearner extends AbstractAxiomLearningAlgorithm<OWLDi
 		return axioms;
 	}
 
+	/**
+	 * Computes the disjointness of all pairs of the given classes from the class
+	 * co-occurrence matrix. The only queries sent are those for the subclasses
+	 * of each class, i.e. the number of queries is linear in the number of classes.
+	 * @param classes the classes
+	 * @return the disjointness axioms for all pairs of classes with their score
+	 */
+	private Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> computeDisjointnessFromMatrix(Set<OWLClass> classes) {
+		ClassCooccurrenceMatrix matrix = getCooccurrenceMatrix();
+
+		List<OWLClass> classList = new ArrayList<>(new TreeSet<>(classes));
+		List<SortedSet<OWLClassExpression>> subClasses = new ArrayList<>(classList.size());
+		for (OWLClass cls : classList) {
+			subClasses.add(reasoner.getSubClasses(cls, false));
+		}
+
+		Set<EvaluatedAxiom<OWLDisjointClassesAxiom>> axioms = new HashSet<>();
+		for (int i = 0; i < classList.size(); i++) {
+			OWLClass clsA = classList.get(i);
+			int instanceCountA = matrix.getPopularity(clsA);
+
+			// disjointness with itself
+			axioms.add(new EvaluatedAxiom<>(df.getOWLDisjointClassesAxiom(clsA, clsA), new AxiomScore(0d, 1d)));
+
+			for (int j = i + 1; j < classList.size(); j++) {
+				OWLClass clsB = classList.get(j);
+
+				//if the classes are connected via subsumption we assume that they are not disjoint
+				if (subClasses.get(i).contains(clsB) || subClasses.get(j).contains(clsA)) {
+					axioms.add(new EvaluatedAxiom<>(df.getOWLDisjointClassesAxiom(clsA, clsB), new AxiomScore(0d, 1d)));
+					continue;
+				}
+
+				double scoreValue = 0;
+				int instanceCountB = matrix.getPopularity(clsB);
+				if (instanceCountA > 0 && instanceCountB > 0) {
+					scoreValue = computeDisjointnessScore(instanceCountA, instanceCountB, matrix.getOverlap(clsA, clsB));
+				}
+				axioms.add(new EvaluatedAxiom<>(df.getOWLDisjointClassesAxiom(clsA, clsB), new AxiomScore(scoreValue)));
+			}
+		}
+
+		return axioms;
+	}
+
 	public static Set<OWLClass> asOWLClasses(Set<OWLClassExpression> descriptions) {
 		Set<OWLClass> classes = descriptions.stream()
 				.filter(description -> !description.isAnonymous())
@@ -18,9 +18,8 @@
  */
 package org.dllearner.algorithms.celoe;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
-import com.jamonapi.Monitor;
-import com.jamonapi.MonitorFactory;
 import org.dllearner.core.*;
 import org.dllearner.core.config.ConfigOption;
 import org.dllearner.core.owl.ClassHierarchy;
@@ -39,6 +38,10 @@ import org.dllearner.refinementoperators.*;
 import org.dllearner.utilities.*;
 import org.dllearner.utilities.datastructures.SearchTree;
 import org.dllearner.utilities.owl.*;
+import org.dllearner.utilities.profiling.ProfileCategory;
+import org.dllearner.utilities.profiling.ProfileReport;
+import org.dllearner.utilities.profiling.Profiler;
+import org.dllearner.utilities.profiling.Timer;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
@@ -50,8 +53,12 @@ import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
 
 /**
  * The CELOE (Class Expression Learner for Ontology Engineering) algorithm.
@@ -86,8 +93,12 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			exampleValue = "ex:Male or http://example.org/ontology/Female")
 	private OWLClassExpression startClass;
 	
-	// all descriptions in the search tree plus those which were too weak (for fast redundancy check)
-	private TreeSet<OWLClassExpression> descriptions;
+	// canonical forms of all descriptions in the search tree plus those which were too weak (for fast redundancy check)
+	private RedundancyIndex descriptions;
+
+	@ConfigOption(defaultValue = "false", description = "whether to keep the index used for the redundancy check outside of " +
+			"the Java heap, which is useful for very large searches")
+	private boolean offHeapRedundancyIndex = false;
 	
 	
 	// if true, then each solution is evaluated exactly instead of approximately
@@ -169,6 +180,22 @@ public class CELOE extends AbstractCELA implements Cloneable{
 
 	@ConfigOption(defaultValue="false", description="algorithm will terminate immediately when a correct definition is found")
 	private boolean stopOnFirstDefinition = false;
+
+	@ConfigOption(defaultValue = "1", description = "number of threads used to compute the accuracy of the refinements " +
+			"of a node in parallel. The search tree is still updated in the order of the refinements, i.e. the result " +
+			"is the same as for sequential evaluation, but the reasoner must support concurrent calls.")
+	private int nrOfEvaluationThreads = 1;
+
+	private ForkJoinPool evaluationPool;
+
+	@ConfigOption(description = "file to write a profile of each run to, which attributes the runtime to refinement, " +
+			"evaluation, reasoning and search tree maintenance. The format is chosen by the file extension: .json, .csv or " +
+			"the Prometheus text format otherwise. Setting the file enables profiling during the run.", exampleValue = "log/celoe-profile.json")
+	private File profileFile;
+
+	private static final Timer REFINEMENT_TIMER = Profiler.timer("celoe.refinement", ProfileCategory.REFINEMENT);
+	private static final Timer EVALUATION_TIMER = Profiler.timer("celoe.evaluation", ProfileCategory.EVALUATION);
+	private static final Timer SEARCH_TREE_TIMER = Profiler.timer("celoe.searchTree", ProfileCategory.SEARCH_TREE);
 	
 	private int expressionTestCountLastImprovement;
 	
@@ -228,6 +255,9 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		
 		setWriteSearchTree(celoe.writeSearchTree);
 		setReplaceSearchTree(celoe.replaceSearchTree);
+		setNrOfEvaluationThreads(celoe.nrOfEvaluationThreads);
+		setOffHeapRedundancyIndex(celoe.offHeapRedundancyIndex);
+		setProfileFile(celoe.profileFile);
 	}
 	
 	public CELOE(AbstractClassExpressionLearningProblem problem, AbstractReasonerComponent reasoner) {
@@ -315,10 +345,25 @@ public class CELOE extends AbstractCELA implements Cloneable{
 	
 	@Override
 	public void start() {
+		// profiling is enabled JVM-wide, thus only for the time of this run
+		boolean profilingEnabled = Profiler.isEnabled();
+		if(profileFile != null) {
+			Profiler.setEnabled(true);
+		}
+		try {
+			learn();
+		} finally {
+			Profiler.setEnabled(profilingEnabled);
+		}
+	}
+
+	private void learn() {
 		stop = false;
 		isRunning = true;
 		reset();
 		nanoStartTime = System.nanoTime();
+		ProfileReport profileAtStart = Profiler.snapshot();
+		startProgressReporting();
 		
 		currentHighestAccuracy = 0.0;
 		OENode nextNode;
@@ -330,28 +375,19 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			showIfBetterSolutionsFound();
 
 			// chose best node according to heuristics
+			long selectionStart = SEARCH_TREE_TIMER.start();
 			nextNode = getNextNodeToExpand();
+			SEARCH_TREE_TIMER.stop(selectionStart);
 			int horizExp = nextNode.getHorizontalExpansion();
 			
 			// apply refinement operator
 			TreeSet<OWLClassExpression> refinements = refineNode(nextNode);
 				
-			while(!refinements.isEmpty() && !terminationCriteriaSatisfied()) {
-				// pick element from set
-				OWLClassExpression refinement = refinements.pollFirst();
-
-				// get length of class expression
-				int length = OWLClassExpressionUtils.getLength(refinement);
-				
-				// we ignore all refinements with lower length and too high depth
-				// (this also avoids duplicate node children)
-				if(length > horizExp && OWLClassExpressionUtils.getDepth(refinement) <= maxDepth) {
-					// add node to search tree
-					addNode(refinement, nextNode);
-				}
-			}
+			// evaluate the refinements as a batch and add them to the search tree
+			addNodes(refinements, nextNode, horizExp);
 			
 			showIfBetterSolutionsFound();
+			fireProgress(expressionTests, searchTree.size(), currentHighestAccuracy);
 			
 			// update the global min and max horizontal expansion values
 			updateMinMaxHorizExp(nextNode);
@@ -366,8 +402,15 @@ public class CELOE extends AbstractCELA implements Cloneable{
 			bestEvaluatedDescriptions.add(bestDescription, bestAccuracy, learningProblem);
 		}
 		
+		if(evaluationPool != null) {
+			evaluationPool.shutdown();
+			evaluationPool = null;
+		}
+
 		// print some stats
 		printAlgorithmRunStats();
+		printProfile(profileAtStart);
+		fireLearningFinished(expressionTests, searchTree.size(), bestEvaluatedDescriptions.getBestAccuracy());
 		
 		// print solution(s)
 		logger.info("solutions:\n" + getSolutionString());
@@ -487,51 +530,134 @@ public class CELOE extends AbstractCELA implements Cloneable{
 	// expand node horizontically
 	private TreeSet<OWLClassExpression> refineNode(OENode node) {
 		logger.trace(sparql_debug,"REFINE NODE " + node);
-		MonitorFactory.getTimeMonitor("refineNode").start();
 		// we have to remove and add the node since its heuristic evaluation changes through the expansion
 		// (you *must not* include any criteria in the heuristic which are modified outside of this method,
 		// otherwise you may see rarely occurring but critical false ordering in the nodes set)
+		long start = SEARCH_TREE_TIMER.start();
 		searchTree.updatePrepare(node);
+		SEARCH_TREE_TIMER.stop(start);
 		int horizExp = node.getHorizontalExpansion();
+		start = REFINEMENT_TIMER.start();
 		TreeSet<OWLClassExpression> refinements = (TreeSet<OWLClassExpression>) operator.refine(node.getDescription(), horizExp+1);
+		REFINEMENT_TIMER.stop(start);
 //		System.out.println("refinements: " + refinements);
+		start = SEARCH_TREE_TIMER.start();
 		node.incHorizontalExpansion();
 		node.setRefinementCount(refinements.size());
 //		System.out.println("refined node: " + node);
 		searchTree.updateDone(node);
-		MonitorFactory.getTimeMonitor("refineNode").stop();
+		SEARCH_TREE_TIMER.stop(start);
 		return refinements;
 	}
 	
 	/**
-	 * Add node to search tree if it is not too weak.
-	 * @return TRUE if node was added and FALSE otherwise
+	 * Evaluates all refinements of a node which pass the length and depth
+	 * filter and adds them to the search tree in the order of the refinements,
+	 * i.e. the search tree is the same as after adding them one by one. The
+	 * refinements are scored by a single call of the learning problem, or with
+	 * several evaluation threads, each thread scores a contiguous batch.
 	 */
-	private boolean addNode(OWLClassExpression description, OENode parentNode) {
+	private void addNodes(TreeSet<OWLClassExpression> refinements, OENode parentNode, int horizExp) {
+		// the redundancy and the allowed check do not depend on the accuracy of
+		// the other refinements, thus we can do them upfront in the sequential order
+		List<OWLClassExpression> candidates = new ArrayList<>();
+		while(!refinements.isEmpty() && !terminationCriteriaSatisfied()) {
+			OWLClassExpression refinement = refinements.pollFirst();
+			int length = OWLClassExpressionUtils.getLength(refinement);
+			if(length > horizExp && OWLClassExpressionUtils.getDepth(refinement) <= maxDepth
+					&& isNewAndAllowed(refinement, parentNode)) {
+				candidates.add(refinement);
+			}
+		}
+
+		double[] accuracies;
+		long start = EVALUATION_TIMER.start();
+		if(nrOfEvaluationThreads <= 1) {
+			accuracies = learningProblem.getAccuracyOrTooWeak(candidates, noise);
+		} else {
+			accuracies = computeAccuracies(candidates);
+		}
+		EVALUATION_TIMER.stop(start);
+
+		// update the search tree and the best solutions sequentially
+		for (int i = 0; i < candidates.size() && !terminationCriteriaSatisfied(); i++) {
+			addNode(candidates.get(i), parentNode, accuracies[i]);
+		}
+	}
+
+	// computes the accuracies in parallel
+	private double[] computeAccuracies(List<OWLClassExpression> candidates) {
+		double[] accuracies = new double[candidates.size()];
+		int batchSize = Math.max(1, (candidates.size() + nrOfEvaluationThreads - 1) / nrOfEvaluationThreads);
+		List<List<OWLClassExpression>> batches = Lists.partition(candidates, batchSize);
+		try {
+			getEvaluationPool().submit(() -> IntStream.range(0, batches.size()).parallel().forEach(b -> {
+				double[] batchAccuracies = learningProblem.getAccuracyOrTooWeak(batches.get(b), noise);
+				System.arraycopy(batchAccuracies, 0, accuracies, b * batchSize, batchAccuracies.length);
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Evaluation of refinements was interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Evaluation of refinements failed.", e.getCause());
+		}
+		return accuracies;
+	}
+
+	private synchronized ForkJoinPool getEvaluationPool() {
+		if(evaluationPool == null) {
+			evaluationPool = new ForkJoinPool(nrOfEvaluationThreads);
+		}
+		return evaluationPool;
+	}
+
+	// redundancy check and check whether the class expression is allowed
+	private boolean isNewAndAllowed(OWLClassExpression description, OENode parentNode) {
 		String sparql_debug_out = "";
 		if (logger.isTraceEnabled()) sparql_debug_out = "DESC: " + description;
-		MonitorFactory.getTimeMonitor("addNode").start();
-		
-		// redundancy check (return if redundant)
+
+		// redundancy check (return if redundant), syntactic variants of
+		// descriptions seen before are redundant as well
+		long start = SEARCH_TREE_TIMER.start();
 		boolean nonRedundant = descriptions.add(description);
+		SEARCH_TREE_TIMER.stop(start);
 		if(!nonRedundant) {
 			logger.trace(sparql_debug, sparql_debug_out + "REDUNDANT");
 			return false;
 		}
-		
+
 		// check whether the class expression is allowed
 		if(!isDescriptionAllowed(description, parentNode)) {
 			logger.trace(sparql_debug, sparql_debug_out + "NOT ALLOWED");
 			return false;
 		}
+		return true;
+	}
+
+	/**
+	 * Add node to search tree if it is not too weak.
+	 * @return TRUE if node was added and FALSE otherwise
+	 */
+	private boolean addNode(OWLClassExpression description, OENode parentNode) {
+		if(!isNewAndAllowed(description, parentNode)) {
+			return false;
+		}
 		
 		// quality of class expression (return if too weak)
-		Monitor mon = MonitorFactory.start("lp");
-		logger.trace(sparql_debug, sparql_debug_out);
+		long start = EVALUATION_TIMER.start();
+		logger.trace(sparql_debug, "DESC: " + description);
 		double accuracy = learningProblem.getAccuracyOrTooWeak(description, noise);
 		logger.trace(sparql_debug, "`acc:"+accuracy);
-		mon.stop();
+		EVALUATION_TIMER.stop(start);
 		
+		return addNode(description, parentNode, accuracy);
+	}
+
+	/**
+	 * Add node with the given accuracy to search tree if it is not too weak.
+	 * @return TRUE if node was added and FALSE otherwise
+	 */
+	private boolean addNode(OWLClassExpression description, OENode parentNode, double accuracy) {
 		// issue a warning if accuracy is not between 0 and 1 or -1 (too weak)
 		if(accuracy > 1.0 || (accuracy < 0.0 && accuracy != -1)) {
 			throw new RuntimeException("Invalid accuracy value " + accuracy + " for class expression " + description +
@@ -546,7 +672,9 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		}
 		
 		OENode node = new OENode(description, accuracy);
+		long start = SEARCH_TREE_TIMER.start();
 		searchTree.addNode(parentNode, node);
+		SEARCH_TREE_TIMER.stop(start);
 		
 		// in some cases (e.g. mutation) fully evaluating even a single class expression is too expensive
 		// due to the high number of examples -- so we just stick to the approximate accuracy
@@ -753,7 +881,7 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		// set all values back to their default values (used for running
 		// the algorithm more than once)
 		searchTree = new SearchTree<>(heuristic);
-		descriptions = new TreeSet<>();
+		descriptions = new RedundancyIndex(offHeapRedundancyIndex);
 		bestEvaluatedDescriptions.getSet().clear();
 		expressionTests = 0;
 		runtimeVsBestScore.clear();
@@ -769,6 +897,21 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		}
 	}
 	
+	private void printProfile(ProfileReport profileAtStart) {
+		if(!Profiler.isEnabled()) {
+			return;
+		}
+		ProfileReport profile = Profiler.snapshot().since(profileAtStart, System.nanoTime() - nanoStartTime);
+		logger.info(profile.toString());
+		if(profileFile != null) {
+			try {
+				profile.write(profileFile);
+			} catch (IOException e) {
+				logger.error("Failed to write the profile to " + profileFile, e);
+			}
+		}
+	}
+
 	private void showIfBetterSolutionsFound() {
 		if(!singleSuggestionMode && bestEvaluatedDescriptions.getBestAccuracy() > currentHighestAccuracy) {
 			currentHighestAccuracy = bestEvaluatedDescriptions.getBestAccuracy();
@@ -782,6 +925,7 @@ public class CELOE extends AbstractCELA implements Cloneable{
 				runtimeVsBestScore.put(getCurrentRuntimeInMilliSeconds(), currentHighestAccuracy);
 			}
 			logger.info("more accurate (" + dfPercent.format(currentHighestAccuracy) + ") class expression found after " + durationStr + ": " + descriptionToString(bestEvaluatedDescriptions.getBest().getDescription()));
+			fireNewBestSolution(bestEvaluatedDescriptions.getBest(), expressionTests, searchTree.size());
 		}
 	}
 	
@@ -814,7 +958,7 @@ public class CELOE extends AbstractCELA implements Cloneable{
 		if(minHorizExp == newHorizExp - 1) {
 			
 			// the best accuracy that a node can achieve
-			double scoreThreshold = heuristic.getNodeScore(node) + 1 - node.getAccuracy();
+			double scoreThreshold = node.getScore(heuristic) + 1 - node.getAccuracy();
 			
 			for(OENode n : searchTree.descendingSet()) {
 				if(n != node) {
@@ -822,7 +966,7 @@ public class CELOE extends AbstractCELA implements Cloneable{
 						// we can stop instantly when another node with min.
 						return;
 					}
-					if(heuristic.getNodeScore(n) < scoreThreshold) {
+					if(n.getScore(heuristic) < scoreThreshold) {
 						// we can stop traversing nodes when their score is too low
 						break;
 					}
@@ -1017,6 +1161,42 @@ public class CELOE extends AbstractCELA implements Cloneable{
 	public void setMaxDepth(double maxDepth) {
 		this.maxDepth = maxDepth;
 	}
+
+	public int getNrOfEvaluationThreads() {
+		return nrOfEvaluationThreads;
+	}
+
+	/**
+	 * @param nrOfEvaluationThreads the number of threads used to compute the
+	 * accuracy of the refinements of a node, 1 means sequential evaluation
+	 */
+	public void setNrOfEvaluationThreads(int nrOfEvaluationThreads) {
+		this.nrOfEvaluationThreads = nrOfEvaluationThreads;
+	}
+
+	public File getProfileFile() {
+		return profileFile;
+	}
+
+	/**
+	 * @param profileFile the file to write a profile of each run to, which
+	 * also enables profiling
+	 */
+	public void setProfileFile(File profileFile) {
+		this.profileFile = profileFile;
+	}
+
+	public boolean isOffHeapRedundancyIndex() {
+		return offHeapRedundancyIndex;
+	}
+
+	/**
+	 * @param offHeapRedundancyIndex whether to keep the index used for the
+	 * redundancy check outside of the Java heap
+	 */
+	public void setOffHeapRedundancyIndex(boolean offHeapRedundancyIndex) {
+		this.offHeapRedundancyIndex = offHeapRedundancyIndex;
+	}
 	
 	public boolean isStopOnFirstDefinition() {
 		return stopOnFirstDefinition;
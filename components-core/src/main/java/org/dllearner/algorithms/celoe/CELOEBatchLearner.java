@@ -0,0 +1,278 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.EvaluatedDescription;
+import org.dllearner.core.Score;
+import org.dllearner.learningproblems.ClassLearningProblem;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.dllearner.utilities.owl.OWLAPIRenderers;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Learns class expressions for many classes of the same knowledge base by running
+ * CELOE with a {@link ClassLearningProblem} for each class. In contrast to running the
+ * CLI for each class, the reasoner and the data precomputed by the refinement operator
+ * are initialised only once and shared among the per-class runs, which are executed
+ * in parallel. Each run uses a copy of the configured refinement operator, see
+ * {@link RhoDRDown#RhoDRDown(RhoDRDown)}.
+ * <p>
+ * As the runs call the shared reasoner concurrently, the reasoner is switched to
+ * synchronized mode via {@link AbstractReasonerComponent#setSynchronized()} if more
+ * than one thread is used. Reasoners which do not support this must support
+ * concurrent calls themselves.
+ * Results are passed to the registered {@link ResultHandler}s as soon as the run for a
+ * class has been finished, e.g. to write them incrementally into a file.
+ */
+public class CELOEBatchLearner {
+
+	private static final Logger logger = LoggerFactory.getLogger(CELOEBatchLearner.class);
+
+	/**
+	 * Receives the results of the learning runs. Implementations have to be thread-safe
+	 * as the handler is called by all worker threads.
+	 */
+	public interface ResultHandler {
+		/**
+		 * @param cls the class to describe
+		 * @param descriptions the best class expressions found, in descending order
+		 * @param runtimeMs the runtime of the learning algorithm in milliseconds
+		 */
+		void learned(OWLClass cls, List<? extends EvaluatedDescription<? extends Score>> descriptions, long runtimeMs);
+
+		/**
+		 * @param cls the class to describe
+		 * @param e the error
+		 */
+		void failed(OWLClass cls, Exception e);
+	}
+
+	private final AbstractReasonerComponent reasoner;
+
+	private RhoDRDown operator;
+	private int nrOfThreads = Runtime.getRuntime().availableProcessors();
+	private int maxExecutionTimeInSecondsPerClass = 10;
+	private boolean equivalence = true;
+	private double noisePercentage = 5;
+	private int maxNrOfResults = 10;
+
+	private final List<ResultHandler> resultHandlers = new ArrayList<>();
+
+	/**
+	 * @param reasoner an initialised reasoner, which is shared by all learning runs and
+	 *                 thus must support concurrent calls if more than one thread is used
+	 */
+	public CELOEBatchLearner(AbstractReasonerComponent reasoner) {
+		this.reasoner = reasoner;
+	}
+
+	/**
+	 * Learns class expressions for the given classes. The method blocks until all
+	 * classes have been processed.
+	 *
+	 * @param classes the classes to describe
+	 * @throws ComponentInitException if the initialisation of the refinement operator fails
+	 */
+	public void start(Collection<OWLClass> classes) throws ComponentInitException {
+		long startTime = System.currentTimeMillis();
+
+		// initialise the shared refinement operator once
+		if (operator == null) {
+			operator = new RhoDRDown();
+		}
+		operator.setReasoner(reasoner);
+		if (!operator.isInitialized()) {
+			operator.init();
+		}
+		logger.info("Initialised refinement operator in {}ms.", System.currentTimeMillis() - startTime);
+
+		if (nrOfThreads > 1) {
+			try {
+				reasoner.setSynchronized();
+			} catch (UnsupportedOperationException e) {
+				logger.warn("Reasoner " + reasoner.getClass().getSimpleName() + " cannot be synchronized, " +
+						"thus, it must support concurrent calls of the learning runs.");
+			}
+		}
+
+		final int total = classes.size();
+		final AtomicInteger finished = new AtomicInteger();
+
+		ExecutorService threadPool = Executors.newFixedThreadPool(nrOfThreads);
+		for (OWLClass cls : classes) {
+			threadPool.submit(() -> {
+				try {
+					learn(cls);
+				} catch (Exception e) {
+					logger.error("Learning for class " + cls + " failed.", e);
+					resultHandlers.forEach(handler -> handler.failed(cls, e));
+				}
+				logger.info("Finished {}/{} classes.", finished.incrementAndGet(), total);
+			});
+		}
+		threadPool.shutdown();
+		try {
+			threadPool.awaitTermination(Long.MAX_VALUE, TimeUnit.DAYS);
+		} catch (InterruptedException e) {
+			threadPool.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+
+		logger.info("Learned class expressions for {} classes in {}ms.", total, System.currentTimeMillis() - startTime);
+	}
+
+	private void learn(OWLClass cls) throws ComponentInitException {
+		ClassLearningProblem lp = new ClassLearningProblem(reasoner);
+		lp.setClassToDescribe(cls);
+		lp.setEquivalence(equivalence);
+		lp.init();
+
+		RhoDRDown op = createOperator();
+
+		CELOE la = new CELOE(lp, reasoner);
+		la.setOperator(op);
+		la.setMaxExecutionTimeInSeconds(maxExecutionTimeInSecondsPerClass);
+		la.setNoisePercentage(noisePercentage);
+		la.setMaxNrOfResults(maxNrOfResults);
+		la.init();
+
+		long startTime = System.currentTimeMillis();
+		la.start();
+		long runtime = System.currentTimeMillis() - startTime;
+
+		List<? extends EvaluatedDescription<? extends Score>> descriptions = new ArrayList<>(la.getCurrentlyBestEvaluatedDescriptions().descendingSet());
+		resultHandlers.forEach(handler -> handler.learned(cls, descriptions, runtime));
+	}
+
+	/**
+	 * Creates the refinement operator of a single learning run. The operator has the
+	 * configuration of the shared operator and only reuses its precomputed data, the
+	 * caches built during refinement are local to the learning run.
+	 *
+	 * @return a new operator
+	 */
+	protected RhoDRDown createOperator() {
+		RhoDRDown op = new RhoDRDown(operator);
+		op.setPrecomputedOperator(operator);
+		return op;
+	}
+
+	/**
+	 * Writes the results into a file, one line per class expression with the columns
+	 * class, accuracy and class expression in Manchester OWL syntax (tab separated).
+	 * Lines are flushed after each class, i.e. results are available while the batch
+	 * is still running.
+	 */
+	public static class TSVResultWriter implements ResultHandler, Closeable {
+
+		private final PrintWriter out;
+
+		public TSVResultWriter(File file) throws IOException {
+			out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)));
+		}
+
+		@Override
+		public synchronized void learned(OWLClass cls, List<? extends EvaluatedDescription<? extends Score>> descriptions, long runtimeMs) {
+			for (EvaluatedDescription<? extends Score> ed : descriptions) {
+				out.println(cls.toStringID() + "\t" + ed.getAccuracy() + "\t" + OWLAPIRenderers.toManchesterOWLSyntax(ed.getDescription()));
+			}
+			out.flush();
+		}
+
+		@Override
+		public synchronized void failed(OWLClass cls, Exception e) {
+			out.println(cls.toStringID() + "\tERROR\t" + e.getMessage());
+			out.flush();
+		}
+
+		@Override
+		public synchronized void close() {
+			out.close();
+		}
+	}
+
+	public void addResultHandler(ResultHandler handler) {
+		resultHandlers.add(handler);
+	}
+
+	/**
+	 * @param operator the refinement operator whose configuration and precomputed data
+	 *                 is used for all classes; if not initialised, it will be initialised
+	 *                 on the reasoner of the batch learner
+	 */
+	public void setOperator(RhoDRDown operator) {
+		this.operator = operator;
+	}
+
+	public RhoDRDown getOperator() {
+		return operator;
+	}
+
+	public void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+	public void setMaxExecutionTimeInSecondsPerClass(int maxExecutionTimeInSecondsPerClass) {
+		this.maxExecutionTimeInSecondsPerClass = maxExecutionTimeInSecondsPerClass;
+	}
+
+	public int getMaxExecutionTimeInSecondsPerClass() {
+		return maxExecutionTimeInSecondsPerClass;
+	}
+
+	public void setEquivalence(boolean equivalence) {
+		this.equivalence = equivalence;
+	}
+
+	public boolean isEquivalence() {
+		return equivalence;
+	}
+
+	public void setNoisePercentage(double noisePercentage) {
+		this.noisePercentage = noisePercentage;
+	}
+
+	public double getNoisePercentage() {
+		return noisePercentage;
+	}
+
+	public void setMaxNrOfResults(int maxNrOfResults) {
+		this.maxNrOfResults = maxNrOfResults;
+	}
+
+	public int getMaxNrOfResults() {
+		return maxNrOfResults;
+	}
+}
@@ -20,7 +20,9 @@ package org.dllearner.algorithms.celoe;
 
 import java.text.DecimalFormat;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
+import org.dllearner.core.AbstractHeuristic;
 import org.dllearner.core.AbstractSearchTreeNode;
 import org.dllearner.utilities.datastructures.SearchTreeNode;
 import org.dllearner.utilities.owl.OWLAPIRenderers;
@@ -54,6 +56,17 @@ public class OENode extends AbstractSearchTreeNode<OENode> implements SearchTree
 	// OWLClassExpression in this node - it is a better heuristic indicator than child count
 	// (and avoids the problem that adding children changes the heuristic value)
 	private int refinementCount = 0;
+
+	private static final AtomicLong idGenerator = new AtomicLong();
+
+	// the creation order of the nodes, used to break ties between nodes with the same score
+	private final long id = idGenerator.getAndIncrement();
+
+	// the score of the node computed by the heuristic; the search tree compares
+	// nodes very often, hence the score is computed only once after the node
+	// was modified (which has to happen between updatePrepare and updateDone)
+	private double score;
+	private volatile AbstractHeuristic scoreHeuristic;
 	
 	private static DecimalFormat dfPercent = new DecimalFormat("0.00%");
 	
@@ -70,8 +83,15 @@ public class OENode extends AbstractSearchTreeNode<OENode> implements SearchTree
 
 	public void incHorizontalExpansion() {
 		horizontalExpansion++;
+		invalidateScore();
 	}
 	
+	@Override
+	protected void setParent(OENode node) {
+		super.setParent(node);
+		invalidateScore();
+	}
+
 	public boolean isRoot() {
 		return (parent == null);
 	}
@@ -134,5 +154,31 @@ public class OENode extends AbstractSearchTreeNode<OENode> implements SearchTree
 	 */
 	public void setRefinementCount(int refinementCount) {
 		this.refinementCount = refinementCount;
+		invalidateScore();
+	}
+
+	/**
+	 * @return the position of the node in the order of creation
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * Returns the score of the node. The score is computed by the heuristic
+	 * only if the node was modified since the last call.
+	 * @param heuristic the heuristic
+	 * @return the score of the node
+	 */
+	public double getScore(AbstractHeuristic heuristic) {
+		if(scoreHeuristic != heuristic) {
+			score = heuristic.getNodeScore(this);
+			scoreHeuristic = heuristic;
+		}
+		return score;
+	}
+
+	private void invalidateScore() {
+		scoreHeuristic = null;
 	}
 }
\ No newline at end of file
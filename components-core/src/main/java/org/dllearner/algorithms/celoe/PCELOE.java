@@ -19,8 +19,6 @@
 package org.dllearner.algorithms.celoe;
 
 import com.google.common.collect.Sets;
-import com.jamonapi.Monitor;
-import com.jamonapi.MonitorFactory;
 import org.apache.log4j.FileAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -44,6 +42,9 @@ import org.dllearner.utilities.OWLAPIUtils;
 import org.dllearner.utilities.TreeUtils;
 import org.dllearner.utilities.datastructures.SynchronizedSearchTree;
 import org.dllearner.utilities.owl.*;
+import org.dllearner.utilities.profiling.ProfileCategory;
+import org.dllearner.utilities.profiling.Profiler;
+import org.dllearner.utilities.profiling.Timer;
 import org.semanticweb.owlapi.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
@@ -75,6 +76,10 @@ public class PCELOE extends AbstractCELA {
 	private SynchronizedSearchTree<OENode> searchTree;
 	@ConfigOption(defaultValue="celoe_heuristic")
 	private AbstractHeuristic heuristic;
+
+	private static final Timer REFINEMENT_TIMER = Profiler.timer("pceloe.refinement", ProfileCategory.REFINEMENT);
+	private static final Timer EVALUATION_TIMER = Profiler.timer("pceloe.evaluation", ProfileCategory.EVALUATION);
+	private static final Timer SEARCH_TREE_TIMER = Profiler.timer("pceloe.searchTree", ProfileCategory.SEARCH_TREE);
 	// the class with which we start the refinement process
 	@ConfigOption(defaultValue="owl:Thing", description="You can specify a start class for the algorithm. To do this, you have to use Manchester OWL syntax without using prefixes.")
 	private OWLClassExpression startClass;
@@ -332,6 +337,7 @@ public class PCELOE extends AbstractCELA {
 		isRunning = true;
 		reset();
 		nanoStartTime = System.nanoTime();
+		currentHighestAccuracy = 0.0;
 
 		addNode(startClass, null);
 
@@ -376,6 +382,7 @@ public class PCELOE extends AbstractCELA {
 			tasks.add(worker);
 		}
 		nanoStartTime = System.nanoTime();
+		startProgressReporting();
 
 		//needed to block until all threads have been finished, because otherwise the main thread outputs the result to early
 		List<Future> futures = new ArrayList<>();
@@ -400,6 +407,7 @@ public class PCELOE extends AbstractCELA {
 		if(singleSuggestionMode) {
 			bestEvaluatedDescriptions.add(bestDescription, bestAccuracy, learningProblem);
 		}
+		fireLearningFinished(expressionTests, searchTree.size(), bestEvaluatedDescriptions.getBestAccuracy());
 
 		// print solution(s)
 		logger.info("solutions:\n" + getSolutionString());
@@ -522,19 +530,23 @@ public class PCELOE extends AbstractCELA {
 
 	// expand node horizontically
 	private TreeSet<OWLClassExpression> refineNode(LengthLimitedRefinementOperator operator, OENode node) {
-		MonitorFactory.getTimeMonitor("refineNode").start();
 		// we have to remove and add the node since its heuristic evaluation changes through the expansion
 		// (you *must not* include any criteria in the heuristic which are modified outside of this method,
 		// otherwise you may see rarely occurring but critical false ordering in the nodes set)
+		long start = SEARCH_TREE_TIMER.start();
 		searchTree.updatePrepare(node);
+		SEARCH_TREE_TIMER.stop(start);
 		int horizExp = node.getHorizontalExpansion();
+		start = REFINEMENT_TIMER.start();
 		TreeSet<OWLClassExpression> refinements = (TreeSet<OWLClassExpression>) operator.refine(node.getDescription(), horizExp+1);
+		REFINEMENT_TIMER.stop(start);
 //		System.out.println("refinements: " + refinements);
+		start = SEARCH_TREE_TIMER.start();
 		node.incHorizontalExpansion();
 		node.setRefinementCount(refinements.size());
 //		System.out.println("refined node: " + node);
 		searchTree.updateDone(node);
-		MonitorFactory.getTimeMonitor("refineNode").stop();
+		SEARCH_TREE_TIMER.stop(start);
 		return refinements;
 	}
 
@@ -543,8 +555,6 @@ public class PCELOE extends AbstractCELA {
 	 * @return TRUE if node was added and FALSE otherwise
 	 */
 	private boolean addNode(OWLClassExpression description, OENode parentNode) {
-		MonitorFactory.getTimeMonitor("addNode").start();
-
 		// redundancy check (return if redundant)
 		boolean nonRedundant = descriptions.add(description);
 		if(!nonRedundant) {
@@ -557,9 +567,9 @@ public class PCELOE extends AbstractCELA {
 		}
 
 		// quality of class expression (return if too weak)
-		Monitor mon = MonitorFactory.start("lp");
+		long start = EVALUATION_TIMER.start();
 		double accuracy = learningProblem.getAccuracyOrTooWeak(description, noise);
-		mon.stop();
+		EVALUATION_TIMER.stop(start);
 
 		// issue a warning if accuracy is not between 0 and 1 or -1 (too weak)
 		if(accuracy > 1.0 || (accuracy < 0.0 && accuracy != -1)) {
@@ -577,7 +587,9 @@ public class PCELOE extends AbstractCELA {
 		OENode node = new OENode(description, accuracy);
 
 		// link to parent (unless start node)
+		start = SEARCH_TREE_TIMER.start();
 		searchTree.addNode(parentNode, node);
+		SEARCH_TREE_TIMER.stop(start);
 
 		// in some cases (e.g. mutation) fully evaluating even a single class expression is too expensive
 		// due to the high number of examples -- so we just stick to the approximate accuracy
@@ -592,14 +604,18 @@ public class PCELOE extends AbstractCELA {
 
 		// maybe add to best descriptions (method keeps set size fixed);
 		// we need to make sure that this does not get called more often than
-		// necessary since rewriting is expensive
-		boolean isCandidate = !bestEvaluatedDescriptions.isFull();
-		if(!isCandidate) {
-			EvaluatedDescription worst = bestEvaluatedDescriptions.getWorst();
-			double accThreshold = worst.getAccuracy();
-			isCandidate =
-				(accuracy > accThreshold ||
-				(accuracy >= accThreshold && OWLClassExpressionUtils.getLength(description) < worst.getDescriptionLength()));
+		// necessary since rewriting is expensive;
+		// the set is shared by all workers, so each access to it is guarded by its monitor
+		boolean isCandidate;
+		synchronized (bestEvaluatedDescriptions) {
+			isCandidate = !bestEvaluatedDescriptions.isFull();
+			if(!isCandidate) {
+				EvaluatedDescription worst = bestEvaluatedDescriptions.getWorst();
+				double accThreshold = worst.getAccuracy();
+				isCandidate =
+					(accuracy > accThreshold ||
+					(accuracy >= accThreshold && OWLClassExpressionUtils.getLength(description) < worst.getDescriptionLength()));
+			}
 		}
 
 		if(isCandidate) {
@@ -619,11 +635,13 @@ public class PCELOE extends AbstractCELA {
 			// A is not a candidate; on the other hand this suppresses many meaningless extensions of A
 			boolean shorterDescriptionExists = false;
 			if(forceMutualDifference) {
-				for(EvaluatedDescription<? extends Score> ed : bestEvaluatedDescriptions.getSet()) {
-					if(Math.abs(ed.getAccuracy()-accuracy) <= 0.00001 && ConceptTransformation.isSubdescription(niceDescription, ed.getDescription())) {
-//						System.out.println("shorter: " + ed.getDescription());
-						shorterDescriptionExists = true;
-						break;
+				synchronized (bestEvaluatedDescriptions) {
+					for(EvaluatedDescription<? extends Score> ed : bestEvaluatedDescriptions.getSet()) {
+						if(Math.abs(ed.getAccuracy()-accuracy) <= 0.00001 && ConceptTransformation.isSubdescription(niceDescription, ed.getDescription())) {
+//							System.out.println("shorter: " + ed.getDescription());
+							shorterDescriptionExists = true;
+							break;
+						}
 					}
 				}
 			}
@@ -633,7 +651,9 @@ public class PCELOE extends AbstractCELA {
 			if(!shorterDescriptionExists) {
 				if(!filterFollowsFromKB || !((ClassLearningProblem)learningProblem).followsFromKB(niceDescription)) {
 //					System.out.println(node + "->" + niceDescription);
-					bestEvaluatedDescriptions.add(niceDescription, accuracy, learningProblem);
+					synchronized (bestEvaluatedDescriptions) {
+						bestEvaluatedDescriptions.add(niceDescription, accuracy, learningProblem);
+					}
 //					System.out.println("acc: " + accuracy);
 //					System.out.println(bestEvaluatedDescriptions);
 				}
@@ -806,14 +826,23 @@ public class PCELOE extends AbstractCELA {
 		}
 	}
 
-	private void showIfBetterSolutionsFound() {
-		if(!singleSuggestionMode && bestEvaluatedDescriptions.getBestAccuracy() > currentHighestAccuracy) {
-			currentHighestAccuracy = bestEvaluatedDescriptions.getBestAccuracy();
+	private synchronized void showIfBetterSolutionsFound() {
+		if(singleSuggestionMode) {
+			return;
+		}
+		// snapshot taken under the lock used by addNode(), the workers keep adding to the set
+		EvaluatedDescription<? extends Score> best;
+		synchronized (bestEvaluatedDescriptions) {
+			best = bestEvaluatedDescriptions.getBest();
+		}
+		if(best != null && best.getAccuracy() > currentHighestAccuracy) {
+			currentHighestAccuracy = best.getAccuracy();
 			expressionTestCountLastImprovement = expressionTests;
 			timeLastImprovement = System.nanoTime();
 			long durationInMillis = getCurrentRuntimeInMilliSeconds();
 			String durationStr = getDurationAsString(durationInMillis);
-			logger.info("more accurate (" + dfPercent.format(currentHighestAccuracy) + ") class expression found after " + durationStr + ": " + descriptionToString(bestEvaluatedDescriptions.getBest().getDescription()));
+			logger.info("more accurate (" + dfPercent.format(currentHighestAccuracy) + ") class expression found after " + durationStr + ": " + descriptionToString(best.getDescription()));
+			fireNewBestSolution(best, expressionTests, searchTree.size());
 		}
 	}
 
@@ -846,7 +875,7 @@ public class PCELOE extends AbstractCELA {
 		if(minHorizExp == newHorizExp - 1) {
 
 			// the best accuracy that a node can achieve
-			double scoreThreshold = heuristic.getNodeScore(node) + 1 - node.getAccuracy();
+			double scoreThreshold = node.getScore(heuristic) + 1 - node.getAccuracy();
 
 			for(OENode n : searchTree.descendingSet()) {
 				if(n != node) {
@@ -854,7 +883,7 @@ public class PCELOE extends AbstractCELA {
 						// we can stop instantly when another node with min.
 						return;
 					}
-					if(heuristic.getNodeScore(n) < scoreThreshold) {
+					if(n.getScore(heuristic) < scoreThreshold) {
 						// we can stop traversing nodes when their score is too low
 						break;
 					}
@@ -1163,7 +1192,8 @@ public class PCELOE extends AbstractCELA {
 						}
 					}
 					currentlyProcessedNodes.remove(nextNode);
-//					showIfBetterSolutionsFound();
+					showIfBetterSolutionsFound();
+					fireProgress(expressionTests, searchTree.size(), currentHighestAccuracy);
 				}
 
 			}
@@ -50,18 +50,21 @@ public class ELDescriptionNode {
 	protected List<ELDescriptionEdge> edges = new LinkedList<>();
 
 	protected int level;
+
+	// the index of the node in the tree
+	protected int id;
 	
 	// parent node in the tree;
 	// null indicates that this node is a root node
 	protected ELDescriptionNode parent = null;
 		
-	// simulation information (list or set?)
-	protected Set<ELDescriptionNode> in = new HashSet<>();
-	protected Set<ELDescriptionNode> inSC1 = new HashSet<>();
-	protected Set<ELDescriptionNode> inSC2 = new HashSet<>();
-	protected Set<ELDescriptionNode> out = new HashSet<>();
-	protected Set<ELDescriptionNode> outSC1 = new HashSet<>();
-	protected Set<ELDescriptionNode> outSC2 = new HashSet<>();
+	// simulation information (bit sets over the nodes of the tree)
+	protected ELDescriptionNodeSet in;
+	protected ELDescriptionNodeSet inSC1;
+	protected ELDescriptionNodeSet inSC2;
+	protected ELDescriptionNodeSet out;
+	protected ELDescriptionNodeSet outSC1;
+	protected ELDescriptionNodeSet outSC2;
 	
 	protected boolean isClassNode;
 	protected OWLDataRange dataRange;
@@ -95,6 +98,7 @@ public class ELDescriptionNode {
 		this.label = label;
 		this.edges = new LinkedList<>();
 		this.tree = tree;
+		initSimulation();
 		level = 1;
 		parent = null;
 		// this is the root node of the overall tree
@@ -114,6 +118,7 @@ public class ELDescriptionNode {
 		this.dataRange = dataRange;
 		this.edges = new LinkedList<>();
 		this.tree = tree;
+		initSimulation();
 		level = 1;
 		parent = null;
 		// this is the root node of the overall tree
@@ -137,6 +142,7 @@ public class ELDescriptionNode {
 		parent = parentNode;
 		// the reference tree is the same as for the parent tree
 		tree = parentNode.tree;
+		initSimulation();
 		// level increases by 1
 		level = parentNode.level + 1;
 		// we add an edge from the parent to this node
@@ -219,6 +225,7 @@ public class ELDescriptionNode {
 		parent = parentNode;
 		// the reference tree is the same as for the parent tree
 		tree = parentNode.tree;
+		initSimulation();
 		// level increases by 1
 		level = parentNode.level + 1;
 		// we add an edge from the parent to this node
@@ -288,6 +295,28 @@ public class ELDescriptionNode {
 		isClassNode = false;
 	}
 	
+	private void initSimulation() {
+		in = new ELDescriptionNodeSet(tree);
+		inSC1 = new ELDescriptionNodeSet(tree);
+		inSC2 = new ELDescriptionNodeSet(tree);
+		out = new ELDescriptionNodeSet(tree);
+		outSC1 = new ELDescriptionNodeSet(tree);
+		outSC2 = new ELDescriptionNodeSet(tree);
+	}
+
+	/**
+	 * Copies the simulation information of a node of another tree with the
+	 * same structure, e.g. when cloning a tree.
+	 */
+	void copySimulation(ELDescriptionNode node) {
+		in = new ELDescriptionNodeSet(tree, node.in);
+		inSC1 = new ELDescriptionNodeSet(tree, node.inSC1);
+		inSC2 = new ELDescriptionNodeSet(tree, node.inSC2);
+		out = new ELDescriptionNodeSet(tree, node.out);
+		outSC1 = new ELDescriptionNodeSet(tree, node.outSC1);
+		outSC2 = new ELDescriptionNodeSet(tree, node.outSC2);
+	}
+
 	/**
 	 * @return the isClassNode
 	 */
@@ -472,7 +501,8 @@ public class ELDescriptionNode {
 		// compute the nodes, which need to be updated
 		Set<ELDescriptionNode> update = new HashSet<>();
 		
-		Set<ELDescriptionNode> tmp = tree.getNodesOnLevel(level);
+		// only nodes w with SC1(v,w) not holding or SC1(w,v) holding are affected
+		Set<ELDescriptionNode> tmp = tree.getNodesOnLevel(level).differenceUnion(inSC1, outSC1);
 		for(ELDescriptionNode w : tmp) {
 			if(w != this) {
 				// SC1(v,w) can only change from false to true
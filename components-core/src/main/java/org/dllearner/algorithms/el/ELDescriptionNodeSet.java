@@ -0,0 +1,303 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.el;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of nodes of a single EL description tree, stored as a bit set over
+ * the indexes of the nodes in the tree (see {@link ELDescriptionTree#getNodes()}).
+ * It is used for the simulation relation and the nodes on a level of a tree.
+ * <p>
+ * Bulk operations on sets of the same tree work on whole words, and copies are
+ * copy-on-write, i.e. cloning a tree only copies references to the bits
+ * until one of the copies is modified.
+ */
+public class ELDescriptionNodeSet extends AbstractSet<ELDescriptionNode> {
+
+	private static final long[] EMPTY = new long[0];
+
+	private final ELDescriptionTree tree;
+
+	private long[] words;
+	// whether the words are shared with a copy and thus have to be copied before writing
+	private boolean shared;
+	private int size;
+
+	/**
+	 * Creates an empty set.
+	 * @param tree the tree of the nodes
+	 */
+	public ELDescriptionNodeSet(ELDescriptionTree tree) {
+		this.tree = tree;
+		this.words = EMPTY;
+	}
+
+	/**
+	 * Creates a copy of a set for a tree with the same node indexes, e.g. a
+	 * clone of the tree of the given set. The bits are copied lazily.
+	 * @param tree the tree of the nodes
+	 * @param other the set to copy
+	 */
+	public ELDescriptionNodeSet(ELDescriptionTree tree, ELDescriptionNodeSet other) {
+		this.tree = tree;
+		this.words = other.words;
+		this.size = other.size;
+		this.shared = true;
+		other.shared = true;
+	}
+
+	private void ensureWritable(int nrOfWords) {
+		if(shared || nrOfWords > words.length) {
+			words = Arrays.copyOf(words, Math.max(nrOfWords, words.length));
+			shared = false;
+		}
+	}
+
+	private int index(Object o) {
+		if(o instanceof ELDescriptionNode && ((ELDescriptionNode) o).tree == tree) {
+			return ((ELDescriptionNode) o).id;
+		}
+		return -1;
+	}
+
+	private boolean get(int index) {
+		int w = index >>> 6;
+		return w < words.length && (words[w] & (1L << index)) != 0;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		int index = index(o);
+		return index >= 0 && get(index);
+	}
+
+	@Override
+	public boolean add(ELDescriptionNode node) {
+		if(node.tree != tree) {
+			throw new IllegalArgumentException("Node " + node + " does not belong to the tree of this set.");
+		}
+		int index = node.id;
+		if(get(index)) {
+			return false;
+		}
+		ensureWritable((index >>> 6) + 1);
+		words[index >>> 6] |= 1L << index;
+		size++;
+		return true;
+	}
+
+	@Override
+	public boolean remove(Object o) {
+		int index = index(o);
+		if(index < 0 || !get(index)) {
+			return false;
+		}
+		ensureWritable(words.length);
+		words[index >>> 6] &= ~(1L << index);
+		size--;
+		return true;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public void clear() {
+		words = EMPTY;
+		shared = false;
+		size = 0;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends ELDescriptionNode> c) {
+		if(!isCompatible(c)) {
+			return super.addAll(c);
+		}
+		long[] other = ((ELDescriptionNodeSet) c).words;
+		boolean changed = false;
+		for (int i = 0; i < other.length && !changed; i++) {
+			changed = (other[i] & ~word(i)) != 0;
+		}
+		if(changed) {
+			ensureWritable(other.length);
+			for (int i = 0; i < other.length; i++) {
+				words[i] |= other[i];
+			}
+			updateSize();
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> c) {
+		if(!isCompatible(c)) {
+			return super.removeAll(c);
+		}
+		long[] other = ((ELDescriptionNodeSet) c).words;
+		int n = Math.min(words.length, other.length);
+		boolean changed = false;
+		for (int i = 0; i < n && !changed; i++) {
+			changed = (words[i] & other[i]) != 0;
+		}
+		if(changed) {
+			ensureWritable(words.length);
+			for (int i = 0; i < n; i++) {
+				words[i] &= ~other[i];
+			}
+			updateSize();
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean retainAll(Collection<?> c) {
+		if(!isCompatible(c)) {
+			return super.retainAll(c);
+		}
+		long[] other = ((ELDescriptionNodeSet) c).words;
+		boolean changed = false;
+		for (int i = 0; i < words.length && !changed; i++) {
+			changed = (words[i] & ~(i < other.length ? other[i] : 0)) != 0;
+		}
+		if(changed) {
+			ensureWritable(words.length);
+			for (int i = 0; i < words.length; i++) {
+				words[i] &= i < other.length ? other[i] : 0;
+			}
+			updateSize();
+		}
+		return changed;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> c) {
+		if(!isCompatible(c)) {
+			return super.containsAll(c);
+		}
+		long[] other = ((ELDescriptionNodeSet) c).words;
+		for (int i = 0; i < other.length; i++) {
+			if((other[i] & ~word(i)) != 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Computes the nodes contained in this set but not in the first set, or
+	 * contained in the second set, i.e. (this \ exclude) &#8746; include, in a
+	 * single pass over the words.
+	 * @param exclude the nodes to remove
+	 * @param include the nodes to add
+	 * @return a new set
+	 */
+	public ELDescriptionNodeSet differenceUnion(ELDescriptionNodeSet exclude, ELDescriptionNodeSet include) {
+		checkCompatible(exclude);
+		checkCompatible(include);
+		int n = Math.max(words.length, include.words.length);
+		ELDescriptionNodeSet result = new ELDescriptionNodeSet(tree);
+		result.words = new long[n];
+		for (int i = 0; i < n; i++) {
+			result.words[i] = (word(i) & ~exclude.word(i)) | include.word(i);
+		}
+		result.updateSize();
+		return result;
+	}
+
+	private long word(int i) {
+		return i < words.length ? words[i] : 0;
+	}
+
+	private boolean isCompatible(Collection<?> c) {
+		return c instanceof ELDescriptionNodeSet && ((ELDescriptionNodeSet) c).tree == tree;
+	}
+
+	private void checkCompatible(ELDescriptionNodeSet other) {
+		if(other.tree != tree) {
+			throw new IllegalArgumentException("Sets of nodes of different trees.");
+		}
+	}
+
+	private void updateSize() {
+		int n = 0;
+		for (long word : words) {
+			n += Long.bitCount(word);
+		}
+		size = n;
+	}
+
+	/**
+	 * Iterates the nodes in the order of their indexes.
+	 */
+	@Override
+	public Iterator<ELDescriptionNode> iterator() {
+		return new Iterator<ELDescriptionNode>() {
+			int next = nextSetBit(0);
+			int last = -1;
+
+			@Override
+			public boolean hasNext() {
+				return next >= 0;
+			}
+
+			@Override
+			public ELDescriptionNode next() {
+				if(next < 0) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = nextSetBit(next + 1);
+				return tree.getNodeByIndex(last);
+			}
+
+			@Override
+			public void remove() {
+				if(last < 0) {
+					throw new IllegalStateException();
+				}
+				ELDescriptionNodeSet.this.remove(tree.getNodeByIndex(last));
+				last = -1;
+			}
+		};
+	}
+
+	private int nextSetBit(int from) {
+		int w = from >>> 6;
+		if(w >= words.length) {
+			return -1;
+		}
+		long word = words[w] & (-1L << from);
+		while(true) {
+			if(word != 0) {
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if(++w == words.length) {
+				return -1;
+			}
+			word = words[w];
+		}
+	}
+}
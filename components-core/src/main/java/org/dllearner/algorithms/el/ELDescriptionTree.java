@@ -18,9 +18,11 @@
  */
 package org.dllearner.algorithms.el;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -68,11 +70,12 @@ public class ELDescriptionTree implements Cloneable {
 
 	protected ELDescriptionNode rootNode;
 
-	// the set of all nodes in the tree
-	private Collection<ELDescriptionNode> nodes = new LinkedList<>();
+	// the set of all nodes in the tree, the position of a node is its index
+	// in the bit sets used for storing the simulation
+	private List<ELDescriptionNode> nodes = new ArrayList<>();
 	
 	// nodes on a given level of the tree
-	private Map<Integer, Set<ELDescriptionNode>> levelNodeMapping = new HashMap<>();
+	private Map<Integer, ELDescriptionNodeSet> levelNodeMapping = new HashMap<>();
 
 	// the background knowledge (we need to have it explicitly here, 
 	// since we store simulation information in the tree and simulation
@@ -140,7 +143,7 @@ public class ELDescriptionTree implements Cloneable {
 	 *            The level (distance from root node).
 	 * @return The set of all nodes on the specified level within this tree.
 	 */
-	public Set<ELDescriptionNode> getNodesOnLevel(int level) {
+	public ELDescriptionNodeSet getNodesOnLevel(int level) {
 		return levelNodeMapping.get(level);
 	}
 
@@ -196,11 +199,12 @@ public class ELDescriptionTree implements Cloneable {
 	 *            Level of the new node.
 	 */
 	protected void addNodeToLevel(ELDescriptionNode node, int level) {
+		node.id = nodes.size();
 		nodes.add(node);
 		if (level <= maxLevel) {
 			levelNodeMapping.get(level).add(node);
 		} else if (level == maxLevel + 1) {
-			Set<ELDescriptionNode> set = new HashSet<>();
+			ELDescriptionNodeSet set = new ELDescriptionNodeSet(this);
 			set.add(node);
 			levelNodeMapping.put(level, set);
 			maxLevel++;
@@ -242,17 +246,32 @@ public class ELDescriptionTree implements Cloneable {
 		return currentNode;
 	}
 
+	/**
+	 * Gets the node with the given index, i.e. the position of the node in
+	 * {@link #getNodes()}.
+	 * @param index the index of the node
+	 * @return the node
+	 */
+	public ELDescriptionNode getNodeByIndex(int index) {
+		return nodes.get(index);
+	}
+
 	protected void updateSimulation(Set<ELDescriptionNode> nUpdate) {
 		// create a stack and initialize it with the nodes to be updated
-		LinkedList<ELDescriptionNode> list = new LinkedList<>();
-		list.addAll(nUpdate);
+		Deque<ELDescriptionNode> list = new ArrayDeque<>();
+		ELDescriptionNodeSet queued = new ELDescriptionNodeSet(this);
+		for(ELDescriptionNode node : nUpdate) {
+			enqueue(node, list, queued);
+		}
 		
-		while(list.size() != 0) {
+		while(!list.isEmpty()) {
 			// take element from bottom of stack (to ensure that all nodes on the 
 			// same level are tested before any node of a lower level is tested)
 			ELDescriptionNode v = list.pollFirst();
-			// loop through all nodes on same level
-			Set<ELDescriptionNode> sameLevel = levelNodeMapping.get(v.getLevel());
+			queued.remove(v);
+			// loop through all nodes on same level for which SC2(v,w) does not
+			// hold yet or SC2(w,v) holds, i.e. the only ones which can change
+			ELDescriptionNodeSet sameLevel = levelNodeMapping.get(v.getLevel()).differenceUnion(v.inSC2, v.outSC2);
 			for(ELDescriptionNode w : sameLevel) {
 				if(v != w) {
 					
@@ -267,12 +286,8 @@ public class ELDescriptionTree implements Cloneable {
 						if(v.inSC1.contains(w)) {
 							extendSimulationSC12(v,w);
 						}
-						if(!list.contains(v.getParent())) {
-							list.add(v.getParent());
-						}
-						if(!list.contains(w.getParent())) {
-							list.add(w.getParent());
-						}					
+						enqueue(v.getParent(), list, queued);
+						enqueue(w.getParent(), list, queued);
 					}
 					
 					// similar case, but now possibly shrinking the simulation
@@ -283,12 +298,8 @@ public class ELDescriptionTree implements Cloneable {
 						if(w.inSC1.contains(v)) {
 							shrinkSimulationSC12(w,v);
 						}
-						if(!list.contains(v.getParent())) {
-							list.add(v.getParent());
-						}
-						if(!list.contains(w.getParent())) {
-							list.add(w.getParent());
-						}							
+						enqueue(v.getParent(), list, queued);
+						enqueue(w.getParent(), list, queued);
 					}
 					/*
 					if(!v.out.contains(w) ) {
@@ -317,6 +328,12 @@ public class ELDescriptionTree implements Cloneable {
 		}
 	}
 	
+	private void enqueue(ELDescriptionNode node, Deque<ELDescriptionNode> list, ELDescriptionNodeSet queued) {
+		if(node != null && queued.add(node)) {
+			list.add(node);
+		}
+	}
+
 	// SC satisfied if both SC1 and SC2 satisfied
 	public boolean checkSC(ELDescriptionNode node1, ELDescriptionNode node2) {
 		return checkSC1(node1, node2) && checkSC2(node1, node2);
@@ -472,65 +489,43 @@ public class ELDescriptionTree implements Cloneable {
 		// clone "global" tree
 		ELDescriptionTree treeClone = new ELDescriptionTree(rs);
 		
-		// a mapping between "old" and "new" nodes
-		// (hash map should be fast here, but one could also
-		// experiment with TreeMap)
-		Map<ELDescriptionNode, ELDescriptionNode> cloneMap =
-				new HashMap<>();
-		
-		// create a new (empty) node for each node in the tree
-		// (we loop through the level mapping, because it is cheaper
-		// than creating a set of all nodes)
-		for(int i=1; i<=maxLevel; i++) {
-			Set<ELDescriptionNode> tmp = levelNodeMapping.get(i);
-			for(ELDescriptionNode node : tmp) {
-				ELDescriptionNode nodeNew = new ELDescriptionNode();
-				cloneMap.put(node, nodeNew);
-			}
+		// create a new (empty) node for each node in the tree; the clone of a
+		// node gets the same index, i.e. the index serves as mapping between
+		// "old" and "new" nodes and the simulation bit sets remain valid
+		int nrOfNodes = nodes.size();
+		List<ELDescriptionNode> newNodes = new ArrayList<>(nrOfNodes);
+		for(int i=0; i<nrOfNodes; i++) {
+			ELDescriptionNode nodeNew = new ELDescriptionNode();
+			nodeNew.tree = treeClone;
+			nodeNew.id = i;
+			newNodes.add(nodeNew);
 		}
+		treeClone.nodes = newNodes;
 		
 		ELDescriptionNode newRoot = null;
 		
 		// loop through all nodes and perform copy operations
-		for(Entry<ELDescriptionNode, ELDescriptionNode> entry : cloneMap.entrySet()) {
-			ELDescriptionNode oldNode = entry.getKey();
-			ELDescriptionNode newNode = entry.getValue();
+		for(int i=0; i<nrOfNodes; i++) {
+			ELDescriptionNode oldNode = nodes.get(i);
+			ELDescriptionNode newNode = newNodes.get(i);
 			
-			newNode.tree = treeClone;
 			newNode.level = oldNode.level;
 			newNode.label = (TreeSet<OWLClass>) oldNode.label.clone();
 			newNode.dataRange = oldNode.dataRange;
 			newNode.isClassNode = oldNode.isClassNode;
 			if(oldNode.parent != null) {
-				newNode.parent = cloneMap.get(oldNode.parent);
+				newNode.parent = newNodes.get(oldNode.parent.id);
 			} else {
 				newRoot = newNode;
 			}
 			
-			// simulation information
-			for(ELDescriptionNode node : oldNode.in) {
-				newNode.in.add(cloneMap.get(node));
-			}
-			for(ELDescriptionNode node : oldNode.inSC1) {
-				newNode.inSC1.add(cloneMap.get(node));
-			}
-			for(ELDescriptionNode node : oldNode.inSC2) {
-				newNode.inSC2.add(cloneMap.get(node));
-			}
-			for(ELDescriptionNode node : oldNode.out) {
-				newNode.out.add(cloneMap.get(node));
-			}
-			for(ELDescriptionNode node : oldNode.outSC1) {
-				newNode.outSC1.add(cloneMap.get(node));
-			}
-			for(ELDescriptionNode node : oldNode.outSC2) {
-				newNode.outSC2.add(cloneMap.get(node));
-			}			
+			// simulation information (copy-on-write)
+			newNode.copySimulation(oldNode);
 			
 			// edges
 			for(ELDescriptionEdge edge : oldNode.edges) {
 				// create a new edge with same label and replace the node the edge points to
-				newNode.edges.add(new ELDescriptionEdge(edge.getLabel(), cloneMap.get(edge.getNode())));
+				newNode.edges.add(new ELDescriptionEdge(edge.getLabel(), newNodes.get(edge.getNode().id)));
 			}
 			
 		}
@@ -540,20 +535,9 @@ public class ELDescriptionTree implements Cloneable {
 		treeClone.maxLevel = maxLevel;
 		treeClone.size = size;
 		
-		// nodes
-		treeClone.nodes = new LinkedList<>();
-		for(ELDescriptionNode oldNode : nodes) {
-			treeClone.nodes.add(cloneMap.get(oldNode));
-		}		
-		
 		// level node mapping
 		for(int i=1; i<=maxLevel; i++) {
-			Set<ELDescriptionNode> oldNodes = levelNodeMapping.get(i);
-			Set<ELDescriptionNode> newNodes = new HashSet<>();
-			for(ELDescriptionNode oldNode : oldNodes) {
-				newNodes.add(cloneMap.get(oldNode));
-			}
-			treeClone.levelNodeMapping.put(i, newNodes);
+			treeClone.levelNodeMapping.put(i, new ELDescriptionNodeSet(treeClone, levelNodeMapping.get(i)));
 		}
 		
 //		mon.stop();
@@ -40,6 +40,7 @@ import org.dllearner.utilities.owl.ConceptTransformation;
 import org.dllearner.utilities.owl.EvaluatedDescriptionPosNegComparator;
 import org.dllearner.utilities.owl.OWLClassExpressionLengthMetric;
 import org.dllearner.utilities.owl.OWLClassExpressionUtils;
+import org.dllearner.utilities.owl.RedundancyIndex;
 import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -169,8 +170,8 @@ public class OCEL extends AbstractCELA {
 	// utility variables
 	private DecimalFormat df = new DecimalFormat();
 
-	// all concepts which have been evaluated as being proper refinements
-	private SortedSet<OWLClassExpression> properRefinements = new TreeSet<>();
+	// canonical forms of all concepts which have been evaluated as being proper refinements
+	private RedundancyIndex properRefinements = new RedundancyIndex();
 
 	// blacklists
 	private SortedSet<OWLClassExpression> tooWeakList = new TreeSet<>();
@@ -434,6 +435,8 @@ public class OCEL extends AbstractCELA {
 		int loop = 0;
 
 		algorithmStartTime = System.nanoTime();
+		nanoStartTime = algorithmStartTime;
+		startProgressReporting();
 		long lastPrintTime = 0;
 		long lastTreeTraversalTime = System.nanoTime();
 		long lastReductionTime = System.nanoTime();
@@ -477,7 +480,11 @@ public class OCEL extends AbstractCELA {
 				printBestSolutions(5);
 				printStatistics(false);
 				bestNodeStable = searchTreeStable.best();
+				if (hasSolutionListeners()) {
+					fireNewBestSolution(getCurrentlyBestEvaluatedDescription(), getNrOfConceptTests(), searchTree.size());
+				}
 			}
+			fireProgress(getNrOfConceptTests(), searchTree.size(), bestNodeStable.getAccuracy());
 
 			// chose best node according to heuristics
 			bestNode = searchTree.best();
@@ -535,7 +542,8 @@ public class OCEL extends AbstractCELA {
 
 		printStatistics(true);
 
-		int conceptTests = conceptTestsReasoner + conceptTestsTooWeakList + conceptTestsOverlyGeneralList;
+		int conceptTests = getNrOfConceptTests();
+		fireLearningFinished(conceptTests, searchTree.size(), searchTreeStable.best().getAccuracy());
 		if (stop) {
 			logger.info("Algorithm stopped (" + conceptTests + " descriptions tested).\n");
 		} else {
@@ -1101,6 +1109,10 @@ public class OCEL extends AbstractCELA {
 
 	}
 
+	private int getNrOfConceptTests() {
+		return conceptTestsReasoner + conceptTestsTooWeakList + conceptTestsOverlyGeneralList;
+	}
+
 	public ScorePosNeg getSolutionScore() {
 		return ((PosNegLP) learningProblem).computeScore(getBestSolution());
 	}
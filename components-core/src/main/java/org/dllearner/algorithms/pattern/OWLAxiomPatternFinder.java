@@ -42,6 +42,8 @@ import java.io.StringWriter;
 import java.net.URI;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -75,17 +77,67 @@ public class OWLAxiomPatternFinder {
 	private OWLDataFactory dataFactory;
 	
 	private Connection conn;
-	private PreparedStatement selectOntologyIdPs;
-	private PreparedStatement insertOntologyPs;
-	private PreparedStatement insertOntologyErrorPs;
 	private PreparedStatement selectPatternIdPs;
 	private PreparedStatement insertPatternIdPs;
+	private PreparedStatement insertOntologyPs;
+	private PreparedStatement insertOntologyErrorPs;
 	private PreparedStatement insertOntologyPatternPs;
 	
-	private OWLObjectRenderer axiomRenderer = new ManchesterOWLSyntaxOWLObjectRendererImplExt();
-	
 	private boolean randomOrder = false;
 
+	// the URLs of the ontologies already contained in the database
+	private Set<String> processedOntologies = Collections.synchronizedSet(new HashSet<>());
+
+	private int numberOfThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+	// the estimated heap space needed by a single worker, i.e. for a loaded ontology
+	private long memoryPerWorker = 1024L * 1024 * 1024;
+	private int batchSize = 1000;
+
+	/**
+	 * The patterns of a single ontology, i.e. the result of a worker which is
+	 * passed to the database writer.
+	 */
+	private static class OntologyPatterns {
+		private final URI physicalURI;
+		private final String ontologyIRI;
+		// #TBox, #RBox, #ABox axioms, #classes, #object properties, #data properties, #individuals
+		private final int[] metrics;
+		// the occurrences of each pattern, keyed by its functional syntax rendering
+		private final Map<String, PatternOccurrences> patterns;
+		private final Exception error;
+
+		private OntologyPatterns(URI physicalURI, String ontologyIRI, int[] metrics, Map<String, PatternOccurrences> patterns) {
+			this.physicalURI = physicalURI;
+			this.ontologyIRI = ontologyIRI;
+			this.metrics = metrics;
+			this.patterns = patterns;
+			this.error = null;
+		}
+
+		private OntologyPatterns(URI physicalURI, Exception error) {
+			this.physicalURI = physicalURI;
+			this.ontologyIRI = null;
+			this.metrics = null;
+			this.patterns = null;
+			this.error = error;
+		}
+	}
+
+	private static class PatternOccurrences {
+		private final String prettyString;
+		private final String axiomType;
+		private final int occurrences;
+
+		private PatternOccurrences(String prettyString, String axiomType, int occurrences) {
+			this.prettyString = prettyString;
+			this.axiomType = axiomType;
+			this.occurrences = occurrences;
+		}
+	}
+
+	// signals the writer that all workers are done
+	private static final OntologyPatterns END = new OntologyPatterns(null, (Exception) null);
+
 	public OWLAxiomPatternFinder(OWLOntologyDataset dataset) {
 		
 	}
@@ -110,9 +162,21 @@ public class OWLAxiomPatternFinder {
 
 	/**
 	 * Start the pattern detection.
+	 * <p>
+	 * Each worker loads an ontology with its own manager, counts the patterns of
+	 * its logical axioms and releases the ontology before the patterns are handed
+	 * over to a single database writer, thus, neither the workers wait for
+	 * each other nor does the heap hold more ontologies than there are workers.
+	 * The number of workers is bounded by the number of threads and by the
+	 * maximum heap size divided by the memory estimated per worker.
 	 */
 	public void start() {
-		final ExecutorService tp = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() - 1);
+		if (conn == null) {
+			throw new IllegalStateException("No connection to the database, thus, the patterns cannot be written.");
+		}
+		int nrOfWorkers = getNumberOfWorkers();
+		LOGGER.info("Using " + nrOfWorkers + " workers.");
+		final ExecutorService tp = Executors.newFixedThreadPool(nrOfWorkers);
 
 		Collection<OntologyRepositoryEntry> entries = repository.getEntries();
 		if(randomOrder){
@@ -121,53 +185,54 @@ public class OWLAxiomPatternFinder {
 			entries = entryList;
 		}
 
-		final Multiset<OWLAxiom> allAxiomPatterns = HashMultiset.create();
+		loadProcessedOntologies();
+
+		// the workers block if the writer falls behind
+		final BlockingQueue<OntologyPatterns> results = new ArrayBlockingQueue<>(2 * nrOfWorkers);
+		Thread writer = new Thread(() -> writePatterns(results), "pattern-writer");
+		writer.setUncaughtExceptionHandler((t, e) -> LOGGER.error("Writing the patterns failed, remaining ontologies are skipped.", e));
+		writer.start();
 
 		AtomicInteger i = new AtomicInteger(1);
 
-		manager = OWLManager.createConcurrentOWLOntologyManager();
+		// each worker thread uses its own manager, which is emptied after each ontology
+		ThreadLocal<OWLOntologyManager> managers = ThreadLocal.withInitial(OWLManager::createOWLOntologyManager);
 
 		for (OntologyRepositoryEntry entry : entries) {
-			tp.execute(new Runnable() {
-				@Override
-				public void run() {
-					OWLAxiomRenamer renamer = new OWLAxiomRenamer(dataFactory);
-
-					System.out.print(i.incrementAndGet() + ": ");
-					URI uri = entry.getPhysicalURI();
-//					if(uri.toString().startsWith("http://rest.bioontology.org/bioportal/ontologies/download/42764")){
-					if (!ontologyProcessed(uri)) {//if(entry.getOntologyShortName().equals("00698"))continue;
-						LOGGER.info("Loading \"" + entry.getOntologyShortName() + "\" from " + uri);
-						try {
-
-							OWLOntology ontology = manager.loadOntology(IRI.create(uri));
-							Multiset<OWLAxiom> axiomPatterns = HashMultiset.create();
-							Set<OWLAxiom> logicalAxioms = new HashSet<>();
-							for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
-								if (type.isLogical()) {
-									logicalAxioms.addAll(ontology.getAxioms(type, Imports.INCLUDED));
-								}
-							}
-							LOGGER.info(" (" + logicalAxioms.size() + " axioms)");
-							for (OWLAxiom axiom : logicalAxioms) {
-								OWLAxiom renamedAxiom = renamer.rename(axiom);
-								axiomPatterns.add(renamedAxiom);
-							}
-//							allAxiomPatterns.addAll(axiomPatterns);
-							addOntologyPatterns(uri, ontology, axiomPatterns);
-//							for (OWLAxiom owlAxiom : Multisets.copyHighestCountFirst(allAxiomPatterns).elementSet()) {
-//								System.out.println(owlAxiom + ": " + allAxiomPatterns.count(owlAxiom));
-//							}
-							manager.removeOntology(ontology);
-						} catch (OWLOntologyAlreadyExistsException e) {
-							e.printStackTrace();
-						} catch (Exception e) {
-							e.printStackTrace();
-							addOntologyError(uri, e);
+			tp.execute(() -> {
+				if (!writer.isAlive()) {
+					// the patterns could not be written anyway
+					return;
+				}
+				System.out.print(i.incrementAndGet() + ": ");
+				URI uri = entry.getPhysicalURI();
+				if (!ontologyProcessed(uri)) {
+					LOGGER.info("Loading \"" + entry.getOntologyShortName() + "\" from " + uri);
+					OntologyPatterns patterns;
+					OWLOntologyManager man = managers.get();
+					try {
+						patterns = computePatterns(uri, man);
+					} catch (OWLOntologyAlreadyExistsException e) {
+						e.printStackTrace();
+						return;
+					} catch (Exception e) {
+						e.printStackTrace();
+						patterns = new OntologyPatterns(uri, e);
+					} finally {
+						// also remove the imports
+						for (OWLOntology ont : new ArrayList<>(man.getOntologies())) {
+							man.removeOntology(ont);
 						}
-					} else {
-						LOGGER.info("Already processed.");
 					}
+					try {
+						if (!handOver(results, patterns, writer)) {
+							LOGGER.error("Patterns of " + uri + " not written, the writer has stopped.");
+						}
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				} else {
+					LOGGER.info("Already processed.");
 				}
 			});
 		}
@@ -181,44 +246,184 @@ public class OWLAxiomPatternFinder {
 				if (!tp.awaitTermination(60, TimeUnit.SECONDS))
 					System.err.println("Pool did not terminate");
 			}
+			handOver(results, END, writer);
+			writer.join();
 		} catch (InterruptedException ie) {
 			// (Re-)Cancel if current thread also interrupted
 			tp.shutdownNow();
+			writer.interrupt();
 			// Preserve interrupt status
 			Thread.currentThread().interrupt();
 		}
 	}
+
+	/**
+	 * Passes the patterns to the writer, waiting while the queue is full. If the
+	 * writer has stopped, e.g. due to an {@link Error}, nobody takes from the
+	 * queue anymore, thus, the patterns are dropped instead of blocking forever.
+	 *
+	 * @return whether the patterns have been queued
+	 */
+	private boolean handOver(BlockingQueue<OntologyPatterns> results, OntologyPatterns patterns, Thread writer)
+			throws InterruptedException {
+		while (!results.offer(patterns, 1, TimeUnit.SECONDS)) {
+			if (!writer.isAlive()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of workers, bounded by the number of threads and the available memory
+	 */
+	private int getNumberOfWorkers() {
+		long maxMemory = Runtime.getRuntime().maxMemory();
+		int byMemory = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxMemory / memoryPerWorker));
+		return Math.max(1, Math.min(numberOfThreads, byMemory));
+	}
+
+	/**
+	 * Loads the ontology and counts the patterns of its logical axioms.
+	 */
+	private OntologyPatterns computePatterns(URI uri, OWLOntologyManager man) throws OWLOntologyCreationException {
+		OWLOntology ontology = man.loadOntology(IRI.create(uri));
+
+		String ontologyIRI = "Anonymous";
+		if(!ontology.getOntologyID().isAnonymous()){
+			ontologyIRI = ontology.getOntologyID().getOntologyIRI().toString();
+		}
+		int[] metrics = new int[]{
+				ontology.getTBoxAxioms(Imports.INCLUDED).size(),
+				ontology.getRBoxAxioms(Imports.INCLUDED).size(),
+				ontology.getABoxAxioms(Imports.INCLUDED).size(),
+				ontology.getClassesInSignature(Imports.INCLUDED).size(),
+				ontology.getObjectPropertiesInSignature(Imports.INCLUDED).size(),
+				ontology.getDataPropertiesInSignature(Imports.INCLUDED).size(),
+				ontology.getIndividualsInSignature(Imports.INCLUDED).size()};
+
+		// rename the axioms type by type instead of collecting all of them first
+		OWLAxiomRenamer renamer = new OWLAxiomRenamer(dataFactory);
+		Multiset<OWLAxiom> axiomPatterns = HashMultiset.create();
+		int nrOfLogicalAxioms = 0;
+		for (AxiomType<?> type : AxiomType.AXIOM_TYPES) {
+			if (type.isLogical()) {
+				for (OWLAxiom axiom : ontology.getAxioms(type, Imports.INCLUDED)) {
+					axiomPatterns.add(renamer.rename(axiom));
+					nrOfLogicalAxioms++;
+				}
+			}
+		}
+		LOGGER.info(" (" + nrOfLogicalAxioms + " axioms)");
+
+		// release the ontology and its imports before rendering the patterns
+		for (OWLOntology ont : new ArrayList<>(man.getOntologies())) {
+			man.removeOntology(ont);
+		}
+
+		// render the patterns here, so that the writer only has to talk to the database
+		OWLObjectRenderer axiomRenderer = new ManchesterOWLSyntaxOWLObjectRendererImplExt();
+		Map<String, PatternOccurrences> patterns = new HashMap<>();
+		for (Multiset.Entry<OWLAxiom> entry : axiomPatterns.entrySet()) {
+			OWLAxiom pattern = entry.getElement();
+			patterns.merge(render(pattern, man),
+					new PatternOccurrences(axiomRenderer.render(pattern), getAxiomType(pattern), entry.getCount()),
+					(p1, p2) -> new PatternOccurrences(p1.prettyString, p1.axiomType, p1.occurrences + p2.occurrences));
+		}
+
+		return new OntologyPatterns(uri, ontologyIRI, metrics, patterns);
+	}
+
+	/**
+	 * Writes the patterns of the ontologies to the database until all workers
+	 * are done. Each ontology is written in a single transaction, the
+	 * occurrences of the patterns as JDBC batches.
+	 */
+	private void writePatterns(BlockingQueue<OntologyPatterns> results) {
+		// the IDs of the patterns already contained in the database
+		Map<String, Integer> patternIds = new HashMap<>();
+		boolean autoCommit = true;
+		try {
+			autoCommit = conn.getAutoCommit();
+			conn.setAutoCommit(false);
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		try {
+			while (true) {
+				OntologyPatterns patterns = results.take();
+				if (patterns == END) {
+					break;
+				}
+				try {
+					if (patterns.error != null) {
+						addOntologyError(patterns.physicalURI, patterns.error);
+					} else {
+						addOntologyPatterns(patterns, patternIds);
+					}
+					conn.commit();
+					// only committed ontologies are skipped in later runs
+					processedOntologies.add(patterns.physicalURI.toString());
+				} catch (SQLException | RuntimeException e) {
+					// keep on writing, otherwise the workers would wait forever
+					LOGGER.error("Writing patterns of " + patterns.physicalURI + " failed.", e);
+					try {
+						// occurrences added to the batch but not executed would be written with the next ontology
+						insertOntologyPatternPs.clearBatch();
+						conn.rollback();
+					} catch (SQLException e1) {
+						e1.printStackTrace();
+					}
+					// the IDs of patterns added in the rolled back transaction are invalid
+					patternIds.clear();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			try {
+				conn.setAutoCommit(autoCommit);
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
+	}
 	
 	private void prepare(){
+		if (conn == null) {
+			LOGGER.error("No connection to the database.");
+			return;
+		}
 		createTables();
 		try {
-			selectOntologyIdPs = conn.prepareStatement("SELECT id FROM Ontology WHERE url=?");
 			insertOntologyPs = conn.prepareStatement("INSERT INTO Ontology (url, iri, repository, logical_axioms, tbox_axioms, rbox_axioms" +
-					", abox_axioms, classes, object_properties, data_properties, individuals) VALUES(?,?,?,?,?,?,?,?,?,?,?)");
+					", abox_axioms, classes, object_properties, data_properties, individuals) VALUES(?,?,?,?,?,?,?,?,?,?,?)",
+					Statement.RETURN_GENERATED_KEYS);
 			insertOntologyErrorPs = conn.prepareStatement("INSERT INTO Ontology (url, iri, repository) VALUES(?,?,?)");
 			selectPatternIdPs = conn.prepareStatement("SELECT id FROM Pattern WHERE pattern=?");
-			insertPatternIdPs = conn.prepareStatement("INSERT INTO Pattern (pattern,pattern_pretty,axiom_type) VALUES(?,?,?)");
+			insertPatternIdPs = conn.prepareStatement("INSERT INTO Pattern (pattern,pattern_pretty,axiom_type) VALUES(?,?,?)",
+					Statement.RETURN_GENERATED_KEYS);
 			insertOntologyPatternPs = conn.prepareStatement("INSERT INTO Ontology_Pattern (ontology_id, pattern_id, occurrences) VALUES(?,?,?)");
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
 	}
 	
-	private String render(OWLAxiom axiom){
+	private String render(OWLAxiom axiom, OWLOntologyManager man){
 		try {
-			OWLOntologyManager man = OWLManager.createOWLOntologyManager();
 			OWLOntology ontology = man.createOntology();
 			man.addAxiom(ontology, axiom);
 			StringWriter sw = new StringWriter();
 			FunctionalSyntaxObjectRenderer r = new FunctionalSyntaxObjectRenderer(ontology, sw);
 			axiom.accept(r);
+			man.removeOntology(ontology);
 			return sw.toString();
 		} catch (OWLOntologyCreationException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
-	
+
 	private void initDBConnection() {
 		try {
 			InputStream is = this.getClass().getClassLoader().getResourceAsStream("org/dllearner/algorithms/pattern/db_settings.ini");
@@ -276,40 +481,37 @@ public class OWLAxiomPatternFinder {
 		}
 	}
 	
-	
-	private int addPattern(OWLAxiom axiom){
-		String axiomString = render(axiom);
+	private int getPatternId(String pattern, PatternOccurrences occurrences, Map<String, Integer> patternIds) throws SQLException {
+		Integer id = patternIds.get(pattern);
+		if (id != null) {
+			return id;
+		}
 		//check for existing entry
-		try {
-			selectPatternIdPs.setString(1, axiomString);
-			ResultSet rs = selectPatternIdPs.executeQuery();
+		selectPatternIdPs.setString(1, pattern);
+		try (ResultSet rs = selectPatternIdPs.executeQuery()) {
 			if(rs.next()){
-				return rs.getInt(1);
+				id = rs.getInt(1);
 			}
-		} catch (SQLException e) {
-			e.printStackTrace();
 		}
 		//add pattern entry
-		try {
-			insertPatternIdPs.setString(1, axiomString);
-			insertPatternIdPs.setString(2, axiomRenderer.render(axiom));
-			insertPatternIdPs.setString(3, getAxiomType(axiom));
-			insertPatternIdPs.execute();
-		} catch (SQLException e) {
-			System.err.println("Pattern too long for database?" + axiomString.length());
-			e.printStackTrace();
+		if (id == null) {
+			insertPatternIdPs.setString(1, pattern);
+			insertPatternIdPs.setString(2, occurrences.prettyString);
+			insertPatternIdPs.setString(3, occurrences.axiomType);
+			insertPatternIdPs.executeUpdate();
+			id = getGeneratedKey(insertPatternIdPs);
 		}
-		//get the auto generated ID
-		try {
-			selectPatternIdPs.setString(1, axiomString);
-			ResultSet rs = selectPatternIdPs.executeQuery();
-			if(rs.next()){
-				return rs.getInt(1);
+		patternIds.put(pattern, id);
+		return id;
+	}
+
+	private int getGeneratedKey(PreparedStatement ps) throws SQLException {
+		try (ResultSet rs = ps.getGeneratedKeys()) {
+			if (!rs.next()) {
+				throw new SQLException("No ID generated.");
 			}
-		} catch (SQLException e) {
-			e.printStackTrace();
+			return rs.getInt(1);
 		}
-		return -1;
 	}
 	
 	private String getAxiomType(OWLAxiom axiom){
@@ -327,103 +529,97 @@ public class OWLAxiomPatternFinder {
 		}
 		return s;
 	}
-	
-	private synchronized boolean ontologyProcessed(URI uri){
-		//check if ontology was already processed
-		try {
-			selectOntologyIdPs.setString(1, uri.toString());
-			ResultSet rs = selectOntologyIdPs.executeQuery();
-			return rs.next();
+
+	private void loadProcessedOntologies() {
+		try (Statement statement = conn.createStatement();
+			 ResultSet rs = statement.executeQuery("SELECT url FROM Ontology")) {
+			while (rs.next()) {
+				processedOntologies.add(rs.getString(1));
+			}
 		} catch (SQLException e) {
 			e.printStackTrace();
 		}
-		return false;
 	}
 	
-	private synchronized void addOntologyError(URI physicalURI, Exception ex){
-		String url = physicalURI.toString();
-		//add ontology loading/parsing/... error entry
-		try {
-			insertOntologyErrorPs.setString(1, url);
-			String errorMessage = "ERROR:" + ex.getClass().getSimpleName();
-			if(!(ex instanceof UnparsableOntologyException)){
-				errorMessage += (ex.getMessage() != null ? ("->" + ex.getMessage()) : "");
-			}
-			if(errorMessage.length() > 1900){
-				errorMessage = errorMessage.substring(0, 1900);
-			}
-			insertOntologyErrorPs.setString(2, errorMessage);
-			insertOntologyErrorPs.setString(3, repository.getName());
-			insertOntologyErrorPs.execute();
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
+	private boolean ontologyProcessed(URI uri){
+		//check if ontology was already processed
+		return processedOntologies.contains(uri.toString());
 	}
 	
-	private synchronized int addOntology(URI physicalURI, OWLOntology ontology){
+	private void addOntologyError(URI physicalURI, Exception ex) throws SQLException {
 		String url = physicalURI.toString();
-		String ontologyIRI = "Anonymous";
-		if(!ontology.getOntologyID().isAnonymous()){
-			ontologyIRI = ontology.getOntologyID().getOntologyIRI().toString();
+		//add ontology loading/parsing/... error entry
+		insertOntologyErrorPs.setString(1, url);
+		String errorMessage = "ERROR:" + ex.getClass().getSimpleName();
+		if(!(ex instanceof UnparsableOntologyException)){
+			errorMessage += (ex.getMessage() != null ? ("->" + ex.getMessage()) : "");
 		}
-		//check for existing entry
-		try {
-			selectOntologyIdPs.setString(1, url);
-			ResultSet rs = selectOntologyIdPs.executeQuery();
-			if(rs.next()){
-				return rs.getInt(1);
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
+		if(errorMessage.length() > 1900){
+			errorMessage = errorMessage.substring(0, 1900);
 		}
+		insertOntologyErrorPs.setString(2, errorMessage);
+		insertOntologyErrorPs.setString(3, repository.getName());
+		insertOntologyErrorPs.execute();
+	}
+	
+	private int addOntology(OntologyPatterns patterns) throws SQLException {
+		int[] metrics = patterns.metrics;
 		//add ontology entry
-		try {
-			insertOntologyPs.setString(1, url);
-			insertOntologyPs.setString(2, ontologyIRI);
-			insertOntologyPs.setString(3, repository.getName());
-			Set<OWLAxiom> tbox = ontology.getTBoxAxioms(Imports.INCLUDED);
-			Set<OWLAxiom> rbox = ontology.getRBoxAxioms(Imports.INCLUDED);
-			Set<OWLAxiom> abox = ontology.getABoxAxioms(Imports.INCLUDED);
-			
-			insertOntologyPs.setInt(4, tbox.size() + rbox.size() + abox.size());
-			insertOntologyPs.setInt(5, tbox.size());
-			insertOntologyPs.setInt(6, rbox.size());
-			insertOntologyPs.setInt(7, abox.size());
-			insertOntologyPs.setInt(8, ontology.getClassesInSignature(Imports.INCLUDED).size());
-			insertOntologyPs.setInt(9, ontology.getObjectPropertiesInSignature(Imports.INCLUDED).size());
-			insertOntologyPs.setInt(10, ontology.getDataPropertiesInSignature(Imports.INCLUDED).size());
-			insertOntologyPs.setInt(11, ontology.getIndividualsInSignature(Imports.INCLUDED).size());
-			insertOntologyPs.execute();
-		} catch (SQLException e) {
-			e.printStackTrace();
+		insertOntologyPs.setString(1, patterns.physicalURI.toString());
+		insertOntologyPs.setString(2, patterns.ontologyIRI);
+		insertOntologyPs.setString(3, repository.getName());
+		insertOntologyPs.setInt(4, metrics[0] + metrics[1] + metrics[2]);
+		for (int i = 0; i < metrics.length; i++) {
+			insertOntologyPs.setInt(5 + i, metrics[i]);
 		}
+		insertOntologyPs.executeUpdate();
 		//get the auto generated ID
-		try {
-			selectOntologyIdPs.setString(1, url);
-			ResultSet rs = selectOntologyIdPs.executeQuery();
-			if(rs.next()){
-				return rs.getInt(1);
-			}
-		} catch (SQLException e) {
-			e.printStackTrace();
-		}
-		return -1;
+		return getGeneratedKey(insertOntologyPs);
 	}
 	
-	private synchronized void addOntologyPatterns(URI physicalURI, OWLOntology ontology, Multiset<OWLAxiom> patterns){
-		int ontologyId = addOntology(physicalURI, ontology);
-		for (OWLAxiom pattern : patterns.elementSet()) {
-			try {
-				int patternId = addPattern(pattern);
-				int occurrences = patterns.count(pattern);
-				insertOntologyPatternPs.setInt(1, ontologyId);
-				insertOntologyPatternPs.setInt(2, patternId);
-				insertOntologyPatternPs.setInt(3, occurrences);
-				insertOntologyPatternPs.execute();
-			} catch (SQLException e) {
-				System.err.println("Adding pattern\n" + pattern + "\nfailed." + e.getMessage());
+	private void addOntologyPatterns(OntologyPatterns patterns, Map<String, Integer> patternIds) throws SQLException {
+		int ontologyId = addOntology(patterns);
+		int batchCount = 0;
+		for (Map.Entry<String, PatternOccurrences> entry : patterns.patterns.entrySet()) {
+			int patternId = getPatternId(entry.getKey(), entry.getValue(), patternIds);
+			insertOntologyPatternPs.setInt(1, ontologyId);
+			insertOntologyPatternPs.setInt(2, patternId);
+			insertOntologyPatternPs.setInt(3, entry.getValue().occurrences);
+			insertOntologyPatternPs.addBatch();
+			if (++batchCount % batchSize == 0) {
+				insertOntologyPatternPs.executeBatch();
 			}
 		}
+		insertOntologyPatternPs.executeBatch();
+	}
+
+	/**
+	 * @param numberOfThreads the maximum number of ontologies processed in parallel
+	 */
+	public void setNumberOfThreads(int numberOfThreads) {
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * @param memoryPerWorker the heap space in bytes estimated for processing a
+	 * single ontology, used to bound the number of workers by the maximum heap size
+	 */
+	public void setMemoryPerWorker(long memoryPerWorker) {
+		this.memoryPerWorker = memoryPerWorker;
+	}
+
+	/**
+	 * @param batchSize the maximum number of rows sent to the database in a single batch
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @param randomOrder whether the ontologies of the repository are processed in random order
+	 */
+	public void setRandomOrder(boolean randomOrder) {
+		this.randomOrder = randomOrder;
 	}
 
 	public static void main(String[] args) throws Exception {
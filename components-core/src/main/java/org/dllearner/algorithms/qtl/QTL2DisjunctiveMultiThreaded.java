@@ -49,6 +49,10 @@ import org.dllearner.kb.sparql.ConciseBoundedDescriptionGeneratorImpl;
 import org.dllearner.learningproblems.Heuristics;
 import org.dllearner.learningproblems.PosNegLP;
 import org.dllearner.learningproblems.QueryTreeScore;
+import org.dllearner.utilities.profiling.ProfileCategory;
+import org.dllearner.utilities.profiling.Profiler;
+import org.dllearner.utilities.profiling.Timer;
+import org.dllearner.utilities.profiling.TimerStatistics;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 import org.semanticweb.owlapi.util.SimpleShortFormProvider;
@@ -73,6 +77,10 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 	private static final Logger logger = LoggerFactory.getLogger(QTL2DisjunctiveMultiThreaded.class);
 	private final DecimalFormat dFormat = new DecimalFormat("0.00");
 
+	// the LGGs are measured by the LGG generators
+	private static final Timer LGG_TIMER = Profiler.timer("qtl.lgg", ProfileCategory.GENERALIZATION);
+	private TimerStatistics lggStatisticsAtStart;
+
 	private SparqlEndpointKS ks;
 
 //	private LGGGenerator2 lggGenerator = new LGGGeneratorSimple();
@@ -555,9 +563,12 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 
 		logger.info("Best partial solution: " + solutionAsString(bestPartialSolution) + "\n(" + bestPartialSolution.getScore() + ")");
 
-		logger.trace("LGG time: " + MonitorFactory.getTimeMonitor("lgg").getTotal() + "ms");
-		logger.trace("Avg. LGG time: " + MonitorFactory.getTimeMonitor("lgg").getAvg() + "ms");
-		logger.info("#LGG computations: " + MonitorFactory.getTimeMonitor("lgg").getHits());
+		if(Profiler.isEnabled()) {
+			TimerStatistics lggStatistics = LGG_TIMER.getStatistics().minus(lggStatisticsAtStart);
+			logger.trace("LGG time: " + TimeUnit.NANOSECONDS.toMillis(lggStatistics.getTotalNs()) + "ms");
+			logger.trace("Avg. LGG time: " + dFormat.format(lggStatistics.getMeanNs() / 1_000_000) + "ms");
+			logger.info("#LGG computations: " + lggStatistics.getCount());
+		}
 
 		logger.trace("Subsumption test time: " + MonitorFactory.getTimeMonitor("subsumption").getTotal() + "ms");
 		logger.trace("Avg. subsumption test time: " + MonitorFactory.getTimeMonitor("subsumption").getAvg() + "ms");
@@ -929,7 +940,7 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 
 		bestCurrentScore = minimumTreeScore;
 
-		MonitorFactory.getTimeMonitor("lgg").reset();
+		lggStatisticsAtStart = LGG_TIMER.getStatistics();
 		nanoStartTime = System.nanoTime();
 	}
 
@@ -1230,10 +1241,8 @@ public class QTL2DisjunctiveMultiThreaded extends AbstractCELA implements Clonea
 
 			LGGGeneratorSimple lggGenerator = new LGGGeneratorSimple();
 			// compute the LGG
-			MonitorFactory.getTimeMonitor("lgg").start();
 			lggGenerator.setTimeout(getRemainingPartialSolutionTime(), TimeUnit.SECONDS);
 			RDFResourceTree lgg = lggGenerator.getLGG(tree1, tree2);
-			MonitorFactory.getTimeMonitor("lgg").stop();
 //			System.out.println("COMPLETE:" + ((LGGGeneratorSimple)lggGenerator).isComplete());
 //				logger.info("LGG: "  + lgg.getStringRepresentation());
 
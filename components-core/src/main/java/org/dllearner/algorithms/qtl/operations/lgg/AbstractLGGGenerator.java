@@ -18,8 +18,6 @@
  */
 package org.dllearner.algorithms.qtl.operations.lgg;
 
-import com.jamonapi.Monitor;
-import com.jamonapi.MonitorFactory;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.jena.datatypes.RDFDatatype;
 import org.apache.jena.graph.Node;
@@ -27,6 +25,9 @@ import org.apache.jena.vocabulary.RDF;
 import org.dllearner.algorithms.qtl.datastructures.impl.RDFResourceTree;
 import org.dllearner.algorithms.qtl.operations.StoppableOperation;
 import org.dllearner.algorithms.qtl.operations.TimeoutableOperation;
+import org.dllearner.utilities.profiling.ProfileCategory;
+import org.dllearner.utilities.profiling.Profiler;
+import org.dllearner.utilities.profiling.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -45,7 +46,7 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 	
 	protected Logger logger = LoggerFactory.getLogger(getClass());
 	
-	private Monitor mon = MonitorFactory.getTimeMonitor("lgg");
+	private static final Timer LGG_TIMER = Profiler.timer("qtl.lgg", ProfileCategory.GENERALIZATION);
 	
 	protected int subCalls;
 	
@@ -76,9 +77,9 @@ public abstract class AbstractLGGGenerator implements LGGGenerator, StoppableOpe
 		tree2 = preProcess(tree2);
 		
 		// compute the LGG
-		mon.start();
+		long start = LGG_TIMER.start();
 		RDFResourceTree lgg = computeLGG(tree1, tree2, learnFilters);
-		mon.stop();
+		LGG_TIMER.stop(start);
 
 		// apply some post-processing
 		lgg = postProcess(lgg);
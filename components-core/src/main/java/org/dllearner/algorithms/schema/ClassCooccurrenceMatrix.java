@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.schema;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.ResIterator;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.StmtIterator;
+import org.apache.jena.vocabulary.RDF;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * A sparse matrix of how often two classes share an instance, i.e. for classes
+ * A and B the number of instances asserted to both A and B. The diagonal holds
+ * the number of instances of each class.
+ * <p>
+ * The matrix is computed in a single pass over all class assertions: the types
+ * of each instance are collected and every pair of them is counted. This
+ * replaces one COUNT query per pair of classes by a scan of the
+ * <code>rdf:type</code> triples.
+ */
+public class ClassCooccurrenceMatrix {
+
+	private static final Logger logger = LoggerFactory.getLogger(ClassCooccurrenceMatrix.class);
+
+	// the order has to be total, otherwise the endpoint may return the rows of
+	// an instance in a different order for each page
+	private static final String TYPES_QUERY =
+			"SELECT ?s ?cls WHERE {?s a ?cls . FILTER(isIRI(?s) && isIRI(?cls))} ORDER BY ?s ?cls";
+
+	private static final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	public static final long DEFAULT_PAGE_SIZE = 10000;
+
+	private final Predicate<OWLClass> classFilter;
+
+	private final Map<OWLClass, Integer> index = new HashMap<>();
+	private final List<OWLClass> classes = new ArrayList<>();
+
+	// the number of instances per class, i.e. the diagonal of the matrix
+	private int[] counts = new int[64];
+
+	// the number of shared instances per pair of classes (i, j) with i < j,
+	// stored in an open addressing hash table keyed by (i << 32 | j)
+	private long[] pairKeys = new long[1024];
+	private int[] pairValues = new int[1024];
+	private int nrOfPairs = 0;
+
+	private int nrOfInstances = 0;
+
+	/**
+	 * Creates an empty matrix that ignores classes of the OWL, RDF(S) and XSD vocabulary.
+	 */
+	public ClassCooccurrenceMatrix() {
+		this(cls -> !cls.getIRI().isReservedVocabulary());
+	}
+
+	/**
+	 * Creates an empty matrix.
+	 * @param classFilter only classes accepted by the filter are counted
+	 */
+	public ClassCooccurrenceMatrix(Predicate<OWLClass> classFilter) {
+		this.classFilter = classFilter;
+	}
+
+	/**
+	 * Computes the matrix from all class assertions in the given model.
+	 * @param model the model
+	 * @return the matrix
+	 */
+	public static ClassCooccurrenceMatrix compute(Model model) {
+		ClassCooccurrenceMatrix matrix = new ClassCooccurrenceMatrix();
+		matrix.addAll(model);
+		return matrix;
+	}
+
+	/**
+	 * Computes the matrix from all class assertions of the given SPARQL endpoint.
+	 * @param qef the query execution factory of the endpoint
+	 * @return the matrix
+	 */
+	public static ClassCooccurrenceMatrix compute(QueryExecutionFactory qef) {
+		ClassCooccurrenceMatrix matrix = new ClassCooccurrenceMatrix();
+		matrix.addAll(qef, DEFAULT_PAGE_SIZE);
+		return matrix;
+	}
+
+	/**
+	 * Adds the class assertions of the given model.
+	 * @param model the model
+	 */
+	public void addAll(Model model) {
+		logger.info("Computing class co-occurrence matrix ...");
+		long start = System.currentTimeMillis();
+
+		Set<OWLClass> types = new HashSet<>();
+		ResIterator subjects = model.listResourcesWithProperty(RDF.type);
+		try {
+			while (subjects.hasNext()) {
+				StmtIterator it = subjects.next().listProperties(RDF.type);
+				try {
+					while (it.hasNext()) {
+						RDFNode type = it.next().getObject();
+						if (type.isURIResource()) {
+							types.add(df.getOWLClass(IRI.create(type.asResource().getURI())));
+						}
+					}
+				} finally {
+					it.close();
+				}
+				addInstance(types);
+				types.clear();
+			}
+		} finally {
+			subjects.close();
+		}
+
+		logger.info("... done in {}ms. {}", System.currentTimeMillis() - start, this);
+	}
+
+	/**
+	 * Adds the class assertions of the given SPARQL endpoint. The assertions are
+	 * requested ordered by instance and page by page, thus, the types of an
+	 * instance can be folded into the matrix as soon as the next instance shows up.
+	 * Instances which are blank nodes are ignored, because their labels are not
+	 * guaranteed to be the same in different pages.
+	 * @param qef the query execution factory of the endpoint
+	 * @param pageSize the number of assertions requested per query
+	 */
+	public void addAll(QueryExecutionFactory qef, long pageSize) {
+		logger.info("Computing class co-occurrence matrix ...");
+		long start = System.currentTimeMillis();
+
+		Query query = QueryFactory.create(TYPES_QUERY);
+		query.setLimit(pageSize);
+
+		Set<OWLClass> types = new HashSet<>();
+		Resource currentInstance = null;
+		long offset = 0;
+		boolean lastPage = false;
+		while (!lastPage) {
+			query.setOffset(offset);
+			long rows = 0;
+			QueryExecution qe = qef.createQueryExecution(query);
+			try {
+				ResultSet rs = qe.execSelect();
+				while (rs.hasNext()) {
+					QuerySolution qs = rs.next();
+					rows++;
+					Resource instance = qs.getResource("s");
+					if (!instance.equals(currentInstance)) {
+						addInstance(types);
+						types.clear();
+						currentInstance = instance;
+					}
+					types.add(df.getOWLClass(IRI.create(qs.getResource("cls").getURI())));
+				}
+			} finally {
+				qe.close();
+			}
+			offset += rows;
+			lastPage = rows < pageSize;
+			logger.debug("Processed {} class assertions.", offset);
+		}
+		addInstance(types);
+
+		logger.info("... done in {}ms. {}", System.currentTimeMillis() - start, this);
+	}
+
+	/**
+	 * Adds a single instance.
+	 * @param types the classes the instance is asserted to
+	 */
+	public void addInstance(Collection<OWLClass> types) {
+		if (types.isEmpty()) {
+			return;
+		}
+		int[] indexes = new int[types.size()];
+		int n = 0;
+		for (OWLClass cls : types) {
+			if (classFilter.test(cls)) {
+				indexes[n++] = indexOf(cls);
+			}
+		}
+		if (n == 0) {
+			return;
+		}
+		indexes = Arrays.copyOf(indexes, n);
+		Arrays.sort(indexes);
+
+		nrOfInstances++;
+		int last = -1;
+		for (int i = 0; i < indexes.length; i++) {
+			if (indexes[i] == last) { // duplicate type
+				continue;
+			}
+			last = indexes[i];
+			counts[last]++;
+			for (int j = i + 1; j < indexes.length; j++) {
+				if (indexes[j] != indexes[j - 1]) {
+					incrementPair(last, indexes[j]);
+				}
+			}
+		}
+	}
+
+	private int indexOf(OWLClass cls) {
+		Integer i = index.get(cls);
+		if (i == null) {
+			i = classes.size();
+			index.put(cls, i);
+			classes.add(cls);
+			if (i == counts.length) {
+				counts = Arrays.copyOf(counts, counts.length * 2);
+			}
+		}
+		return i;
+	}
+
+	private static long pairKey(int i, int j) {
+		return ((long) i << 32) | j;
+	}
+
+	private int slot(long key, long[] keys) {
+		// j > i >= 0 for every pair, hence 0 marks an empty slot
+		int mask = keys.length - 1;
+		int slot = (int) (key ^ (key >>> 29)) * 0x9E3779B9 & mask;
+		while (keys[slot] != 0 && keys[slot] != key) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void incrementPair(int i, int j) {
+		long key = pairKey(i, j);
+		int slot = slot(key, pairKeys);
+		if (pairKeys[slot] == 0) {
+			if (2 * (nrOfPairs + 1) > pairKeys.length) {
+				rehash();
+				slot = slot(key, pairKeys);
+			}
+			pairKeys[slot] = key;
+			nrOfPairs++;
+		}
+		pairValues[slot]++;
+	}
+
+	private void rehash() {
+		long[] oldKeys = pairKeys;
+		int[] oldValues = pairValues;
+		pairKeys = new long[oldKeys.length * 2];
+		pairValues = new int[oldKeys.length * 2];
+		for (int k = 0; k < oldKeys.length; k++) {
+			if (oldKeys[k] != 0) {
+				int slot = slot(oldKeys[k], pairKeys);
+				pairKeys[slot] = oldKeys[k];
+				pairValues[slot] = oldValues[k];
+			}
+		}
+	}
+
+	/**
+	 * @param cls the class
+	 * @return the number of instances of the class
+	 */
+	public int getPopularity(OWLClass cls) {
+		Integer i = index.get(cls);
+		return i == null ? 0 : counts[i];
+	}
+
+	/**
+	 * @param cls1 the first class
+	 * @param cls2 the second class
+	 * @return the number of instances of both classes
+	 */
+	public int getOverlap(OWLClass cls1, OWLClass cls2) {
+		Integer i = index.get(cls1);
+		Integer j = index.get(cls2);
+		if (i == null || j == null) {
+			return 0;
+		}
+		if (i.equals(j)) {
+			return counts[i];
+		}
+		long key = i < j ? pairKey(i, j) : pairKey(j, i);
+		int slot = slot(key, pairKeys);
+		return pairKeys[slot] == 0 ? 0 : pairValues[slot];
+	}
+
+	/**
+	 * @return all classes having at least one instance
+	 */
+	public Set<OWLClass> getClasses() {
+		return Collections.unmodifiableSet(index.keySet());
+	}
+
+	/**
+	 * @return the number of instances having at least one type
+	 */
+	public int getNrOfInstances() {
+		return nrOfInstances;
+	}
+
+	/**
+	 * @return the number of pairs of distinct classes sharing at least one instance
+	 */
+	public int getNrOfCooccurringPairs() {
+		return nrOfPairs;
+	}
+
+	@Override
+	public String toString() {
+		return "#classes=" + classes.size() + ", #instances=" + nrOfInstances + ", #co-occurring pairs=" + nrOfPairs;
+	}
+}
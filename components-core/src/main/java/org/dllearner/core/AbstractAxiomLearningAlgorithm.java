@@ -42,6 +42,7 @@ import org.dllearner.kb.SparqlEndpointKS;
 import org.dllearner.kb.sparql.SPARQLTasks;
 import org.dllearner.learningproblems.AxiomScore;
 import org.dllearner.learningproblems.Heuristics;
+import org.dllearner.reasoning.InMemorySPARQLReasoner;
 import org.dllearner.reasoning.SPARQLReasoner;
 import org.dllearner.utilities.OWLAPIUtils;
 import org.semanticweb.owlapi.model.*;
@@ -315,9 +316,10 @@ public abstract class AbstractAxiomLearningAlgorithm<T extends OWLAxiom, S exten
 		logger.info("Generating sample...");
 		sample = ModelFactory.createDefaultModel();
 		
-		// we have to set up a new query execution factory working on our local model
+		// we have to set up a new query execution factory working on our local model,
+		// simple lookups of the reasoner are answered by an index of the sample
 		qef = new QueryExecutionFactoryModel(sample);
-		reasoner = new SPARQLReasoner(qef);
+		reasoner = new InMemorySPARQLReasoner(sample);
 		
 		// get the page size
 		//TODO put to base class
@@ -359,7 +361,11 @@ public abstract class AbstractAxiomLearningAlgorithm<T extends OWLAxiom, S exten
 			ksQef = new QueryExecutionFactoryModel(((LocalModelBasedSparqlEndpointKS)ks).getModel());
 		}
 		if(ksReasoner == null){
-			ksReasoner = new SPARQLReasoner(ksQef);
+			if(ks.isRemote()){
+				ksReasoner = new SPARQLReasoner(ksQef);
+			} else {
+				ksReasoner = new InMemorySPARQLReasoner(((LocalModelBasedSparqlEndpointKS)ks).getModel());
+			}
 		}
 //		ksReasoner.supportsSPARQL1_1();
 		reasoner = ksReasoner;
@@ -99,6 +99,15 @@ public abstract class AbstractCELA extends AbstractComponent implements ClassExp
 	@ConfigOption(defaultValue = "10", description = "maximum execution of the algorithm in seconds")
 	protected long maxExecutionTimeInSeconds = 10;
 
+	@ConfigOption(defaultValue = "1000", description = "interval in milliseconds in which progress is reported to " +
+			"registered solution listeners, 0 disables progress reports")
+	private long progressReportInterval = 1000;
+
+	@NoConfigOption
+	private final SolutionEventDispatcher solutionEventDispatcher = new SolutionEventDispatcher();
+	private volatile long lastProgressReportTime;
+	private long reasoningTimeNsAtStart;
+
 	/**
 	 * The learning problem variable, which must be used by
 	 * all learning algorithm implementations.
@@ -469,6 +478,95 @@ public abstract class AbstractCELA extends AbstractComponent implements ClassExp
 		return Math.max(0, TimeUnit.SECONDS.toMillis(maxExecutionTimeInSeconds) - getCurrentRuntimeInMilliSeconds());
 	}
 	
+	/**
+	 * Registers a listener which is notified about new best solutions and the
+	 * progress of the algorithm. Listeners are called asynchronously, so they
+	 * do not slow down the search.
+	 * @param listener the listener
+	 */
+	public void addSolutionListener(SolutionListener listener) {
+		solutionEventDispatcher.addListener(listener);
+	}
+
+	/**
+	 * @param listener the listener to remove
+	 */
+	public void removeSolutionListener(SolutionListener listener) {
+		solutionEventDispatcher.removeListener(listener);
+	}
+
+	/**
+	 * @return whether at least one solution listener is registered, which can
+	 * be used to avoid computing data only needed for the listeners
+	 */
+	protected boolean hasSolutionListeners() {
+		return solutionEventDispatcher.hasListeners();
+	}
+
+	/**
+	 * Has to be called by the implementations when the search starts, after
+	 * {@link #nanoStartTime} has been set.
+	 */
+	protected void startProgressReporting() {
+		lastProgressReportTime = nanoStartTime;
+		reasoningTimeNsAtStart = reasoner != null ? reasoner.getOverallReasoningTimeNs() : 0;
+	}
+
+	/**
+	 * Notifies the solution listeners about a new best solution.
+	 * @param solution the new best solution
+	 * @param expressionTests the number of class expressions tested so far
+	 * @param searchTreeSize the number of nodes in the search tree
+	 */
+	protected void fireNewBestSolution(EvaluatedDescription<? extends Score> solution, int expressionTests, int searchTreeSize) {
+		if (solutionEventDispatcher.hasListeners()) {
+			solutionEventDispatcher.fireNewBestSolution(solution,
+					createProgress(expressionTests, searchTreeSize, solution.getAccuracy()));
+		}
+	}
+
+	/**
+	 * Notifies the solution listeners about the progress of the algorithm,
+	 * at most once per {@link #getProgressReportInterval()}. Cheap enough to
+	 * be called in each iteration of the search loop.
+	 * @param expressionTests the number of class expressions tested so far
+	 * @param searchTreeSize the number of nodes in the search tree
+	 * @param bestAccuracy the accuracy of the best solution found so far
+	 */
+	protected void fireProgress(int expressionTests, int searchTreeSize, double bestAccuracy) {
+		if (progressReportInterval <= 0 || !solutionEventDispatcher.hasListeners()) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (now - lastProgressReportTime >= TimeUnit.MILLISECONDS.toNanos(progressReportInterval)) {
+			lastProgressReportTime = now;
+			solutionEventDispatcher.fireProgress(createProgress(expressionTests, searchTreeSize, bestAccuracy));
+		}
+	}
+
+	/**
+	 * Notifies the solution listeners that the search has finished.
+	 * @param expressionTests the number of class expressions tested
+	 * @param searchTreeSize the number of nodes in the search tree
+	 * @param bestAccuracy the accuracy of the best solution
+	 */
+	protected void fireLearningFinished(int expressionTests, int searchTreeSize, double bestAccuracy) {
+		if (solutionEventDispatcher.hasListeners()) {
+			solutionEventDispatcher.fireFinished(createProgress(expressionTests, searchTreeSize, bestAccuracy));
+		}
+	}
+
+	private LearningProgress createProgress(int expressionTests, int searchTreeSize, double bestAccuracy) {
+		long runtimeNs = System.nanoTime() - nanoStartTime;
+		double reasoningTimeShare = 0;
+		if (reasoner != null && runtimeNs > 0) {
+			long reasoningTimeNs = reasoner.getOverallReasoningTimeNs() - reasoningTimeNsAtStart;
+			reasoningTimeShare = Math.max(0, Math.min(1, reasoningTimeNs / (double) runtimeNs));
+		}
+		return new LearningProgress(TimeUnit.NANOSECONDS.toMillis(runtimeNs), expressionTests, searchTreeSize,
+				bestAccuracy, reasoningTimeShare);
+	}
+
 	protected String getDurationAsString(long durationInMillis) {
 		PeriodFormatter formatter = new PeriodFormatterBuilder()
 	     .appendDays().appendSuffix("d")
@@ -634,6 +732,18 @@ public abstract class AbstractCELA extends AbstractComponent implements ClassExp
 		this.maxExecutionTimeInSeconds = maxExecutionTimeInSeconds;
 	}
 
+	public long getProgressReportInterval() {
+		return progressReportInterval;
+	}
+
+	/**
+	 * @param progressReportInterval interval in milliseconds in which progress
+	 * is reported to registered solution listeners, 0 disables progress reports
+	 */
+	public void setProgressReportInterval(long progressReportInterval) {
+		this.progressReportInterval = progressReportInterval;
+	}
+
 	/**
 	 * Set the max. execution time of the algorithm. It's expected that the
 	 * algorithm will terminate gracefully.
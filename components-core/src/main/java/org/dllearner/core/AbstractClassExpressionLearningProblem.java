@@ -20,13 +20,19 @@ package org.dllearner.core;
 
 import org.dllearner.core.annotations.NoConfigOption;
 import org.dllearner.core.config.ConfigOption;
+import org.dllearner.learningproblems.EvaluationCache;
 import org.dllearner.learningproblems.ExampleLoader;
+import org.dllearner.reasoning.ClosedWorldReasoner;
+import org.dllearner.reasoning.SPARQLReasoner;
 import org.dllearner.utilities.ReasoningUtils;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
 import org.springframework.beans.factory.annotation.Autowired;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
+import java.util.Collection;
+
 /**
  * Base class for all class expression learning problems.
  * 
@@ -43,6 +49,11 @@ public abstract class AbstractClassExpressionLearningProblem<T extends Score>  e
 
     }
 
+	@ConfigOption(description = "maximum number of class expressions whose coverage of the examples is cached "
+			+ "and used to infer the coverage of conjunctions, disjunctions and negations of them (0 disables the cache)",
+			defaultValue = "0")
+	protected int evaluationCacheSize = 0;
+
 	@NoConfigOption
 	protected ReasoningUtils reasoningUtil;
 	protected static Class reasoningUtilsClass = ReasoningUtils.class;
@@ -69,6 +80,26 @@ public abstract class AbstractClassExpressionLearningProblem<T extends Score>  e
 		return new ReasoningUtils(reasoner);
 	}
 
+	/**
+	 * Sets up the evaluation cache of the reasoning utils for the given
+	 * examples if enabled by {@link #evaluationCacheSize}. Must be called in
+	 * {@link #init()} once the examples are known.
+	 * @param examples all examples evaluated by the learning problem
+	 */
+	protected void initEvaluationCache(Collection<OWLIndividual> examples) {
+		if (reasoningUtil == null) {
+			return;
+		}
+		if (evaluationCacheSize > 0) {
+			// only under closed world semantics non-instances of C are instances of NOT C
+			boolean closedWorld = reasoner instanceof SPARQLReasoner
+					|| (reasoner instanceof ClosedWorldReasoner && ((ClosedWorldReasoner) reasoner).isDefaultNegation());
+			reasoningUtil.setEvaluationCache(new EvaluationCache(examples, evaluationCacheSize, closedWorld));
+		} else {
+			reasoningUtil.setEvaluationCache(null);
+		}
+	}
+
 	/**
 	 * Constructs a learning problem using a reasoning service for
 	 * querying the background knowledge. It can be used for
@@ -99,6 +130,14 @@ public abstract class AbstractClassExpressionLearningProblem<T extends Score>  e
 		this.reasoningUtil = reasoningUtil;
 	}
 
+	public int getEvaluationCacheSize() {
+		return evaluationCacheSize;
+	}
+
+	public void setEvaluationCacheSize(int evaluationCacheSize) {
+		this.evaluationCacheSize = evaluationCacheSize;
+	}
+
 	public ExampleLoader getExampleLoaderHelper() {
 		return exampleLoaderHelper;
 	}
@@ -22,8 +22,6 @@ import java.util.Comparator;
 
 import org.dllearner.algorithms.celoe.OENode;
 
-import com.google.common.collect.ComparisonChain;
-
 /**
  * Search algorithm heuristic for the ontology engineering algorithm. The heuristic
  * has a strong bias towards short descriptions (i.e. the algorithm is likely to be
@@ -41,12 +39,17 @@ public abstract class AbstractHeuristic extends AbstractComponent implements Heu
 
 	}
 	
+	/**
+	 * Compares two nodes by their cached scores. Ties are broken by the order
+	 * of creation, i.e. newer nodes are considered better.
+	 */
 	@Override
 	public int compare(OENode node1, OENode node2) {
-		return ComparisonChain.start()
-				.compare(getNodeScore(node1), getNodeScore(node2))
-				.compare(node1.getDescription(), node2.getDescription())
-				.result();
+		int diff = Double.compare(node1.getScore(this), node2.getScore(this));
+		if(diff != 0) {
+			return diff;
+		}
+		return Long.compare(node1.getId(), node2.getId());
 	}
 
 	public abstract double getNodeScore(OENode node);
@@ -22,6 +22,8 @@ import org.dllearner.core.config.ConfigOption;
 import org.semanticweb.owlapi.model.OWLObject;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.List;
+
 /**
  * Base class for all learning problems.
  * See also the wiki page for
@@ -145,6 +147,21 @@ public abstract class AbstractLearningProblem<T extends Score, V extends OWLObje
 	 */
 	public abstract double getAccuracyOrTooWeak(V hypothesis, double noise);
 
+	/**
+	 * Computes {@link #getAccuracyOrTooWeak(OWLObject, double)} for a batch of
+	 * hypotheses, e.g. all refinements of a node. Learning problems can
+	 * override this method to share work between the hypotheses.
+	 *
+	 * @return the accuracy or -1 of each hypothesis, in the order of the hypotheses
+	 */
+	public double[] getAccuracyOrTooWeak(List<V> hypotheses, double noise) {
+		double[] accuracies = new double[hypotheses.size()];
+		for (int i = 0; i < accuracies.length; i++) {
+			accuracies[i] = getAccuracyOrTooWeak(hypotheses.get(i), noise);
+		}
+		return accuracies;
+	}
+
     /**
      * Implementations of learning problems can use this class
      * variable to perform reasoner operations.
@@ -32,6 +32,9 @@ import org.dllearner.reasoning.ReasonerType;
 import org.dllearner.utilities.Helper;
 import org.dllearner.utilities.OWLAPIUtils;
 import org.dllearner.utilities.datastructures.SortedSetTuple;
+import org.dllearner.utilities.profiling.ProfileCategory;
+import org.dllearner.utilities.profiling.Profiler;
+import org.dllearner.utilities.profiling.Timer;
 import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -100,6 +103,12 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	// above)
 	private long overallReasoningTimeNs = 0;
 
+	// the same durations for profiling across all reasoners
+	private static final Timer INSTANCE_CHECK_TIMER = Profiler.timer("reasoning.instanceCheck", ProfileCategory.REASONING);
+	private static final Timer RETRIEVAL_TIMER = Profiler.timer("reasoning.retrieval", ProfileCategory.REASONING);
+	private static final Timer SUBSUMPTION_TIMER = Profiler.timer("reasoning.subsumption", ProfileCategory.REASONING);
+	private static final Timer OTHER_TIMER = Profiler.timer("reasoning.other", ProfileCategory.REASONING);
+
 	// temporary variables (moved here for performance reasons)
 	private long reasoningStartTimeTmp;
 	private long reasoningDurationTmp;
@@ -116,6 +125,12 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	@NoConfigOption
 	protected DatatypePropertyHierarchy datatypePropertyHierarchy = null;
 
+	@ConfigOption(description = "maximum number of subsumption, equivalence and disjointness checks between class "
+			+ "expressions whose results are cached (0 disables the cache)", defaultValue = "100000")
+	protected int subsumptionCacheSize = 100000;
+	// created lazily, as the cache size may be set after construction
+	private volatile SubsumptionCache subsumptionCache;
+
 	@ConfigOption(description = "if class hierarchy should be precomputed", defaultValue = "true")
 	protected boolean precomputeClassHierarchy = true;
 	@ConfigOption(defaultValue = "true")
@@ -215,17 +230,46 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfSubsumptionHierarchyQueries = 0;
 		otherReasoningTimeNs = 0;
 		overallReasoningTimeNs = 0;
+		if (subsumptionCache != null) {
+			subsumptionCache.resetStatistics();
+		}
 	}
 
 	/**
 	 * Notify the reasoner component that the underlying knowledge base has
 	 * changed and all caches (for named classes, subsumption hierarchies, etc.)
-	 * should be invalidaded. TODO Currently, nothing is done to behave
-	 * correctly after updates.
+	 * should be invalidaded. TODO Currently, only the cached subsumption and
+	 * disjointness checks are invalidated.
 	 */
 	@NoConfigOption
 	public void setUpdated() {
-		// TODO currently, nothing is done to behave correctly after updates
+		if (subsumptionCache != null) {
+			subsumptionCache.invalidateAll();
+		}
+	}
+
+	/**
+	 * @return the memo of subsumption, equivalence and disjointness checks,
+	 * or <code>null</code> if disabled
+	 */
+	public SubsumptionCache getSubsumptionCache() {
+		SubsumptionCache cache = subsumptionCache;
+		if (cache == null && subsumptionCacheSize > 0) {
+			synchronized (this) {
+				cache = subsumptionCache;
+				if (cache == null) {
+					subsumptionCache = cache = new SubsumptionCache(subsumptionCacheSize);
+				}
+			}
+		}
+		return cache;
+	}
+
+	// answers the check from the subsumption cache if enabled
+	private boolean cachedCheck(SubsumptionCache.Relation relation, OWLClassExpression first, OWLClassExpression second,
+								SubsumptionCache.Check check) throws ReasoningMethodUnsupportedException {
+		SubsumptionCache cache = getSubsumptionCache();
+		return cache != null ? cache.get(relation, first, second, check) : check.compute();
 	}
 
 	/**
@@ -269,7 +313,8 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		if(precomputeClassHierarchy) {
 			if(superClass.isAnonymous() || subClass.isAnonymous()) {
 				try {
-					result = isSuperClassOfImpl(superClass, subClass);
+					result = cachedCheck(SubsumptionCache.Relation.SUBCLASS_OF, subClass, superClass,
+							() -> isSuperClassOfImpl(superClass, subClass));
 				} catch (ReasoningMethodUnsupportedException e) {
 					e.printStackTrace();
 				}
@@ -278,7 +323,8 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 			}
 		} else {
 			try {
-				result = isSuperClassOfImpl(superClass, subClass);
+				result = cachedCheck(SubsumptionCache.Relation.SUBCLASS_OF, subClass, superClass,
+						() -> isSuperClassOfImpl(superClass, subClass));
 			} catch (ReasoningMethodUnsupportedException e) {
 				e.printStackTrace();
 			}
@@ -286,6 +332,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfSubsumptionChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		subsumptionReasoningTimeNs += reasoningDurationTmp;
+		SUBSUMPTION_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isSuperClassOf: " + superClass + " " + subClass + " " + result);
@@ -303,13 +350,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		reasoningStartTimeTmp = System.nanoTime();
 		boolean result = false;
 		try {
-			result = isEquivalentClassImpl(class1, class2);
+			result = cachedCheck(SubsumptionCache.Relation.EQUIVALENT, class1, class2,
+					() -> isEquivalentClassImpl(class1, class2));
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
 		nrOfSubsumptionChecks+=2;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		subsumptionReasoningTimeNs += reasoningDurationTmp;
+		SUBSUMPTION_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isEquivalentClass: " + class1 + " " + class2 + " " + result);
@@ -326,13 +375,15 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		reasoningStartTimeTmp = System.nanoTime();
 		boolean result = false;
 		try {
-			result = isDisjointImpl(class1, class2);
+			result = cachedCheck(SubsumptionCache.Relation.DISJOINT, class1, class2,
+					() -> isDisjointImpl(class1, class2));
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
 		}
 		nrOfSubsumptionChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		subsumptionReasoningTimeNs += reasoningDurationTmp;
+		SUBSUMPTION_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query isDisjoint: " + class1 + " " + class2 + " " + result);
@@ -374,6 +425,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfMultiSubsumptionChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		subsumptionReasoningTimeNs += reasoningDurationTmp;
+		SUBSUMPTION_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -398,6 +450,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		}
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		otherReasoningTimeNs += reasoningDurationTmp;
+		OTHER_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -420,6 +473,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfRetrievals++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		retrievalReasoningTimeNs += reasoningDurationTmp;
+		RETRIEVAL_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
@@ -445,6 +499,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfRetrievals++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		retrievalReasoningTimeNs += reasoningDurationTmp;
+		RETRIEVAL_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		if(logger.isTraceEnabled()) {
 			logger.trace("reasoner query getIndividuals: " + concept + " " + result);
@@ -469,6 +524,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfInstanceChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		instanceCheckReasoningTimeNs += reasoningDurationTmp;
+		INSTANCE_CHECK_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -492,6 +548,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfMultiInstanceChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		instanceCheckReasoningTimeNs += reasoningDurationTmp;
+		INSTANCE_CHECK_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		// logger.debug("instanceCheck done");
 		return result;
@@ -531,6 +588,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		}
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		otherReasoningTimeNs += reasoningDurationTmp;
+		OTHER_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -551,6 +609,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		}
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		otherReasoningTimeNs += reasoningDurationTmp;
+		OTHER_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -647,6 +706,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		}
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		otherReasoningTimeNs += reasoningDurationTmp;
+		OTHER_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;
 	}
@@ -1330,6 +1390,8 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		if (subsumptionHierarchy == null) {
 			try {
 				subsumptionHierarchy = prepareSubsumptionHierarchy();
+				// compute the transitive closure once instead of on the first refinement
+				subsumptionHierarchy.precompute();
 			} catch (ReasoningMethodUnsupportedException e) {
 				handleExceptions(e);
 			}
@@ -1369,6 +1431,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		try {
 			if (roleHierarchy == null) {
 				roleHierarchy = prepareObjectPropertyHierarchy();
+				roleHierarchy.precompute();
 			}
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
@@ -1418,6 +1481,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		try {
 			if (datatypePropertyHierarchy == null) {
 				datatypePropertyHierarchy = prepareDatatypePropertyHierarchy();
+				datatypePropertyHierarchy.precompute();
 			}
 		} catch (ReasoningMethodUnsupportedException e) {
 			handleExceptions(e);
@@ -1502,7 +1566,33 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 	public int getNrOfMultiInstanceChecks() {
 		return nrOfMultiInstanceChecks;
 	}
-	
+
+	/**
+	 * @return the number of subsumption checks answered from the subsumption cache
+	 */
+	public long getNrOfSubsumptionCacheHits() {
+		return subsumptionCache == null ? 0 : subsumptionCache.getHits();
+	}
+
+	/**
+	 * @return the number of subsumption checks not found in the subsumption cache
+	 */
+	public long getNrOfSubsumptionCacheMisses() {
+		return subsumptionCache == null ? 0 : subsumptionCache.getMisses();
+	}
+
+	public int getSubsumptionCacheSize() {
+		return subsumptionCacheSize;
+	}
+
+	/**
+	 * @param subsumptionCacheSize the maximum number of cached subsumption checks,
+	 * 0 disables the cache; must be set before the first reasoning request
+	 */
+	public void setSubsumptionCacheSize(int subsumptionCacheSize) {
+		this.subsumptionCacheSize = subsumptionCacheSize;
+	}
+
 	/**
 	 * @param precomputeClassHierarchy the precomputeClassHierarchy to set
 	 */
@@ -1595,6 +1685,10 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 					+ Helper.prettyPrintNanoSeconds(subsumptionReasoningTimeNs) + " ( "
 					+ Helper.prettyPrintNanoSeconds(getTimePerSubsumptionCheckNs())
 					+ " per subsumption check)\n";
+			if (subsumptionCache != null) {
+				str += "subsumption cache: " + subsumptionCache.getHits() + " hits, "
+						+ subsumptionCache.getMisses() + " misses\n";
+			}
 		}
 		str += "overall reasoning time: "
 				+ Helper.prettyPrintNanoSeconds(overallReasoningTimeNs) + "\n";	
@@ -1617,6 +1711,7 @@ public abstract class AbstractReasonerComponent extends AbstractComponent implem
 		nrOfInstanceChecks++;
 		reasoningDurationTmp = System.nanoTime() - reasoningStartTimeTmp;
 		instanceCheckReasoningTimeNs += reasoningDurationTmp;
+		INSTANCE_CHECK_TIMER.record(reasoningDurationTmp);
 		overallReasoningTimeNs += reasoningDurationTmp;
 		return result;		
 	}
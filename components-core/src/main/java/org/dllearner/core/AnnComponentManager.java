@@ -26,6 +26,10 @@ import org.dllearner.core.config.ConfigOption;
 import org.dllearner.learningproblems.AccMethod;
 import org.dllearner.refinementoperators.RefinementOperator;
 import org.reflections.Reflections;
+import org.reflections.scanners.SubTypesScanner;
+import org.reflections.scanners.TypeAnnotationsScanner;
+import org.reflections.util.ClasspathHelper;
+import org.reflections.util.ConfigurationBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -33,7 +37,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -122,31 +128,45 @@ public class AnnComponentManager {
 	private static AnnComponentManager cm = null;
 	private static Reflections reflectionScanner = null;
 
+	private static volatile ComponentIndex componentIndex = null;
+	private static volatile boolean componentIndexLoaded = false;
+	private static final Map<Class<?>, Set<Field>> configOptionsCache = new ConcurrentHashMap<>();
+
 	private AnnComponentManager() {
-		if (componentClassNames == null) {
-			componentClassNames = new ArrayList<>();
-			if (reflectionScanner == null) {
-				org.apache.log4j.Logger.getLogger(Reflections.class).setLevel(Level.OFF);
-				reflectionScanner = new Reflections("org.dllearner");
-			}
-			Set<Class<? extends Component>> componentClasses = reflectionScanner.getSubTypesOf(Component.class);
-			Set<Class<?>> componentAnnClasses = reflectionScanner.getTypesAnnotatedWith(ComponentAnn.class, true);
-			for (Class<?> clazz
-					: Sets.intersection(
-							componentClasses,
-							componentAnnClasses
-					)
-				) {
-				if (!Modifier.isAbstract( clazz.getModifiers() ))
-					componentClassNames.add(clazz.getCanonicalName());
-			}
-			for (Class<?> clazz
-					: Sets.difference(componentClasses, componentAnnClasses)
-					) {
-				if (!Modifier.isAbstract( clazz.getModifiers() ))
-					logger.debug("Warning: " + clazz.getCanonicalName() + " implements Component but is not annotated, ignored");
+		if (componentClassNames == null && reflectionScanner == null) {
+			// prefer the component index generated at build time over scanning the classpath
+			ComponentIndex index = getComponentIndex();
+			if (index != null) {
+				componentClassNames = new ArrayList<>(index.getComponentClassNames());
+				if (index.isInClassDirectory()) {
+					// the index might be partial after an incremental compilation,
+					// thus, we check it against the classes found on the classpath
+					List<String> scannedClassNames = scanComponentClassNames();
+					Set<String> missing = Sets.difference(new HashSet<>(scannedClassNames), new HashSet<>(componentClassNames));
+					if (!missing.isEmpty()) {
+						logger.warn("Component index is incomplete, using classpath scanning instead. Missing components: " + missing);
+						componentClassNames = scannedClassNames;
+					}
+				} else {
+					// modules built without the annotation processor do not have an index,
+					// thus, their components are added by scanning only those modules
+					Set<URL> unindexedRoots = index.getUnindexedRoots(
+							ClasspathHelper.forPackage("org.dllearner", AnnComponentManager.class.getClassLoader()));
+					if (!unindexedRoots.isEmpty()) {
+						logger.warn("No component index found in " + unindexedRoots + ", scanning them for components.");
+						Set<String> indexed = new HashSet<>(componentClassNames);
+						for (String name : scanComponentClassNames(unindexedRoots)) {
+							if (indexed.add(name)) {
+								componentClassNames.add(name);
+							}
+						}
+					}
+				}
 			}
 		}
+		if (componentClassNames == null) {
+			componentClassNames = scanComponentClassNames();
+		}
 		// conversion of class strings to objects
 		components = new TreeSet<>((Comparator<Class<? extends Component>>) (o1, o2) -> {
 			return o1.getName().compareTo(o2.getName());
@@ -165,6 +185,58 @@ public class AnnComponentManager {
 		}
 	}
 
+	/**
+	 * @return the names of all concrete, annotated component classes found by
+	 * scanning the classpath
+	 */
+	private static List<String> scanComponentClassNames() {
+		List<String> names = new ArrayList<>();
+		Reflections scanner = reflectionScanner;
+		if (scanner == null) {
+			org.apache.log4j.Logger.getLogger(Reflections.class).setLevel(Level.OFF);
+			scanner = new Reflections("org.dllearner");
+		}
+		Set<Class<? extends Component>> componentClasses = scanner.getSubTypesOf(Component.class);
+		Set<Class<?>> componentAnnClasses = scanner.getTypesAnnotatedWith(ComponentAnn.class, true);
+		for (Class<?> clazz
+				: Sets.intersection(
+						componentClasses,
+						componentAnnClasses
+				)
+			) {
+			if (!Modifier.isAbstract( clazz.getModifiers() ))
+				names.add(clazz.getCanonicalName());
+		}
+		for (Class<?> clazz
+				: Sets.difference(componentClasses, componentAnnClasses)
+				) {
+			if (!Modifier.isAbstract( clazz.getModifiers() ))
+				logger.debug("Warning: " + clazz.getCanonicalName() + " implements Component but is not annotated, ignored");
+		}
+		return names;
+	}
+
+	/**
+	 * @param roots the class path roots to scan
+	 * @return the names of all concrete component classes annotated with
+	 * {@link ComponentAnn} in the given class path roots
+	 */
+	private static List<String> scanComponentClassNames(Collection<URL> roots) {
+		org.apache.log4j.Logger.getLogger(Reflections.class).setLevel(Level.OFF);
+		Reflections scanner = new Reflections(new ConfigurationBuilder()
+				.setUrls(roots)
+				.setScanners(new TypeAnnotationsScanner(), new SubTypesScanner()));
+		// the super types of a component might be located in another root, thus,
+		// the annotated classes are checked instead of the type hierarchy of the scan
+		List<String> names = new ArrayList<>();
+		for (Class<?> clazz : scanner.getTypesAnnotatedWith(ComponentAnn.class, true)) {
+			if (Component.class.isAssignableFrom(clazz) && !Modifier.isAbstract(clazz.getModifiers())) {
+				names.add(clazz.getCanonicalName());
+			}
+		}
+		return names;
+	}
+
 	/**
 	 * Explicitly sets the list of components to use. This will (re-)initialise the
 	 * component manager the next time the singleton instance is retrieved.
@@ -174,11 +246,34 @@ public class AnnComponentManager {
 		cm = null;
 	}
 	
+	/**
+	 * Explicitly sets the scanner used to find the components on the classpath. This
+	 * bypasses the component index generated at build time.
+	 */
 	public static void setReflectionScanner(Reflections ref) {
 		AnnComponentManager.reflectionScanner = ref;
 		setComponentClassNames(null);
 	}
 
+	/**
+	 * @return the component index generated at build time, or <code>null</code> if
+	 * there is none on the classpath
+	 */
+	private static ComponentIndex getComponentIndex() {
+		if (!componentIndexLoaded) {
+			synchronized (AnnComponentManager.class) {
+				if (!componentIndexLoaded) {
+					componentIndex = ComponentIndex.load(AnnComponentManager.class.getClassLoader());
+					componentIndexLoaded = true;
+					if (componentIndex == null) {
+						logger.debug("No component index found, falling back to classpath scanning.");
+					}
+				}
+			}
+		}
+		return componentIndex;
+	}
+
 	/**
 	 * Gets the singleton instance of <code>ComponentManager</code>.
 	 * @return The singleton <code>ComponentManager</code> instance.
@@ -426,17 +521,35 @@ public class AnnComponentManager {
 	 * @return OWLClassExpression of the component.
 	 */
 	public static Set<Field> getConfigOptions(Class<? extends Component> component){
+		Set<Field> options = configOptionsCache.computeIfAbsent(component, AnnComponentManager::computeConfigOptions);
+		return new HashSet<>(options);
+	}
+
+	private static Set<Field> computeConfigOptions(Class<?> component) {
+		ComponentIndex index = getComponentIndex();
 		Set<Field> set = new HashSet<>();
 	    Class<?> c = component;
 	    while (c != null) {
-	        for (Field field : c.getDeclaredFields()) {
-	            if (field.isAnnotationPresent(ConfigOption.class)) {
-	                set.add(field);
-	            }
-	        }
+	    	List<String> indexedFields = index != null ? index.getConfigOptionFields(c.getName()) : null;
+	    	if (indexedFields != null) {
+	    		for (String fieldName : indexedFields) {
+	    			try {
+	    				set.add(c.getDeclaredField(fieldName));
+	    			} catch (NoSuchFieldException e) {
+	    				logger.debug("Outdated component index: no field " + fieldName + " in " + c.getName());
+	    			}
+	    		}
+	    	} else {
+	    		// not in the index, thus use reflection
+	    		for (Field field : c.getDeclaredFields()) {
+	    			if (field.isAnnotationPresent(ConfigOption.class)) {
+	    				set.add(field);
+	    			}
+	    		}
+	    	}
 	        c = c.getSuperclass();
 	    }
-	    return set;
+	    return Collections.unmodifiableSet(set);
 	}
 
 	/**
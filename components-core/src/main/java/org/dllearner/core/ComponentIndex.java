@@ -0,0 +1,159 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import org.dllearner.core.annotations.ComponentIndexProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * The component index generated at build time by {@link ComponentIndexProcessor}.
+ * All index resources visible to the class loader are merged, i.e. each module
+ * (core, ext, interfaces, ...) contributes its own components.
+ */
+class ComponentIndex {
+
+	private static final Logger logger = LoggerFactory.getLogger(ComponentIndex.class);
+
+	private final List<String> componentClassNames = new ArrayList<>();
+	private final Map<String, List<String>> configOptionFields = new HashMap<>();
+
+	// the class path roots (JAR files or class directories) which contain an index
+	private final Set<String> indexedRoots = new HashSet<>();
+
+	private boolean inClassDirectory = false;
+
+	private ComponentIndex() {}
+
+	/**
+	 * Loads the component index from the class path.
+	 *
+	 * @param classLoader the class loader used to look up the index resources
+	 * @return the merged index, or <code>null</code> if no index resource was found
+	 */
+	static ComponentIndex load(ClassLoader classLoader) {
+		try {
+			Enumeration<URL> resources = classLoader.getResources(ComponentIndexProcessor.INDEX_RESOURCE);
+			if (!resources.hasMoreElements()) {
+				return null;
+			}
+			ComponentIndex index = new ComponentIndex();
+			while (resources.hasMoreElements()) {
+				URL url = resources.nextElement();
+				logger.debug("Reading component index " + url);
+				index.read(url);
+				String resource = url.toExternalForm();
+				index.indexedRoots.add(normalizeRoot(resource.substring(0, resource.length() - ComponentIndexProcessor.INDEX_RESOURCE.length())));
+				if ("file".equals(url.getProtocol())) {
+					index.inClassDirectory = true;
+				}
+			}
+			return index;
+		} catch (IOException e) {
+			logger.warn("Failed to read component index, falling back to classpath scanning.", e);
+			return null;
+		}
+	}
+
+	private void read(URL url) throws IOException {
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] tokens = line.split("\\s+");
+				if (tokens[0].equals("C") && tokens.length == 2) {
+					componentClassNames.add(tokens[1]);
+				} else if (tokens[0].equals("O") && tokens.length > 2) {
+					configOptionFields.put(tokens[1], Arrays.asList(tokens).subList(2, tokens.length));
+				} else {
+					logger.debug("Ignoring malformed line in component index " + url + ": " + line);
+				}
+			}
+		}
+	}
+
+	/**
+	 * An index in a class directory, e.g. of an IDE, might have been rewritten
+	 * by an incremental compilation with only the recompiled classes, whereas an
+	 * index in a JAR file is the result of a full build.
+	 *
+	 * @return whether at least one of the merged index resources is located in a
+	 * class directory instead of a JAR file
+	 */
+	boolean isInClassDirectory() {
+		return inClassDirectory;
+	}
+
+	/**
+	 * Modules built without {@link ComponentIndexProcessor} do not contain an index,
+	 * thus, their components are unknown to the index.
+	 *
+	 * @param roots class path roots, e.g. those containing DL-Learner packages
+	 * @return the roots which do not contain an index resource
+	 */
+	Set<URL> getUnindexedRoots(Collection<URL> roots) {
+		Set<URL> unindexed = new LinkedHashSet<>();
+		for (URL root : roots) {
+			if (!indexedRoots.contains(normalizeRoot(root.toExternalForm()))) {
+				unindexed.add(root);
+			}
+		}
+		return unindexed;
+	}
+
+	// jar:file:/a.jar!/ and file:/a.jar as well as file:/dir/ and file:/dir denote the same root
+	private static String normalizeRoot(String root) {
+		if (root.startsWith("jar:")) {
+			root = root.substring("jar:".length());
+		}
+		if (root.endsWith("!/")) {
+			root = root.substring(0, root.length() - 2);
+		}
+		if (root.endsWith("/")) {
+			root = root.substring(0, root.length() - 1);
+		}
+		return root;
+	}
+
+	/**
+	 * @return the names of all concrete, annotated component classes in the index
+	 */
+	List<String> getComponentClassNames() {
+		return componentClassNames;
+	}
+
+	/**
+	 * @param className the binary name of a class
+	 * @return the names of the config option fields declared in the class, or
+	 * <code>null</code> if the class does not declare any or is unknown to the index
+	 */
+	List<String> getConfigOptionFields(String className) {
+		return configOptionFields.get(className);
+	}
+}
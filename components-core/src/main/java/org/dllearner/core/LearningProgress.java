@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+/**
+ * An immutable snapshot of the state of a running class expression learning
+ * algorithm, reported to {@link SolutionListener}s.
+ */
+public class LearningProgress {
+
+	private final long runtimeMs;
+	private final int expressionTests;
+	private final int searchTreeSize;
+	private final double bestAccuracy;
+	private final double reasoningTimeShare;
+
+	public LearningProgress(long runtimeMs, int expressionTests, int searchTreeSize,
+							double bestAccuracy, double reasoningTimeShare) {
+		this.runtimeMs = runtimeMs;
+		this.expressionTests = expressionTests;
+		this.searchTreeSize = searchTreeSize;
+		this.bestAccuracy = bestAccuracy;
+		this.reasoningTimeShare = reasoningTimeShare;
+	}
+
+	/**
+	 * @return the time since the algorithm was started in milliseconds
+	 */
+	public long getRuntimeMs() {
+		return runtimeMs;
+	}
+
+	/**
+	 * @return the number of class expressions tested so far
+	 */
+	public int getExpressionTests() {
+		return expressionTests;
+	}
+
+	/**
+	 * @return the average number of class expressions tested per second
+	 */
+	public double getExpressionTestsPerSecond() {
+		return runtimeMs == 0 ? 0 : expressionTests * 1000d / runtimeMs;
+	}
+
+	/**
+	 * @return the number of nodes in the search tree, or -1 if unknown
+	 */
+	public int getSearchTreeSize() {
+		return searchTreeSize;
+	}
+
+	/**
+	 * @return the accuracy of the best solution found so far
+	 */
+	public double getBestAccuracy() {
+		return bestAccuracy;
+	}
+
+	/**
+	 * @return the share of the runtime spent in the reasoner, between 0 and 1
+	 */
+	public double getReasoningTimeShare() {
+		return reasoningTimeShare;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%d ms, %d expressions tested (%.1f/s), %d nodes, best accuracy %.4f, %.1f%% reasoning time",
+				runtimeMs, expressionTests, getExpressionTestsPerSecond(), searchTreeSize, bestAccuracy,
+				100 * reasoningTimeShare);
+	}
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Delivers the events of a learning algorithm to its {@link SolutionListener}s.
+ * Firing an event never blocks: the event is put into a lock-free queue which
+ * is drained by a shared pool of daemon threads, at most one thread per
+ * dispatcher at a time, so the order of events is preserved. Progress events
+ * are coalesced, i.e. while a progress event is waiting for delivery, newer
+ * progress just replaces its content.
+ */
+class SolutionEventDispatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(SolutionEventDispatcher.class);
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	private static final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+		Thread thread = new Thread(r, "solution-listener-" + threadCount.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private enum EventType {NEW_BEST_SOLUTION, PROGRESS, FINISHED}
+
+	private static class Event {
+		final EventType type;
+		final EvaluatedDescription<? extends Score> solution;
+		final LearningProgress progress;
+
+		Event(EventType type, EvaluatedDescription<? extends Score> solution, LearningProgress progress) {
+			this.type = type;
+			this.solution = solution;
+			this.progress = progress;
+		}
+	}
+
+	private final List<SolutionListener> listeners = new CopyOnWriteArrayList<>();
+	private final Queue<Event> queue = new ConcurrentLinkedQueue<>();
+	private final AtomicBoolean draining = new AtomicBoolean(false);
+
+	// the latest progress, set while a progress event is waiting in the queue
+	private final AtomicReference<LearningProgress> pendingProgress = new AtomicReference<>();
+
+	void addListener(SolutionListener listener) {
+		listeners.add(listener);
+	}
+
+	void removeListener(SolutionListener listener) {
+		listeners.remove(listener);
+	}
+
+	boolean hasListeners() {
+		return !listeners.isEmpty();
+	}
+
+	void fireNewBestSolution(EvaluatedDescription<? extends Score> solution, LearningProgress progress) {
+		enqueue(new Event(EventType.NEW_BEST_SOLUTION, solution, progress));
+	}
+
+	void fireProgress(LearningProgress progress) {
+		if (pendingProgress.getAndSet(progress) == null) {
+			enqueue(new Event(EventType.PROGRESS, null, null));
+		}
+	}
+
+	void fireFinished(LearningProgress progress) {
+		enqueue(new Event(EventType.FINISHED, null, progress));
+	}
+
+	private void enqueue(Event event) {
+		if (listeners.isEmpty()) {
+			return;
+		}
+		queue.add(event);
+		scheduleDrain();
+	}
+
+	private void scheduleDrain() {
+		if (draining.compareAndSet(false, true)) {
+			executor.execute(this::drain);
+		}
+	}
+
+	private void drain() {
+		Event event;
+		while ((event = queue.poll()) != null) {
+			deliver(event);
+		}
+		draining.set(false);
+		// an event might have been added after the last poll but before the flag was reset
+		if (!queue.isEmpty()) {
+			scheduleDrain();
+		}
+	}
+
+	private void deliver(Event event) {
+		LearningProgress progress = event.progress;
+		if (event.type == EventType.PROGRESS) {
+			progress = pendingProgress.getAndSet(null);
+		}
+		for (SolutionListener listener : listeners) {
+			try {
+				switch (event.type) {
+					case NEW_BEST_SOLUTION:
+						listener.newBestSolution(event.solution, progress);
+						break;
+					case PROGRESS:
+						listener.progress(progress);
+						break;
+					case FINISHED:
+						listener.learningFinished(progress);
+						break;
+				}
+			} catch (Exception e) {
+				logger.error("Solution listener " + listener + " failed.", e);
+			}
+		}
+	}
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+/**
+ * The SolutionListener interface should be implemented by objects that wish to
+ * be notified about the progress of a class expression learning algorithm
+ * instead of polling {@link AbstractCELA#getCurrentlyBestEvaluatedDescriptions()}.
+ * <br>
+ * Listeners are notified asynchronously from a thread that is not the thread
+ * running the learning algorithm, i.e. a slow listener never stalls the search.
+ * Events of one algorithm are delivered in the order they occurred. If a
+ * listener cannot keep up, outdated progress events are dropped, but new best
+ * solutions are always delivered.
+ *
+ * @see AbstractCELA#addSolutionListener(SolutionListener)
+ */
+public interface SolutionListener {
+
+	/**
+	 * Indicates that the learning algorithm found a solution which is better
+	 * than all solutions found before in the current run.
+	 *
+	 * @param solution the new best solution
+	 * @param progress the state of the algorithm when the solution was found
+	 */
+	void newBestSolution(EvaluatedDescription<? extends Score> solution, LearningProgress progress);
+
+	/**
+	 * Periodic progress report of a running learning algorithm. The interval
+	 * can be set with {@link AbstractCELA#setProgressReportInterval(long)}.
+	 *
+	 * @param progress the current state of the algorithm
+	 */
+	default void progress(LearningProgress progress) {}
+
+	/**
+	 * Indicates that the learning algorithm terminated or was stopped. No
+	 * further events of this run will follow.
+	 *
+	 * @param progress the final state of the algorithm
+	 */
+	default void learningFinished(LearningProgress progress) {}
+}
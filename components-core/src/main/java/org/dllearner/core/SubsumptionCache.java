@@ -0,0 +1,173 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * A concurrent, size-bounded memo of subsumption, equivalence and
+ * disjointness checks between class expressions. Least recently used entries
+ * are evicted first. Symmetric relations are stored only once, i.e. the order
+ * of the arguments does not matter for them.
+ */
+public class SubsumptionCache {
+
+	/**
+	 * The kind of relationship between two class expressions.
+	 */
+	public enum Relation {
+		SUBCLASS_OF(false), EQUIVALENT(true), DISJOINT(true);
+
+		private final boolean symmetric;
+
+		Relation(boolean symmetric) {
+			this.symmetric = symmetric;
+		}
+	}
+
+	/**
+	 * Computes the result of a check in case it is not cached.
+	 */
+	@FunctionalInterface
+	public interface Check {
+		boolean compute() throws ReasoningMethodUnsupportedException;
+	}
+
+	private static final class Key {
+		private final Relation relation;
+		private final OWLClassExpression first;
+		private final OWLClassExpression second;
+		private final int hash;
+
+		private Key(Relation relation, OWLClassExpression first, OWLClassExpression second) {
+			if (relation.symmetric && first.compareTo(second) > 0) {
+				OWLClassExpression tmp = first;
+				first = second;
+				second = tmp;
+			}
+			this.relation = relation;
+			this.first = first;
+			this.second = second;
+			this.hash = 31 * (31 * relation.hashCode() + first.hashCode()) + second.hashCode();
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return relation == other.relation && first.equals(other.first) && second.equals(other.second);
+		}
+	}
+
+	private final Cache<Key, Boolean> cache;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param maximumSize the maximum number of cached results
+	 */
+	public SubsumptionCache(long maximumSize) {
+		cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * Returns the cached result of the check or computes and caches it.
+	 * @param relation the kind of check
+	 * @param first the first argument of the check, e.g. the sub class
+	 * @param second the second argument of the check, e.g. the super class
+	 * @param check computes the result in case it is not cached
+	 * @return the result of the check
+	 * @throws ReasoningMethodUnsupportedException if the check is not supported
+	 */
+	public boolean get(Relation relation, OWLClassExpression first, OWLClassExpression second, Check check)
+			throws ReasoningMethodUnsupportedException {
+		Key key = new Key(relation, first, second);
+		Boolean result = cache.getIfPresent(key);
+		if (result != null) {
+			hits.incrementAndGet();
+			return result;
+		}
+		misses.incrementAndGet();
+		result = check.compute();
+		cache.put(key, result);
+		return result;
+	}
+
+	/**
+	 * @param relation the kind of check
+	 * @param first the first argument of the check
+	 * @param second the second argument of the check
+	 * @return the cached result, or <code>null</code> if not cached
+	 */
+	public Boolean getIfPresent(Relation relation, OWLClassExpression first, OWLClassExpression second) {
+		return cache.getIfPresent(new Key(relation, first, second));
+	}
+
+	/**
+	 * Removes all cached results, e.g. after the knowledge base changed.
+	 */
+	public void invalidateAll() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return the number of cached results
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the number of checks answered from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of checks passed to the reasoner
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * Resets the hit and miss counters.
+	 */
+	public void resetStatistics() {
+		hits.set(0);
+		misses.set(0);
+	}
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core.annotations;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Annotation processor which writes the component index read by
+ * {@link org.dllearner.core.AnnComponentManager} at runtime, so that the
+ * component manager does not have to scan the whole classpath on startup.
+ *
+ * For each compiled module a resource {@value #INDEX_RESOURCE} is generated.
+ * It contains one line per concrete component class
+ * (<code>C &lt;class name&gt;</code>) and one line per class declaring config
+ * options (<code>O &lt;class name&gt; &lt;field&gt; ...</code>).
+ */
+@SupportedAnnotationTypes({"org.dllearner.core.ComponentAnn", "org.dllearner.core.config.ConfigOption"})
+public class ComponentIndexProcessor extends AbstractProcessor {
+
+	public static final String INDEX_RESOURCE = "META-INF/dllearner/components.idx";
+
+	private static final String COMPONENT_ANN = "org.dllearner.core.ComponentAnn";
+	private static final String CONFIG_OPTION = "org.dllearner.core.config.ConfigOption";
+	private static final String COMPONENT = "org.dllearner.core.Component";
+
+	private final SortedSet<String> components = new TreeSet<>();
+	private final Map<String, SortedSet<String>> configOptions = new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			writeIndex();
+			return false;
+		}
+
+		TypeElement componentAnn = processingEnv.getElementUtils().getTypeElement(COMPONENT_ANN);
+		TypeElement configOption = processingEnv.getElementUtils().getTypeElement(CONFIG_OPTION);
+		TypeElement component = processingEnv.getElementUtils().getTypeElement(COMPONENT);
+
+		if (componentAnn != null && component != null) {
+			TypeMirror componentType = processingEnv.getTypeUtils().erasure(component.asType());
+			for (Element e : roundEnv.getElementsAnnotatedWith(componentAnn)) {
+				if (e.getKind() == ElementKind.CLASS
+						&& !e.getModifiers().contains(Modifier.ABSTRACT)
+						&& processingEnv.getTypeUtils().isAssignable(e.asType(), componentType)) {
+					components.add(binaryName((TypeElement) e));
+				}
+			}
+		}
+
+		if (configOption != null) {
+			for (Element e : roundEnv.getElementsAnnotatedWith(configOption)) {
+				if (e.getKind() == ElementKind.FIELD) {
+					String owner = binaryName((TypeElement) e.getEnclosingElement());
+					configOptions.computeIfAbsent(owner, k -> new TreeSet<>()).add(e.getSimpleName().toString());
+				}
+			}
+		}
+
+		return false;
+	}
+
+	private String binaryName(TypeElement type) {
+		return processingEnv.getElementUtils().getBinaryName(type).toString();
+	}
+
+	private void writeIndex() {
+		if (components.isEmpty() && configOptions.isEmpty()) {
+			return;
+		}
+		try {
+			FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+			try (Writer writer = file.openWriter(); PrintWriter out = new PrintWriter(writer)) {
+				out.println("# generated by " + getClass().getName() + ", do not edit");
+				for (String cls : components) {
+					out.println("C " + cls);
+				}
+				for (Map.Entry<String, SortedSet<String>> entry : configOptions.entrySet()) {
+					out.println("O " + entry.getKey() + " " + String.join(" ", entry.getValue()));
+				}
+			}
+		} catch (IOException e) {
+			processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+					"Could not write DL-Learner component index " + INDEX_RESOURCE + ": " + e.getMessage());
+		}
+	}
+}
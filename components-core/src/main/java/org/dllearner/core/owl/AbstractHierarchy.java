@@ -40,6 +40,10 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	private SortedSet<T> rootEntities = new TreeSet<>();
 	private SortedSet<T> leafEntities = new TreeSet<>();
 	
+	// reachability indexes for transitive queries, built on demand
+	private volatile HierarchyClosure<T> upClosure;
+	private volatile HierarchyClosure<T> downClosure;
+	
 
 	public AbstractHierarchy(SortedMap<T, SortedSet<T>> hierarchyUp, SortedMap<T, SortedSet<T>> hierarchyDown) {
 		this.hierarchyUp = hierarchyUp;
@@ -47,8 +51,8 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 		
 		// find most general and most special entities
 		for (T entity : Sets.union(hierarchyUp.keySet(), hierarchyDown.keySet())) {
-			SortedSet<T> moreGen = getParents(entity);
-			SortedSet<T> moreSpec = getChildren(entity);
+			SortedSet<T> moreGen = getParentsView(entity, true);
+			SortedSet<T> moreSpec = getChildrenView(entity, true);
 
 			if (moreGen.size() == 0 || (moreGen.size() == 1 && moreGen.first().isTopEntity()))
 				rootEntities.add(entity);
@@ -78,22 +82,35 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	 */
 	@Override
 	public SortedSet<T> getChildren(T entity, boolean direct) {
-		SortedSet<T> result =  hierarchyDown.get(entity);
+		return new TreeSet<>(getChildrenView(entity, direct));
+	}
+
+	/**
+	 * Returns the children of the entity as unmodifiable view, which in contrast to
+	 * {@link #getChildren(OWLObject, boolean)} does not copy the set. The transitive
+	 * children are computed only once and shared between calls.
+	 * @param entity the entity
+	 * @param direct whether to return only the direct children
+	 * @return an unmodifiable set of the children
+	 */
+	public SortedSet<T> getChildrenView(T entity, boolean direct) {
+		SortedSet<T> result = hierarchyDown.get(entity);
 		
 		if(result == null) {
 			logger.debug("Query for " + entity + " in hierarchy, but the entity is not contained in the (downward) hierarchy, e.g. because the entity does not exist or is ignored. Returning empty result instead.");
-			return new TreeSet<>();
+			return Collections.emptySortedSet();
 		}
 		
-		result.remove(entity);
 		if(!direct) { // get transitive children
-			SortedSet<T> tmp = new TreeSet<>();
-			for(T child : result){
-				tmp.addAll(getChildren(child, direct));
-			}
-			result.addAll(tmp);
+			return getDownClosure().reachable(entity);
 		}
-		return new TreeSet<>(result);
+		if(result.contains(entity)) {
+			// the set is shared by all callers and must not be modified, thus,
+			// a reflexive entry is removed from a copy
+			result = new TreeSet<>(result);
+			result.remove(entity);
+		}
+		return Collections.unmodifiableSortedSet(result);
 	}
 
 	/* (non-Javadoc)
@@ -109,23 +126,61 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	 */
 	@Override
 	public SortedSet<T> getParents(T entity, boolean direct) {
-		SortedSet<T> result =  hierarchyUp.get(entity);
+		return new TreeSet<>(getParentsView(entity, direct));
+	}
+
+	/**
+	 * Returns the parents of the entity as unmodifiable view, which in contrast to
+	 * {@link #getParents(OWLObject, boolean)} does not copy the set. The transitive
+	 * parents are computed only once and shared between calls.
+	 * @param entity the entity
+	 * @param direct whether to return only the direct parents
+	 * @return an unmodifiable set of the parents
+	 */
+	public SortedSet<T> getParentsView(T entity, boolean direct) {
+		SortedSet<T> result = hierarchyUp.get(entity);
 		
 		if(result == null) {
 			logger.debug("Query for " + entity + " in hierarchy, but the entity is not contained in the (upward) hierarchy, e.g. because the entity does not exist or is ignored. Returning empty result instead.");
-			return new TreeSet<>();
+			return Collections.emptySortedSet();
 		}
 		
-		result.remove(entity);
-		if(!direct) {
-			SortedSet<T> tmp = new TreeSet<>();
-			for(T parent : result){
-				tmp.addAll(getParents(parent, direct));
+		if(!direct) { // get transitive parents
+			return getUpClosure().reachable(entity);
+		}
+		if(result.contains(entity)) {
+			// the set is shared by all callers and must not be modified, thus,
+			// a reflexive entry is removed from a copy
+			result = new TreeSet<>(result);
+			result.remove(entity);
+		}
+		return Collections.unmodifiableSortedSet(result);
+	}
+
+	private HierarchyClosure<T> getUpClosure() {
+		HierarchyClosure<T> closure = upClosure;
+		if (closure == null) {
+			synchronized (this) {
+				if (upClosure == null) {
+					upClosure = new HierarchyClosure<>(hierarchyUp);
+				}
+				closure = upClosure;
 			}
-			result.addAll(tmp);
 		}
-		
-		return new TreeSet<>(result);
+		return closure;
+	}
+
+	private HierarchyClosure<T> getDownClosure() {
+		HierarchyClosure<T> closure = downClosure;
+		if (closure == null) {
+			synchronized (this) {
+				if (downClosure == null) {
+					downClosure = new HierarchyClosure<>(hierarchyDown);
+				}
+				closure = downClosure;
+			}
+		}
+		return closure;
 	}
 
 	/* (non-Javadoc)
@@ -135,9 +190,9 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	public SortedSet<T> getSiblings(T entity) {
 		SortedSet<T> siblings = new TreeSet<>();
 		
-		Set<T> parents = getParents(entity);
+		Set<T> parents = getParentsView(entity, true);
 		for(T parent : parents) {
-			siblings.addAll(getChildren(parent));
+			siblings.addAll(getChildrenView(parent, true));
 		}
 		
 		siblings.remove(entity);
@@ -149,23 +204,8 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	 */
 	@Override
 	public boolean isChildOf(T entity1, T entity2) {
-		if (entity1.equals(entity2)) {
-			return true;
-		} else {
-			SortedSet<T> parents = getParents(entity1);
-			
-			if(parents != null){
-				// search the upper classes of the subclass
-				for (T parent : parents) {
-					if (isChildOf(parent, entity2)) {
-						return true;
-					}
-				}
-			}
-			// we cannot reach the class via any of the upper classes,
-			// so it is not a super class
-			return false;
-		}
+		// look up whether the second entity can be reached via the upper entities
+		return entity1.equals(entity2) || getUpClosure().reaches(entity1, entity2);
 	}
 
 	/* (non-Javadoc)
@@ -353,8 +393,9 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	/**
 	 * @param hierarchyUp the hierarchyUp to set
 	 */
-	public void setHierarchyUp(SortedMap<T, SortedSet<T>> hierarchyUp) {
+	public synchronized void setHierarchyUp(SortedMap<T, SortedSet<T>> hierarchyUp) {
 		this.hierarchyUp = hierarchyUp;
+		this.upClosure = null;
 	}
 	
 	/**
@@ -367,8 +408,9 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 	/**
 	 * @param hierarchyDown the hierarchyDown to set
 	 */
-	public void setHierarchyDown(SortedMap<T, SortedSet<T>> hierarchyDown) {
+	public synchronized void setHierarchyDown(SortedMap<T, SortedSet<T>> hierarchyDown) {
 		this.hierarchyDown = hierarchyDown;
+		this.downClosure = null;
 	}
 	
 	/**
@@ -378,8 +420,14 @@ public abstract class AbstractHierarchy<T extends OWLObject> implements Hierarch
 		return hierarchyDown;
 	}
 	
+	/**
+	 * Computes the transitive closure of the hierarchy in both directions, such
+	 * that all subsequent transitive queries and subsumption checks are answered
+	 * by lookups. Otherwise, this is done lazily on first access.
+	 */
 	public void precompute() {
-		
+		getUpClosure().precompute();
+		getDownClosure().precompute();
 	}
 	
 	@Override
@@ -18,6 +18,7 @@
  */
 package org.dllearner.core.owl;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedMap;
@@ -108,6 +109,32 @@ public class ClassHierarchy extends AbstractHierarchy<OWLClassExpression> {
 		return getChildren(concept, direct);
 	}
 
+	/**
+	 * Returns the superclasses as unmodifiable view, i.e. without copying them.
+	 * @param concept the class
+	 * @param direct whether to return only direct superclasses or not
+	 * @return an unmodifiable set of the superclasses
+	 */
+	public SortedSet<OWLClassExpression> getSuperClassesView(OWLClassExpression concept, boolean direct) {
+		if(concept.isOWLThing()) {
+			return Collections.emptySortedSet();
+		}
+		return getParentsView(concept, direct);
+	}
+
+	/**
+	 * Returns the subclasses as unmodifiable view, i.e. without copying them.
+	 * @param concept the class
+	 * @param direct whether to return only direct subclasses or not
+	 * @return an unmodifiable set of the subclasses
+	 */
+	public SortedSet<OWLClassExpression> getSubClassesView(OWLClassExpression concept, boolean direct) {
+		if(concept.isOWLNothing()) {
+			return Collections.emptySortedSet();
+		}
+		return getChildrenView(concept, direct);
+	}
+
 	public SortedSet<OWLClassExpression> getSiblingClasses(OWLClassExpression concept) {
 		return getSiblings(concept);
 	}
@@ -20,7 +20,6 @@ package org.dllearner.core.owl;
 
 import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
@@ -50,11 +49,11 @@ public class DatatypePropertyHierarchy extends AbstractHierarchy<OWLDataProperty
 	}
 	
 	public SortedSet<OWLDataProperty> getMoreGeneralRoles(OWLDataProperty role) {
-		return new TreeSet<>(getParents(role));
+		return getParents(role);
 	}
 	
 	public SortedSet<OWLDataProperty> getMoreSpecialRoles(OWLDataProperty role) {
-		return new TreeSet<>(getChildren(role));
+		return getChildren(role);
 	}	
 	
 	public boolean isSubpropertyOf(OWLDataProperty subProperty, OWLDataProperty superProperty) {
@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core.owl;
+
+import com.google.common.collect.ImmutableSortedSet;
+import org.semanticweb.owlapi.model.OWLObject;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Reachability index over one direction of a hierarchy, i.e. the transitive
+ * closure of the direct parent resp. child relation given as map.
+ * Each entity gets an integer ID in its natural order, and for each entity the
+ * IDs of all reachable entities are stored as sorted array, which allows for
+ * checking reachability by binary search instead of traversing the hierarchy.
+ * For the usual, shallow hierarchies the size of the closure is linear in the
+ * number of entities.
+ * The closure of an entity is computed on first access and memoised, the
+ * sorted set views are created lazily and shared.
+ */
+class HierarchyClosure<T extends OWLObject> {
+
+	private static final int[] EMPTY = new int[0];
+
+	private final List<T> entities;
+	private final Map<T, Integer> ids;
+	private final int[][] successors;
+
+	private final AtomicReferenceArray<int[]> closures;
+	private final AtomicReferenceArray<SortedSet<T>> views;
+
+	// state used during the computation of closures
+	private final boolean[] inProgress;
+
+	/**
+	 * @param direct maps each entity to its direct successors, i.e. parents or children
+	 */
+	HierarchyClosure(SortedMap<T, SortedSet<T>> direct) {
+		SortedSet<T> all = new TreeSet<>(direct.keySet());
+		for (SortedSet<T> values : direct.values()) {
+			all.addAll(values);
+		}
+		entities = new ArrayList<>(all);
+		ids = new HashMap<>(entities.size() * 2);
+		for (int i = 0; i < entities.size(); i++) {
+			ids.put(entities.get(i), i);
+		}
+
+		successors = new int[entities.size()][];
+		for (int i = 0; i < entities.size(); i++) {
+			SortedSet<T> values = direct.get(entities.get(i));
+			if (values == null || values.isEmpty()) {
+				successors[i] = EMPTY;
+			} else {
+				int[] succ = new int[values.size()];
+				int n = 0;
+				for (T value : values) {
+					int id = ids.get(value);
+					if (id != i) {
+						succ[n++] = id;
+					}
+				}
+				successors[i] = n == succ.length ? succ : Arrays.copyOf(succ, n);
+			}
+		}
+
+		closures = new AtomicReferenceArray<>(entities.size());
+		views = new AtomicReferenceArray<>(entities.size());
+		inProgress = new boolean[entities.size()];
+	}
+
+	/**
+	 * Computes the closures of all entities.
+	 */
+	void precompute() {
+		for (int i = 0; i < entities.size(); i++) {
+			closure(i);
+		}
+	}
+
+	/**
+	 * @return whether <code>to</code> can be reached from <code>from</code>
+	 * via one or more steps
+	 */
+	boolean reaches(T from, T to) {
+		Integer fromID = ids.get(from);
+		Integer toID = ids.get(to);
+		return fromID != null && toID != null && Arrays.binarySearch(closure(fromID), toID) >= 0;
+	}
+
+	/**
+	 * @return an unmodifiable, sorted view of all entities reachable from the
+	 * given entity (without the entity itself), which is shared between calls
+	 */
+	SortedSet<T> reachable(T entity) {
+		Integer id = ids.get(entity);
+		if (id == null) {
+			return ImmutableSortedSet.of();
+		}
+		SortedSet<T> view = views.get(id);
+		if (view == null) {
+			int[] closure = closure(id);
+			List<T> elements = new ArrayList<>(closure.length);
+			for (int i : closure) {
+				elements.add(entities.get(i));
+			}
+			// IDs follow the natural order, so the elements are already sorted
+			view = ImmutableSortedSet.copyOf(elements);
+			views.compareAndSet(id, null, view);
+			view = views.get(id);
+		}
+		return view;
+	}
+
+	private int[] closure(int id) {
+		int[] closure = closures.get(id);
+		if (closure == null) {
+			synchronized (this) {
+				closure = compute(id);
+			}
+		}
+		return closure;
+	}
+
+	/**
+	 * Depth-first computation of the closure, memoising the closures of all
+	 * visited entities. Returns <code>null</code> if the entity is part of a
+	 * cycle which is currently being computed; the entities depending on it
+	 * then fall back to a breadth-first search.
+	 */
+	private int[] compute(int id) {
+		int[] closure = closures.get(id);
+		if (closure != null) {
+			return closure;
+		}
+		if (inProgress[id]) {
+			return null;
+		}
+		inProgress[id] = true;
+
+		int[] succ = successors[id];
+		boolean cyclic = false;
+		int size = succ.length;
+		int[][] parts = new int[succ.length][];
+		for (int i = 0; i < succ.length; i++) {
+			parts[i] = compute(succ[i]);
+			if (parts[i] == null) {
+				cyclic = true;
+			} else {
+				size += parts[i].length;
+			}
+		}
+
+		if (cyclic) {
+			closure = breadthFirstSearch(id);
+		} else {
+			int[] tmp = Arrays.copyOf(succ, size);
+			int pos = succ.length;
+			for (int[] part : parts) {
+				System.arraycopy(part, 0, tmp, pos, part.length);
+				pos += part.length;
+			}
+			closure = sortedUnique(tmp, id);
+		}
+
+		inProgress[id] = false;
+		closures.set(id, closure);
+		return closure;
+	}
+
+	private int[] breadthFirstSearch(int id) {
+		BitSet visited = new BitSet(entities.size());
+		Deque<Integer> queue = new ArrayDeque<>();
+		queue.add(id);
+		while (!queue.isEmpty()) {
+			for (int succ : successors[queue.poll()]) {
+				if (!visited.get(succ)) {
+					visited.set(succ);
+					queue.add(succ);
+				}
+			}
+		}
+		visited.clear(id);
+		return visited.stream().toArray();
+	}
+
+	private static int[] sortedUnique(int[] values, int exclude) {
+		if (values.length == 0) {
+			return EMPTY;
+		}
+		Arrays.sort(values);
+		int n = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != exclude && (n == 0 || values[n - 1] != values[i])) {
+				values[n++] = values[i];
+			}
+		}
+		return n == values.length ? values : Arrays.copyOf(values, n);
+	}
+}
@@ -21,7 +21,6 @@ package org.dllearner.core.owl;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
@@ -48,11 +47,11 @@ public class ObjectPropertyHierarchy extends AbstractHierarchy<OWLObjectProperty
 	}
 	
 	public SortedSet<OWLObjectProperty> getMoreGeneralRoles(OWLObjectProperty role) {
-		return new TreeSet<>(getParents(role));
+		return getParents(role);
 	}
 	
 	public SortedSet<OWLObjectProperty> getMoreSpecialRoles(OWLObjectProperty role) {
-		return new TreeSet<>(getChildren(role));
+		return getChildren(role);
 	}
 	
 	public boolean isSubpropertyOf(OWLObjectProperty subProperty, OWLObjectProperty superProperty) {
@@ -26,6 +26,8 @@ import org.aksw.jena_sparql_api.delay.core.QueryExecutionFactoryDelay;
 import org.aksw.jena_sparql_api.http.QueryExecutionHttpWrapper;
 import org.aksw.jena_sparql_api.pagination.core.QueryExecutionFactoryPaginated;
 import org.aksw.jena_sparql_api.retry.core.QueryExecutionFactoryRetry;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
 import org.apache.jena.riot.WebContent;
 import org.apache.jena.sparql.engine.http.QueryEngineHTTP;
 import org.dllearner.core.AbstractKnowledgeSource;
@@ -34,14 +36,20 @@ import org.dllearner.core.ComponentInitException;
 import org.dllearner.core.KnowledgeSource;
 import org.dllearner.core.annotations.NoConfigOption;
 import org.dllearner.core.config.ConfigOption;
+import org.dllearner.kb.sparql.AsyncQueryExecutor;
+import org.dllearner.kb.sparql.BinaryQueryCache;
+import org.dllearner.kb.sparql.QueryExecutionFactoryBinaryCache;
 import org.dllearner.kb.sparql.SPARQLTasks;
 import org.dllearner.kb.sparql.SparqlEndpoint;
+import org.dllearner.kb.sparql.TokenBucketDelayer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.net.URL;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -53,7 +61,7 @@ import java.util.concurrent.TimeUnit;
  *
  */
 @ComponentAnn(name = "SPARQL endpoint", shortName = "sparql", version = 0.2)
-public class SparqlEndpointKS extends AbstractKnowledgeSource {
+public class SparqlEndpointKS extends AbstractKnowledgeSource implements AutoCloseable {
 
 	private static final Logger logger = LoggerFactory.getLogger(SparqlEndpointKS.class);
 
@@ -77,6 +85,20 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 	@ConfigOption(defaultValue = "50", description = "Use this setting to avoid overloading the endpoint with a sudden burst of queries. A value below 0 means no delay.", required = false)
 	private long queryDelay = 50;
 
+	@ConfigOption(defaultValue = "0", description = "The maximum average number of queries per second sent to the endpoint. "
+			+ "Short bursts and concurrent queries are allowed as long as the rate is not exceeded. "
+			+ "A value of 0 derives the rate from the query delay, a value below 0 means no limit.", required = false)
+	private double maxQueriesPerSecond = 0;
+
+	@ConfigOption(defaultValue = "8", description = "The maximum number of asynchronous queries sent to the endpoint at the same time.", required = false)
+	private int maxConcurrentQueries = 8;
+
+	@ConfigOption(defaultValue = "true", description = "Whether to ask the endpoint for gzip or deflate compressed results.", required = false)
+	private boolean useCompression = true;
+
+	@NoConfigOption
+	private AsyncQueryExecutor asyncExecutor;
+
 	// caching options
 	@ConfigOption(defaultValue = "true", description = "Use this setting to enable caching of SPARQL queries in a local database.", required = false)
 	private boolean useCache = true;
@@ -87,6 +109,10 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 	@ConfigOption(defaultValue = "86400", description = "The time to live in milliseconds for cached SPARQL queries, if enabled. The default value is 86400s(=1 day).", required = false)
 	protected long cacheTTL = TimeUnit.DAYS.toMillis(1);
 
+	@ConfigOption(defaultValue = "h2", description = "The storage of the SPARQL query cache: 'h2' for the H2 database, 'binary' for compact binary files " +
+			"which are read via memory mapping. The binary cache is only used if useCache is enabled.", required = false)
+	protected String cacheBackend = "h2";
+
 	@ConfigOption(defaultValue = "3", description = "The maximum number of retries for the execution of a particular SPARQL query.", required = false)
 	protected int retryCount = 3;
 
@@ -139,6 +165,10 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 	@Override
 	public void init() throws ComponentInitException {
 		if(!initialized){
+			if(maxConcurrentQueries < 1) {
+				throw new ComponentInitException("The maximum number of concurrent queries has to be at least 1, but is " + maxConcurrentQueries + ".");
+			}
+
 			if(isRemote()) {
 				if(endpoint == null) {
 					endpoint = new SparqlEndpoint(url, defaultGraphURIs, namedGraphURIs);
@@ -161,20 +191,32 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 				endpoint.getDefaultGraphURIs());
 		qef = FluentQueryExecutionFactory
 				.http(endpoint.getURL().toString(), endpoint.getDefaultGraphURIs())
-				.config().withPostProcessor(qe -> ((QueryEngineHTTP) ((QueryExecutionHttpWrapper) qe).getDecoratee())
-						.setModelContentType(WebContent.contentTypeRDFXML))
+				.config().withPostProcessor(qe -> {
+					// connections are kept alive by the pooling default client of Jena
+					QueryEngineHTTP qeHttp = (QueryEngineHTTP) ((QueryExecutionHttpWrapper) qe).getDecoratee();
+					qeHttp.setModelContentType(WebContent.contentTypeRDFXML);
+					qeHttp.setAllowGZip(useCompression);
+					qeHttp.setAllowDeflate(useCompression);
+				})
 				.end()
 				.create();
 
-		if(useCache) {
+		if(useCache && cacheBackend.equalsIgnoreCase("binary")) {
+			// the H2 connection settings are not part of the directory
+			String dir = cacheDir.contains(";") ? cacheDir.substring(0, cacheDir.indexOf(';')) : cacheDir;
+			qef = new QueryExecutionFactoryBinaryCache(qef, new BinaryQueryCache(new File(dir), cacheTTL));
+		} else if(useCache) {
 			qef = CacheUtilsH2.createQueryExecutionFactory(qef, cacheDir, false, cacheTTL );
 		} else {
 			// use in-memory cache
 			qef = CacheUtilsH2.createQueryExecutionFactory(qef, cacheDir, true, cacheTTL);
 		}
 
-		// add some delay
-		qef = new QueryExecutionFactoryDelay(qef, queryDelay);
+		// limit the query rate
+		double rate = getQueryRate();
+		if(rate > 0) {
+			qef = new QueryExecutionFactoryDelay(qef, new TokenBucketDelayer(rate));
+		}
 
 		if(retryCount > 0) {
 			qef = new QueryExecutionFactoryRetry(qef, retryCount, 1, TimeUnit.SECONDS);
@@ -186,6 +228,71 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 		return qef;
 	}
 
+	// the maximum number of queries per second, or a value <= 0 if unlimited
+	private double getQueryRate() {
+		if(maxQueriesPerSecond != 0) {
+			return maxQueriesPerSecond;
+		}
+		return queryDelay > 0 ? 1000d / queryDelay : -1;
+	}
+
+	/**
+	 * Returns the executor for asynchronous SPARQL queries, which sends at most
+	 * {@link #setMaxConcurrentQueries(int)} queries at the same time. The queries
+	 * are cached, rate limited and retried like synchronous ones.
+	 *
+	 * @return the asynchronous query executor
+	 */
+	public synchronized AsyncQueryExecutor getAsyncQueryExecutor() {
+		if(qef == null) {
+			throw new IllegalStateException("The knowledge source has not been initialized.");
+		}
+		if(asyncExecutor == null) {
+			asyncExecutor = new AsyncQueryExecutor(qef, maxConcurrentQueries);
+		}
+		return asyncExecutor;
+	}
+
+	/**
+	 * Shuts down the thread pool of the asynchronous query executor, if it has
+	 * been created. Queries already submitted are still executed. A later call
+	 * of {@link #getAsyncQueryExecutor()} creates a new pool.
+	 */
+	@Override
+	public synchronized void close() {
+		if(asyncExecutor != null) {
+			asyncExecutor.shutdown();
+			asyncExecutor = null;
+		}
+	}
+
+	/**
+	 * Asynchronous execution of a SPARQL SELECT query.
+	 * @param query the query
+	 * @return the future result set
+	 */
+	public CompletableFuture<ResultSetRewindable> selectAsync(String query) {
+		return getAsyncQueryExecutor().select(query);
+	}
+
+	/**
+	 * Asynchronous execution of a SPARQL ASK query.
+	 * @param query the query
+	 * @return the future result
+	 */
+	public CompletableFuture<Boolean> askAsync(String query) {
+		return getAsyncQueryExecutor().ask(query);
+	}
+
+	/**
+	 * Asynchronous execution of a SPARQL CONSTRUCT query.
+	 * @param query the query
+	 * @return the future model
+	 */
+	public CompletableFuture<Model> constructAsync(String query) {
+		return getAsyncQueryExecutor().construct(query);
+	}
+
 	public void setPageSize(long pageSize) {
 		this.pageSize = pageSize;
 	}
@@ -233,13 +340,54 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 	/**
 	 * Set a delay between each sent SPARQL query to avoid overloading of the
 	 * endpoint. Note that this does only make sense for remote endpoints and
-	 * will be ignored for local files.
+	 * will be ignored for local files. Unless a maximum query rate is set, the
+	 * delay is turned into the equivalent rate of queries per second.
 	 * @param queryDelay the delay in milliseconds
 	 */
 	public void setQueryDelay(int queryDelay) {
 		this.queryDelay = queryDelay;
 	}
 
+	/**
+	 * Set the maximum average number of queries per second. Other than the query
+	 * delay, this allows for short bursts and concurrent queries.
+	 * @param maxQueriesPerSecond the maximum rate, 0 to derive it from the query
+	 * delay, or a value below 0 for no limit
+	 */
+	public void setMaxQueriesPerSecond(double maxQueriesPerSecond) {
+		this.maxQueriesPerSecond = maxQueriesPerSecond;
+	}
+
+	public double getMaxQueriesPerSecond() {
+		return maxQueriesPerSecond;
+	}
+
+	/**
+	 * @param maxConcurrentQueries the maximum number of asynchronous queries in flight,
+	 * at least 1
+	 */
+	public void setMaxConcurrentQueries(int maxConcurrentQueries) {
+		if(maxConcurrentQueries < 1) {
+			throw new IllegalArgumentException("The maximum number of concurrent queries has to be at least 1, but is " + maxConcurrentQueries + ".");
+		}
+		this.maxConcurrentQueries = maxConcurrentQueries;
+	}
+
+	public int getMaxConcurrentQueries() {
+		return maxConcurrentQueries;
+	}
+
+	/**
+	 * @param useCompression whether to ask for compressed results
+	 */
+	public void setUseCompression(boolean useCompression) {
+		this.useCompression = useCompression;
+	}
+
+	public boolean isUseCompression() {
+		return useCompression;
+	}
+
 	/**
 	 * @param useCache the useCache to set
 	 */
@@ -263,6 +411,19 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 		this.cacheDir = cacheDir;
 	}
 
+	public String getCacheBackend() {
+		return cacheBackend;
+	}
+
+	/**
+	 * Set the storage of the SPARQL cache, either <code>h2</code> (default)
+	 * or <code>binary</code>.
+	 * @param cacheBackend the cache backend
+	 */
+	public void setCacheBackend(String cacheBackend) {
+		this.cacheBackend = cacheBackend;
+	}
+
 	/**
 	 * Set the time-to-live for the file-based SPARQL cache.
 	 * @param cacheTTL the time-to-live value in milliseconds
@@ -294,8 +455,9 @@ public class SparqlEndpointKS extends AbstractKnowledgeSource {
 		} else {
 			out += String.format("%-15s %-25s%n", "URL:", "null");
 		}
-		out += String.format("%-15s %-25s%n", "Cache:", cacheDir);
-		out += String.format("%-15s %dms%n", "Delay:", queryDelay);
+		out += String.format("%-15s %-25s%n", "Cache:", cacheDir + " (" + cacheBackend + ")");
+		double rate = getQueryRate();
+		out += String.format("%-15s %s%n", "Rate limit:", rate > 0 ? String.format("%.1f queries/s", rate) : "none");
 		return out;
 	}
 
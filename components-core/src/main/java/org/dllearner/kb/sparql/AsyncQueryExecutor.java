@@ -0,0 +1,101 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * Executes SPARQL queries asynchronously on a bounded pool of connections,
+ * i.e. at most the given number of queries is in flight at the same time and
+ * further queries are queued. The queries are executed by the given query
+ * execution factory, thus caching, rate limiting and retries apply as for
+ * synchronous queries. The results are fully consumed before the futures
+ * complete, such that the connection can be reused.
+ */
+public class AsyncQueryExecutor {
+
+	private static final AtomicInteger poolCount = new AtomicInteger();
+
+	private final QueryExecutionFactory qef;
+	private final ExecutorService executor;
+
+	/**
+	 * @param qef the query execution factory
+	 * @param maxConcurrentQueries the maximum number of queries in flight
+	 */
+	public AsyncQueryExecutor(QueryExecutionFactory qef, int maxConcurrentQueries) {
+		this.qef = qef;
+		int pool = poolCount.incrementAndGet();
+		AtomicInteger threadCount = new AtomicInteger();
+		this.executor = Executors.newFixedThreadPool(maxConcurrentQueries, r -> {
+			Thread thread = new Thread(r, "sparql-async-" + pool + "-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * @param query a SPARQL SELECT query
+	 * @return the future result set
+	 */
+	public CompletableFuture<ResultSetRewindable> select(String query) {
+		return submit(query, qe -> ResultSetFactory.copyResults(qe.execSelect()));
+	}
+
+	/**
+	 * @param query a SPARQL ASK query
+	 * @return the future result
+	 */
+	public CompletableFuture<Boolean> ask(String query) {
+		return submit(query, QueryExecution::execAsk);
+	}
+
+	/**
+	 * @param query a SPARQL CONSTRUCT query
+	 * @return the future model
+	 */
+	public CompletableFuture<Model> construct(String query) {
+		return submit(query, QueryExecution::execConstruct);
+	}
+
+	private <T> CompletableFuture<T> submit(String query, Function<QueryExecution, T> exec) {
+		return CompletableFuture.supplyAsync(() -> {
+			try (QueryExecution qe = qef.createQueryExecution(query)) {
+				return exec.apply(qe);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Stops accepting new queries. Queries already submitted are still executed.
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+}
@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QueryParseException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A file based SPARQL query cache which stores each result in the binary
+ * format of {@link BinaryResultCodec}. Results are keyed by the hash of the
+ * normalized query, i.e. queries which differ only in formatting share the
+ * same entry. Cached results are read via memory mapping, thus loading large
+ * results does not copy the file content into the Java heap first.
+ */
+public class BinaryQueryCache {
+
+	private static final Logger logger = LoggerFactory.getLogger(BinaryQueryCache.class);
+
+	private static final String FILE_EXTENSION = ".bin";
+
+	private final Path cacheDir;
+	private final long timeToLive;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param cacheDir the directory the results are stored in
+	 * @param timeToLive the time in milliseconds a result is valid, a value
+	 * below or equal to 0 means that results never expire
+	 */
+	public BinaryQueryCache(File cacheDir, long timeToLive) {
+		this.cacheDir = cacheDir.toPath();
+		this.timeToLive = timeToLive;
+		try {
+			Files.createDirectories(this.cacheDir);
+		} catch (IOException e) {
+			throw new RuntimeException("Failed to create SPARQL cache directory " + cacheDir, e);
+		}
+	}
+
+	/**
+	 * Normalizes the query, i.e. parses and serializes it again. Queries which
+	 * can not be parsed, e.g. because of vendor specific extensions, are used
+	 * as they are.
+	 * @param query the query
+	 * @return the normalized query
+	 */
+	public static String normalize(String query) {
+		try {
+			return QueryFactory.create(query).serialize();
+		} catch (QueryParseException e) {
+			return query.trim();
+		}
+	}
+
+	/**
+	 * @param normalizedQuery the normalized query
+	 * @return the cache key of the query
+	 */
+	public static String key(String normalizedQuery) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			byte[] hash = digest.digest(normalizedQuery.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder(hash.length * 2);
+			for (byte b : hash) {
+				sb.append(String.format("%02x", b));
+			}
+			return sb.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * Looks up the cached result of the query.
+	 * @param normalizedQuery the normalized query
+	 * @param type the expected result type
+	 * @return a buffer positioned behind the header of the cached result, or
+	 * <code>null</code> if there is no valid entry
+	 */
+	public ByteBuffer lookup(String normalizedQuery, byte type) {
+		Path file = file(normalizedQuery);
+		if (!Files.exists(file)) {
+			misses.incrementAndGet();
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			BinaryResultCodec.Header header = BinaryResultCodec.readHeader(buffer);
+			if (header != null
+					&& header.getType() == type
+					&& header.getQuery().equals(normalizedQuery)
+					&& !isExpired(header.getTimestamp())) {
+				hits.incrementAndGet();
+				return buffer;
+			}
+		} catch (IOException e) {
+			logger.warn("Failed to read cached SPARQL result " + file, e);
+		}
+		misses.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Stores the encoded result of a query. The file is written completely
+	 * before it becomes visible, thus concurrent readers never see partial
+	 * results.
+	 * @param normalizedQuery the normalized query
+	 * @param data the result encoded by {@link BinaryResultCodec}
+	 */
+	public void store(String normalizedQuery, byte[] data) {
+		Path file = file(normalizedQuery);
+		try {
+			Path tmp = Files.createTempFile(cacheDir, "result", ".tmp");
+			Files.write(tmp, data);
+			Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			logger.warn("Failed to write cached SPARQL result " + file, e);
+		}
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void clear() {
+		File[] files = cacheDir.toFile().listFiles((dir, name) -> name.endsWith(FILE_EXTENSION));
+		if (files != null) {
+			for (File file : files) {
+				if (!file.delete()) {
+					logger.warn("Failed to delete cached SPARQL result " + file);
+				}
+			}
+		}
+	}
+
+	private boolean isExpired(long timestamp) {
+		return timeToLive > 0 && System.currentTimeMillis() - timestamp > timeToLive;
+	}
+
+	private Path file(String normalizedQuery) {
+		return cacheDir.resolve(key(normalizedQuery) + FILE_EXTENSION);
+	}
+
+	/**
+	 * @return the directory the results are stored in
+	 */
+	public File getCacheDir() {
+		return cacheDir.toFile();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups not answered from the cache
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+}
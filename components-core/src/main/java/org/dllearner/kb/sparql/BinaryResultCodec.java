@@ -0,0 +1,370 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.datatypes.TypeMapper;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.ResultSetStream;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.sparql.engine.binding.BindingFactory;
+import org.apache.jena.sparql.engine.binding.BindingMap;
+
+/**
+ * Compact binary encoding of SPARQL query results, used by the
+ * {@link BinaryQueryCache}. All RDF terms of a result are stored once in a
+ * dictionary, the solutions (resp. triples) are stored column by column as
+ * indexes into the dictionary. Decoding works directly on a (memory-mapped)
+ * byte buffer and does not need any text parsing apart from the dictionary
+ * entries.
+ * <p>
+ * Layout: header (magic, version, result type, timestamp, query), dictionary
+ * (number of terms, each as kind and UTF-8 strings), body. The body of a
+ * SELECT result is the list of variables, the number of rows and one column
+ * of term indexes per variable (0 for unbound, otherwise index + 1). The body
+ * of a graph result is the number of triples followed by the subject,
+ * predicate and object columns. The body of an ASK result is a single byte.
+ */
+public class BinaryResultCodec {
+
+	public static final int MAGIC = 0x444C5243; // "DLRC"
+	public static final short VERSION = 1;
+
+	public static final byte TYPE_SELECT = 1;
+	public static final byte TYPE_ASK = 2;
+	public static final byte TYPE_GRAPH = 3;
+
+	// magic, version, result type, timestamp and length of the query
+	private static final int HEADER_LENGTH = 4 + 2 + 1 + 8 + 4;
+
+	private static final byte TERM_URI = 0;
+	private static final byte TERM_BLANK = 1;
+	private static final byte TERM_TYPED_LITERAL = 2;
+	private static final byte TERM_LANG_LITERAL = 3;
+
+	/**
+	 * The header of an encoded result.
+	 */
+	public static class Header {
+		private final byte type;
+		private final long timestamp;
+		private final String query;
+
+		Header(byte type, long timestamp, String query) {
+			this.type = type;
+			this.timestamp = timestamp;
+			this.query = query;
+		}
+
+		public byte getType() {
+			return type;
+		}
+
+		public long getTimestamp() {
+			return timestamp;
+		}
+
+		public String getQuery() {
+			return query;
+		}
+	}
+
+	// assigns consecutive ids to RDF terms
+	private static class Dictionary {
+		private final Map<Node, Integer> ids = new HashMap<>();
+		private final List<Node> terms = new ArrayList<>();
+
+		int id(Node node) {
+			return ids.computeIfAbsent(node, n -> {
+				terms.add(n);
+				return terms.size() - 1;
+			});
+		}
+	}
+
+	private BinaryResultCodec() {}
+
+	/**
+	 * Encodes a SELECT result. The result set is consumed.
+	 * @param query the query
+	 * @param rs the result set
+	 * @param timestamp the time of the query execution
+	 * @return the encoded result
+	 */
+	public static byte[] encodeSelect(String query, ResultSet rs, long timestamp) throws IOException {
+		List<String> varNames = rs.getResultVars();
+		List<Var> vars = Var.varList(varNames);
+		Dictionary dict = new Dictionary();
+		List<int[]> rows = new ArrayList<>();
+		while (rs.hasNext()) {
+			Binding binding = rs.nextBinding();
+			int[] row = new int[vars.size()];
+			for (int i = 0; i < vars.size(); i++) {
+				Node node = binding.get(vars.get(i));
+				row[i] = node == null ? 0 : dict.id(node) + 1;
+			}
+			rows.add(row);
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeHeader(out, TYPE_SELECT, timestamp, query);
+		writeDictionary(out, dict);
+		out.writeInt(varNames.size());
+		for (String var : varNames) {
+			writeString(out, var);
+		}
+		out.writeInt(rows.size());
+		for (int i = 0; i < varNames.size(); i++) {
+			for (int[] row : rows) {
+				out.writeInt(row[i]);
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Encodes an ASK result.
+	 * @param query the query
+	 * @param result the result
+	 * @param timestamp the time of the query execution
+	 * @return the encoded result
+	 */
+	public static byte[] encodeAsk(String query, boolean result, long timestamp) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeHeader(out, TYPE_ASK, timestamp, query);
+		writeDictionary(out, new Dictionary());
+		out.writeByte(result ? 1 : 0);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Encodes a CONSTRUCT or DESCRIBE result.
+	 * @param query the query
+	 * @param model the result
+	 * @param timestamp the time of the query execution
+	 * @return the encoded result
+	 */
+	public static byte[] encodeGraph(String query, Model model, long timestamp) throws IOException {
+		Dictionary dict = new Dictionary();
+		List<int[]> triples = new ArrayList<>();
+		Iterator<Triple> it = model.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		while (it.hasNext()) {
+			Triple t = it.next();
+			triples.add(new int[]{dict.id(t.getSubject()), dict.id(t.getPredicate()), dict.id(t.getObject())});
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		writeHeader(out, TYPE_GRAPH, timestamp, query);
+		writeDictionary(out, dict);
+		out.writeInt(triples.size());
+		for (int i = 0; i < 3; i++) {
+			for (int[] triple : triples) {
+				out.writeInt(triple[i]);
+			}
+		}
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Reads the header of an encoded result. The position of the buffer is
+	 * moved behind the header.
+	 * @param buffer the encoded result
+	 * @return the header, or <code>null</code> if the buffer does not contain an
+	 * encoded result of a supported version or is truncated
+	 */
+	public static Header readHeader(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+			return null;
+		}
+		try {
+			byte type = buffer.get();
+			long timestamp = buffer.getLong();
+			String query = readString(buffer);
+			return new Header(type, timestamp, query);
+		} catch (BufferUnderflowException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes a SELECT result. The buffer must be positioned behind the header.
+	 * @param buffer the encoded result
+	 * @return the result set
+	 */
+	public static ResultSet decodeSelect(ByteBuffer buffer) {
+		Node[] terms = readDictionary(buffer);
+		int nrOfVars = buffer.getInt();
+		List<String> varNames = new ArrayList<>(nrOfVars);
+		for (int i = 0; i < nrOfVars; i++) {
+			varNames.add(readString(buffer));
+		}
+		List<Var> vars = Var.varList(varNames);
+		int nrOfRows = buffer.getInt();
+		BindingMap[] bindings = new BindingMap[nrOfRows];
+		for (int r = 0; r < nrOfRows; r++) {
+			bindings[r] = BindingFactory.create();
+		}
+		for (int v = 0; v < nrOfVars; v++) {
+			Var var = vars.get(v);
+			for (int r = 0; r < nrOfRows; r++) {
+				int id = buffer.getInt();
+				if (id != 0) {
+					bindings[r].add(var, terms[id - 1]);
+				}
+			}
+		}
+		List<Binding> rows = new ArrayList<>(nrOfRows);
+		for (BindingMap binding : bindings) {
+			rows.add(binding);
+		}
+		return new ResultSetStream(varNames, null, rows.iterator());
+	}
+
+	/**
+	 * Decodes an ASK result. The buffer must be positioned behind the header.
+	 * @param buffer the encoded result
+	 * @return the result
+	 */
+	public static boolean decodeAsk(ByteBuffer buffer) {
+		readDictionary(buffer);
+		return buffer.get() != 0;
+	}
+
+	/**
+	 * Decodes a CONSTRUCT or DESCRIBE result. The buffer must be positioned
+	 * behind the header.
+	 * @param buffer the encoded result
+	 * @return the model
+	 */
+	public static Model decodeGraph(ByteBuffer buffer) {
+		Node[] terms = readDictionary(buffer);
+		int nrOfTriples = buffer.getInt();
+		int[][] columns = new int[3][nrOfTriples];
+		for (int[] column : columns) {
+			for (int i = 0; i < nrOfTriples; i++) {
+				column[i] = buffer.getInt();
+			}
+		}
+		Model model = ModelFactory.createDefaultModel();
+		for (int i = 0; i < nrOfTriples; i++) {
+			model.getGraph().add(Triple.create(terms[columns[0][i]], terms[columns[1][i]], terms[columns[2][i]]));
+		}
+		return model;
+	}
+
+	private static void writeHeader(DataOutputStream out, byte type, long timestamp, String query) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(VERSION);
+		out.writeByte(type);
+		out.writeLong(timestamp);
+		writeString(out, query);
+	}
+
+	private static void writeDictionary(DataOutputStream out, Dictionary dict) throws IOException {
+		out.writeInt(dict.terms.size());
+		for (Node node : dict.terms) {
+			if (node.isURI()) {
+				out.writeByte(TERM_URI);
+				writeString(out, node.getURI());
+			} else if (node.isBlank()) {
+				out.writeByte(TERM_BLANK);
+				writeString(out, node.getBlankNodeLabel());
+			} else if (node.isLiteral()) {
+				String lang = node.getLiteralLanguage();
+				if (lang != null && !lang.isEmpty()) {
+					out.writeByte(TERM_LANG_LITERAL);
+					writeString(out, node.getLiteralLexicalForm());
+					writeString(out, lang);
+				} else {
+					out.writeByte(TERM_TYPED_LITERAL);
+					writeString(out, node.getLiteralLexicalForm());
+					writeString(out, node.getLiteralDatatypeURI());
+				}
+			} else {
+				throw new IOException("Unsupported RDF term " + node);
+			}
+		}
+	}
+
+	private static Node[] readDictionary(ByteBuffer buffer) {
+		int size = buffer.getInt();
+		Node[] terms = new Node[size];
+		TypeMapper typeMapper = TypeMapper.getInstance();
+		for (int i = 0; i < size; i++) {
+			byte kind = buffer.get();
+			switch (kind) {
+				case TERM_URI:
+					terms[i] = NodeFactory.createURI(readString(buffer));
+					break;
+				case TERM_BLANK:
+					terms[i] = NodeFactory.createBlankNode(readString(buffer));
+					break;
+				case TERM_LANG_LITERAL:
+					terms[i] = NodeFactory.createLiteral(readString(buffer), readString(buffer));
+					break;
+				case TERM_TYPED_LITERAL:
+					String lexicalForm = readString(buffer);
+					terms[i] = NodeFactory.createLiteral(lexicalForm, typeMapper.getSafeTypeByName(readString(buffer)));
+					break;
+				default:
+					throw new IllegalStateException("Corrupt binary result: unknown term kind " + kind);
+			}
+		}
+		return terms;
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0 || length > buffer.remaining()) {
+			throw new BufferUnderflowException();
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
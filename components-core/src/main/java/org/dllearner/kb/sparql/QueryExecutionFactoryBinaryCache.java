@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionDecoratorBase;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.ResultSetFactory;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A query execution factory which answers queries from a
+ * {@link BinaryQueryCache} if possible and stores the results of all other
+ * queries in it.
+ */
+public class QueryExecutionFactoryBinaryCache extends QueryExecutionFactoryDecorator {
+
+	private static final Logger logger = LoggerFactory.getLogger(QueryExecutionFactoryBinaryCache.class);
+
+	private final BinaryQueryCache cache;
+
+	public QueryExecutionFactoryBinaryCache(QueryExecutionFactory decoratee, BinaryQueryCache cache) {
+		super(decoratee);
+		this.cache = cache;
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(Query query) {
+		return new QueryExecutionBinaryCache(super.createQueryExecution(query), query.serialize());
+	}
+
+	@Override
+	public QueryExecution createQueryExecution(String queryString) {
+		return new QueryExecutionBinaryCache(super.createQueryExecution(queryString), queryString);
+	}
+
+	/**
+	 * @return the underlying cache
+	 */
+	public BinaryQueryCache getCache() {
+		return cache;
+	}
+
+	private class QueryExecutionBinaryCache extends QueryExecutionDecoratorBase<QueryExecution> {
+
+		private final String normalizedQuery;
+
+		QueryExecutionBinaryCache(QueryExecution decoratee, String queryString) {
+			super(decoratee);
+			this.normalizedQuery = BinaryQueryCache.normalize(queryString);
+		}
+
+		@Override
+		public ResultSet execSelect() {
+			ByteBuffer buffer = cache.lookup(normalizedQuery, BinaryResultCodec.TYPE_SELECT);
+			if (buffer != null) {
+				return BinaryResultCodec.decodeSelect(buffer);
+			}
+			long timestamp = System.currentTimeMillis();
+			ResultSetRewindable rs = ResultSetFactory.copyResults(super.execSelect());
+			try {
+				cache.store(normalizedQuery, BinaryResultCodec.encodeSelect(normalizedQuery, rs, timestamp));
+			} catch (IOException e) {
+				logger.warn("Failed to encode SPARQL result", e);
+			}
+			rs.reset();
+			return rs;
+		}
+
+		@Override
+		public boolean execAsk() {
+			ByteBuffer buffer = cache.lookup(normalizedQuery, BinaryResultCodec.TYPE_ASK);
+			if (buffer != null) {
+				return BinaryResultCodec.decodeAsk(buffer);
+			}
+			long timestamp = System.currentTimeMillis();
+			boolean result = super.execAsk();
+			try {
+				cache.store(normalizedQuery, BinaryResultCodec.encodeAsk(normalizedQuery, result, timestamp));
+			} catch (IOException e) {
+				logger.warn("Failed to encode SPARQL result", e);
+			}
+			return result;
+		}
+
+		@Override
+		public Model execConstruct() {
+			return execGraph(false);
+		}
+
+		@Override
+		public Model execConstruct(Model model) {
+			return model.add(execConstruct());
+		}
+
+		@Override
+		public Iterator<Triple> execConstructTriples() {
+			return triples(execConstruct());
+		}
+
+		@Override
+		public Model execDescribe() {
+			return execGraph(true);
+		}
+
+		@Override
+		public Model execDescribe(Model model) {
+			return model.add(execDescribe());
+		}
+
+		@Override
+		public Iterator<Triple> execDescribeTriples() {
+			return triples(execDescribe());
+		}
+
+		private Model execGraph(boolean describe) {
+			ByteBuffer buffer = cache.lookup(normalizedQuery, BinaryResultCodec.TYPE_GRAPH);
+			if (buffer != null) {
+				return BinaryResultCodec.decodeGraph(buffer);
+			}
+			long timestamp = System.currentTimeMillis();
+			Model model = describe ? super.execDescribe() : super.execConstruct();
+			try {
+				cache.store(normalizedQuery, BinaryResultCodec.encodeGraph(normalizedQuery, model, timestamp));
+			} catch (IOException e) {
+				logger.warn("Failed to encode SPARQL result", e);
+			}
+			return model;
+		}
+
+		private Iterator<Triple> triples(Model model) {
+			return model.getGraph().find(Node.ANY, Node.ANY, Node.ANY);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import org.aksw.jena_sparql_api.delay.extra.Delayer;
+
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * A {@link Delayer} which limits the rate of SPARQL queries by a token bucket
+ * instead of waiting a fixed time before each query. Unused permits are stored
+ * for up to one second, i.e. short bursts of queries are sent without any
+ * delay, and concurrent queries do not wait for each other as long as the
+ * rate is not exceeded.
+ */
+public class TokenBucketDelayer implements Delayer {
+
+	private final RateLimiter rateLimiter;
+
+	/**
+	 * @param queriesPerSecond the maximum average number of queries per second
+	 */
+	public TokenBucketDelayer(double queriesPerSecond) {
+		this.rateLimiter = RateLimiter.create(queriesPerSecond);
+	}
+
+	@Override
+	public void doDelay() throws InterruptedException {
+		rateLimiter.acquire();
+		if (Thread.interrupted()) {
+			throw new InterruptedException();
+		}
+	}
+
+	/**
+	 * @return the maximum average number of queries per second
+	 */
+	public double getRate() {
+		return rateLimiter.getRate();
+	}
+}
@@ -143,6 +143,8 @@ public class ClassLearningProblem extends AbstractClassExpressionLearningProblem
 		Collections.shuffle(classInstances, rand);
 		Collections.shuffle(superClassInstances, rand);
 
+		initEvaluationCache(classAndSuperClassInstances);
+
 		if (accuracyMethod == null) {
 			accuracyMethod = new AccMethodPredAcc(true);
 		}
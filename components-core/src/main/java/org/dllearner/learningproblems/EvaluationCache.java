@@ -18,45 +18,139 @@
  */
 package org.dllearner.learningproblems;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.SortedSet;
-import java.util.TreeMap;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.dllearner.utilities.datastructures.SortedSetTuple;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectComplementOf;
 import org.semanticweb.owlapi.model.OWLObjectIntersectionOf;
 import org.semanticweb.owlapi.model.OWLObjectUnionOf;
 
-import com.google.common.collect.Sets;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 
 /**
  * Caches results of previous concept evaluation to speed up
  * further evaluations. Implements a fast evaluation approach,
  * which tries to infer the covered examples of a given concept
  * from previous results.
- * 
- * TODO Under construction.
+ * <p>
+ * For each cached concept the cache keeps the examples known to be instances
+ * and the examples known not to be instances as bit sets over a fixed universe
+ * of examples. The coverage of conjunctions, disjunctions and negations is
+ * derived from the coverage of their operands:
+ * <ul>
+ * <li>C &#8851; D: instances of both C and D are instances, non-instances of C
+ * or D are non-instances</li>
+ * <li>C &#8852; D: instances of C or D are instances; non-instances of both C
+ * and D are non-instances only under closed world semantics</li>
+ * <li>&#172;C: instances of C are non-instances; non-instances of C are
+ * instances only under closed world semantics</li>
+ * </ul>
+ * Examples which can be derived neither way still have to be checked by the
+ * reasoner. The cache is thread-safe and bounded in size.
+ *
  * @author Jens Lehmann
  *
  */
 public class EvaluationCache {
 
-	// maps a concept to a list of individuals it covers
-	private Map<OWLClassExpression,SortedSet<OWLIndividual>> cache;
-	private boolean checkForEqualConcepts = false;
-	
-	private SortedSet<OWLIndividual> examples;
-	
-	public EvaluationCache(SortedSet<OWLIndividual> examples) {
-		this.examples = examples;
-		cache = new TreeMap<>();
-	}
-	
+	public static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+	/**
+	 * The examples known to be (not) covered by a concept, indexed over the
+	 * example universe of the cache. Instances are immutable.
+	 */
+	private static final class Entry {
+		private final BitSet instances;
+		private final BitSet nonInstances;
+
+		private Entry(BitSet instances, BitSet nonInstances) {
+			this.instances = instances;
+			this.nonInstances = nonInstances;
+		}
+
+		private Entry merge(Entry other) {
+			BitSet pos = (BitSet) instances.clone();
+			pos.or(other.instances);
+			BitSet neg = (BitSet) nonInstances.clone();
+			neg.or(other.nonInstances);
+			return new Entry(pos, neg);
+		}
+	}
+
+	private final List<OWLIndividual> examples;
+	private final Map<OWLIndividual, Integer> index;
+	private final boolean closedWorld;
+
+	// maps a concept to the examples it covers and does not cover
+	private final Cache<OWLClassExpression, Entry> cache;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong partialHits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	public EvaluationCache(Collection<OWLIndividual> examples) {
+		this(examples, DEFAULT_MAXIMUM_SIZE, false);
+	}
+
+	/**
+	 * @param examples the examples whose coverage is cached
+	 * @param maximumSize the maximum number of cached concepts
+	 * @param closedWorld whether the reasoner uses closed world semantics, i.e. every
+	 * example which is not an instance of C is an instance of &#172;C
+	 */
+	public EvaluationCache(Collection<OWLIndividual> examples, long maximumSize, boolean closedWorld) {
+		this.examples = new ArrayList<>(new TreeSet<>(examples));
+		this.index = new HashMap<>();
+		for (int i = 0; i < this.examples.size(); i++) {
+			index.put(this.examples.get(i), i);
+		}
+		this.closedWorld = closedWorld;
+		this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+	}
+
+	/**
+	 * Records which examples are covered by the given concept.
+	 * @param concept the concept
+	 * @param individuals all examples covered by the concept
+	 */
 	public void put(OWLClassExpression concept, SortedSet<OWLIndividual> individuals) {
-		cache.put(concept, individuals);
+		BitSet neg = new BitSet(examples.size());
+		neg.set(0, examples.size());
+		BitSet pos = toBitSet(individuals);
+		neg.andNot(pos);
+		merge(concept, new Entry(pos, neg));
+	}
+
+	/**
+	 * Records which examples are known to be instances and which are known
+	 * not to be instances of the given concept. Examples outside of the
+	 * universe of the cache are ignored.
+	 * @param concept the concept
+	 * @param instances examples covered by the concept
+	 * @param nonInstances examples not covered by the concept
+	 */
+	public void put(OWLClassExpression concept, Collection<OWLIndividual> instances, Collection<OWLIndividual> nonInstances) {
+		merge(concept, new Entry(toBitSet(instances), toBitSet(nonInstances)));
+	}
+
+	/**
+	 * Records which examples are known to be instances and which are known
+	 * not to be instances of the given concept.
+	 * @param concept the concept
+	 * @param instances the indexes of the examples covered by the concept
+	 * @param nonInstances the indexes of the examples not covered by the concept
+	 * @see #toBitSet(Collection)
+	 */
+	public void put(OWLClassExpression concept, BitSet instances, BitSet nonInstances) {
+		merge(concept, new Entry((BitSet) instances.clone(), (BitSet) nonInstances.clone()));
+	}
+
+	private void merge(OWLClassExpression concept, Entry entry) {
+		cache.asMap().merge(concept, entry, Entry::merge);
 	}
 
 	/**
@@ -69,44 +163,169 @@ public class EvaluationCache {
 	 * safely determine whether they are concept instances or not.
 	 */
 	public SortedSetTuple<OWLIndividual> infer(OWLClassExpression concept) {
-		if(checkForEqualConcepts) {
-			Set<OWLIndividual> pos = cache.get(concept);
-			Set<OWLIndividual> neg = Sets.difference(examples, pos);
-			return new SortedSetTuple<>(pos, neg);
+		BitSet[] bits = inferBits(concept);
+		return new SortedSetTuple<>(toSet(bits[0]), toSet(bits[1]));
+	}
+
+	/**
+	 * Determines which examples are instances of a concept without
+	 * materializing sets of individuals.
+	 * @param concept the concept
+	 * @return the indexes of the examples known to be instances and the indexes
+	 * of the examples known not to be instances of the concept
+	 * @see #getExamples()
+	 */
+	public BitSet[] inferBits(OWLClassExpression concept) {
+		Entry entry = inferEntry(concept);
+
+		int known = entry.instances.cardinality() + entry.nonInstances.cardinality();
+		if (known == 0) {
+			misses.incrementAndGet();
+		} else if (known == examples.size()) {
+			hits.incrementAndGet();
 		} else {
-			// for a negation NOT C we can only say which concepts are not in it
-			// (those in C), but we cannot say which ones are in NOT C
-			
+			partialHits.incrementAndGet();
+		}
+
+		return new BitSet[]{entry.instances, entry.nonInstances};
+	}
+
+	private Entry inferEntry(OWLClassExpression concept) {
+		BitSet pos = new BitSet(examples.size());
+		BitSet neg = new BitSet(examples.size());
+
+		Entry cached = cache.getIfPresent(concept);
+		if (cached != null) {
+			pos.or(cached.instances);
+			neg.or(cached.nonInstances);
+			if (pos.cardinality() + neg.cardinality() == examples.size()) {
+				return new Entry(pos, neg);
+			}
+		}
+
+		if (concept.isOWLThing()) {
+			pos.set(0, examples.size());
+		} else if (concept.isOWLNothing()) {
+			neg.set(0, examples.size());
+		} else if (concept instanceof OWLObjectIntersectionOf) {
 			// for a conjunction we know that the intersection of instances
-			// of all children belongs to the concept
-			if(concept instanceof OWLObjectIntersectionOf) {
-				handleMultiConjunction((OWLObjectIntersectionOf)concept);
+			// of all children belongs to the concept and each example not
+			// belonging to one of the children does not belong to it
+			Entry derived = null;
+			for (OWLClassExpression operand : ((OWLObjectIntersectionOf) concept).getOperandsAsList()) {
+				Entry e = inferEntry(operand);
+				if (derived == null) {
+					derived = e;
+				} else {
+					derived.instances.and(e.instances);
+					derived.nonInstances.or(e.nonInstances);
+				}
+			}
+			pos.or(derived.instances);
+			neg.or(derived.nonInstances);
+		} else if (concept instanceof OWLObjectUnionOf) {
 			// disjunctions are similar to conjunctions but we use union here;
 			// note that there can be instances which are neither in a concept
-			// C nor in a concept D, but in (C OR D)
-			} else if(concept instanceof OWLObjectUnionOf) {
-				List<OWLClassExpression> operands = ((OWLObjectUnionOf) concept).getOperandsAsList();
-				Set<OWLIndividual> pos = cache.get(operands.get(0));
-				for (int i = 1; i < operands.size(); i++) {
-					pos = Sets.union(pos, cache.get(operands.get(i)));
+			// C nor in a concept D, but in (C OR D), unless we are under CWA
+			Entry derived = null;
+			for (OWLClassExpression operand : ((OWLObjectUnionOf) concept).getOperandsAsList()) {
+				Entry e = inferEntry(operand);
+				if (derived == null) {
+					derived = e;
+				} else {
+					derived.instances.or(e.instances);
+					derived.nonInstances.and(e.nonInstances);
 				}
-			// in all other cases we cannot infer anything, so we return an
-			// empty tuple
-			} else {
-				return new SortedSetTuple<>();
+			}
+			pos.or(derived.instances);
+			if (closedWorld) {
+				neg.or(derived.nonInstances);
+			}
+		} else if (concept instanceof OWLObjectComplementOf) {
+			// for a negation NOT C we can only say which examples are not in it
+			// (those in C), but we cannot say which ones are in NOT C, unless
+			// we are under CWA
+			Entry e = inferEntry(((OWLObjectComplementOf) concept).getOperand());
+			neg.or(e.instances);
+			if (closedWorld) {
+				pos.or(e.nonInstances);
 			}
 		}
-		
-		return null;
-	}
-	
-	private SortedSetTuple<OWLIndividual> handleMultiConjunction(OWLObjectIntersectionOf mc) {
-		List<OWLClassExpression> operands = mc.getOperandsAsList();
-		Set<OWLIndividual> pos = cache.get(operands.get(0));
-		for (int i = 1; i < operands.size(); i++) {
-			pos = Sets.intersection(pos, cache.get(operands.get(i)));
+		// in all other cases we cannot infer anything beyond the cached result
+
+		return new Entry(pos, neg);
+	}
+
+	/**
+	 * @param individuals a set of individuals
+	 * @return the indexes of the individuals in the examples of the cache,
+	 * individuals which are not examples are ignored
+	 */
+	public BitSet toBitSet(Collection<OWLIndividual> individuals) {
+		BitSet bits = new BitSet(examples.size());
+		for (OWLIndividual ind : individuals) {
+			Integer i = index.get(ind);
+			if (i != null) {
+				bits.set(i);
+			}
+		}
+		return bits;
+	}
+
+	private SortedSet<OWLIndividual> toSet(BitSet bits) {
+		SortedSet<OWLIndividual> set = new TreeSet<>();
+		for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+			set.add(examples.get(i));
 		}
-		// TODO: handle the case that some children may not be in cache
-		return null;
+		return set;
+	}
+
+	/**
+	 * @return the examples whose coverage is cached
+	 */
+	public List<OWLIndividual> getExamples() {
+		return Collections.unmodifiableList(examples);
+	}
+
+	/**
+	 * @return whether the coverage is inferred under closed world semantics
+	 */
+	public boolean isClosedWorld() {
+		return closedWorld;
+	}
+
+	/**
+	 * @return the number of cached concepts
+	 */
+	public long size() {
+		return cache.size();
+	}
+
+	/**
+	 * Removes all cached coverages, e.g. after the knowledge base changed.
+	 */
+	public void clear() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * @return the number of lookups where the coverage of all examples was known
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the number of lookups where the coverage of some examples was known
+	 */
+	public long getPartialHits() {
+		return partialHits.get();
+	}
+
+	/**
+	 * @return the number of lookups where nothing was known
+	 */
+	public long getMisses() {
+		return misses.get();
 	}
 }
@@ -95,6 +95,7 @@ public abstract class PosNegLP extends AbstractClassExpressionLearningProblem<Sc
 		}
 		
 		allExamples = Sets.union(positiveExamples, negativeExamples);
+		initEvaluationCache(allExamples);
 		
 		if (accuracyMethod == null) {
 			accuracyMethod = new AccMethodPredAcc(true);
@@ -28,6 +28,7 @@ import org.dllearner.utilities.owl.OWLClassExpressionUtils;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 
+import java.util.List;
 import java.util.SortedSet;
 
 /**
@@ -107,6 +108,11 @@ public class PosNegLPStandard extends PosNegLP implements Cloneable{
 		return reasoningUtil.getAccuracyOrTooWeak2(accuracyMethod, description, positiveExamples, negativeExamples, noise);
 	}
 
+	@Override
+	public double[] getAccuracyOrTooWeak(List<OWLClassExpression> descriptions, double noise) {
+		return reasoningUtil.getAccuracyOrTooWeak2(accuracyMethod, descriptions, positiveExamples, negativeExamples, noise);
+	}
+
 	/* (non-Javadoc)
 	 * @see org.dllearner.core.LearningProblem#evaluate(org.dllearner.core.owl.Description)
 	 */
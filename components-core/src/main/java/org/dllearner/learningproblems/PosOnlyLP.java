@@ -46,6 +46,7 @@ public class PosOnlyLP extends AbstractClassExpressionLearningProblem<ScorePosOn
 	private List<OWLIndividual> positiveExamplesShuffled;
 //	protected SortedSet<OWLIndividual> pseudoNegatives;
 	private List<OWLIndividual> individuals;
+	private Set<OWLIndividual> individualsSet;
 
 	private boolean useApproximations = false;
 
@@ -78,8 +79,10 @@ public class PosOnlyLP extends AbstractClassExpressionLearningProblem<ScorePosOn
 		Random rand = new Random(1);
 
 		if(getReasoner()!=null) {
-			individuals = new LinkedList<>(getReasoner().getIndividuals());
+			individualsSet = getReasoner().getIndividuals();
+			individuals = new LinkedList<>(individualsSet);
 			Collections.shuffle(individuals, rand);
+			initEvaluationCache(individualsSet);
 		}
 
 		positiveExamplesShuffled = new LinkedList<>(positiveExamples);
@@ -102,7 +105,7 @@ public class PosOnlyLP extends AbstractClassExpressionLearningProblem<ScorePosOn
 	 */
 	@Override
 	public ScorePosOnly computeScore(OWLClassExpression description, double noise) {
-		Set<OWLIndividual> retrieval = getReasoner().getIndividuals(description);
+		Set<OWLIndividual> retrieval = getInstances(description);
 
 		Set<OWLIndividual> instancesCovered = new TreeSet<>();
 		Set<OWLIndividual> instancesNotCovered = new TreeSet<>();
@@ -255,7 +258,7 @@ public class PosOnlyLP extends AbstractClassExpressionLearningProblem<ScorePosOn
 
 		nanoStartTime = System.nanoTime();
 
-		SortedSet<OWLIndividual> individualsC = reasoner.getIndividuals(description);
+		SortedSet<OWLIndividual> individualsC = getInstances(description);
 
 		// computing R(C) restricted to relevant instances
 		int additionalInstances = Sets.difference(individualsC, positiveExamples).size();
@@ -282,6 +285,14 @@ public class PosOnlyLP extends AbstractClassExpressionLearningProblem<ScorePosOn
 
 	}
 
+	// retrieval of the concept, answered from the evaluation cache as far as possible
+	private SortedSet<OWLIndividual> getInstances(OWLClassExpression description) {
+		if (reasoningUtil == null || reasoningUtil.getEvaluationCache() == null) {
+			return getReasoner().getIndividuals(description);
+		}
+		return reasoningUtil.getCoverage(description, individualsSet)[0].trueSet;
+	}
+
 	// see paper: expression used in confidence interval estimation
 	private static double p3(double p1, int total) {
 		return 1.96 * Math.sqrt(p1*(1-p1)/(total+4));
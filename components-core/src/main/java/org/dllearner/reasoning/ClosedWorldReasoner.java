@@ -38,6 +38,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Reasoner for fast instance checks. It works by completely dematerialising the
@@ -97,6 +98,10 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
 
     private Map<OWLDataProperty, Map<OWLIndividual, SortedSet<Number>>> numericValueMappings = new TreeMap<>();
 
+    // the int and double values sorted by value, built on demand for the retrieval of facet restrictions
+    private Map<OWLDataProperty, NumericValueIndex> intValueIndexes = new ConcurrentHashMap<>();
+    private Map<OWLDataProperty, NumericValueIndex> doubleValueIndexes = new ConcurrentHashMap<>();
+
     @ConfigOption(description = "Whether to use default negation, i.e. an instance not being in a class means that it is in the negation of the class.", defaultValue = "true", required = false)
     private boolean defaultNegation = true;
 
@@ -216,6 +221,9 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
             baseReasoner.init();
         }
 
+        intValueIndexes.clear();
+        doubleValueIndexes.clear();
+
 //		loadOrDematerialize();
         materialize();
     }
@@ -341,10 +349,11 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
 
         if (materializeExistentialRestrictions) {
             ExistentialRestrictionMaterialization materialization = new ExistentialRestrictionMaterialization(baseReasoner.getReasoner().getRootOntology());
+            // compute the super classes of all classes in parallel, but fill the instances sequentially
+            Map<OWLClass, Set<OWLClassExpression>> superClasses = materialization.materialize(baseReasoner.getClasses());
             for (OWLClass cls : baseReasoner.getClasses()) {
                 TreeSet<OWLIndividual> individuals = classInstancesPos.get(cls);
-                Set<OWLClassExpression> superClass = materialization.materialize(cls.toStringID());
-                for (OWLClassExpression sup : superClass) {
+                for (OWLClassExpression sup : superClasses.get(cls)) {
                     fill(individuals, sup);
                 }
             }
@@ -1207,25 +1216,8 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
                             max = Double.parseDouble(facet.getFacetValue().getLiteral());
                         }
                     }
-                    Map<OWLIndividual, SortedSet<Double>> mapping = dd.get(property);
-                    SortedSet<OWLIndividual> returnSet = new TreeSet<>();
-
-                    for (Entry<OWLIndividual, SortedSet<Double>> entry : mapping.entrySet()) {
-                        //we can skip of largest number is below minimum or lowest number is above maximum
-                        if (entry.getValue().last() < min
-                                || entry.getValue().first() > max) {
-                            continue;
-                        }
-
-                        //search a value which is in the interval
-                        for (Double value : entry.getValue()) {
-                            if (value >= min && value <= max) {
-                                returnSet.add(entry.getKey());
-                                break;
-                            }
-                        }
-                    }
-                    return returnSet;
+                    return doubleValueIndexes.computeIfAbsent(property.asOWLDataProperty(),
+                            p -> new NumericValueIndex(dd.get(p))).getIndividuals(min, max);
                 } else if (OWLAPIUtils.intDatatypes.contains(datatype)) {
                     int min = Integer.MIN_VALUE;
                     int max = Integer.MAX_VALUE;
@@ -1236,24 +1228,8 @@ public class ClosedWorldReasoner extends AbstractReasonerComponent {
                             max = facet.getFacetValue().parseInteger();
                         }
                     }
-                    Map<OWLIndividual, SortedSet<Integer>> mapping = id.get(property);
-                    SortedSet<OWLIndividual> returnSet = new TreeSet<>();
-                    for (Entry<OWLIndividual, SortedSet<Integer>> entry : mapping.entrySet()) {
-                        //we can skip of largest number is below minimum or lowest number is above maximum
-                        if (entry.getValue().last() < min
-                                || entry.getValue().first() > max) {
-                            continue;
-                        }
-
-                        //search a value which is in the interval
-                        for (Integer value : entry.getValue()) {
-                            if (value >= min && value <= max) {
-                                returnSet.add(entry.getKey());
-                                break;
-                            }
-                        }
-                    }
-                    return returnSet;
+                    return intValueIndexes.computeIfAbsent(property.asOWLDataProperty(),
+                            p -> new NumericValueIndex(id.get(p))).getIndividuals(min, max);
                 } else if (OWLAPIUtils.dtDatatypes.contains(datatype)) {
 					// TODO we cannot ensure the sorting, because OWL API does only String comparison
                     // on the lexical String value
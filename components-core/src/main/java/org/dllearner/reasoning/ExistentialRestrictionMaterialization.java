@@ -18,18 +18,17 @@
  */
 package org.dllearner.reasoning;
 
-import com.clarkparsia.pellet.owlapiv3.PelletReasonerFactory;
 import org.dllearner.core.StringRenderer;
 import org.dllearner.core.StringRenderer.Rendering;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
-import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
-import org.semanticweb.owlapi.search.EntitySearcher;
 import org.semanticweb.owlapi.util.OWLClassExpressionVisitorAdapter;
 
 import java.io.ByteArrayInputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Materialize the existential restrictions, i.e. for all instances x_i that belong to a concept \exists.r.C,
@@ -42,20 +41,42 @@ public class ExistentialRestrictionMaterialization {
 	
 	
 	private OWLOntology ontology;
-	private OWLReasoner reasoner;
 	private OWLDataFactory df;
 
+	// the asserted super class expressions of each class
+	private final Map<OWLClass, Set<OWLClassExpression>> toldSuperClasses = new HashMap<>();
+
+	// all super class expressions of a class, shared by all finders
+	private final Map<OWLClass, Set<OWLClassExpression>> superClassCache = new ConcurrentHashMap<>();
+
+	// the materialized super class expressions of a class
+	private final Map<OWLClass, Set<OWLClassExpression>> materializationCache = new ConcurrentHashMap<>();
+
+	private final ThreadLocal<SuperClassFinder> finders = ThreadLocal.withInitial(SuperClassFinder::new);
+
 	public ExistentialRestrictionMaterialization(OWLOntology ontology) {
 		this.ontology = ontology;
 		
-		OWLReasonerFactory reasonerFactory = PelletReasonerFactory.getInstance();
-		reasoner = reasonerFactory.createNonBufferingReasoner(ontology);
-		
 		df = ontology.getOWLOntologyManager().getOWLDataFactory();
+
+		// index the asserted super classes once, such that the ontology is only
+		// read here and not concurrently by the finders
+		for (OWLSubClassOfAxiom axiom : ontology.getAxioms(AxiomType.SUBCLASS_OF)) {
+			OWLClassExpression sub = axiom.getSubClass();
+			//omit trivial super class
+			if (!sub.isAnonymous() && !sub.equals(axiom.getSuperClass())) {
+				toldSuperClasses.computeIfAbsent(sub.asOWLClass(), k -> new HashSet<>()).add(axiom.getSuperClass());
+			}
+		}
 	}
 	
 	private Set<OWLClassExpression> getSuperClasses(OWLClass cls){
-		return new SuperClassFinder().getSuperClasses(cls);
+		Set<OWLClassExpression> superClasses = materializationCache.get(cls);
+		if (superClasses == null) {
+			superClasses = Collections.unmodifiableSet(finders.get().getSuperClasses(cls));
+			materializationCache.putIfAbsent(cls, superClasses);
+		}
+		return superClasses;
 	}
 	
 	public Set<OWLClassExpression> materialize(String classIRI){
@@ -65,25 +86,41 @@ public class ExistentialRestrictionMaterialization {
 	public Set<OWLClassExpression> materialize(OWLClass cls){
 		return getSuperClasses(cls);
 	}
+
+	/**
+	 * Materializes the given classes in parallel. The super classes computed
+	 * for one class are reused for all others.
+	 * @param classes the classes
+	 * @return the super class expressions to materialize for each class
+	 */
+	public Map<OWLClass, Set<OWLClassExpression>> materialize(Collection<OWLClass> classes){
+		return classes.parallelStream()
+				.distinct()
+				.collect(Collectors.toMap(Function.identity(), this::getSuperClasses));
+	}
 	
 	class SuperClassFinder extends OWLClassExpressionVisitorAdapter{
 		
-		private Map<OWLClass, Set<OWLClassExpression>> map = new HashMap<>();
 		Stack<Set<OWLClassExpression>> stack = new Stack<>();
 		OWLDataFactory df;
 		boolean onlyIfExistentialOnPath = true;
-		
-		int indent = 0;
+
+		// the classes whose super classes are currently computed, used to stop on cycles
+		private Set<OWLClass> path = new HashSet<>();
+
+		// whether a cycle was stopped in the current computation
+		private boolean cycle = false;
 
 		public SuperClassFinder() {
 			df = ontology.getOWLOntologyManager().getOWLDataFactory();
 		}
 		
 		public Set<OWLClassExpression> getSuperClasses(OWLClass cls){
-//			System.out.println("#################");
-			map.clear();
+			stack.clear();
+			path.clear();
+			cycle = false;
 			computeSuperClasses(cls);
-			Set<OWLClassExpression> superClasses = map.get(cls);
+			Set<OWLClassExpression> superClasses = new HashSet<>(stack.pop());
 			superClasses.remove(cls);
 			
 			//filter out non existential superclasses
@@ -99,29 +136,46 @@ public class ExistentialRestrictionMaterialization {
 		}
 		
 		private void computeSuperClasses(OWLClass cls){
-			String s = "";
-			for(int i = 0; i < indent; i++){
-				s += "   ";
+			// reuse the super classes computed before, also by other finders
+			Set<OWLClassExpression> superClasses = superClassCache.get(cls);
+			if (superClasses != null) {
+				stack.push(superClasses);
+				return;
+			}
+			// stop on cyclic subsumption
+			if (!path.add(cls)) {
+				cycle = true;
+				stack.push(Collections.singleton(cls));
+				return;
 			}
-//			System.out.println(s + cls);
-			indent++;
-			Set<OWLClassExpression> superClasses = new HashSet<>();
+			boolean outerCycle = cycle;
+			cycle = false;
+
+			superClasses = new HashSet<>();
 			superClasses.add(cls);
 			
-			//get the directly asserted super classes
-			Collection<OWLClassExpression> superClassExpressions = EntitySearcher.getSuperClasses(cls, ontology);
-			
-			//omit trivial super class
-			superClassExpressions.remove(cls);
-			
 			//go subsumption hierarchy up for each directly asserted super class
-			for (OWLClassExpression sup : superClassExpressions) {
+			for (OWLClassExpression sup : toldSuperClasses.getOrDefault(cls, Collections.emptySet())) {
 				sup.accept(this);
 				superClasses.addAll(stack.pop());
 			}
+			path.remove(cls);
 			
+			superClasses = Collections.unmodifiableSet(superClasses);
 			stack.push(superClasses);
-			map.put(cls, superClasses);
+			// if a cycle was stopped, the result depends on the classes on the path,
+			// thus only acyclic results are shared
+			if (!cycle) {
+				superClassCache.putIfAbsent(cls, superClasses);
+			}
+			cycle |= outerCycle;
+		}
+
+		/**
+		 * Class expressions for which no super classes are computed.
+		 */
+		private void noSuperClasses() {
+			stack.push(Collections.emptySet());
 		}
 
 		/* (non-Javadoc)
@@ -158,10 +212,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectUnionOf ce) {
-			Set<OWLClassExpression> operands = ce.getOperands();
-			for (OWLClassExpression op : operands) {
-				op.accept(this);
-			}
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -169,6 +220,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectComplementOf ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -192,6 +244,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectAllValuesFrom ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -199,6 +252,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectHasValue ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -206,6 +260,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectMinCardinality ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -213,6 +268,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectExactCardinality ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -220,6 +276,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectMaxCardinality ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -227,6 +284,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectHasSelf ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -234,6 +292,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLObjectOneOf ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -241,6 +300,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataSomeValuesFrom ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -248,6 +308,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataAllValuesFrom ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -255,6 +316,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataHasValue ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -262,6 +324,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataMinCardinality ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -269,6 +332,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataExactCardinality ce) {
+			noSuperClasses();
 		}
 
 		/* (non-Javadoc)
@@ -276,6 +340,7 @@ public class ExistentialRestrictionMaterialization {
 		 */
 		@Override
 		public void visit(OWLDataMaxCardinality ce) {
+			noSuperClasses();
 		}
 	}
 
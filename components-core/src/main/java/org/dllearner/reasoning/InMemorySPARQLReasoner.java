@@ -0,0 +1,223 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.rdf.listeners.ChangedListener;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.dllearner.utilities.OwlApiJenaUtils;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * A {@link SPARQLReasoner} working on an in-memory Jena model. Instance
+ * checks, instance retrieval of atomic classes, popularity counts and
+ * property members are answered directly from a {@link TripleIndex} of the
+ * model, i.e. without generating, parsing and evaluating SPARQL queries. All
+ * other reasoning tasks are delegated to SPARQL queries on the model as
+ * before.
+ * <p>
+ * The index is built on first use and rebuilt after the model has changed.
+ */
+public class InMemorySPARQLReasoner extends SPARQLReasoner {
+
+	private static final Node TYPE = RDF.type.asNode();
+	private static final Node NAMED_INDIVIDUAL = OWL2.NamedIndividual.asNode();
+
+	private final Model model;
+	private final ChangedListener changeListener = new ChangedListener();
+	private volatile TripleIndex index;
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	public InMemorySPARQLReasoner(Model model) {
+		super(new QueryExecutionFactoryModel(model));
+		this.model = model;
+		model.register(changeListener);
+	}
+
+	/**
+	 * @return the index of the current state of the model
+	 */
+	public synchronized TripleIndex getIndex() {
+		if (index == null || changeListener.hasChanged()) {
+			index = new TripleIndex(model.getGraph());
+		}
+		return index;
+	}
+
+	public Model getModel() {
+		return model;
+	}
+
+	@Override
+	public SortedSet<OWLIndividual> getOWLIndividuals() {
+		if (isLaxMode()) {
+			return super.getOWLIndividuals();
+		}
+		TripleIndex index = getIndex();
+		SortedSet<OWLIndividual> individuals = new TreeSet<>();
+		for (int t : index.find(null, TYPE, NAMED_INDIVIDUAL)) {
+			Node s = index.getSubject(t);
+			if (s.isURI()) {
+				individuals.add(df.getOWLNamedIndividual(IRI.create(s.getURI())));
+			}
+		}
+		return individuals;
+	}
+
+	@Override
+	public boolean hasTypeImpl(OWLClassExpression description, OWLIndividual individual) {
+		if (isAtomic(description) && individual.isNamed()) {
+			return getIndex().contains(asNode(individual), TYPE, asNode(description.asOWLClass()));
+		}
+		return super.hasTypeImpl(description, individual);
+	}
+
+	@Override
+	public SortedSet<OWLIndividual> getIndividuals(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
+		if (!isAtomic(description)) {
+			return super.getIndividuals(description, limit, indValues);
+		}
+		TripleIndex index = getIndex();
+		SortedSet<OWLIndividual> individuals = new TreeSet<>();
+		if (indValues != null) {
+			Node cls = asNode(description.asOWLClass());
+			for (OWLIndividual ind : indValues) {
+				if (ind.isNamed() && index.contains(asNode(ind), TYPE, cls)) {
+					individuals.add(ind);
+				}
+			}
+		} else {
+			for (int t : index.find(null, TYPE, asNode(description.asOWLClass()))) {
+				Node s = index.getSubject(t);
+				if (s.isURI()) {
+					individuals.add(df.getOWLNamedIndividual(IRI.create(s.getURI())));
+				}
+			}
+		}
+		// the SPARQL based retrieval does not define which individuals are returned
+		// if the limit is exceeded, we return the first ones
+		while (limit > 0 && individuals.size() > limit) {
+			individuals.remove(individuals.last());
+		}
+		return individuals;
+	}
+
+	@Override
+	public int getIndividualsCount(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
+		if (!isAtomic(description)) {
+			return super.getIndividualsCount(description, limit, indValues);
+		}
+		return getIndividuals(description, limit, indValues).size();
+	}
+
+	@Override
+	public int getIndividualsCount(OWLClass cls) {
+		return getIndex().count(null, TYPE, asNode(cls));
+	}
+
+	@Override
+	public <T extends OWLEntity> int getPopularity(T entity) {
+		TripleIndex index = getIndex();
+		if (entity.isOWLClass()) {
+			return index.count(null, TYPE, asNode(entity));
+		} else if (entity.isOWLObjectProperty() || entity.isOWLDataProperty()) {
+			return index.count(null, asNode(entity), null);
+		} else if (entity.isOWLNamedIndividual()) {
+			return index.count(asNode(entity), null, null);
+		}
+		return super.getPopularity(entity);
+	}
+
+	@Override
+	public int getPopularityOf(OWLClassExpression description) {
+		if (!description.isAnonymous()) {
+			return getIndex().count(null, TYPE, asNode(description.asOWLClass()));
+		}
+		return super.getPopularityOf(description);
+	}
+
+	@Override
+	public int getPropertyCount(OWLObjectProperty property) {
+		return getIndex().count(null, asNode(property), null);
+	}
+
+	@Override
+	public Map<OWLIndividual, SortedSet<OWLIndividual>> getPropertyMembersImpl(OWLObjectProperty objectProperty) {
+		TripleIndex index = getIndex();
+		Map<OWLIndividual, SortedSet<OWLIndividual>> subject2objects = new HashMap<>();
+		for (int t : index.find(null, asNode(objectProperty), null)) {
+			Node s = index.getSubject(t);
+			Node o = index.getObject(t);
+			if (s.isURI() && o.isURI()) {
+				subject2objects.computeIfAbsent(df.getOWLNamedIndividual(IRI.create(s.getURI())), k -> new TreeSet<>())
+						.add(df.getOWLNamedIndividual(IRI.create(o.getURI())));
+			}
+		}
+		return subject2objects;
+	}
+
+	@Override
+	public Map<OWLIndividual, SortedSet<OWLLiteral>> getDatatypeMembersImpl(OWLDataProperty dataProperty) {
+		TripleIndex index = getIndex();
+		Map<OWLIndividual, SortedSet<OWLLiteral>> subject2objects = new HashMap<>();
+		for (int t : index.find(null, asNode(dataProperty), null)) {
+			Node s = index.getSubject(t);
+			Node o = index.getObject(t);
+			if (s.isURI() && o.isLiteral()) {
+				subject2objects.computeIfAbsent(df.getOWLNamedIndividual(IRI.create(s.getURI())), k -> new TreeSet<>())
+						.add(OwlApiJenaUtils.getOWLLiteral(o.getLiteral()));
+			}
+		}
+		return subject2objects;
+	}
+
+	// atomic classes are answered by the index, owl:Thing and owl:Nothing are handled by the SPARQL conversion
+	private static boolean isAtomic(OWLClassExpression description) {
+		return !description.isAnonymous() && !description.isOWLThing() && !description.isOWLNothing();
+	}
+
+	private static Node asNode(OWLEntity entity) {
+		return NodeFactory.createURI(entity.toStringID());
+	}
+
+	private static Node asNode(OWLIndividual individual) {
+		return NodeFactory.createURI(individual.asOWLNamedIndividual().toStringID());
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.*;
+
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+/**
+ * An index of the numeric values of a datatype property, i.e. all pairs
+ * (value, individual) stored as parallel primitive arrays sorted by value. The
+ * individuals having a value in a given interval then form a contiguous run of
+ * the arrays which is found by binary search, instead of checking the values of
+ * each individual.
+ * <p>
+ * Integer values are stored as doubles, which is lossless for all values of
+ * type <code>int</code>.
+ */
+public class NumericValueIndex {
+
+	// the individuals, sorted, the ID of an individual is its position
+	private final OWLIndividual[] individuals;
+
+	// the values and the IDs of the individuals having the value, sorted by value
+	private final double[] values;
+	private final int[] individualIds;
+
+	/**
+	 * @param mapping the values of each individual, individuals without a value
+	 * may be omitted
+	 */
+	public NumericValueIndex(Map<OWLIndividual, ? extends Collection<? extends Number>> mapping) {
+		if (mapping == null) {
+			mapping = Collections.emptyMap();
+		}
+		individuals = new TreeSet<>(mapping.keySet()).toArray(new OWLIndividual[0]);
+
+		int size = 0;
+		for (Collection<? extends Number> indValues : mapping.values()) {
+			size += indValues.size();
+		}
+		double[] unsortedValues = new double[size];
+		int[] unsortedIds = new int[size];
+		int n = 0;
+		for (int id = 0; id < individuals.length; id++) {
+			for (Number value : mapping.get(individuals[id])) {
+				double v = value.doubleValue();
+				if (!Double.isNaN(v)) {
+					unsortedValues[n] = v;
+					unsortedIds[n] = id;
+					n++;
+				}
+			}
+		}
+
+		// sort the pairs by value, done once when the index is built: each pair
+		// is packed into a long of the rank of its value among the distinct values
+		// and its position, such that a primitive sort of the keys orders the pairs
+		double[] distinctValues = Arrays.copyOf(unsortedValues, n);
+		Arrays.sort(distinctValues);
+		int nrOfDistinctValues = 0;
+		for (int i = 0; i < n; i++) {
+			if (i == 0 || Double.compare(distinctValues[i], distinctValues[i - 1]) != 0) {
+				distinctValues[nrOfDistinctValues++] = distinctValues[i];
+			}
+		}
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			long rank = Arrays.binarySearch(distinctValues, 0, nrOfDistinctValues, unsortedValues[i]);
+			keys[i] = rank << 32 | i;
+		}
+		Arrays.sort(keys);
+
+		values = new double[n];
+		individualIds = new int[n];
+		for (int i = 0; i < n; i++) {
+			int position = (int) keys[i];
+			values[i] = unsortedValues[position];
+			individualIds[i] = unsortedIds[position];
+		}
+	}
+
+	/**
+	 * Returns all individuals having at least one value in the closed interval
+	 * [min, max].
+	 *
+	 * @param min the lower bound
+	 * @param max the upper bound
+	 * @return the individuals
+	 */
+	public SortedSet<OWLIndividual> getIndividuals(double min, double max) {
+		SortedSet<OWLIndividual> individuals = new TreeSet<>();
+
+		int from = firstIndexNotBelow(min);
+		int to = firstIndexAbove(max);
+		if (from >= to) {
+			return individuals;
+		}
+
+		// an individual can have several values in the interval
+		BitSet ids = new BitSet(this.individuals.length);
+		for (int i = from; i < to; i++) {
+			ids.set(individualIds[i]);
+		}
+		for (int id = ids.nextSetBit(0); id >= 0; id = ids.nextSetBit(id + 1)) {
+			individuals.add(this.individuals[id]);
+		}
+		return individuals;
+	}
+
+	/**
+	 * @return the number of (value, individual) pairs
+	 */
+	public int size() {
+		return values.length;
+	}
+
+	// the index of the first value >= min
+	private int firstIndexNotBelow(double min) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] < min) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// the index of the first value > max
+	private int firstIndexAbove(double max) {
+		int low = 0;
+		int high = values.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (values[mid] <= max) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
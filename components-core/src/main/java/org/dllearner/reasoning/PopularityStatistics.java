@@ -0,0 +1,320 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.dllearner.reasoning.SPARQLReasoner.PopularityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The popularity, i.e. the number of instances of classes resp. the number of
+ * triples of properties, of all entities of a SPARQL endpoint. The counts of
+ * each entity type are computed by a single paged GROUP BY query. If the
+ * endpoint fails to answer it, e.g. because of a timeout, the entities are
+ * split into partitions by the hash of their IRI which are queried in
+ * parallel.
+ * <p>
+ * The statistics can be stored in a file and loaded again in later runs.
+ * Types which are already complete are not computed again, and counts of
+ * single entities computed in between are added to the file. A file is only
+ * loaded for the endpoint it was written for.
+ */
+public class PopularityStatistics {
+
+	private static final Logger logger = LoggerFactory.getLogger(PopularityStatistics.class);
+
+	private static final String PREFIXES = "PREFIX owl: <http://www.w3.org/2002/07/owl#> ";
+
+	private static final Map<PopularityType, String> GROUP_BY_QUERIES = new EnumMap<>(PopularityType.class);
+	static {
+		GROUP_BY_QUERIES.put(PopularityType.CLASS,
+				PREFIXES + "SELECT ?e (COUNT(?s) AS ?cnt) WHERE {?s a ?e . ?e a owl:Class . %s} GROUP BY ?e");
+		GROUP_BY_QUERIES.put(PopularityType.OBJECT_PROPERTY,
+				PREFIXES + "SELECT ?e (COUNT(*) AS ?cnt) WHERE {?s ?e ?o . ?e a owl:ObjectProperty . %s} GROUP BY ?e");
+		GROUP_BY_QUERIES.put(PopularityType.DATA_PROPERTY,
+				PREFIXES + "SELECT ?e (COUNT(*) AS ?cnt) WHERE {?s ?e ?o . ?e a owl:DatatypeProperty . %s} GROUP BY ?e");
+	}
+
+	// the hash partitions are given by the first hex digit of the MD5 hash of the IRI
+	private static final String HEX_DIGITS = "0123456789abcdef";
+
+	private static final String COMPLETE = "complete";
+
+	private static final String HEADER = "# popularity statistics of ";
+
+	private final QueryExecutionFactory qef;
+
+	private final Map<PopularityType, Map<String, Integer>> counts = new EnumMap<>(PopularityType.class);
+	private final Set<PopularityType> completeTypes = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
+	// whether there are counts which have not been saved yet
+	private volatile boolean modified = false;
+
+	private int pageSize = 10000;
+	private int nrOfThreads = 4;
+
+	public PopularityStatistics(QueryExecutionFactory qef) {
+		this.qef = qef;
+		for (PopularityType type : PopularityType.values()) {
+			counts.put(type, new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Computes the popularity of all entities of the given type, unless this
+	 * was done before.
+	 * @param type the entity type
+	 * @return the popularity of all entities of the type which occur in the data,
+	 * keyed by IRI
+	 */
+	public Map<String, Integer> compute(PopularityType type) {
+		if (!completeTypes.contains(type)) {
+			long start = System.currentTimeMillis();
+			Map<String, Integer> result;
+			try {
+				result = query(String.format(GROUP_BY_QUERIES.get(type), ""));
+			} catch (Exception e) {
+				logger.warn("Computing the popularity of all {} entities at once failed, querying {} partitions in parallel instead. Reason: {}",
+						type, HEX_DIGITS.length(), e.getMessage());
+				result = computePartitioned(type);
+			}
+			counts.get(type).putAll(result);
+			completeTypes.add(type);
+			modified = true;
+			logger.debug("Computed popularity of {} {} entities in {}ms.", result.size(), type, System.currentTimeMillis() - start);
+		}
+		return Collections.unmodifiableMap(counts.get(type));
+	}
+
+	private Map<String, Integer> computePartitioned(PopularityType type) {
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(nrOfThreads, r -> {
+			Thread thread = new Thread(r, "popularity-statistics-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<Map<String, Integer>>> futures = new ArrayList<>();
+			for (char digit : HEX_DIGITS.toCharArray()) {
+				String filter = "FILTER(STRSTARTS(MD5(STR(?e)), \"" + digit + "\"))";
+				String query = String.format(GROUP_BY_QUERIES.get(type), filter);
+				futures.add(executor.submit(() -> query(query)));
+			}
+			Map<String, Integer> result = new ConcurrentHashMap<>();
+			for (Future<Map<String, Integer>> future : futures) {
+				result.putAll(future.get());
+			}
+			return result;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Computation of the popularity statistics was interrupted.", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Failed to compute the popularity statistics.", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	// executes the GROUP BY query page by page
+	private Map<String, Integer> query(String groupByQuery) {
+		Map<String, Integer> result = new ConcurrentHashMap<>();
+		int offset = 0;
+		while (true) {
+			String query = groupByQuery + " ORDER BY ?e LIMIT " + pageSize + " OFFSET " + offset;
+			int rows = 0;
+			try (QueryExecution qe = qef.createQueryExecution(query)) {
+				ResultSet rs = qe.execSelect();
+				while (rs.hasNext()) {
+					QuerySolution qs = rs.next();
+					rows++;
+					// an empty group yields a single row without entity
+					if (qs.get("e") != null && qs.get("e").isURIResource()) {
+						result.put(qs.getResource("e").getURI(), qs.getLiteral("cnt").getInt());
+					}
+				}
+			}
+			if (rows < pageSize) {
+				return result;
+			}
+			offset += pageSize;
+		}
+	}
+
+	/**
+	 * @param type the entity type
+	 * @param iri the IRI of the entity
+	 * @return the popularity of the entity, or <code>null</code> if it is unknown
+	 */
+	public Integer get(PopularityType type, String iri) {
+		return counts.get(type).get(iri);
+	}
+
+	/**
+	 * Adds the popularity of a single entity.
+	 * @param type the entity type
+	 * @param iri the IRI of the entity
+	 * @param popularity the popularity
+	 */
+	public void put(PopularityType type, String iri, int popularity) {
+		counts.get(type).put(iri, popularity);
+		modified = true;
+	}
+
+	/**
+	 * @return whether counts were computed or added since the statistics were
+	 * saved the last time
+	 */
+	public boolean isModified() {
+		return modified;
+	}
+
+	/**
+	 * @param type the entity type
+	 * @return whether the popularity of all entities of the type is known
+	 */
+	public boolean isComplete(PopularityType type) {
+		return completeTypes.contains(type);
+	}
+
+	/**
+	 * Removes the popularity of all entities of the type, i.e. it will be
+	 * computed again on the next call of {@link #compute(PopularityType)}.
+	 * @param type the entity type
+	 */
+	public void invalidate(PopularityType type) {
+		completeTypes.remove(type);
+		counts.get(type).clear();
+	}
+
+	/**
+	 * Loads the statistics from a file written by {@link #save(File)}. Loaded
+	 * counts are added to the current ones. The file is ignored if it contains
+	 * the statistics of another endpoint.
+	 * @param file the file
+	 * @return whether the file was loaded
+	 * @throws IOException if the file can not be read
+	 */
+	public boolean load(File file) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+			String line = reader.readLine();
+			String expectedHeader = HEADER + qef.getId();
+			if (!expectedHeader.equals(line)) {
+				logger.warn("Ignoring popularity statistics " + file + " because they do not belong to the endpoint "
+						+ qef.getId() + " (header: " + line + ")");
+				return false;
+			}
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] tokens = line.split("\t");
+				try {
+					if (tokens.length == 2 && tokens[0].equals(COMPLETE)) {
+						completeTypes.add(PopularityType.valueOf(tokens[1]));
+					} else if (tokens.length == 3) {
+						counts.get(PopularityType.valueOf(tokens[0])).put(tokens[1], Integer.parseInt(tokens[2]));
+					} else {
+						logger.debug("Ignoring malformed line in popularity statistics " + file + ": " + line);
+					}
+				} catch (IllegalArgumentException e) {
+					logger.debug("Ignoring malformed line in popularity statistics " + file + ": " + line);
+				}
+			}
+		}
+		logger.info("Loaded popularity statistics from " + file);
+		return true;
+	}
+
+	/**
+	 * Stores the statistics in the given file, one tab separated line of
+	 * entity type, IRI and count per entity.
+	 * @param file the file
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(File file) throws IOException {
+		Path target = file.toPath().toAbsolutePath();
+		if (target.getParent() != null) {
+			Files.createDirectories(target.getParent());
+		}
+		Path tmp = Files.createTempFile(target.getParent(), file.getName(), ".tmp");
+		try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+			writer.write(HEADER + qef.getId());
+			writer.newLine();
+			for (PopularityType type : completeTypes) {
+				writer.write(COMPLETE + "\t" + type.name());
+				writer.newLine();
+			}
+			for (Map.Entry<PopularityType, Map<String, Integer>> entry : counts.entrySet()) {
+				for (Map.Entry<String, Integer> count : entry.getValue().entrySet()) {
+					writer.write(entry.getKey().name() + "\t" + count.getKey() + "\t" + count.getValue());
+					writer.newLine();
+				}
+			}
+		}
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		modified = false;
+	}
+
+	public int getPageSize() {
+		return pageSize;
+	}
+
+	/**
+	 * @param pageSize the max. number of rows fetched by a single GROUP BY query
+	 */
+	public void setPageSize(int pageSize) {
+		this.pageSize = pageSize;
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+	/**
+	 * @param nrOfThreads the max. number of partitions queried in parallel
+	 */
+	public void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+	}
+}
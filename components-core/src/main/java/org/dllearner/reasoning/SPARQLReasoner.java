@@ -62,6 +62,8 @@ import org.slf4j.Marker;
 import org.slf4j.helpers.BasicMarkerFactory;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
 import java.util.Map.Entry;
 import java.util.concurrent.TimeUnit;
@@ -111,6 +113,28 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	@ConfigOption(description = "Whether to use SPARQL1.1 Value Lists", defaultValue = "false")
 	private boolean useValueLists = false;
 
+	@ConfigOption(description = "The max. number of individuals sent in a single SPARQL 1.1 VALUES block, larger " +
+			"sets of individuals are split into several queries", defaultValue = "500")
+	private int valuesChunkSize = 500;
+
+	@ConfigOption(description = "The max. number of VALUES queries executed in parallel", defaultValue = "4")
+	private int nrOfRetrievalThreads = 4;
+
+	@ConfigOption(description = "The max. number of class expressions for which the instances among the " +
+			"queried individuals are cached, 0 disables the cache", defaultValue = "1000")
+	private int retrievalCacheSize = 1000;
+
+	@ConfigOption(description = "Whether conjunctions and disjunctions are evaluated operand by operand when " +
+			"querying with VALUES, which allows for reusing the cached instances of the operands", defaultValue = "true")
+	private boolean decomposeExpressions = true;
+
+	@ConfigOption(description = "A file in which the popularity of classes and properties is stored, such that " +
+			"it can be reused in later runs", defaultValue = "no file")
+	private String popularityStatisticsFile;
+
+	private SPARQLRetrievalEngine retrievalEngine;
+	private PopularityStatistics popularityStatistics;
+
 	private QueryExecutionFactory qef;
 
 	private SparqlEndpointKS ks;
@@ -188,6 +212,39 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 				qef = new QueryExecutionFactoryModel(((LocalModelBasedSparqlEndpointKS)ks).getModel());
 			}
 		}
+
+		if(popularityStatisticsFile != null && new File(popularityStatisticsFile).exists()) {
+			try {
+				getPopularityStatistics().load(new File(popularityStatisticsFile));
+			} catch (IOException e) {
+				logger.warn("Failed to load popularity statistics from " + popularityStatisticsFile, e);
+			}
+		}
+	}
+
+	/**
+	 * @return the popularity statistics of the classes and properties
+	 */
+	public synchronized PopularityStatistics getPopularityStatistics() {
+		if (popularityStatistics == null) {
+			popularityStatistics = new PopularityStatistics(qef);
+			popularityStatistics.setNrOfThreads(nrOfRetrievalThreads);
+		}
+		return popularityStatistics;
+	}
+
+	/**
+	 * Stores the popularity statistics in the file given by
+	 * {@link #setPopularityStatisticsFile(String)}, if any.
+	 */
+	public void savePopularityStatistics() {
+		if (popularityStatisticsFile != null) {
+			try {
+				getPopularityStatistics().save(new File(popularityStatisticsFile));
+			} catch (IOException e) {
+				logger.warn("Failed to save popularity statistics to " + popularityStatisticsFile, e);
+			}
+		}
 	}
 	
 	public QueryExecutionFactory getQueryExecutionFactory() {
@@ -267,16 +324,9 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		long start = System.currentTimeMillis();
 		
 		if (batchedMode) {
-			String query = "PREFIX owl:<http://www.w3.org/2002/07/owl#>  SELECT ?type (COUNT(?s) AS ?cnt) WHERE {?s a ?type . ?type a owl:Class .} GROUP BY ?type";
-			ResultSet rs = executeSelectQuery(query);
-			while (rs.hasNext()) {
-				QuerySolution qs = rs.next();
-				if (qs.get("type").isURIResource()) {
-					OWLClass cls = df.getOWLClass(IRI.create(qs.getResource("type").getURI()));
-					int cnt = qs.getLiteral("cnt").getInt();
-					classPopularityMap.put(cls, cnt);
-				}
-			}
+			getPopularityStatistics().compute(PopularityType.CLASS).forEach(
+					(iri, cnt) -> classPopularityMap.put(df.getOWLClass(IRI.create(iri)), cnt));
+			savePopularityStatistics();
 		} else {
 			Set<OWLClass> classes = getOWLClasses();
 			String queryTemplate = "SELECT (COUNT(?s) AS ?cnt) WHERE {?s a <%s>}";
@@ -302,16 +352,9 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		long start = System.currentTimeMillis();
 		
 		if (batchedMode) {
-			String query = "PREFIX owl: <http://www.w3.org/2002/07/owl#> SELECT ?p (COUNT(*) AS ?cnt) WHERE {?s ?p ?o . ?p a owl:ObjectProperty .} GROUP BY ?p";
-			ResultSet rs = executeSelectQuery(query);
-			while (rs.hasNext()) {
-				QuerySolution qs = rs.next();
-				if (qs.get("p").isURIResource()) {
-					OWLObjectProperty property = df.getOWLObjectProperty(IRI.create(qs.getResource("p").getURI()));
-					int cnt = qs.getLiteral("cnt").getInt();
-					entityPopularityMap.put(property, cnt);
-				}
-			}
+			getPopularityStatistics().compute(PopularityType.OBJECT_PROPERTY).forEach(
+					(iri, cnt) -> entityPopularityMap.put(df.getOWLObjectProperty(IRI.create(iri)), cnt));
+			savePopularityStatistics();
 		} else {
 			Set<OWLObjectProperty> properties = getOWLObjectProperties();
 			String queryTemplate = "SELECT (COUNT(*) AS ?cnt) WHERE {?s <%s> ?o}";
@@ -337,16 +380,9 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		long start = System.currentTimeMillis();
 		
 		if (batchedMode) {
-			String query = "PREFIX owl: <http://www.w3.org/2002/07/owl#> SELECT ?p (COUNT(*) AS ?cnt) WHERE {?s ?p ?o . ?p a owl:DatatypeProperty .} GROUP BY ?p";
-			ResultSet rs = executeSelectQuery(query);
-			while (rs.hasNext()) {
-				QuerySolution qs = rs.next();
-				if (qs.get("p").isURIResource()) {
-					OWLDataProperty property = df.getOWLDataProperty(IRI.create(qs.getResource("p").getURI()));
-					int cnt = qs.getLiteral("cnt").getInt();
-					entityPopularityMap.put(property, cnt);
-				}
-			}
+			getPopularityStatistics().compute(PopularityType.DATA_PROPERTY).forEach(
+					(iri, cnt) -> entityPopularityMap.put(df.getOWLDataProperty(IRI.create(iri)), cnt));
+			savePopularityStatistics();
 		} else {
 			Set<OWLDataProperty> properties = getOWLDataProperties();
 			String queryTemplate = "SELECT (COUNT(*) AS ?cnt) WHERE {?s <%s> ?o}";
@@ -425,6 +461,15 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		// check if we have the value cached
 		Integer popularity = entityPopularityMap.get(entity);
 
+		// use the statistics of previous runs
+		PopularityType popularityType = entity.isOWLClass() ? PopularityType.CLASS
+				: entity.isOWLObjectProperty() ? PopularityType.OBJECT_PROPERTY
+				: entity.isOWLDataProperty() ? PopularityType.DATA_PROPERTY
+				: null;
+		if(popularity == null && popularityType != null){
+			popularity = getPopularityStatistics().get(popularityType, entity.toStringID());
+		}
+
 		// compute the value if not cached
 		if(popularity == null){
 			ParameterizedSparqlString queryTemplate;
@@ -443,9 +488,12 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 			
 			popularity = rs.next().getLiteral("cnt").getInt();
 
-			// put to cache
-			entityPopularityMap.put(entity, popularity);
+			if(popularityType != null){
+				getPopularityStatistics().put(popularityType, entity.toStringID(), popularity);
+			}
 		}
+		// put to cache
+		entityPopularityMap.put(entity, popularity);
 		return popularity;
 	}
 
@@ -1231,25 +1279,41 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	}
 
 	protected String buildIndividualsQueryValues(OWLClassExpression description, Collection<OWLIndividual> indValues, boolean isCountQuery) {
-		String query;
 		String tp = converter.convert("?ind", description);
 
+		StringBuilder query = new StringBuilder();
 		if (isCountQuery) {
-			query = "SELECT (COUNT(DISTINCT ?ind) as ?cnt) WHERE { \n";
+			query.append("SELECT (COUNT(DISTINCT ?ind) as ?cnt) WHERE { \n");
 		} else {
-			query = "SELECT DISTINCT ?ind WHERE { \n";
+			query.append("SELECT DISTINCT ?ind WHERE { \n");
 		}
 
-		query += "VALUES ?ind { \n";
+		query.append("VALUES ?ind { \n");
 		for (OWLIndividual x:indValues) {
-			query += "<" + x.toStringID() + "> ";
+			query.append('<').append(x.toStringID()).append("> ");
 		}
-		query += "}. \n " + tp + "\n}";
+		query.append("}. \n ").append(tp).append("\n}");
 
-		return query;
+		return query.toString();
+	}
+
+	/**
+	 * @return the engine used to evaluate class expressions on a given set of
+	 * individuals with SPARQL 1.1 VALUES
+	 */
+	public synchronized SPARQLRetrievalEngine getRetrievalEngine() {
+		if (retrievalEngine == null) {
+			retrievalEngine = new SPARQLRetrievalEngine(this, valuesChunkSize, nrOfRetrievalThreads,
+					retrievalCacheSize, decomposeExpressions);
+		}
+		return retrievalEngine;
 	}
 
 	public SortedSet<OWLIndividual> getIndividuals(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
+		if (indValues != null && limit == 0) {
+			return getRetrievalEngine().getIndividuals(description, indValues);
+		}
+
 		// we need to copy it to get something like A AND B from A AND A AND B
 		description = duplicator.duplicateObject(description);
 		
@@ -1288,6 +1352,10 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	}
 
 	public int getIndividualsCount(OWLClassExpression description, int limit, Set<OWLIndividual> indValues) {
+		if (indValues != null && limit == 0) {
+			return getRetrievalEngine().getIndividualsCount(description, indValues);
+		}
+
 		description = duplicator.duplicateObject(description);
 		
 		String query;
@@ -2409,7 +2477,29 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 	 * @see org.dllearner.core.AbstractReasonerComponent#releaseKB()
 	 */
 	@Override
-	public void releaseKB() {
+	public synchronized void releaseKB() {
+		if (retrievalEngine != null) {
+			retrievalEngine.shutdown();
+			retrievalEngine = null;
+		}
+		// the counts of single entities are not saved when they are computed
+		if (popularityStatistics != null && popularityStatistics.isModified()) {
+			savePopularityStatistics();
+		}
+	}
+
+	public String getPopularityStatisticsFile() {
+		return popularityStatisticsFile;
+	}
+
+	/**
+	 * @param popularityStatisticsFile a file in which the popularity of classes and
+	 * properties is stored, such that it can be reused in later runs. The file is
+	 * written after each precomputation and by {@link #releaseKB()}, which also
+	 * stores the popularity of single entities computed in between.
+	 */
+	public void setPopularityStatisticsFile(String popularityStatisticsFile) {
+		this.popularityStatisticsFile = popularityStatisticsFile;
 	}
 
 	public boolean isLaxMode() {
@@ -2456,4 +2546,36 @@ public class SPARQLReasoner extends AbstractReasonerComponent implements SchemaR
 		this.useValueLists = useValueLists;
 	}
 
+	public int getValuesChunkSize() {
+		return valuesChunkSize;
+	}
+
+	public void setValuesChunkSize(int valuesChunkSize) {
+		this.valuesChunkSize = valuesChunkSize;
+	}
+
+	public int getNrOfRetrievalThreads() {
+		return nrOfRetrievalThreads;
+	}
+
+	public void setNrOfRetrievalThreads(int nrOfRetrievalThreads) {
+		this.nrOfRetrievalThreads = nrOfRetrievalThreads;
+	}
+
+	public int getRetrievalCacheSize() {
+		return retrievalCacheSize;
+	}
+
+	public void setRetrievalCacheSize(int retrievalCacheSize) {
+		this.retrievalCacheSize = retrievalCacheSize;
+	}
+
+	public boolean isDecomposeExpressions() {
+		return decomposeExpressions;
+	}
+
+	public void setDecomposeExpressions(boolean decomposeExpressions) {
+		this.decomposeExpressions = decomposeExpressions;
+	}
+
 }
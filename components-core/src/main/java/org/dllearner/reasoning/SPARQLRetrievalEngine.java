@@ -0,0 +1,376 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.dllearner.utilities.owl.ConceptTransformation;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Instance retrieval of class expressions restricted to a given set of
+ * individuals, e.g. the examples of a learning problem, for the
+ * {@link SPARQLReasoner}.
+ * <ul>
+ * <li>The individuals are sent in SPARQL 1.1 VALUES blocks of bounded size,
+ * and the chunks are executed concurrently.</li>
+ * <li>For each normalised class expression, the individuals known to be
+ * instances resp. non-instances are cached. Conjunctions and disjunctions are
+ * decomposed, such that e.g. for <code>A and (r some C)</code> only the cached
+ * instances of <code>A</code> have to be checked for <code>r some C</code>.</li>
+ * <li>If only the number of instances is needed, COUNT queries are used for
+ * the parts which are not cached.</li>
+ * </ul>
+ */
+public class SPARQLRetrievalEngine {
+
+	private static final Logger logger = LoggerFactory.getLogger(SPARQLRetrievalEngine.class);
+
+	private static final AtomicInteger threadCount = new AtomicInteger();
+
+	/**
+	 * The individuals known to be instances resp. non-instances of a class
+	 * expression.
+	 */
+	private static class Membership {
+		final Set<OWLIndividual> instances = ConcurrentHashMap.newKeySet();
+		final Set<OWLIndividual> nonInstances = ConcurrentHashMap.newKeySet();
+	}
+
+	private final SPARQLReasoner reasoner;
+	private final int chunkSize;
+	private final int nrOfThreads;
+	private final boolean decomposeExpressions;
+
+	private final Cache<OWLClassExpression, Membership> cache;
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+	private final OWLObjectDuplicator duplicator = new OWLObjectDuplicator(df);
+
+	private ExecutorService executor;
+
+	private final AtomicLong nrOfQueries = new AtomicLong();
+	private final AtomicLong cacheHits = new AtomicLong();
+	private final AtomicLong cacheMisses = new AtomicLong();
+
+	/**
+	 * @param reasoner the reasoner used to build and execute the queries
+	 * @param chunkSize the max. number of individuals in a single VALUES block
+	 * @param nrOfThreads the max. number of queries executed in parallel
+	 * @param cacheSize the max. number of class expressions for which the
+	 * instances are cached, 0 disables caching
+	 * @param decomposeExpressions whether conjunctions and disjunctions are
+	 * evaluated operand by operand
+	 */
+	public SPARQLRetrievalEngine(SPARQLReasoner reasoner, int chunkSize, int nrOfThreads, int cacheSize,
+								 boolean decomposeExpressions) {
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("chunk size must be positive, but was " + chunkSize);
+		}
+		this.reasoner = reasoner;
+		this.chunkSize = chunkSize;
+		this.nrOfThreads = Math.max(1, nrOfThreads);
+		this.decomposeExpressions = decomposeExpressions && cacheSize > 0;
+		this.cache = CacheBuilder.newBuilder().maximumSize(cacheSize).build();
+	}
+
+	/**
+	 * @param description the class expression
+	 * @param individuals the candidate individuals
+	 * @return the individuals which are instances of the class expression
+	 */
+	public SortedSet<OWLIndividual> getIndividuals(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		return new TreeSet<>(retrieve(normalize(description), individuals));
+	}
+
+	/**
+	 * @param description the class expression
+	 * @param individuals the candidate individuals
+	 * @return the number of individuals which are instances of the class expression
+	 */
+	public int getIndividualsCount(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		return count(normalize(description), individuals);
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void clearCache() {
+		cache.invalidateAll();
+	}
+
+	/**
+	 * Clears the cache and stops the threads used for query execution.
+	 */
+	public synchronized void shutdown() {
+		clearCache();
+		if (executor != null) {
+			executor.shutdownNow();
+			executor = null;
+		}
+	}
+
+	/**
+	 * @return the number of SPARQL queries sent so far
+	 */
+	public long getNrOfQueries() {
+		return nrOfQueries.get();
+	}
+
+	/**
+	 * @return the number of requests answered completely from the cache
+	 */
+	public long getCacheHits() {
+		return cacheHits.get();
+	}
+
+	/**
+	 * @return the number of requests which needed at least one query
+	 */
+	public long getCacheMisses() {
+		return cacheMisses.get();
+	}
+
+	private OWLClassExpression normalize(OWLClassExpression description) {
+		// flatten nested conjunctions and disjunctions, and get rid of duplicate operands
+		return duplicator.duplicateObject(ConceptTransformation.cleanConcept(description));
+	}
+
+	private Set<OWLIndividual> retrieve(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		if (individuals.isEmpty() || description.isOWLNothing()) {
+			return Collections.emptySet();
+		}
+		if (description.isOWLThing()) {
+			return individuals;
+		}
+
+		Membership membership = cache.getIfPresent(description);
+		Set<OWLIndividual> unknown = individuals;
+		Set<OWLIndividual> instances = new HashSet<>();
+		if (membership != null) {
+			unknown = new HashSet<>();
+			for (OWLIndividual ind : individuals) {
+				if (membership.instances.contains(ind)) {
+					instances.add(ind);
+				} else if (!membership.nonInstances.contains(ind)) {
+					unknown.add(ind);
+				}
+			}
+			if (unknown.isEmpty()) {
+				cacheHits.incrementAndGet();
+				return instances;
+			}
+		}
+		cacheMisses.incrementAndGet();
+
+		Set<OWLIndividual> newInstances;
+		if (decomposeExpressions && description instanceof OWLObjectIntersectionOf) {
+			// each operand only has to be checked for the instances of the previous ones
+			newInstances = unknown;
+			for (OWLClassExpression operand : orderByCachedFirst(((OWLObjectIntersectionOf) description).getOperands())) {
+				newInstances = retrieve(operand, newInstances);
+				if (newInstances.isEmpty()) {
+					break;
+				}
+			}
+		} else if (decomposeExpressions && description instanceof OWLObjectUnionOf) {
+			// each operand only has to be checked for the non-instances of the previous ones
+			newInstances = new HashSet<>();
+			Set<OWLIndividual> remaining = unknown;
+			for (OWLClassExpression operand : orderByCachedFirst(((OWLObjectUnionOf) description).getOperands())) {
+				newInstances.addAll(retrieve(operand, remaining));
+				remaining = Sets.difference(unknown, newInstances).immutableCopy();
+				if (remaining.isEmpty()) {
+					break;
+				}
+			}
+		} else {
+			newInstances = query(description, unknown);
+		}
+
+		if (membership == null) {
+			membership = new Membership();
+			cache.put(description, membership);
+		}
+		for (OWLIndividual ind : unknown) {
+			if (newInstances.contains(ind)) {
+				membership.instances.add(ind);
+			} else {
+				membership.nonInstances.add(ind);
+			}
+		}
+		instances.addAll(newInstances);
+		return instances;
+	}
+
+	private int count(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		if (individuals.isEmpty() || description.isOWLNothing()) {
+			return 0;
+		}
+		if (description.isOWLThing()) {
+			return individuals.size();
+		}
+
+		Membership membership = cache.getIfPresent(description);
+		int count = 0;
+		Set<OWLIndividual> unknown = individuals;
+		if (membership != null) {
+			unknown = new HashSet<>();
+			for (OWLIndividual ind : individuals) {
+				if (membership.instances.contains(ind)) {
+					count++;
+				} else if (!membership.nonInstances.contains(ind)) {
+					unknown.add(ind);
+				}
+			}
+			if (unknown.isEmpty()) {
+				cacheHits.incrementAndGet();
+				return count;
+			}
+		}
+		cacheMisses.incrementAndGet();
+
+		// an instance of a conjunction has to be an instance of each operand, thus
+		// we can drop all individuals known to be no instance of a cached operand
+		if (description instanceof OWLObjectIntersectionOf) {
+			for (OWLClassExpression operand : ((OWLObjectIntersectionOf) description).getOperands()) {
+				Membership operandMembership = cache.getIfPresent(operand);
+				if (operandMembership != null) {
+					Set<OWLIndividual> candidates = new HashSet<>();
+					for (OWLIndividual ind : unknown) {
+						if (!operandMembership.nonInstances.contains(ind)) {
+							candidates.add(ind);
+						}
+					}
+					unknown = candidates;
+				}
+			}
+			if (unknown.isEmpty()) {
+				return count;
+			}
+		}
+
+		return count + countQuery(description, unknown);
+	}
+
+	private List<OWLClassExpression> orderByCachedFirst(Set<OWLClassExpression> operands) {
+		List<OWLClassExpression> ordered = new ArrayList<>(operands.size());
+		for (OWLClassExpression operand : operands) {
+			if (cache.getIfPresent(operand) != null) {
+				ordered.add(0, operand);
+			} else {
+				ordered.add(operand);
+			}
+		}
+		return ordered;
+	}
+
+	private Set<OWLIndividual> query(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		Set<OWLIndividual> instances = ConcurrentHashMap.newKeySet();
+		execute(description, individuals, false, rs -> {
+			while (rs.hasNext()) {
+				QuerySolution qs = rs.next();
+				if (qs.get("ind").isURIResource()) {
+					instances.add(df.getOWLNamedIndividual(IRI.create(qs.getResource("ind").getURI())));
+				}
+			}
+		});
+		return instances;
+	}
+
+	private int countQuery(OWLClassExpression description, Set<OWLIndividual> individuals) {
+		AtomicInteger count = new AtomicInteger();
+		// the chunks are disjoint, thus the counts of the chunks can be summed up
+		execute(description, individuals, true, rs -> {
+			if (rs.hasNext()) {
+				QuerySolution qs = rs.next();
+				if (qs.get("cnt").isLiteral()) {
+					count.addAndGet(qs.get("cnt").asLiteral().getInt());
+				}
+			}
+		});
+		return count.get();
+	}
+
+	private interface ResultHandler {
+		void handle(ResultSet rs);
+	}
+
+	private void execute(OWLClassExpression description, Set<OWLIndividual> individuals, boolean isCountQuery,
+						 ResultHandler handler) {
+		// the queries are built sequentially because the converter is not thread-safe
+		List<String> queries = new ArrayList<>();
+		for (List<OWLIndividual> chunk : Iterables.partition(individuals, chunkSize)) {
+			queries.add(reasoner.buildIndividualsQueryValues(description, chunk, isCountQuery));
+		}
+		nrOfQueries.addAndGet(queries.size());
+		logger.trace("Evaluating {} on {} individuals with {} queries", description, individuals.size(), queries.size());
+
+		if (queries.size() == 1 || nrOfThreads == 1) {
+			for (String query : queries) {
+				handler.handle(reasoner.executeSelectQuery(query));
+			}
+			return;
+		}
+
+		List<Future<ResultSet>> futures = new ArrayList<>(queries.size());
+		ExecutorService executor = getExecutor();
+		for (String query : queries) {
+			futures.add(executor.submit(() -> reasoner.executeSelectQuery(query)));
+		}
+		try {
+			for (Future<ResultSet> future : futures) {
+				handler.handle(future.get());
+			}
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while evaluating " + description, e);
+		} catch (ExecutionException e) {
+			futures.forEach(f -> f.cancel(true));
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw new RuntimeException("Failed to evaluate " + description, e.getCause());
+		}
+	}
+
+	private synchronized ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(nrOfThreads, r -> {
+				Thread thread = new Thread(r, "sparql-retrieval-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+		return executor;
+	}
+}
@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+
+/**
+ * An immutable, dictionary-encoded index of the triples of a graph. Each RDF
+ * term is mapped to an integer id and the triples are kept in three sorted
+ * permutations (SPO, POS and OSP), thus every triple pattern is answered by
+ * two binary searches on a contiguous range of one of the permutations.
+ */
+public class TripleIndex {
+
+	private static final int ANY = -1;
+
+	// the dictionary
+	private final Map<Node, Integer> ids = new HashMap<>();
+	private final List<Node> nodes = new ArrayList<>();
+
+	// the triples, column-wise
+	private final int[] subjects;
+	private final int[] predicates;
+	private final int[] objects;
+
+	// the triple positions sorted by SPO, POS and OSP
+	private final int[] spo;
+	private final int[] pos;
+	private final int[] osp;
+
+	public TripleIndex(Graph graph) {
+		List<int[]> triples = new ArrayList<>();
+		Iterator<Triple> it = graph.find(Node.ANY, Node.ANY, Node.ANY);
+		while (it.hasNext()) {
+			Triple t = it.next();
+			triples.add(new int[]{encode(t.getSubject()), encode(t.getPredicate()), encode(t.getObject())});
+		}
+		int n = triples.size();
+		subjects = new int[n];
+		predicates = new int[n];
+		objects = new int[n];
+		for (int i = 0; i < n; i++) {
+			int[] t = triples.get(i);
+			subjects[i] = t[0];
+			predicates[i] = t[1];
+			objects[i] = t[2];
+		}
+		spo = sort(subjects, predicates, objects);
+		pos = sort(predicates, objects, subjects);
+		osp = sort(objects, subjects, predicates);
+	}
+
+	private int encode(Node node) {
+		return ids.computeIfAbsent(node, n -> {
+			nodes.add(n);
+			return nodes.size() - 1;
+		});
+	}
+
+	private static int[] sort(int[] first, int[] second, int[] third) {
+		Integer[] order = new Integer[first.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, Comparator.<Integer>comparingInt(i -> first[i])
+				.thenComparingInt(i -> second[i])
+				.thenComparingInt(i -> third[i]));
+		int[] sorted = new int[order.length];
+		for (int i = 0; i < order.length; i++) {
+			sorted[i] = order[i];
+		}
+		return sorted;
+	}
+
+	/**
+	 * @return the number of triples
+	 */
+	public int size() {
+		return subjects.length;
+	}
+
+	/**
+	 * @param node an RDF term
+	 * @return the id of the term, or -1 if it does not occur in any triple
+	 */
+	public int getId(Node node) {
+		Integer id = ids.get(node);
+		return id == null ? ANY : id;
+	}
+
+	/**
+	 * @param id the id of an RDF term
+	 * @return the RDF term
+	 */
+	public Node getNode(int id) {
+		return nodes.get(id);
+	}
+
+	public Node getSubject(int triple) {
+		return nodes.get(subjects[triple]);
+	}
+
+	public Node getPredicate(int triple) {
+		return nodes.get(predicates[triple]);
+	}
+
+	public Node getObject(int triple) {
+		return nodes.get(objects[triple]);
+	}
+
+	/**
+	 * Returns the positions of all triples matching the given pattern, which
+	 * can be resolved by {@link #getSubject(int)}, {@link #getPredicate(int)}
+	 * and {@link #getObject(int)}.
+	 * @param s the subject or <code>null</code> for any subject
+	 * @param p the predicate or <code>null</code> for any predicate
+	 * @param o the object or <code>null</code> for any object
+	 * @return the positions of the matching triples
+	 */
+	public int[] find(Node s, Node p, Node o) {
+		Range range = range(s, p, o);
+		if (range == null) {
+			return new int[0];
+		}
+		return Arrays.copyOfRange(range.permutation, range.from, range.to);
+	}
+
+	/**
+	 * @param s the subject or <code>null</code> for any subject
+	 * @param p the predicate or <code>null</code> for any predicate
+	 * @param o the object or <code>null</code> for any object
+	 * @return the number of triples matching the given pattern
+	 */
+	public int count(Node s, Node p, Node o) {
+		Range range = range(s, p, o);
+		return range == null ? 0 : range.to - range.from;
+	}
+
+	/**
+	 * @param s the subject or <code>null</code> for any subject
+	 * @param p the predicate or <code>null</code> for any predicate
+	 * @param o the object or <code>null</code> for any object
+	 * @return whether there is a triple matching the given pattern
+	 */
+	public boolean contains(Node s, Node p, Node o) {
+		return count(s, p, o) > 0;
+	}
+
+	// a range of one of the permutations
+	private static class Range {
+		final int[] permutation;
+		final int from;
+		final int to;
+
+		Range(int[] permutation, int from, int to) {
+			this.permutation = permutation;
+			this.from = from;
+			this.to = to;
+		}
+	}
+
+	private Range range(Node s, Node p, Node o) {
+		int sId = s == null ? ANY : getId(s);
+		int pId = p == null ? ANY : getId(p);
+		int oId = o == null ? ANY : getId(o);
+		// a bound term which does not occur in the graph can't match
+		if ((s != null && sId == ANY) || (p != null && pId == ANY) || (o != null && oId == ANY)) {
+			return null;
+		}
+		// choose the permutation in which the bound terms form a prefix
+		if (s != null) {
+			if (p == null && o != null) {
+				return range(osp, objects, oId, subjects, sId, predicates, ANY);
+			}
+			return range(spo, subjects, sId, predicates, pId, objects, oId);
+		} else if (p != null) {
+			return range(pos, predicates, pId, objects, oId, subjects, ANY);
+		} else if (o != null) {
+			return range(osp, objects, oId, subjects, ANY, predicates, ANY);
+		}
+		return range(spo, subjects, ANY, predicates, ANY, objects, ANY);
+	}
+
+	private Range range(int[] permutation, int[] first, int a, int[] second, int b, int[] third, int c) {
+		int from = bound(permutation, first, a, second, b, third, c, true);
+		int to = bound(permutation, first, a, second, b, third, c, false);
+		return new Range(permutation, from, to);
+	}
+
+	// binary search for the first position not smaller (lower) resp. larger (upper) than the prefix
+	private static int bound(int[] permutation, int[] first, int a, int[] second, int b, int[] third, int c, boolean lower) {
+		int low = 0;
+		int high = permutation.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			int t = permutation[mid];
+			int cmp = compare(first[t], a);
+			if (cmp == 0) {
+				cmp = compare(second[t], b);
+				if (cmp == 0) {
+					cmp = compare(third[t], c);
+				}
+			}
+			if (cmp < 0 || (cmp == 0 && !lower)) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	// compares a value with a bound value of the pattern, unbound values match everything
+	private static int compare(int value, int bound) {
+		return bound == ANY ? 0 : Integer.compare(value, bound);
+	}
+}
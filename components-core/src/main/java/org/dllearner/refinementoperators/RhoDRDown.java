@@ -37,9 +37,10 @@ import org.dllearner.utilities.owl.ConceptTransformation;
 import org.dllearner.utilities.owl.OWLClassExpressionLengthMetric;
 import org.dllearner.utilities.owl.OWLClassExpressionToSPARQLConverter;
 import org.dllearner.utilities.owl.OWLClassExpressionUtils;
+import org.dllearner.utilities.split.AbstractValuesSplitter;
 import org.dllearner.utilities.split.DefaultDateTimeValuesSplitter;
 import org.dllearner.utilities.split.DefaultNumericValuesSplitter;
-import org.dllearner.utilities.split.ValuesSplitter;
+import org.dllearner.utilities.split.LazySplitMap;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.vocab.OWLFacet;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
@@ -51,8 +52,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
+import java.lang.reflect.Field;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static com.google.common.primitives.Ints.max;
@@ -165,6 +168,15 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 	@ConfigOption(description = "the number of generated split intervals for numeric types", defaultValue = "12")
 	private int maxNrOfSplits = 12;
 
+	@ConfigOption(description = "compute the splits of a numeric or time data property not before the operator " +
+			"uses the data property for the first time, instead of computing the splits of all data properties " +
+			"during initialisation", defaultValue = "false")
+	private boolean lazySplitComputation = false;
+
+	@ConfigOption(description = "the number of threads used to compute the splits of all numeric and time data " +
+			"properties during initialisation, the reasoner must support concurrent calls", defaultValue = "1")
+	private int nrOfSplitThreads = 1;
+
 	// data structure for a simple frequent pattern matching preprocessing phase
 	@ConfigOption(defaultValue = "3", description = "minimum number an individual or literal has to be seen in the " +
 			"knowledge base before considering it for inclusion in concepts")
@@ -232,8 +244,8 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			defaultValue="true")
 	private boolean useSomeOnly = true;
 
-	// caches for reasoner queries
-	private Map<OWLClassExpression,Map<OWLClassExpression,Boolean>> cachedDisjoints = new TreeMap<>();
+	// cache for instance based disjointness checks (the reasoner caches the other ones)
+	private Map<OWLClassExpression,Map<OWLClassExpression,Boolean>> cachedDisjoints = new ConcurrentHashMap<>();
 
 //	private Map<OWLClass,Map<OWLClass,Boolean>> abDisjoint = new TreeMap<OWLClass,Map<OWLClass,Boolean>>();
 //	private Map<OWLClass,Map<OWLClass,Boolean>> notABDisjoint = new TreeMap<OWLClass,Map<OWLClass,Boolean>>();
@@ -246,30 +258,32 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 	private OWLClassExpressionLengthMetric lengthMetric = OWLClassExpressionLengthMetric.getDefaultMetric();
 	private OWLDataFactory df = new OWLDataFactoryImpl();
 
+	// an already initialised operator on the same reasoner whose precomputed data is reused
+	@NoConfigOption
+	private RhoDRDown precomputedOperator;
+
 	public RhoDRDown() {}
 
+	/**
+	 * Creates a new, not yet initialised operator with the same configuration as the
+	 * given one, i.e. all config options and the hierarchies are copied.
+	 *
+	 * @param op the operator to copy the configuration from
+	 */
 	public RhoDRDown(RhoDRDown op) {
-		setApplyAllFilter(op.applyAllFilter);
-		setCardinalityLimit(op.cardinalityLimit);
+		for (Field field : AnnComponentManager.getConfigOptions(RhoDRDown.class)) {
+			try {
+				field.setAccessible(true);
+				field.set(this, field.get(op));
+			} catch (IllegalAccessException e) {
+				throw new RuntimeException("Failed to copy option " + field.getName() + " of refinement operator", e);
+			}
+		}
 		setClassHierarchy(op.classHierarchy);
 		setDataPropertyHierarchy(op.dataPropertyHierarchy);
-		setDropDisjuncts(op.dropDisjuncts);
-		setFrequencyThreshold(op.frequencyThreshold);
-		setInstanceBasedDisjoints(op.instanceBasedDisjoints);
 		setObjectPropertyHierarchy(op.objectPropertyHierarchy);
-		setReasoner(op.reasoner);
-		setStartClass(op.startClass);
-		setSubHierarchy(op.classHierarchy);
-		setUseAllConstructor(op.useAllConstructor);
-		setUseBooleanDatatypes(op.useBooleanDatatypes);
-		setUseCardinalityRestrictions(op.useCardinalityRestrictions);
-		setUseDataHasValueConstructor(op.useDataHasValueConstructor);
-		setUseExistsConstructor(op.useExistsConstructor);
-		setUseHasValueConstructor(op.useHasValueConstructor);
-		setUseNegation(op.useNegation);
-		setUseObjectValueNegation(op.useObjectValueNegation);
-		setUseStringDatatypes(op.useStringDatatypes);
-		setUseNumericDatatypes(op.useNumericDatatypes);
+		// also updates the values depending on the length metric
+		setLengthMetric(op.lengthMetric);
 		initialized = false;
 	}
 
@@ -288,6 +302,51 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 //		System.out.println("classHierarchy: " + classHierarchy);
 //		System.out.println("object properties: " + reasoner.getObjectProperties());
 
+		if (precomputedOperator != null) {
+			reusePrecomputedData(precomputedOperator);
+		} else {
+			precompute();
+		}
+
+		startClass = OWLAPIUtils.classExpressionPropertyExpanderChecked(startClass, reasoner, df, logger);
+
+		if(classHierarchy == null) {
+			classHierarchy = reasoner.getClassHierarchy();
+		}
+		if(objectPropertyHierarchy == null) {
+			objectPropertyHierarchy = reasoner.getObjectPropertyHierarchy();
+		}
+		if(dataPropertyHierarchy == null) {
+			dataPropertyHierarchy = reasoner.getDatatypePropertyHierarchy();
+		}
+
+		initialized = true;
+	}
+
+	/*
+	 * Shares the data computed from the knowledge base in init() with the given operator,
+	 * i.e. domains and ranges, frequent values, splits and max. number of fillers. The
+	 * data is only read after initialisation, thus, it can be used by several operators
+	 * running in parallel.
+	 */
+	private void reusePrecomputedData(RhoDRDown op) throws ComponentInitException {
+		if (!op.isInitialized()) {
+			throw new ComponentInitException("The operator whose precomputed data should be reused is not initialised.");
+		}
+		if (op.reasoner != reasoner) {
+			throw new ComponentInitException("The operator whose precomputed data should be reused works on a different reasoner.");
+		}
+		opDomains = op.opDomains;
+		opRanges = op.opRanges;
+		dpDomains = op.dpDomains;
+		frequentValues = op.frequentValues;
+		frequentDataValues = op.frequentDataValues;
+		valueFrequency = null;
+		splits = op.splits;
+		maxNrOfFillers = op.maxNrOfFillers;
+	}
+
+	private void precompute() {
 		// query reasoner for domains and ranges
 		// (because they are used often in the operator)
 		opDomains = reasoner.getObjectPropertyDomains();
@@ -397,6 +456,11 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		valueFrequency = null;
 		dataValueFrequency.clear();// = null;
 
+		// splits are either computed now or when a data property is used the first time
+		if(lazySplitComputation) {
+			splits = new LazySplitMap();
+		}
+
 		// compute splits for numeric data properties
 		if(useNumericDatatypes) {
 			if(reasoner instanceof SPARQLReasoner
@@ -404,9 +468,9 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 				// TODO SPARQL support for splits
 				logger.warn("Numeric Facet restrictions are not (yet) implemented for " + AnnComponentManager.getName(reasoner) + ", option ignored");
 			} else {
-				ValuesSplitter splitter = new DefaultNumericValuesSplitter(reasoner, df, maxNrOfSplits);
-				splits.putAll(splitter.computeSplits());
-				if (logger.isDebugEnabled()) {
+				AbstractValuesSplitter splitter = new DefaultNumericValuesSplitter(reasoner, df, maxNrOfSplits);
+				addSplits(splitter);
+				if (logger.isDebugEnabled() && !lazySplitComputation) {
 					logger.debug( sparql_debug, "Numeric Splits: {}", splits);
 				}
 			}
@@ -419,8 +483,8 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 				// TODO SPARQL support for splits
 				logger.warn("Time based Facet restrictions are not (yet) implemented for " + AnnComponentManager.getName(reasoner) + ", option ignored");
 			} else {
-				ValuesSplitter splitter = new DefaultDateTimeValuesSplitter(reasoner, df, maxNrOfSplits);
-				splits.putAll(splitter.computeSplits());
+				AbstractValuesSplitter splitter = new DefaultDateTimeValuesSplitter(reasoner, df, maxNrOfSplits);
+				addSplits(splitter);
 			}
 		}
 
@@ -476,20 +540,15 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 				}
 			}
 		}
+	}
 
-		startClass = OWLAPIUtils.classExpressionPropertyExpanderChecked(startClass, reasoner, df, logger);
-
-		if(classHierarchy == null) {
-			classHierarchy = reasoner.getClassHierarchy();
-		}
-		if(objectPropertyHierarchy == null) {
-			objectPropertyHierarchy = reasoner.getObjectPropertyHierarchy();
-		}
-		if(dataPropertyHierarchy == null) {
-			dataPropertyHierarchy = reasoner.getDatatypePropertyHierarchy();
+	private void addSplits(AbstractValuesSplitter splitter) {
+		splitter.setNrOfThreads(nrOfSplitThreads);
+		if(lazySplitComputation) {
+			((LazySplitMap) splits).addSplitter(splitter);
+		} else {
+			splits.putAll(splitter.computeSplits());
 		}
-
-		initialized = true;
 	}
 
 	protected void isFinal() {
@@ -558,12 +617,12 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		} else if(description.isOWLNothing()) {
 			// cannot be further refined
 		} else if(!description.isAnonymous()) {
-			refinements.addAll(classHierarchy.getSubClasses(description, true));
+			refinements.addAll(classHierarchy.getSubClassesView(description, true));
 			refinements.remove(df.getOWLNothing());
 		} else if (description instanceof OWLObjectComplementOf) {
 			OWLClassExpression operand = ((OWLObjectComplementOf) description).getOperand();
 			if(!operand.isAnonymous()){
-				tmp = classHierarchy.getSuperClasses(operand, true);
+				tmp = classHierarchy.getSuperClassesView(operand, true);
 
 				for(OWLClassExpression c : tmp) {
 					if(!c.isOWLThing()){
@@ -663,7 +722,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			}
 
 			// rule 2: EXISTS r.D => EXISTS s.D or EXISTS r^-1.D => EXISTS s^-1.D
-			Set<OWLObjectProperty> moreSpecialRoles = objectPropertyHierarchy.getMoreSpecialRoles(role.getNamedProperty());
+			Set<OWLObjectProperty> moreSpecialRoles = objectPropertyHierarchy.getChildrenView(role.getNamedProperty(), true);
 
 			for (OWLObjectProperty moreSpecialRole : moreSpecialRoles) {
 				refinements.add(df.getOWLObjectSomeValuesFrom(moreSpecialRole, filler));
@@ -777,7 +836,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			OWLLiteral value = ((OWLDataHasValue) description).getFiller();
 
 			if(!dp.isAnonymous()){
-				Set<OWLDataProperty> subDPs = dataPropertyHierarchy.getMoreSpecialRoles(dp.asOWLDataProperty());
+				Set<OWLDataProperty> subDPs = dataPropertyHierarchy.getChildrenView(dp.asOWLDataProperty(), true);
 				for(OWLDataProperty subDP : subDPs) {
 					refinements.add(df.getOWLDataHasValue(subDP, value));
 				}
@@ -930,7 +989,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		}
 
 		// rule 3: ALL r.D => ALL s.D or ALL r^-1.D => ALL s^-1.D
-		Set<OWLObjectProperty> subProperties = objectPropertyHierarchy.getMoreSpecialRoles(role.getNamedProperty());
+		Set<OWLObjectProperty> subProperties = objectPropertyHierarchy.getChildrenView(role.getNamedProperty(), true);
 
 		for (OWLObjectProperty subProperty : subProperties) {
 			refinements.add(df.getOWLObjectAllValuesFrom(subProperty, filler));
@@ -1178,12 +1237,12 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			m.put(i, new TreeSet<>());
 		}
 
-		SortedSet<OWLClassExpression> m1 = classHierarchy.getSubClasses(df.getOWLThing(), true);
+		SortedSet<OWLClassExpression> m1 = classHierarchy.getSubClassesView(df.getOWLThing(), true);
 		m.get(lengthMetric.classLength).addAll(m1);
 
 		if(useNegation) {
 			int lc = lengthMetric.objectComplementLength + lengthMetric.classLength;
-			Set<OWLClassExpression> m2tmp = classHierarchy.getSuperClasses(df.getOWLNothing(), true);
+			Set<OWLClassExpression> m2tmp = classHierarchy.getSuperClassesView(df.getOWLNothing(), true);
 			for(OWLClassExpression c : m2tmp) {
 				if(!c.isOWLThing()) {
 					m.get(lc).add(df.getOWLObjectComplementOf(c));
@@ -1426,7 +1485,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 	private SortedSet<OWLClassExpression> getClassCandidatesRecursive(OWLClassExpression index, OWLClassExpression upperClass) {
 		SortedSet<OWLClassExpression> candidates = new TreeSet<>();
 
-		SortedSet<OWLClassExpression> subClasses = classHierarchy.getSubClasses(upperClass, true);
+		SortedSet<OWLClassExpression> subClasses = classHierarchy.getSubClassesView(upperClass, true);
 
 		if(reasoner instanceof SPARQLReasoner) {
 			OWLClassExpressionToSPARQLConverter conv = new OWLClassExpressionToSPARQLConverter();
@@ -1510,7 +1569,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		SortedSet<OWLClassExpression> candidates = new TreeSet<>();
 //		System.out.println("index " + index + " lower class " + lowerClass);
 
-		SortedSet<OWLClassExpression> superClasses = classHierarchy.getSuperClasses(lowerClass);
+		SortedSet<OWLClassExpression> superClasses = classHierarchy.getSuperClassesView(lowerClass, false);
 
 		if(reasoner instanceof SPARQLReasoner) {
 			OWLClassExpressionToSPARQLConverter conv = new OWLClassExpressionToSPARQLConverter();
@@ -1598,7 +1657,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			if(appOP.get(domain).contains(prop))
 				mgrTmp.add(prop);
 			else
-				computeMgrRecursive(domain, objectPropertyHierarchy.getMoreSpecialRoles(prop), mgrTmp);
+				computeMgrRecursive(domain, objectPropertyHierarchy.getChildrenView(prop, true), mgrTmp);
 		}
 	}
 
@@ -1607,7 +1666,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			if(appBD.get(domain).contains(prop))
 				mgbdTmp.add(prop);
 			else
-				computeMgbdRecursive(domain, dataPropertyHierarchy.getMoreSpecialRoles(prop), mgbdTmp);
+				computeMgbdRecursive(domain, dataPropertyHierarchy.getChildrenView(prop, true), mgbdTmp);
 		}
 	}
 
@@ -1616,7 +1675,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			if(appNumeric.get(domain).contains(prop))
 				mgddTmp.add(prop);
 			else
-				computeMostGeneralNumericDPRecursive(domain, dataPropertyHierarchy.getMoreSpecialRoles(prop), mgddTmp);
+				computeMostGeneralNumericDPRecursive(domain, dataPropertyHierarchy.getChildrenView(prop, true), mgddTmp);
 		}
 	}
 	private void computeMostGeneralStringDPRecursive(OWLClassExpression domain, Set<OWLDataProperty> currProperties, Set<OWLDataProperty> mgddTmp) {
@@ -1624,7 +1683,7 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			if(appSD.get(domain).contains(prop))
 				mgddTmp.add(prop);
 			else
-				computeMostGeneralStringDPRecursive(domain, dataPropertyHierarchy.getMoreSpecialRoles(prop), mgddTmp);
+				computeMostGeneralStringDPRecursive(domain, dataPropertyHierarchy.getChildrenView(prop, true), mgddTmp);
 		}
 	}
 
@@ -1725,6 +1784,11 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 			return true;
 		}
 
+		if (!instanceBasedDisjoints) {
+			OWLClassExpression d = df.getOWLObjectIntersectionOf(d1, d2);
+			return reasoner.isSuperClassOf(df.getOWLNothing(), d);
+		}
+
 		// check whether we have cached this query
 		Map<OWLClassExpression,Boolean> tmp = cachedDisjoints.get(d1);
 		if(tmp != null && tmp.containsKey(d2)) {
@@ -1732,26 +1796,12 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		}
 
 		// compute the disjointness
-		Boolean result;
-		if (instanceBasedDisjoints) {
-			result = isDisjointInstanceBased(d1, d2);
-		} else {
-			OWLClassExpression d = df.getOWLObjectIntersectionOf(d1, d2);
-			result = reasoner.isSuperClassOf(df.getOWLNothing(), d);
-		}
-		// add the result to the cache (we add it twice such that
-		// the order of access does not matter)
-
-		// create new entries if necessary
-		if (tmp == null)
-			cachedDisjoints.put(d1, new TreeMap<>());
-		if (!cachedDisjoints.containsKey(d2))
-			cachedDisjoints.put(d2, new TreeMap<>());
-
-		// add result symmetrically in the OWLClassExpression matrix
-		cachedDisjoints.get(d1).put(d2, result);
-		cachedDisjoints.get(d2).put(d1, result);
-		//			System.out.println("---");
+		Boolean result = isDisjointInstanceBased(d1, d2);
+
+		// add result symmetrically in the OWLClassExpression matrix such
+		// that the order of access does not matter
+		cachedDisjoints.computeIfAbsent(d1, k -> new ConcurrentHashMap<>()).put(d2, result);
+		cachedDisjoints.computeIfAbsent(d2, k -> new ConcurrentHashMap<>()).put(d1, result);
 		return result;
 	}
 
@@ -1917,6 +1967,19 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		this.reasoner = reasoner;
 	}
 
+	/**
+	 * Reuse the data precomputed from the knowledge base by another, already initialised
+	 * operator working on the same reasoner instead of computing it again in {@link #init()}.
+	 * This is useful if several operators are used on the same knowledge base, e.g. when
+	 * learning many classes.
+	 *
+	 * @param precomputedOperator the initialised operator
+	 */
+	public void setPrecomputedOperator(RhoDRDown precomputedOperator) {
+		isFinal();
+		this.precomputedOperator = precomputedOperator;
+	}
+
 	public ClassHierarchy getSubHierarchy() {
 		return classHierarchy;
 	}
@@ -2018,6 +2081,32 @@ public class RhoDRDown extends RefinementOperatorAdapter implements Component, C
 		this.maxNrOfSplits = maxNrOfSplits;
 	}
 
+	public boolean isLazySplitComputation() {
+		return lazySplitComputation;
+	}
+
+	/**
+	 * @param lazySplitComputation whether to compute the splits of a numeric or time
+	 * data property not before it is used the first time
+	 */
+	public void setLazySplitComputation(boolean lazySplitComputation) {
+		isFinal();
+		this.lazySplitComputation = lazySplitComputation;
+	}
+
+	public int getNrOfSplitThreads() {
+		return nrOfSplitThreads;
+	}
+
+	/**
+	 * @param nrOfSplitThreads the number of threads used to compute the splits of all
+	 * numeric and time data properties, 1 means sequential computation
+	 */
+	public void setNrOfSplitThreads(int nrOfSplitThreads) {
+		isFinal();
+		this.nrOfSplitThreads = nrOfSplitThreads;
+	}
+
 	public boolean isDisjointChecks() {
 		return disjointChecks;
 	}
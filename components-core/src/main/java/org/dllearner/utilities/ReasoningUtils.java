@@ -18,6 +18,8 @@
  */
 package org.dllearner.utilities;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import org.dllearner.core.AbstractReasonerComponent;
@@ -25,11 +27,14 @@ import org.dllearner.core.Component;
 import org.dllearner.learningproblems.AccMethodApproximate;
 import org.dllearner.learningproblems.AccMethodTwoValued;
 import org.dllearner.learningproblems.AccMethodTwoValuedApproximate;
+import org.dllearner.learningproblems.EvaluationCache;
 import org.dllearner.reasoning.SPARQLReasoner;
+import org.dllearner.utilities.datastructures.SortedSetTuple;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLIndividual;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Common utilities for using a reasoner in learning problems
@@ -71,6 +76,15 @@ public class ReasoningUtils implements Component {
 
 	protected AbstractReasonerComponent reasoner;
 
+	protected EvaluationCache evaluationCache;
+
+	// the example sets as bit sets over the examples, the sets are compared by identity
+	private final Cache<Collection<OWLIndividual>, BitSet> exampleBits = CacheBuilder.newBuilder().weakKeys().build();
+
+	// the examples counted on without an evaluation cache, otherwise the examples of the cache are used
+	private final Map<OWLIndividual, Integer> exampleIndices = new ConcurrentHashMap<>();
+	private volatile OWLIndividual[] examples = new OWLIndividual[0];
+
 	/**
 	 * create new reasoning utils
 	 * @param reasoner reasoner to use
@@ -109,11 +123,62 @@ public class ReasoningUtils implements Component {
 	 */
 	@SafeVarargs
 	public final Coverage[] getCoverage(OWLClassExpression concept, Set<OWLIndividual>... sets) {
+		if (evaluationCache == null) {
+			return computeCoverage(concept, sets);
+		}
+
+		// only the examples whose coverage cannot be inferred from previous
+		// evaluations are passed to the reasoner
+		SortedSetTuple<OWLIndividual> known = evaluationCache.infer(concept);
+		Set<OWLIndividual> knownSet = known.getCompleteSet();
+		Set[] undetermined = new Set [ sets.length ];
+		boolean useReasoner = false;
+		for (int i = 0; i < sets.length; ++i) {
+			undetermined[i] = new TreeSet<>(Sets.difference(sets[i], knownSet));
+			useReasoner |= !undetermined[i].isEmpty();
+		}
+
+		Coverage[] computed = null;
+		if (useReasoner) {
+			computed = computeCoverage(concept, undetermined);
+			if (computed == null) {
+				return null;
+			}
+		}
+
+		Coverage[] rv = new Coverage [ sets.length ];
+		Set<OWLIndividual> instances = new HashSet<>();
+		Set<OWLIndividual> nonInstances = new HashSet<>();
+		for (int i = 0; i < sets.length; ++i) {
+			rv[i] = new Coverage();
+			rv[i].total = sets[i].size();
+
+			rv[i].trueSet.addAll(Sets.intersection(sets[i], known.getPosSet()));
+			rv[i].falseSet.addAll(Sets.intersection(sets[i], known.getNegSet()));
+			if (computed != null) {
+				rv[i].trueSet.addAll(computed[i].trueSet);
+				rv[i].falseSet.addAll(computed[i].falseSet);
+			}
+
+			rv[i].trueCount = rv[i].trueSet.size();
+			rv[i].falseCount = rv[i].falseSet.size();
+
+			instances.addAll(rv[i].trueSet);
+			nonInstances.addAll(rv[i].falseSet);
+		}
+		evaluationCache.put(concept, instances, nonInstances);
+
+		return rv;
+	}
+
+	// with an evaluation cache only the undetermined examples are passed, so they are checked directly instead
+	// of retrieving all instances of the concept
+	private Coverage[] computeCoverage(OWLClassExpression concept, Set<OWLIndividual>[] sets) {
 		Coverage[] rv = new Coverage [ sets.length ];
 
 		if(!reasoner.isUseInstanceChecks()) {
-			if (reasoner instanceof SPARQLReasoner &&
-					((SPARQLReasoner)reasoner).isUseValueLists()) {
+			if (evaluationCache != null || (reasoner instanceof SPARQLReasoner &&
+					((SPARQLReasoner)reasoner).isUseValueLists())) {
 				for (int i = 0; i < sets.length; ++i) {
 					SortedSet<OWLIndividual> trueSet = reasoner.hasType(concept, sets[i]);
 
@@ -164,18 +229,15 @@ public class ReasoningUtils implements Component {
 
 
 	/**
-	 * count the numbers of individuals satisfying a concept. wrapper converting collections to set
+	 * count the numbers of individuals satisfying a concept. the collections are represented as bit sets, which are
+	 * computed once per collection
 	 * @param concept the OWL concept used for counting
-	 * @param collections list of collections of individuals to count on. will be converted to sets first
+	 * @param collections list of collections of individuals to count on
 	 * @return an array of Coverage counts, one entry for each input set
 	 */
 	public final CoverageCount[] getCoverageCount(OWLClassExpression concept,
 	                                              Collection<OWLIndividual>... collections) {
-		Set[] sets = new Set [ collections.length ];
-		for (int i = 0; i < collections.length; ++i) {
-			sets[i] = makeSet(collections[i]);
-		}
-		return getCoverageCount(concept, sets);
+		return countCoverage(concept, collections);
 	}
 
 	/**
@@ -187,6 +249,27 @@ public class ReasoningUtils implements Component {
 	@SafeVarargs
 	public final CoverageCount[] getCoverageCount(OWLClassExpression concept,
 												  Set<OWLIndividual>... sets) {
+		return countCoverage(concept, sets);
+	}
+
+	private CoverageCount[] countCoverage(OWLClassExpression concept, Collection<OWLIndividual>[] collections) {
+		if (useCountQueries()) {
+			return computeCoverageCount(concept, makeSets(collections));
+		}
+		BitSet[] setBits = getExampleBits(collections);
+		if (setBits == null) {
+			// not all individuals are examples of the cache
+			return computeCoverageCount(concept, makeSets(collections));
+		}
+		return getCoverageCount(concept, setBits);
+	}
+
+	// without an evaluation cache the SPARQL reasoner counts the instances among the examples by a query
+	private boolean useCountQueries() {
+		return evaluationCache == null && reasoner instanceof SPARQLReasoner && ((SPARQLReasoner) reasoner).isUseValueLists();
+	}
+
+	private CoverageCount[] computeCoverageCount(OWLClassExpression concept, Set<OWLIndividual>[] sets) {
 		CoverageCount[] rv = new CoverageCount [ sets.length ];
 
 		if(!reasoner.isUseInstanceChecks()) {
@@ -207,9 +290,9 @@ public class ReasoningUtils implements Component {
 				for (int i = 0; i < sets.length; ++i) {
 					rv[i] = new CoverageCount();
 					rv[i].total = sets[i].size();
-				
-					rv[i].trueCount  = Sets.intersection(sets[i], individuals).size();
-					rv[i].falseCount = Sets.difference(sets[i], individuals).size();
+
+					rv[i].trueCount  = intersectionSize(sets[i], individuals);
+					rv[i].falseCount = rv[i].total - rv[i].trueCount;
 				}
 			}
 		} else {
@@ -232,6 +315,204 @@ public class ReasoningUtils implements Component {
 		return rv;
 	}
 
+	/**
+	 * count the numbers of individuals satisfying a concept on bit sets over the examples instead of sets of
+	 * individuals. with an evaluation cache only the examples whose coverage can't be inferred are passed to the
+	 * reasoner
+	 */
+	private CoverageCount[] getCoverageCount(OWLClassExpression concept, BitSet[] setBits) {
+		BitSet candidates = new BitSet();
+		for (BitSet bits : setBits) {
+			candidates.or(bits);
+		}
+
+		BitSet instances;
+		if (evaluationCache != null) {
+			BitSet[] known = evaluationCache.inferBits(concept);
+			instances = known[0];
+			BitSet nonInstances = known[1];
+
+			BitSet undetermined = candidates;
+			undetermined.andNot(instances);
+			undetermined.andNot(nonInstances);
+			if (!undetermined.isEmpty()) {
+				BitSet computed = computeInstanceBits(concept, undetermined);
+				if (computed == null) {
+					return null;
+				}
+				instances.or(computed);
+				undetermined.andNot(computed);
+				nonInstances.or(undetermined);
+				evaluationCache.put(concept, instances, nonInstances);
+			}
+		} else {
+			instances = computeInstanceBits(concept, candidates);
+			if (instances == null) {
+				return null;
+			}
+		}
+
+		CoverageCount[] rv = new CoverageCount [ setBits.length ];
+		for (int i = 0; i < setBits.length; ++i) {
+			rv[i] = new CoverageCount();
+			rv[i].total = setBits[i].cardinality();
+
+			BitSet covered = (BitSet) setBits[i].clone();
+			covered.and(instances);
+			rv[i].trueCount = covered.cardinality();
+			rv[i].falseCount = rv[i].total - rv[i].trueCount;
+		}
+		return rv;
+	}
+
+	// the candidate examples which are instances of the concept, or null if the computation was interrupted
+	private BitSet computeInstanceBits(OWLClassExpression concept, BitSet candidates) {
+		BitSet instances = new BitSet();
+		if(!reasoner.isUseInstanceChecks()) {
+			if (evaluationCache != null || (reasoner instanceof SPARQLReasoner &&
+					((SPARQLReasoner)reasoner).isUseValueLists())) {
+				// only the candidates are checked instead of retrieving all instances of the concept
+				Set<OWLIndividual> individuals = new HashSet<>();
+				for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+					individuals.add(getExample(i));
+				}
+				instances.or(toExampleBits(reasoner.hasType(concept, individuals)));
+			} else {
+				SortedSet<OWLIndividual> individuals = reasoner.getIndividuals(concept);
+				if (individuals.size() < candidates.cardinality()) {
+					instances.or(toExampleBits(individuals));
+					instances.and(candidates);
+				} else {
+					for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+						if (individuals.contains(getExample(i))) {
+							instances.set(i);
+						}
+					}
+				}
+			}
+		} else {
+			for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+				if (getReasoner().hasType(concept, getExample(i))) {
+					instances.set(i);
+				}
+				if (interrupted()) {
+					return null;
+				}
+			}
+		}
+		return instances;
+	}
+
+	// the bit sets of the examples, or null if a set contains other individuals than the examples of the cache
+	private BitSet[] getExampleBits(Collection<OWLIndividual>[] sets) {
+		BitSet[] setBits = new BitSet [ sets.length ];
+		for (int i = 0; i < sets.length; ++i) {
+			setBits[i] = getExampleBits(sets[i]);
+			if (setBits[i] == null) {
+				return null;
+			}
+		}
+		return setBits;
+	}
+
+	// the bit set of the examples, or null if the set contains other individuals than the examples of the cache
+	private BitSet getExampleBits(Collection<OWLIndividual> set) {
+		BitSet bits = exampleBits.getIfPresent(set);
+		if (bits == null) {
+			if (evaluationCache != null) {
+				bits = evaluationCache.toBitSet(set);
+				if (bits.cardinality() != set.size()) {
+					return null;
+				}
+			} else {
+				bits = indexExamples(set);
+			}
+			exampleBits.put(set, bits);
+		}
+		return bits;
+	}
+
+	// adds the individuals to the examples without an evaluation cache, returns their bit set
+	private synchronized BitSet indexExamples(Collection<OWLIndividual> individuals) {
+		BitSet bits = new BitSet();
+		boolean added = false;
+		for (OWLIndividual ind : individuals) {
+			Integer i = exampleIndices.get(ind);
+			if (i == null) {
+				i = exampleIndices.size();
+				exampleIndices.put(ind, i);
+				added = true;
+			}
+			bits.set(i);
+		}
+		if (added) {
+			OWLIndividual[] examples = Arrays.copyOf(this.examples, exampleIndices.size());
+			for (Map.Entry<OWLIndividual, Integer> entry : exampleIndices.entrySet()) {
+				examples[entry.getValue()] = entry.getKey();
+			}
+			this.examples = examples;
+		}
+		return bits;
+	}
+
+	// the bit set of the individuals which are examples, other individuals are ignored
+	private BitSet toExampleBits(Collection<OWLIndividual> individuals) {
+		if (evaluationCache != null) {
+			return evaluationCache.toBitSet(individuals);
+		}
+		BitSet bits = new BitSet();
+		for (OWLIndividual ind : individuals) {
+			Integer i = exampleIndices.get(ind);
+			if (i != null) {
+				bits.set(i);
+			}
+		}
+		return bits;
+	}
+
+	private OWLIndividual getExample(int i) {
+		return evaluationCache != null ? evaluationCache.getExamples().get(i) : examples[i];
+	}
+
+	// the size of the intersection, checked by iterating the smaller set
+	private static int intersectionSize(Set<OWLIndividual> set1, Set<OWLIndividual> set2) {
+		Set<OWLIndividual> smaller = set1.size() <= set2.size() ? set1 : set2;
+		Set<OWLIndividual> larger = smaller == set1 ? set2 : set1;
+		int cnt = 0;
+		for (OWLIndividual ind : smaller) {
+			if (larger.contains(ind)) {
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+
+	/**
+	 * count the numbers of individuals satisfying each of the given concepts. the collections are converted to bit
+	 * sets over the examples only once for the whole batch
+	 * @param concepts the OWL concepts used for counting
+	 * @param collections list of collections of individuals to count on
+	 * @return the coverage counts of each concept, in the order of the concepts. an entry is null if the computation
+	 * was interrupted
+	 */
+	@SafeVarargs
+	public final List<CoverageCount[]> getCoverageCounts(List<OWLClassExpression> concepts,
+	                                                     Collection<OWLIndividual>... collections) {
+		List<CoverageCount[]> rv = new ArrayList<>(concepts.size());
+		BitSet[] setBits = useCountQueries() ? null : getExampleBits(collections);
+		if (setBits != null) {
+			for (OWLClassExpression concept : concepts) {
+				rv.add(getCoverageCount(concept, setBits));
+			}
+		} else {
+			Set<OWLIndividual>[] sets = makeSets(collections);
+			for (OWLClassExpression concept : concepts) {
+				rv.add(computeCoverageCount(concept, sets));
+			}
+		}
+		return rv;
+	}
+
 	/**
 	 * partition an array of sets into true, false and unknown, depending on whether they satisfy concept A or B
 	 * @param trueConcept the OWL concept used for true partition
@@ -322,6 +603,32 @@ public class ReasoningUtils implements Component {
 	}
 
 
+	/**
+	 * calculate the accuracy of each of the given concepts, using the supplied accuracy method
+	 * @param accuracyMethod accuracy method to use
+	 * @param descriptions concepts to test
+	 * @param positiveExamples set of positive examples to use for calculating the accuracy
+	 * @param negativeExamples set of negative examples to use for calculating the accuracy
+	 * @param noise noise level of the data
+	 * @return for each concept -1 when the concept is too weak or the accuracy value as calculated by the accuracy method
+	 */
+	public double[] getAccuracyOrTooWeak2(AccMethodTwoValued accuracyMethod, List<OWLClassExpression> descriptions,
+	                                      Collection<OWLIndividual> positiveExamples, Collection<OWLIndividual> negativeExamples,
+	                                      double noise) {
+		double[] rv = new double [ descriptions.size() ];
+		if (accuracyMethod instanceof AccMethodApproximate) {
+			for (int i = 0; i < rv.length; ++i) {
+				rv[i] = getAccuracyOrTooWeak2(accuracyMethod, descriptions.get(i), positiveExamples, negativeExamples, noise);
+			}
+		} else {
+			List<CoverageCount[]> cc = getCoverageCounts(descriptions, positiveExamples, negativeExamples);
+			for (int i = 0; i < rv.length; ++i) {
+				rv[i] = getAccuracyOrTooWeakExact2(accuracyMethod, cc.get(i), noise);
+			}
+		}
+		return rv;
+	}
+
 	/**
 	 * wrapper to call accuracy method with coverage count
 	 * @param accuracyMethod method to use
@@ -344,9 +651,29 @@ public class ReasoningUtils implements Component {
 	}
 
 	public void setReasoner(AbstractReasonerComponent reasoner) {
+		if (evaluationCache != null && this.reasoner != reasoner) {
+			evaluationCache.clear();
+		}
 		this.reasoner = reasoner;
 	}
 
+	/**
+	 * @return the cache used to infer the coverage of concepts from previous
+	 * evaluations, or <code>null</code> if disabled
+	 */
+	public EvaluationCache getEvaluationCache() {
+		return evaluationCache;
+	}
+
+	/**
+	 * @param evaluationCache the cache used to infer the coverage of concepts
+	 * from previous evaluations, <code>null</code> disables caching
+	 */
+	public void setEvaluationCache(EvaluationCache evaluationCache) {
+		this.evaluationCache = evaluationCache;
+		exampleBits.invalidateAll();
+	}
+
 	/**
 	 * helper method to create a set from a collection
 	 * @param collection
@@ -357,4 +684,12 @@ public class ReasoningUtils implements Component {
 		return collection instanceof Set ? (Set)collection : ImmutableSet.copyOf(collection);
 	}
 
+	private Set<OWLIndividual>[] makeSets(Collection<OWLIndividual>[] collections) {
+		Set[] sets = new Set [ collections.length ];
+		for (int i = 0; i < collections.length; ++i) {
+			sets[i] = makeSet(collections[i]);
+		}
+		return sets;
+	}
+
 }
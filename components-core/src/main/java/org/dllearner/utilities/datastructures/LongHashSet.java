@@ -0,0 +1,190 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.datastructures;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * A set of primitive <code>long</code> values based on open addressing with
+ * linear probing. Compared to a <code>Set&lt;Long&gt;</code> it neither boxes
+ * the values nor allocates an entry object per element, i.e. each element
+ * takes 8 to 16 bytes only.
+ * <p>
+ * The table can optionally be allocated off-heap in a direct buffer, which
+ * keeps very large sets out of the garbage collected heap. An off-heap table
+ * is limited to 2^28 slots, i.e. about 2^27 elements.
+ * <p>
+ * The set is not thread-safe.
+ */
+public class LongHashSet {
+
+	private static final int DEFAULT_INITIAL_CAPACITY = 1024;
+	private static final int MAX_CAPACITY_ON_HEAP = 1 << 30;
+	private static final int MAX_CAPACITY_OFF_HEAP = 1 << 28;
+
+	// 0 marks an empty slot, hence the value 0 is tracked separately
+	private static final long EMPTY = 0L;
+
+	private final boolean offHeap;
+	private final int initialCapacity;
+
+	private LongBuffer table;
+	private int mask;
+	private int size;
+	private boolean containsEmpty;
+
+	public LongHashSet() {
+		this(DEFAULT_INITIAL_CAPACITY, false);
+	}
+
+	/**
+	 * @param expectedSize the number of elements the set should hold without resizing
+	 * @param offHeap whether to allocate the table outside of the Java heap
+	 */
+	public LongHashSet(int expectedSize, boolean offHeap) {
+		this.offHeap = offHeap;
+		this.initialCapacity = tableSizeFor(expectedSize);
+		allocate(initialCapacity);
+	}
+
+	private int tableSizeFor(int expectedSize) {
+		// keep the load factor at or below 0.5
+		long capacity = Long.highestOneBit(Math.max(4L, 2L * expectedSize - 1)) << 1;
+		return (int) Math.min(capacity, offHeap ? MAX_CAPACITY_OFF_HEAP : MAX_CAPACITY_ON_HEAP);
+	}
+
+	private void allocate(int capacity) {
+		if(offHeap) {
+			table = ByteBuffer.allocateDirect(capacity * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+		} else {
+			table = LongBuffer.wrap(new long[capacity]);
+		}
+		mask = capacity - 1;
+	}
+
+	/**
+	 * Adds a value to the set.
+	 * @param value the value
+	 * @return <code>true</code> if the set did not already contain the value
+	 */
+	public boolean add(long value) {
+		if(value == EMPTY) {
+			if(containsEmpty) {
+				return false;
+			}
+			containsEmpty = true;
+			size++;
+			return true;
+		}
+		int slot = slot(value);
+		long current;
+		while((current = table.get(slot)) != EMPTY) {
+			if(current == value) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		table.put(slot, value);
+		size++;
+		if(2 * size > table.capacity()) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * @param value the value
+	 * @return whether the set contains the value
+	 */
+	public boolean contains(long value) {
+		if(value == EMPTY) {
+			return containsEmpty;
+		}
+		int slot = slot(value);
+		long current;
+		while((current = table.get(slot)) != EMPTY) {
+			if(current == value) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	private int slot(long value) {
+		// spread the bits, the values need not be uniformly distributed
+		long h = value * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+
+	private void grow() {
+		int capacity = table.capacity();
+		int maxCapacity = offHeap ? MAX_CAPACITY_OFF_HEAP : MAX_CAPACITY_ON_HEAP;
+		if(capacity >= maxCapacity) {
+			if(size >= capacity - 1) {
+				throw new IllegalStateException("Maximum capacity of " + capacity + " slots reached.");
+			}
+			return;
+		}
+		LongBuffer old = table;
+		allocate(capacity << 1);
+		for (int i = 0; i < capacity; i++) {
+			long value = old.get(i);
+			if(value != EMPTY) {
+				int slot = slot(value);
+				while(table.get(slot) != EMPTY) {
+					slot = (slot + 1) & mask;
+				}
+				table.put(slot, value);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of elements in the set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return whether the set is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all elements and shrinks the table to its initial capacity.
+	 */
+	public void clear() {
+		allocate(initialCapacity);
+		size = 0;
+		containsEmpty = false;
+	}
+
+	/**
+	 * @return whether the table is allocated outside of the Java heap
+	 */
+	public boolean isOffHeap() {
+		return offHeap;
+	}
+}
@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.owl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.dllearner.core.owl.NNF;
+import org.semanticweb.owlapi.model.*;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Computes 64-bit fingerprints of class expressions such that syntactic
+ * variants of the same expression get the same fingerprint. The fingerprint
+ * is computed on a canonical form of the expression:
+ * <ul>
+ * <li>the expression is converted into negation normal form by {@link NNF}</li>
+ * <li>nested conjunctions and disjunctions are flattened, e.g.
+ * A &#8851; (B &#8851; C) and (A &#8851; B) &#8851; C are the same</li>
+ * <li>the operands of conjunctions, disjunctions and enumerations are sorted
+ * and duplicates are removed, e.g. A &#8851; B, B &#8851; A and
+ * A &#8851; B &#8851; A are the same</li>
+ * <li>&#8868; is removed from conjunctions and &#8869; from disjunctions, and
+ * conjunctions and disjunctions with a single operand are replaced by it</li>
+ * </ul>
+ * Different expressions can get the same fingerprint, but for 64-bit
+ * fingerprints the probability of a collision is negligible even for
+ * millions of expressions (about 10^-7 for 2 million expressions).
+ * <p>
+ * The fingerprinter is thread-safe.
+ */
+public class OWLClassExpressionFingerprinter {
+
+	private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+	private static final long INVERSE_TAG = mix(-1);
+
+	private final OWLDataFactory df;
+
+	// fingerprints of entities, literals and data ranges
+	private final ConcurrentMap<OWLObject, Long> leafFingerprints = new ConcurrentHashMap<>();
+
+	public OWLClassExpressionFingerprinter() {
+		this(new OWLDataFactoryImpl());
+	}
+
+	public OWLClassExpressionFingerprinter(OWLDataFactory df) {
+		this.df = df;
+	}
+
+	/**
+	 * @param ce the class expression
+	 * @return the fingerprint of the canonical form of the class expression
+	 */
+	public long fingerprint(OWLClassExpression ce) {
+		return fingerprintNNF(ce.accept(new NNF(df)));
+	}
+
+	private long fingerprintNNF(OWLClassExpression ce) {
+		ClassExpressionType type = ce.getClassExpressionType();
+		switch (type) {
+			case OWL_CLASS:
+				return leaf(ce);
+			case OBJECT_INTERSECTION_OF:
+			case OBJECT_UNION_OF:
+				return naryFingerprint(ce);
+			case OBJECT_COMPLEMENT_OF:
+				return combine(tag(type), fingerprintNNF(((OWLObjectComplementOf) ce).getOperand()));
+			case OBJECT_ONE_OF:
+				return sortedFingerprint(tag(type), leaves(((OWLObjectOneOf) ce).getIndividuals()));
+			case OBJECT_SOME_VALUES_FROM:
+			case OBJECT_ALL_VALUES_FROM: {
+				OWLQuantifiedObjectRestriction r = (OWLQuantifiedObjectRestriction) ce;
+				return combine(tag(type), property(r.getProperty()), fingerprintNNF(r.getFiller()));
+			}
+			case OBJECT_MIN_CARDINALITY:
+			case OBJECT_MAX_CARDINALITY:
+			case OBJECT_EXACT_CARDINALITY: {
+				OWLObjectCardinalityRestriction r = (OWLObjectCardinalityRestriction) ce;
+				return combine(tag(type), property(r.getProperty()), fingerprintNNF(r.getFiller()), r.getCardinality());
+			}
+			case OBJECT_HAS_VALUE: {
+				OWLObjectHasValue r = (OWLObjectHasValue) ce;
+				return combine(tag(type), property(r.getProperty()), leaf(r.getFiller()));
+			}
+			case OBJECT_HAS_SELF:
+				return combine(tag(type), property(((OWLObjectHasSelf) ce).getProperty()));
+			case DATA_SOME_VALUES_FROM:
+			case DATA_ALL_VALUES_FROM: {
+				OWLQuantifiedDataRestriction r = (OWLQuantifiedDataRestriction) ce;
+				return combine(tag(type), leaf(r.getProperty()), leaf(r.getFiller()));
+			}
+			case DATA_MIN_CARDINALITY:
+			case DATA_MAX_CARDINALITY:
+			case DATA_EXACT_CARDINALITY: {
+				OWLDataCardinalityRestriction r = (OWLDataCardinalityRestriction) ce;
+				return combine(tag(type), leaf(r.getProperty()), leaf(r.getFiller()), r.getCardinality());
+			}
+			case DATA_HAS_VALUE: {
+				OWLDataHasValue r = (OWLDataHasValue) ce;
+				return combine(tag(type), leaf(r.getProperty()), leaf(r.getFiller()));
+			}
+			default:
+				return combine(tag(type), leaf(ce));
+		}
+	}
+
+	/*
+	 * Conjunctions and disjunctions: flatten nested operators of the same type,
+	 * drop neutral elements, sort and deduplicate the operand fingerprints.
+	 */
+	private long naryFingerprint(OWLClassExpression ce) {
+		ClassExpressionType type = ce.getClassExpressionType();
+		boolean intersection = type == ClassExpressionType.OBJECT_INTERSECTION_OF;
+
+		long[] operands = new long[4];
+		int n = 0;
+		for (OWLClassExpression op : flatten(ce, type)) {
+			if(intersection ? op.isOWLThing() : op.isOWLNothing()) {
+				continue;
+			}
+			if(n == operands.length) {
+				operands = Arrays.copyOf(operands, 2 * n);
+			}
+			operands[n++] = fingerprintNNF(op);
+		}
+		if(n == 0) {
+			return fingerprintNNF(intersection ? df.getOWLThing() : df.getOWLNothing());
+		}
+		operands = Arrays.copyOf(operands, n);
+		Arrays.sort(operands);
+		int distinct = 1;
+		for (int i = 1; i < n; i++) {
+			if(operands[i] != operands[distinct - 1]) {
+				operands[distinct++] = operands[i];
+			}
+		}
+		if(distinct == 1) {
+			return operands[0];
+		}
+		return sortedFingerprint(tag(type), Arrays.copyOf(operands, distinct));
+	}
+
+	private static Collection<OWLClassExpression> flatten(OWLClassExpression ce, ClassExpressionType type) {
+		Collection<OWLClassExpression> operands = ((OWLNaryBooleanClassExpression) ce).getOperandsAsList();
+		boolean nested = false;
+		for (OWLClassExpression op : operands) {
+			nested |= op.getClassExpressionType() == type;
+		}
+		if(!nested) {
+			return operands;
+		}
+		Collection<OWLClassExpression> flattened = new ArrayList<>();
+		for (OWLClassExpression op : operands) {
+			if(op.getClassExpressionType() == type) {
+				flattened.addAll(flatten(op, type));
+			} else {
+				flattened.add(op);
+			}
+		}
+		return flattened;
+	}
+
+	private long sortedFingerprint(long tag, long[] values) {
+		Arrays.sort(values);
+		long h = combine(tag, values.length);
+		for (long value : values) {
+			h = combine(h, value);
+		}
+		return h;
+	}
+
+	private long property(OWLObjectPropertyExpression pe) {
+		if(pe.isAnonymous()) {
+			return combine(INVERSE_TAG, leaf(pe.getNamedProperty()));
+		}
+		return leaf(pe);
+	}
+
+	private long[] leaves(Collection<? extends OWLObject> objects) {
+		long[] values = new long[objects.size()];
+		int i = 0;
+		for (OWLObject o : objects) {
+			values[i++] = leaf(o);
+		}
+		return values;
+	}
+
+	/*
+	 * Entities are identified by their type and IRI, all other objects by their
+	 * functional syntax representation.
+	 */
+	private long leaf(OWLObject o) {
+		Long fingerprint = leafFingerprints.get(o);
+		if(fingerprint == null) {
+			String s = o instanceof OWLEntity
+					? ((OWLEntity) o).getEntityType().getName() + ((OWLEntity) o).toStringID()
+					: o.toString();
+			fingerprint = HASH_FUNCTION.hashString(s, StandardCharsets.UTF_8).asLong();
+			leafFingerprints.putIfAbsent(o, fingerprint);
+		}
+		return fingerprint;
+	}
+
+	private static long tag(ClassExpressionType type) {
+		return mix(type.ordinal() + 1);
+	}
+
+	private static long combine(long... values) {
+		long h = 0x9E3779B97F4A7C15L;
+		for (long value : values) {
+			h = mix(h ^ (value + 0x9E3779B97F4A7C15L + (h << 6) + (h >>> 2)));
+		}
+		return h;
+	}
+
+	// finalization mix of MurmurHash3
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -39,8 +39,6 @@ public class OWLClassExpressionMinimizer implements OWLClassExpressionVisitorEx<
 	
 	private boolean beautify = true;
 	
-	private Map<OWLClassExpression,Map<OWLClassExpression,Boolean>> cachedSubclassOf = new TreeMap<>();
-
 	public OWLClassExpressionMinimizer(OWLDataFactory dataFactory, AbstractReasonerComponent reasoner) {
 		this.df = dataFactory;
 		this.reasoner = reasoner;
@@ -134,6 +132,7 @@ public class OWLClassExpressionMinimizer implements OWLClassExpressionVisitorEx<
 		return df.getOWLObjectIntersectionOf(new HashSet<>(newOperands));
 	}
 
+	// the results are cached by the reasoner
 	private boolean isSubClassOf(OWLClassExpression subClass, OWLClassExpression superClass) {
 		return superClass.isOWLThing() || reasoner.isSuperClassOf(superClass, subClass);
 	}
@@ -18,6 +18,10 @@
  */
 package org.dllearner.utilities.owl;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import org.semanticweb.owlapi.model.OWLClassExpression;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.util.MaximumModalDepthFinder;
@@ -28,6 +32,13 @@ import java.util.Set;
 
 /**
  * A utility class for OWL class expressions.
+ * <p>
+ * The structural metrics (length, depth and arity) of a class expression are
+ * computed once and cached, as the learning algorithms ask for them many
+ * times per expression, e.g. in the refinement operator and when creating
+ * search tree nodes. The caches are weakly keyed, i.e. they compare
+ * class expressions by identity and do not prevent them from being garbage
+ * collected, and can be accessed concurrently.
  * 
  * @author Lorenz Buehmann
  */
@@ -35,9 +46,38 @@ public class OWLClassExpressionUtils {
 	
 	private static OWLDataFactory dataFactory = new OWLDataFactoryImpl();
 	private static OWLObjectDuplicator duplicator = new OWLObjectDuplicator(dataFactory);
-	private static final OWLClassExpressionLengthCalculator LENGTH_CALCULATOR= new OWLClassExpressionLengthCalculator();
+	private static final OWLClassExpressionLengthMetric DEFAULT_METRIC = OWLClassExpressionLengthMetric.getDefaultMetric();
+	// the visitors are stateless and thus can be shared among threads
 	private static final MaximumModalDepthFinder DEPTH_FINDER = new MaximumModalDepthFinder();
 	private static final OWLClassExpressionChildrenCollector CHILDREN_COLLECTOR = new OWLClassExpressionChildrenCollector();
+
+	/**
+	 * Depth and arity of a class expression.
+	 */
+	private static final class Metrics {
+		private final int depth;
+		private final int arity;
+
+		private Metrics(int depth, int arity) {
+			this.depth = depth;
+			this.arity = arity;
+		}
+	}
+
+	private static final Cache<OWLClassExpression, Metrics> METRICS = CacheBuilder.newBuilder()
+			.weakKeys()
+			.build();
+
+	// one length cache per metric
+	private static final LoadingCache<OWLClassExpressionLengthMetric, Cache<OWLClassExpression, Integer>> LENGTHS =
+			CacheBuilder.newBuilder()
+					.weakKeys()
+					.build(new CacheLoader<OWLClassExpressionLengthMetric, Cache<OWLClassExpression, Integer>>() {
+						@Override
+						public Cache<OWLClassExpression, Integer> load(OWLClassExpressionLengthMetric metric) {
+							return CacheBuilder.newBuilder().weakKeys().build();
+						}
+					});
 	
 	/**
 	 * Returns the length of a given class expression. 
@@ -45,22 +85,46 @@ public class OWLClassExpressionUtils {
 	 * @return the length of the class expression
 	 */
 	public static int getLength(OWLClassExpression ce){
-		OWLClassExpressionLengthCalculator calculator = new OWLClassExpressionLengthCalculator();
-		return calculator.getLength(ce);
+		return getLength(ce, DEFAULT_METRIC);
 	}
 
+	/**
+	 * Returns the length of a given class expression w.r.t. the given metric.
+	 * The lengths are cached per metric instance, thus the metric must not be
+	 * modified once it is in use.
+	 * @param ce the class expression
+	 * @param metric the length metric
+	 * @return the length of the class expression
+	 */
 	public static int getLength(OWLClassExpression ce, OWLClassExpressionLengthMetric metric) {
-		OWLClassExpressionLengthCalculator calculator = new OWLClassExpressionLengthCalculator(metric);
-		return calculator.getLength(ce);
+		Cache<OWLClassExpression, Integer> lengths = LENGTHS.getUnchecked(metric);
+		Integer length = lengths.getIfPresent(ce);
+		if (length == null) {
+			// computing the length twice in case of a race is cheaper than locking
+			OWLClassExpressionLengthCalculator calculator = new OWLClassExpressionLengthCalculator(metric);
+			length = calculator.getLength(ce);
+			lengths.put(ce, length);
+		}
+		return length;
+	}
+
+	private static Metrics getMetrics(OWLClassExpression ce) {
+		Metrics metrics = METRICS.getIfPresent(ce);
+		if (metrics == null) {
+			metrics = new Metrics(ce.accept(DEPTH_FINDER), getChildren(ce).size());
+			METRICS.put(ce, metrics);
+		}
+		return metrics;
 	}
 
 	/**
-	 * Returns the depth of a class expression. 
+	 * Returns the depth of a class expression, i.e. the maximum nesting of
+	 * property restrictions.
 	 * @param ce the class expression
 	 * @return the depth of the class expression
 	 */
-	public static synchronized int getDepth(OWLClassExpression ce){
-		return ce.accept(DEPTH_FINDER);
+	public static int getDepth(OWLClassExpression ce){
+		return getMetrics(ce).depth;
 	}
 	
 	/**
@@ -68,8 +132,8 @@ public class OWLClassExpressionUtils {
 	 * @param ce the class expression
 	 * @return the arity of the class expression
 	 */
-	public static synchronized int getArity(OWLClassExpression ce){
-		return getChildren(ce).size();
+	public static int getArity(OWLClassExpression ce){
+		return getMetrics(ce).arity;
 	}
 	
 	/**
@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.owl;
+
+import org.dllearner.utilities.datastructures.LongHashSet;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+/**
+ * Keeps track of the class expressions seen during a search, e.g. to avoid
+ * adding redundant nodes to a search tree. Instead of the class expressions
+ * the index stores the fingerprints of their canonical forms computed by
+ * {@link OWLClassExpressionFingerprinter}, thus syntactic variants like
+ * A &#8851; (B &#8851; C) and (C &#8851; B) &#8851; A are detected as
+ * redundant and a lookup takes constant time.
+ * <p>
+ * The index is not thread-safe.
+ */
+public class RedundancyIndex {
+
+	private final OWLClassExpressionFingerprinter fingerprinter;
+	private final LongHashSet fingerprints;
+
+	public RedundancyIndex() {
+		this(false);
+	}
+
+	/**
+	 * @param offHeap whether to store the fingerprints outside of the Java heap
+	 */
+	public RedundancyIndex(boolean offHeap) {
+		this(new OWLClassExpressionFingerprinter(), 1024, offHeap);
+	}
+
+	/**
+	 * @param fingerprinter computes the fingerprints of the class expressions
+	 * @param expectedSize the expected number of class expressions
+	 * @param offHeap whether to store the fingerprints outside of the Java heap
+	 */
+	public RedundancyIndex(OWLClassExpressionFingerprinter fingerprinter, int expectedSize, boolean offHeap) {
+		this.fingerprinter = fingerprinter;
+		this.fingerprints = new LongHashSet(expectedSize, offHeap);
+	}
+
+	/**
+	 * Adds a class expression to the index.
+	 * @param ce the class expression
+	 * @return <code>true</code> if neither the class expression nor a syntactic
+	 * variant of it was contained in the index
+	 */
+	public boolean add(OWLClassExpression ce) {
+		return fingerprints.add(fingerprinter.fingerprint(ce));
+	}
+
+	/**
+	 * @param ce the class expression
+	 * @return whether the class expression or a syntactic variant of it is
+	 * contained in the index
+	 */
+	public boolean contains(OWLClassExpression ce) {
+		return fingerprints.contains(fingerprinter.fingerprint(ce));
+	}
+
+	/**
+	 * @return the number of distinct canonical forms in the index
+	 */
+	public int size() {
+		return fingerprints.size();
+	}
+
+	public void clear() {
+		fingerprints.clear();
+	}
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+/**
+ * The kind of work a {@link Timer} measures, used to attribute the runtime of
+ * a learning algorithm in a {@link ProfileReport}.
+ */
+public enum ProfileCategory {
+
+	/** computing refinements of a hypothesis */
+	REFINEMENT,
+	/** computing generalizations of examples or hypotheses, e.g. least general generalizations */
+	GENERALIZATION,
+	/** computing the score of a hypothesis w.r.t. the learning problem */
+	EVALUATION,
+	/** calls of the reasoner, usually nested in evaluation or refinement */
+	REASONING,
+	/** selecting, adding and updating nodes of the search tree */
+	SEARCH_TREE,
+	/** anything else */
+	OTHER
+}
@@ -0,0 +1,241 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.*;
+
+import org.dllearner.utilities.Helper;
+
+/**
+ * The statistics of a set of timers, e.g. of all timers during a single run
+ * of a learning algorithm, which attributes the runtime to the
+ * {@link ProfileCategory categories}. Note that the times are inclusive, i.e.
+ * reasoning is usually also counted as part of evaluation or refinement.
+ * <p>
+ * A report can be exported as JSON, CSV or in the Prometheus text format.
+ */
+public class ProfileReport {
+
+	private static final String PROMETHEUS_PREFIX = "dllearner_timer_";
+
+	private final List<TimerStatistics> statistics;
+	private final long wallTimeNs;
+
+	/**
+	 * @param statistics the statistics of the timers
+	 * @param wallTimeNs the overall runtime the statistics refer to, or 0 if unknown
+	 */
+	public ProfileReport(Collection<TimerStatistics> statistics, long wallTimeNs) {
+		this.statistics = new ArrayList<>(statistics);
+		this.statistics.sort(Comparator.comparing(TimerStatistics::getName));
+		this.wallTimeNs = wallTimeNs;
+	}
+
+	/**
+	 * @param earlier a report taken before this one, e.g. at the start of a run
+	 * @param wallTimeNs the time elapsed between both reports
+	 * @return the durations recorded between both reports
+	 */
+	public ProfileReport since(ProfileReport earlier, long wallTimeNs) {
+		Map<String, TimerStatistics> before = new HashMap<>();
+		for (TimerStatistics s : earlier.statistics) {
+			before.put(s.getName(), s);
+		}
+		List<TimerStatistics> diff = new ArrayList<>();
+		for (TimerStatistics s : statistics) {
+			TimerStatistics e = before.get(s.getName());
+			// the timer may have been reset in between
+			TimerStatistics d = (e == null || e.getCount() > s.getCount()) ? s : s.minus(e);
+			if(d.getCount() > 0) {
+				diff.add(d);
+			}
+		}
+		return new ProfileReport(diff, wallTimeNs);
+	}
+
+	/**
+	 * @return the statistics of the timers ordered by name
+	 */
+	public List<TimerStatistics> getStatistics() {
+		return Collections.unmodifiableList(statistics);
+	}
+
+	/**
+	 * @return the overall runtime the report refers to, or 0 if unknown
+	 */
+	public long getWallTimeNs() {
+		return wallTimeNs;
+	}
+
+	/**
+	 * @param category the category
+	 * @return the total time recorded by the timers of the category
+	 */
+	public long getTotalNs(ProfileCategory category) {
+		long total = 0;
+		for (TimerStatistics s : statistics) {
+			if(s.getCategory() == category) {
+				total += s.getTotalNs();
+			}
+		}
+		return total;
+	}
+
+	public String toJSON() {
+		StringBuilder sb = new StringBuilder("{\n");
+		sb.append("  \"wallTimeNs\": ").append(wallTimeNs).append(",\n");
+		sb.append("  \"categories\": {");
+		String sep = "";
+		for (ProfileCategory category : ProfileCategory.values()) {
+			sb.append(sep).append("\"").append(category.name()).append("\": ").append(getTotalNs(category));
+			sep = ", ";
+		}
+		sb.append("},\n");
+		sb.append("  \"timers\": [");
+		sep = "\n";
+		for (TimerStatistics s : statistics) {
+			sb.append(sep).append("    {\"name\": \"").append(escapeJSON(s.getName())).append("\"")
+					.append(", \"category\": \"").append(s.getCategory().name()).append("\"")
+					.append(", \"count\": ").append(s.getCount())
+					.append(", \"totalNs\": ").append(s.getTotalNs())
+					.append(", \"minNs\": ").append(s.getMinNs())
+					.append(", \"maxNs\": ").append(s.getMaxNs())
+					.append(", \"meanNs\": ").append(format(s.getMeanNs()))
+					.append("}");
+			sep = ",\n";
+		}
+		sb.append(statistics.isEmpty() ? "]\n" : "\n  ]\n");
+		sb.append("}\n");
+		return sb.toString();
+	}
+
+	public String toCSV() {
+		StringBuilder sb = new StringBuilder("name,category,count,totalNs,minNs,maxNs,meanNs\n");
+		for (TimerStatistics s : statistics) {
+			sb.append(escapeCSV(s.getName())).append(',')
+					.append(s.getCategory().name()).append(',')
+					.append(s.getCount()).append(',')
+					.append(s.getTotalNs()).append(',')
+					.append(s.getMinNs()).append(',')
+					.append(s.getMaxNs()).append(',')
+					.append(format(s.getMeanNs())).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the report in the text-based exposition format of Prometheus,
+	 * e.g. to be picked up by the textfile collector of the node exporter
+	 */
+	public String toPrometheus() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("# HELP " + PROMETHEUS_PREFIX + "calls_total Number of measurements.\n");
+		sb.append("# TYPE " + PROMETHEUS_PREFIX + "calls_total counter\n");
+		for (TimerStatistics s : statistics) {
+			sb.append(PROMETHEUS_PREFIX + "calls_total").append(labels(s)).append(' ').append(s.getCount()).append('\n');
+		}
+		sb.append("# HELP " + PROMETHEUS_PREFIX + "seconds_total Total measured time in seconds.\n");
+		sb.append("# TYPE " + PROMETHEUS_PREFIX + "seconds_total counter\n");
+		for (TimerStatistics s : statistics) {
+			sb.append(PROMETHEUS_PREFIX + "seconds_total").append(labels(s)).append(' ').append(format(s.getTotalNs() / 1e9)).append('\n');
+		}
+		sb.append("# HELP " + PROMETHEUS_PREFIX + "max_seconds Longest measured time in seconds.\n");
+		sb.append("# TYPE " + PROMETHEUS_PREFIX + "max_seconds gauge\n");
+		for (TimerStatistics s : statistics) {
+			sb.append(PROMETHEUS_PREFIX + "max_seconds").append(labels(s)).append(' ').append(format(s.getMaxNs() / 1e9)).append('\n');
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes the report to a file, the format is chosen by the file extension:
+	 * <code>.json</code>, <code>.csv</code> or the Prometheus text format otherwise.
+	 * @param file the file
+	 * @throws IOException if the file could not be written
+	 */
+	public void write(File file) throws IOException {
+		String name = file.getName().toLowerCase();
+		String content;
+		if(name.endsWith(".json")) {
+			content = toJSON();
+		} else if(name.endsWith(".csv")) {
+			content = toCSV();
+		} else {
+			content = toPrometheus();
+		}
+		if(file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * @return a human readable summary of the time spent per category and timer
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Profile");
+		if(wallTimeNs > 0) {
+			sb.append(" (runtime ").append(Helper.prettyPrintNanoSeconds(wallTimeNs)).append(")");
+		}
+		sb.append(":\n");
+		DecimalFormat percent = new DecimalFormat("0.0%");
+		for (ProfileCategory category : ProfileCategory.values()) {
+			long total = getTotalNs(category);
+			if(total == 0) {
+				continue;
+			}
+			sb.append(String.format("  %-12s %s", category.name().toLowerCase(), Helper.prettyPrintNanoSeconds(total)));
+			if(wallTimeNs > 0) {
+				sb.append(" (").append(percent.format((double) total / wallTimeNs)).append(")");
+			}
+			sb.append("\n");
+		}
+		for (TimerStatistics s : statistics) {
+			sb.append("    ").append(s).append("\n");
+		}
+		return sb.toString();
+	}
+
+	private static String labels(TimerStatistics s) {
+		return "{timer=\"" + escapePrometheus(s.getName()) + "\",category=\"" + s.getCategory().name().toLowerCase() + "\"}";
+	}
+
+	private static String format(double value) {
+		return new DecimalFormat("0.######", DecimalFormatSymbols.getInstance(Locale.ROOT)).format(value);
+	}
+
+	private static String escapeJSON(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"");
+	}
+
+	private static String escapeCSV(String s) {
+		return s.contains(",") || s.contains("\"") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+	}
+
+	private static String escapePrometheus(String s) {
+		return s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+}
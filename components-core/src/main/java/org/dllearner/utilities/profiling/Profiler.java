@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link Timer}s used for profiling. Profiling is disabled by
+ * default and can be enabled by {@link #setEnabled(boolean)} or the system
+ * property <code>dllearner.profiling=true</code>. Unlike JAMon monitors the
+ * timers are looked up only once, not on every measurement:
+ * <pre>
+ * private static final Timer REFINEMENT_TIMER = Profiler.timer("celoe.refinement", ProfileCategory.REFINEMENT);
+ * </pre>
+ */
+public final class Profiler {
+
+	public static final String ENABLED_PROPERTY = "dllearner.profiling";
+
+	static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY);
+
+	private static final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private Profiler() {}
+
+	/**
+	 * Returns the timer with the given name, which is created on the first call.
+	 * @param name the name of the timer, e.g. <code>celoe.refinement</code>
+	 * @param category the kind of work measured by the timer
+	 * @return the timer
+	 * @throws IllegalArgumentException if a timer with the same name but a
+	 * different category exists
+	 */
+	public static Timer timer(String name, ProfileCategory category) {
+		Timer timer = timers.computeIfAbsent(name, n -> new Timer(n, category));
+		if(timer.getCategory() != category) {
+			throw new IllegalArgumentException("Timer " + name + " is already registered for category " + timer.getCategory());
+		}
+		return timer;
+	}
+
+	/**
+	 * @return whether durations are recorded
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * @param enabled whether durations are recorded
+	 */
+	public static void setEnabled(boolean enabled) {
+		Profiler.enabled = enabled;
+	}
+
+	/**
+	 * Discards the durations recorded by all timers.
+	 */
+	public static void reset() {
+		for (Timer timer : timers.values()) {
+			timer.reset();
+		}
+	}
+
+	/**
+	 * @return the current statistics of all timers
+	 */
+	public static ProfileReport snapshot() {
+		List<TimerStatistics> statistics = new ArrayList<>();
+		for (Timer timer : timers.values()) {
+			statistics.add(timer.getStatistics());
+		}
+		return new ProfileReport(statistics, 0);
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A named timer obtained once via {@link Profiler#timer(String, ProfileCategory)},
+ * usually stored in a static field, and then used in hot paths:
+ * <pre>
+ * long start = TIMER.start();
+ * ...
+ * TIMER.stop(start);
+ * </pre>
+ * Each thread accumulates into its own counters, i.e. recording neither locks
+ * nor contends on shared memory. If profiling is disabled, {@link #start()}
+ * and {@link #stop(long)} only read a flag.
+ */
+public final class Timer {
+
+	/**
+	 * The value returned by {@link #start()} if profiling is disabled.
+	 */
+	public static final long DISABLED = Long.MIN_VALUE;
+
+	// the counters of a single thread, written by that thread only
+	private static final class Counters {
+		long count;
+		long totalNs;
+		long minNs = Long.MAX_VALUE;
+		long maxNs;
+	}
+
+	// the counters of all threads since the last reset
+	private static final class Generation {
+		final List<Counters> all = new CopyOnWriteArrayList<>();
+		final ThreadLocal<Counters> local = ThreadLocal.withInitial(() -> {
+			Counters counters = new Counters();
+			all.add(counters);
+			return counters;
+		});
+	}
+
+	private final String name;
+	private final ProfileCategory category;
+
+	private volatile Generation generation = new Generation();
+
+	Timer(String name, ProfileCategory category) {
+		this.name = name;
+		this.category = category;
+	}
+
+	/**
+	 * @return the start time to pass to {@link #stop(long)}, or {@link #DISABLED}
+	 */
+	public long start() {
+		return Profiler.enabled ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * Records the time elapsed since the given start time.
+	 * @param startTimeNs the value returned by {@link #start()}
+	 */
+	public void stop(long startTimeNs) {
+		if(startTimeNs != DISABLED) {
+			record(System.nanoTime() - startTimeNs);
+		}
+	}
+
+	/**
+	 * Records a duration measured elsewhere.
+	 * @param durationNs the duration in nanoseconds
+	 */
+	public void record(long durationNs) {
+		if(!Profiler.enabled) {
+			return;
+		}
+		Counters counters = generation.local.get();
+		counters.count++;
+		counters.totalNs += durationNs;
+		if(durationNs < counters.minNs) {
+			counters.minNs = durationNs;
+		}
+		if(durationNs > counters.maxNs) {
+			counters.maxNs = durationNs;
+		}
+	}
+
+	/**
+	 * Aggregates the counters of all threads. Durations recorded concurrently
+	 * with this call may or may not be included.
+	 * @return the statistics of the timer
+	 */
+	public TimerStatistics getStatistics() {
+		long count = 0;
+		long total = 0;
+		long min = Long.MAX_VALUE;
+		long max = 0;
+		for (Counters counters : generation.all) {
+			count += counters.count;
+			total += counters.totalNs;
+			min = Math.min(min, counters.minNs);
+			max = Math.max(max, counters.maxNs);
+		}
+		return new TimerStatistics(name, category, count, total, count == 0 ? 0 : min, max);
+	}
+
+	/**
+	 * Discards all recorded durations.
+	 */
+	public void reset() {
+		generation = new Generation();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public ProfileCategory getCategory() {
+		return category;
+	}
+
+	@Override
+	public String toString() {
+		return getStatistics().toString();
+	}
+}
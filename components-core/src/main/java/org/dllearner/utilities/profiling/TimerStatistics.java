@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+import org.dllearner.utilities.Helper;
+
+/**
+ * An immutable snapshot of the durations recorded by a {@link Timer}.
+ */
+public class TimerStatistics {
+
+	private final String name;
+	private final ProfileCategory category;
+	private final long count;
+	private final long totalNs;
+	private final long minNs;
+	private final long maxNs;
+
+	public TimerStatistics(String name, ProfileCategory category, long count, long totalNs, long minNs, long maxNs) {
+		this.name = name;
+		this.category = category;
+		this.count = count;
+		this.totalNs = totalNs;
+		this.minNs = minNs;
+		this.maxNs = maxNs;
+	}
+
+	/**
+	 * @param earlier a snapshot of the same timer taken before this one
+	 * @return the statistics of the durations recorded between both snapshots;
+	 * the minimum and maximum are the ones of this snapshot
+	 */
+	public TimerStatistics minus(TimerStatistics earlier) {
+		return new TimerStatistics(name, category, count - earlier.count, totalNs - earlier.totalNs, minNs, maxNs);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public ProfileCategory getCategory() {
+		return category;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getTotalNs() {
+		return totalNs;
+	}
+
+	public long getMinNs() {
+		return minNs;
+	}
+
+	public long getMaxNs() {
+		return maxNs;
+	}
+
+	public double getMeanNs() {
+		return count == 0 ? 0 : (double) totalNs / count;
+	}
+
+	@Override
+	public String toString() {
+		return name + " [" + category + "]: " + count + " calls, total " + Helper.prettyPrintNanoSeconds(totalNs)
+				+ ", avg " + Helper.prettyPrintNanoSeconds((long) getMeanNs());
+	}
+}
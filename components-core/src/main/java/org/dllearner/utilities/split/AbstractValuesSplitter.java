@@ -18,14 +18,17 @@
  */
 package org.dllearner.utilities.split;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 
 import org.dllearner.core.AbstractReasonerComponent;
 import org.dllearner.core.ComponentInitException;
@@ -44,6 +47,8 @@ public abstract class AbstractValuesSplitter implements ValuesSplitter{
 	
 	protected AbstractReasonerComponent reasoner;
 	protected OWLDataFactory dataFactory;
+
+	protected int nrOfThreads = 1;
 	
 	public AbstractValuesSplitter(AbstractReasonerComponent reasoner, OWLDataFactory dataFactory) {
 		this.reasoner = reasoner;
@@ -68,31 +73,65 @@ public abstract class AbstractValuesSplitter implements ValuesSplitter{
 	 */
 	@Override
 	public Map<OWLDataProperty, List<OWLLiteral>> computeSplits() {
+		Set<OWLDataProperty> dataProperties = getDataProperties();
+
+		if (nrOfThreads > 1 && dataProperties.size() > 1) {
+			return computeSplitsParallel(dataProperties);
+		}
+
 		Map<OWLDataProperty, List<OWLLiteral>> result = new HashMap<>();
 		
-		for (OWLDataProperty dp : getDataProperties()) {
+		for (OWLDataProperty dp : dataProperties) {
 			List<OWLLiteral> splitValues = computeSplits(dp);
 			result.put(dp, splitValues);
 		}
 		
 		return result;
 	}
+
+	private Map<OWLDataProperty, List<OWLLiteral>> computeSplitsParallel(Set<OWLDataProperty> dataProperties) {
+		Map<OWLDataProperty, List<OWLLiteral>> result = new ConcurrentHashMap<>();
+
+		ForkJoinPool pool = new ForkJoinPool(nrOfThreads);
+		try {
+			pool.submit(() -> dataProperties.parallelStream().forEach(dp -> result.put(dp, computeSplits(dp)))).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Computation of splits has been interrupted", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("Computation of splits failed", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		return new HashMap<>(result);
+	}
 	
 	/**
 	 * @return all applicable data properties.
 	 */
 	protected abstract Set<OWLDataProperty> getDataProperties();
 
+	/**
+	 * @param nrOfThreads the number of threads used to compute the splits of
+	 * all data properties in {@link #computeSplits()}, 1 means sequential computation.
+	 * Values of different properties are requested concurrently, thus, the reasoner
+	 * must support concurrent calls.
+	 */
+	public void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+	}
+
 	protected <T> T mixTwoValues(T value1, T value2) { return null; }
 
 	protected <T extends Comparable<? super T>> List<T> simpleListSplitter(
 			Collection<T> allValues, int maxNrOfSplits) {
 		// convert set to a list where values are sorted
-		List<T> values = new LinkedList<>(allValues);
+		List<T> values = new ArrayList<>(allValues);
 		Collections.sort(values);
 
 		int nrOfValues = values.size();
-		int nrOfSplits = Math.min(maxNrOfSplits, nrOfValues + 1);
+		int nrOfSplits = nrOfSplits(maxNrOfSplits, nrOfValues);
 
 		// create split set
 		Set<T> splitsDP = new TreeSet<>();
@@ -103,9 +142,7 @@ public abstract class AbstractValuesSplitter implements ValuesSplitter{
 		}
 
 		for (int splitNr = 1; splitNr < nrOfSplits; splitNr++) {
-			int index;// = (int) ((splitNr * (double) (nrOfValues)/(nrOfSplits-1))-1);
-			index = (int) Math.floor(splitNr * (double) nrOfValues / (nrOfSplits));
-			index = Math.max(index, (int) Math.floor(splitNr * (double) nrOfValues / (nrOfSplits - 1) - 1));
+			int index = splitIndex(splitNr, nrOfValues, nrOfSplits);
 
 			T number1 = values.get(index);
 			T number2 = values.get(Math.min(nrOfValues - 1, index + 1));
@@ -123,4 +160,28 @@ public abstract class AbstractValuesSplitter implements ValuesSplitter{
 
 		return Lists.newLinkedList(splitsDP);
 	}
+
+	/**
+	 * @param maxNrOfSplits the maximal number of splits
+	 * @param nrOfValues the number of distinct values
+	 * @return the number of splits used for the given number of values
+	 */
+	protected static int nrOfSplits(int maxNrOfSplits, int nrOfValues) {
+		return Math.min(maxNrOfSplits, nrOfValues + 1);
+	}
+
+	/**
+	 * Returns the position of the lower of the two sorted values which are
+	 * mixed to the given split value.
+	 * @param splitNr the number of the split, starting with 1
+	 * @param nrOfValues the number of distinct values
+	 * @param nrOfSplits the number of splits
+	 * @return the index of the lower value
+	 */
+	protected static int splitIndex(int splitNr, int nrOfValues, int nrOfSplits) {
+		int index;// = (int) ((splitNr * (double) (nrOfValues)/(nrOfSplits-1))-1);
+		index = (int) Math.floor(splitNr * (double) nrOfValues / (nrOfSplits));
+		index = Math.max(index, (int) Math.floor(splitNr * (double) nrOfValues / (nrOfSplits - 1) - 1));
+		return index;
+	}
 }
@@ -18,7 +18,11 @@
  */
 package org.dllearner.utilities.split;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -43,6 +47,10 @@ import org.semanticweb.owlapi.model.OWLLiteral;
  * Supposed we have a set of integer values
  * {1, 2, 3, 4, 5, 6, 10, 12, 16, 20, 28, 30} and use 4 splits, then
  * we would get 5 split values [1, 3, 8, 18, 30].
+ * <p>
+ * Values of type integer, long, short, byte and double are collected into
+ * primitive arrays, such that sorting and splitting does not need to
+ * box each value.
  * 
  * @author Lorenz Buehmann
  *
@@ -84,10 +92,15 @@ public class DefaultNumericValuesSplitter extends AbstractNumericValuesSplitter
 		return splitLiterals;
 	}
 	
-	private <T extends Number & Comparable<T>> List<T> computeSplitValues(OWLDataProperty dp) {
-		Set<T> valuesSet = new TreeSet<>();
-
+	private <T extends Number & Comparable<T>> List<? extends Number> computeSplitValues(OWLDataProperty dp) {
 		Map<OWLIndividual, SortedSet<T>> ind2Values = reasoner.getNumericDatatypeMembers(dp);
+
+		List<? extends Number> splitValues = computePrimitiveSplitValues(ind2Values.values());
+		if (splitValues != null) {
+			return splitValues;
+		}
+
+		Set<T> valuesSet = new TreeSet<>();
 		// add all values to the set
 		for(Entry<OWLIndividual, SortedSet<T>> e : ind2Values.entrySet()){
 			try {
@@ -100,4 +113,150 @@ public class DefaultNumericValuesSplitter extends AbstractNumericValuesSplitter
 
 		return simpleListSplitter(valuesSet, maxNrOfSplits);
 	}
+
+	/**
+	 * Computes the split values on primitive arrays. The result is the same as
+	 * the one of {@link #simpleListSplitter(Collection, int)}.
+	 *
+	 * @param valueSets the values of all individuals
+	 * @return the split values, or <code>null</code> if the values are not all
+	 * of the same integral type or of type double
+	 */
+	private List<? extends Number> computePrimitiveSplitValues(Collection<? extends SortedSet<? extends Number>> valueSets) {
+		Class<?> type = null;
+		int size = 0;
+		for (SortedSet<? extends Number> values : valueSets) {
+			for (Number value : values) {
+				if (type == null) {
+					type = value.getClass();
+				} else if (type != value.getClass()) {
+					return null;
+				}
+			}
+			size += values.size();
+		}
+
+		if (type == Integer.class || type == Long.class || type == Short.class || type == Byte.class) {
+			long[] values = new long[size];
+			int i = 0;
+			for (SortedSet<? extends Number> valueSet : valueSets) {
+				for (Number value : valueSet) {
+					values[i++] = value.longValue();
+				}
+			}
+			return integralSplitValues(values, type);
+		} else if (type == Double.class) {
+			double[] values = new double[size];
+			int i = 0;
+			for (SortedSet<? extends Number> valueSet : valueSets) {
+				for (Number value : valueSet) {
+					values[i++] = value.doubleValue();
+				}
+			}
+			return doubleSplitValues(values);
+		}
+		return null;
+	}
+
+	private List<Number> integralSplitValues(long[] values, Class<?> type) {
+		Arrays.sort(values);
+
+		// remove duplicates
+		int nrOfValues = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (i == 0 || values[i] != values[nrOfValues - 1]) {
+				values[nrOfValues++] = values[i];
+			}
+		}
+
+		int nrOfSplits = nrOfSplits(maxNrOfSplits, nrOfValues);
+
+		// the split values are computed in ascending order, thus, it is
+		// sufficient to compare with the last one to avoid duplicates
+		long[] splits = new long[nrOfSplits + 1];
+		int nrOfSplitValues = 0;
+
+		for (int splitNr = 0; splitNr <= nrOfSplits && nrOfValues > 0; splitNr++) {
+			long split;
+			if (splitNr == 0) {
+				// the first element
+				split = values[0];
+			} else if (splitNr < nrOfSplits) {
+				int index = splitIndex(splitNr, nrOfValues, nrOfSplits);
+				split = mix(values[index], values[Math.min(nrOfValues - 1, index + 1)], type);
+			} else if (nrOfValues > 1) {
+				// the last element
+				split = values[nrOfValues - 1];
+			} else {
+				break;
+			}
+			if (nrOfSplitValues == 0 || splits[nrOfSplitValues - 1] != split) {
+				splits[nrOfSplitValues++] = split;
+			}
+		}
+
+		List<Number> splitValues = new ArrayList<>(nrOfSplitValues);
+		for (int i = 0; i < nrOfSplitValues; i++) {
+			splitValues.add(box(splits[i], type));
+		}
+		return splitValues;
+	}
+
+	private List<Double> doubleSplitValues(double[] values) {
+		Arrays.sort(values);
+
+		// remove duplicates, Arrays.sort() and Double.compare() use the same order
+		int nrOfValues = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (i == 0 || Double.compare(values[i], values[nrOfValues - 1]) != 0) {
+				values[nrOfValues++] = values[i];
+			}
+		}
+
+		int nrOfSplits = nrOfSplits(maxNrOfSplits, nrOfValues);
+
+		List<Double> splitValues = new ArrayList<>(nrOfSplits + 1);
+
+		for (int splitNr = 0; splitNr <= nrOfSplits && nrOfValues > 0; splitNr++) {
+			double split;
+			if (splitNr == 0) {
+				// the first element
+				split = values[0];
+			} else if (splitNr < nrOfSplits) {
+				int index = splitIndex(splitNr, nrOfValues, nrOfSplits);
+				double value1 = values[index];
+				double value2 = values[Math.min(nrOfValues - 1, index + 1)];
+				split = BigDecimal.valueOf(value1).add(BigDecimal.valueOf(value2))
+						.divide(BigDecimal.valueOf(2), RoundingMode.HALF_DOWN).doubleValue();
+			} else if (nrOfValues > 1) {
+				// the last element
+				split = values[nrOfValues - 1];
+			} else {
+				break;
+			}
+			if (splitValues.isEmpty() || Double.compare(splitValues.get(splitValues.size() - 1), split) != 0) {
+				splitValues.add(split);
+			}
+		}
+		return splitValues;
+	}
+
+	// same arithmetic as the average of the boxed values
+	private static long mix(long value1, long value2, Class<?> type) {
+		if (type == Long.class) {
+			return (value1 + value2) / 2;
+		}
+		return (int) (value1 + value2) / 2;
+	}
+
+	private static Number box(long value, Class<?> type) {
+		if (type == Integer.class) {
+			return (int) value;
+		} else if (type == Short.class) {
+			return (short) value;
+		} else if (type == Byte.class) {
+			return (byte) value;
+		}
+		return value;
+	}
 }
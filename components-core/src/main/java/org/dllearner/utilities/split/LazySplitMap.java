@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.split;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+/**
+ * A map of data properties to their split values, which computes the splits
+ * of a data property not before they are requested for the first time, e.g.
+ * when a refinement operator reaches the data property during the search.
+ * Computed splits are kept, and the map can be used by several threads.
+ * <p>
+ * If a data property is supported by more than one splitter, the splitter
+ * added last is used, like putting the results of
+ * {@link ValuesSplitter#computeSplits()} into a map one after another.
+ */
+public class LazySplitMap extends AbstractMap<OWLDataProperty, List<OWLLiteral>> {
+
+	private final Map<OWLDataProperty, AbstractValuesSplitter> splitters = new HashMap<>();
+
+	private final Map<OWLDataProperty, List<OWLLiteral>> splits = new ConcurrentHashMap<>();
+
+	/**
+	 * Registers the splitter for all of its applicable data properties. The splits
+	 * are not computed here. All splitters have to be added before the map is
+	 * accessed concurrently.
+	 * @param splitter the splitter
+	 */
+	public void addSplitter(AbstractValuesSplitter splitter) {
+		for (OWLDataProperty dp : splitter.getDataProperties()) {
+			splitters.put(dp, splitter);
+			splits.remove(dp);
+		}
+	}
+
+	@Override
+	public List<OWLLiteral> get(Object key) {
+		AbstractValuesSplitter splitter = splitters.get(key);
+		if (splitter == null) {
+			return null;
+		}
+		return splits.computeIfAbsent((OWLDataProperty) key, splitter::computeSplits);
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return splitters.containsKey(key);
+	}
+
+	/**
+	 * @param dp the data property
+	 * @return whether the splits of the data property have been computed already
+	 */
+	public boolean isComputed(OWLDataProperty dp) {
+		return splits.containsKey(dp);
+	}
+
+	@Override
+	public int size() {
+		return splitters.size();
+	}
+
+	/**
+	 * Computes the splits of all remaining data properties.
+	 */
+	@Override
+	public Set<Entry<OWLDataProperty, List<OWLLiteral>>> entrySet() {
+		Map<OWLDataProperty, List<OWLLiteral>> map = new TreeMap<>();
+		for (OWLDataProperty dp : splitters.keySet()) {
+			map.put(dp, get(dp));
+		}
+		return Collections.unmodifiableMap(map).entrySet();
+	}
+}
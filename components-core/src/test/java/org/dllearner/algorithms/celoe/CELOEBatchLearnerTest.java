@@ -0,0 +1,107 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.AnnComponentManager;
+import org.dllearner.core.EvaluatedDescription;
+import org.dllearner.core.Score;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.dllearner.test.junit.TestOntologies;
+import org.dllearner.test.junit.TestOntologies.TestOntology;
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
+
+/**
+ * Tests that the batch learner runs each class with an operator configured like
+ * the given one.
+ */
+public class CELOEBatchLearnerTest {
+
+	private static final String NS = "http://example.com/father#";
+
+	@Test
+	public void testOperatorConfigurationIsCopied() throws Exception {
+		AbstractReasonerComponent reasoner = TestOntologies.getTestOntology(TestOntology.FATHER);
+
+		// options which differ from the defaults
+		RhoDRDown operator = new RhoDRDown();
+		operator.setUseInverse(true);
+		operator.setUseTimeDatatypes(false);
+		operator.setUseNegation(false);
+		operator.setUseSomeOnly(false);
+		operator.setUseCardinalityRestrictions(false);
+		operator.setCardinalityLimit(3);
+		operator.setMaxNrOfSplits(7);
+		operator.setLazySplitComputation(true);
+		operator.setNrOfSplitThreads(2);
+
+		List<RhoDRDown> operators = Collections.synchronizedList(new ArrayList<>());
+		CELOEBatchLearner learner = new CELOEBatchLearner(reasoner) {
+			@Override
+			protected RhoDRDown createOperator() {
+				RhoDRDown op = super.createOperator();
+				operators.add(op);
+				return op;
+			}
+		};
+		learner.setOperator(operator);
+		learner.setNrOfThreads(2);
+		learner.setMaxExecutionTimeInSecondsPerClass(1);
+
+		Set<OWLClass> learned = ConcurrentHashMap.newKeySet();
+		learner.addResultHandler(new CELOEBatchLearner.ResultHandler() {
+			@Override
+			public void learned(OWLClass cls, List<? extends EvaluatedDescription<? extends Score>> descriptions, long runtimeMs) {
+				learned.add(cls);
+			}
+
+			@Override
+			public void failed(OWLClass cls, Exception e) {
+				Assert.fail("learning " + cls + " failed: " + e);
+			}
+		});
+
+		List<OWLClass> classes = Arrays.asList(
+				new OWLClassImpl(IRI.create(NS + "male")),
+				new OWLClassImpl(IRI.create(NS + "female")));
+		learner.start(classes);
+
+		Assert.assertEquals(2, learned.size());
+		Assert.assertEquals(2, operators.size());
+		for (RhoDRDown op : operators) {
+			for (Field field : AnnComponentManager.getConfigOptions(RhoDRDown.class)) {
+				field.setAccessible(true);
+				Assert.assertEquals(field.getName(), field.get(operator), field.get(op));
+			}
+		}
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.EvaluatedDescription;
+import org.dllearner.learningproblems.PosNegLPStandard;
+import org.dllearner.test.junit.TestOntologies;
+import org.dllearner.test.junit.TestOntologies.TestOntology;
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLNamedIndividualImpl;
+
+/**
+ * Tests that the parallel evaluation of refinements in CELOE leads to the
+ * same result as the sequential evaluation.
+ */
+public class CELOEParallelEvaluationTest {
+
+	private static final String NS = "http://example.com/father#";
+
+	private List<OWLClassExpression> run(int nrOfThreads) throws ComponentInitException {
+		AbstractReasonerComponent reasoner = TestOntologies.getTestOntology(TestOntology.FATHER);
+
+		SortedSet<OWLIndividual> posExamples = new TreeSet<>();
+		for (String name : new String[]{"markus", "stefan", "martin"}) {
+			posExamples.add(new OWLNamedIndividualImpl(IRI.create(NS + name)));
+		}
+		SortedSet<OWLIndividual> negExamples = new TreeSet<>();
+		for (String name : new String[]{"anna", "heinz", "michelle"}) {
+			negExamples.add(new OWLNamedIndividualImpl(IRI.create(NS + name)));
+		}
+
+		PosNegLPStandard lp = new PosNegLPStandard(reasoner);
+		lp.setPositiveExamples(posExamples);
+		lp.setNegativeExamples(negExamples);
+		lp.init();
+
+		CELOE la = new CELOE(lp, reasoner);
+		la.setMaxClassExpressionTests(300);
+		la.setMaxExecutionTimeInSeconds(0);
+		la.setNrOfEvaluationThreads(nrOfThreads);
+		la.init();
+		la.start();
+
+		Assert.assertEquals(300, la.getClassExpressionTests());
+
+		List<OWLClassExpression> solutions = new ArrayList<>();
+		for (EvaluatedDescription<?> ed : la.getCurrentlyBestEvaluatedDescriptions()) {
+			solutions.add(ed.getDescription());
+		}
+		return solutions;
+	}
+
+	@Test
+	public void testSameResult() throws Exception {
+		Assert.assertEquals(run(1), run(4));
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.celoe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.dllearner.utilities.datastructures.SearchTree;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+public class OENodeTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	// counts how often a score is computed
+	private static class CountingHeuristic extends OEHeuristicRuntime {
+		int calls = 0;
+
+		@Override
+		public double getNodeScore(OENode node) {
+			calls++;
+			return super.getNodeScore(node);
+		}
+	}
+
+	private OENode node(String name, double accuracy) {
+		return new OENode(df.getOWLClass(IRI.create(NS + name)), accuracy);
+	}
+
+	@Test
+	public void testScoreIsCachedUntilNodeIsModified() {
+		CountingHeuristic heuristic = new CountingHeuristic();
+		SearchTree<OENode> searchTree = new SearchTree<>(heuristic);
+
+		OENode root = new OENode(df.getOWLThing(), 0.5);
+		searchTree.addNode(null, root);
+		OENode a = node("A", 0.8);
+		OENode b = node("B", 0.7);
+		searchTree.addNode(root, a);
+		searchTree.addNode(root, b);
+		assertSame(a, searchTree.best());
+
+		// further comparisons do not recompute the scores
+		int calls = heuristic.calls;
+		assertTrue(calls <= 3);
+		for (int i = 0; i < 10; i++) {
+			searchTree.best();
+			searchTree.getNodeSet().contains(b);
+		}
+		assertEquals(calls, heuristic.calls);
+
+		// expanding a lowers its score below the one of b
+		searchTree.updatePrepare(a);
+		a.incHorizontalExpansion();
+		a.setRefinementCount(100);
+		searchTree.updateDone(a);
+		assertSame(b, searchTree.best());
+		assertEquals(calls + 1, heuristic.calls);
+		assertEquals(heuristic.getNodeScore(a), a.getScore(heuristic), 0d);
+	}
+
+	@Test
+	public void testTiesAreBrokenByCreationOrder() {
+		OEHeuristicRuntime heuristic = new OEHeuristicRuntime();
+		SearchTree<OENode> searchTree = new SearchTree<>(heuristic);
+
+		OENode root = new OENode(df.getOWLThing(), 0.5);
+		searchTree.addNode(null, root);
+		OENode a = node("A", 0.8);
+		OENode b = node("B", 0.8);
+		searchTree.addNode(root, b);
+		searchTree.addNode(root, a);
+
+		assertEquals(a.getScore(heuristic), b.getScore(heuristic), 0d);
+		assertTrue(heuristic.compare(a, b) < 0);
+		assertSame(b, searchTree.best());
+		assertEquals(3, searchTree.size());
+	}
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.pattern;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dllearner.kb.repository.OntologyRepository;
+import org.dllearner.kb.repository.OntologyRepositoryEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for writing the patterns to a database, using an in-memory H2 database.
+ */
+public class OWLAxiomPatternFinderTest {
+
+	private static final String PREFIX = "Prefix(:=<http://dl-learner.org/test#>)\n";
+
+	private Connection db;
+	private File dir;
+	private final List<OntologyRepositoryEntry> entries = new ArrayList<>();
+
+	// the number of pattern lookups which fail
+	private final AtomicInteger failingLookups = new AtomicInteger();
+
+	@Before
+	public void setUp() throws Exception {
+		db = DriverManager.getConnection("jdbc:h2:mem:patterns;MODE=MySQL");
+		// the MySQL schema of the pattern finder, without the prefix index which H2 does not support
+		try (Statement statement = db.createStatement()) {
+			statement.execute("CREATE TABLE Pattern (id MEDIUMINT NOT NULL AUTO_INCREMENT, pattern TEXT NOT NULL, "
+					+ "pattern_pretty TEXT NOT NULL, axiom_type VARCHAR(15) NOT NULL, PRIMARY KEY(id))");
+			statement.execute("CREATE TABLE Ontology (id MEDIUMINT NOT NULL AUTO_INCREMENT, url VARCHAR(1000) NOT NULL, "
+					+ "iri VARCHAR(2000) NOT NULL, repository VARCHAR(200) NOT NULL, logical_axioms MEDIUMINT DEFAULT 0, "
+					+ "tbox_axioms MEDIUMINT DEFAULT 0, rbox_axioms MEDIUMINT DEFAULT 0, abox_axioms MEDIUMINT DEFAULT 0, "
+					+ "classes MEDIUMINT DEFAULT 0, object_properties MEDIUMINT DEFAULT 0, data_properties MEDIUMINT DEFAULT 0, "
+					+ "individuals MEDIUMINT DEFAULT 0, PRIMARY KEY(id))");
+			statement.execute("CREATE TABLE Ontology_Pattern (ontology_id MEDIUMINT NOT NULL, pattern_id MEDIUMINT NOT NULL, "
+					+ "occurrences INTEGER NOT NULL, "
+					+ "FOREIGN KEY (ontology_id) REFERENCES Ontology(id) ON DELETE CASCADE, "
+					+ "FOREIGN KEY (pattern_id) REFERENCES Pattern(id) ON DELETE CASCADE, "
+					+ "PRIMARY KEY(ontology_id, pattern_id))");
+		}
+
+		dir = Files.createTempDirectory("patterns").toFile();
+		addOntology("o1", "SubClassOf(:A :B)\nClassAssertion(:A :a)");
+		addOntology("o2", "SubClassOf(:C :D)\nObjectPropertyAssertion(:p :a :b)");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		db.close();
+		for (File file : dir.listFiles()) {
+			file.delete();
+		}
+		dir.delete();
+	}
+
+	private void addOntology(String name, String axioms) throws Exception {
+		File file = new File(dir, name + ".owl");
+		String content = PREFIX + "Ontology(<http://dl-learner.org/test/" + name + ">\n" + axioms + "\n)";
+		Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+		URI uri = file.toURI();
+		entries.add(new OntologyRepositoryEntry() {
+			@Override
+			public String getOntologyShortName() {
+				return name;
+			}
+
+			@Override
+			public URI getOntologyURI() {
+				return uri;
+			}
+
+			@Override
+			public URI getPhysicalURI() {
+				return uri;
+			}
+
+			@Override
+			public String getMetaData(Object key) {
+				return null;
+			}
+		});
+	}
+
+	private OntologyRepository repository() {
+		return new OntologyRepository() {
+			@Override
+			public String getName() {
+				return "test";
+			}
+
+			@Override
+			public String getLocation() {
+				return dir.getPath();
+			}
+
+			@Override
+			public void refresh() {
+			}
+
+			@Override
+			public void initialize() {
+			}
+
+			@Override
+			public Collection<OntologyRepositoryEntry> getEntries() {
+				return entries;
+			}
+
+			@Override
+			public List<Object> getMetaDataKeys() {
+				return Collections.emptyList();
+			}
+		};
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+
+	// a connection whose second pattern lookup fails, i.e. after the first
+	// occurrence of the first ontology has been added to the batch
+	private Connection failingConnection() {
+		ClassLoader cl = getClass().getClassLoader();
+		return (Connection) Proxy.newProxyInstance(cl, new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+			Object result = invoke(db, method, args);
+			if (method.getName().equals("prepareStatement") && ((String) args[0]).startsWith("SELECT id FROM Pattern")) {
+				PreparedStatement ps = (PreparedStatement) result;
+				return Proxy.newProxyInstance(cl, new Class<?>[] {PreparedStatement.class}, (p, m, a) -> {
+					if (m.getName().equals("executeQuery") && failingLookups.incrementAndGet() == 2) {
+						throw new SQLException("Connection lost");
+					}
+					return invoke(ps, m, a);
+				});
+			}
+			return result;
+		});
+	}
+
+	private List<String> query(String sql) throws SQLException {
+		List<String> values = new ArrayList<>();
+		try (Statement statement = db.createStatement();
+			 ResultSet rs = statement.executeQuery(sql)) {
+			while (rs.next()) {
+				values.add(rs.getString(1));
+			}
+		}
+		return values;
+	}
+
+	@Test
+	public void testRollback() throws Exception {
+		OWLAxiomPatternFinder finder = new OWLAxiomPatternFinder(repository(), failingConnection());
+		finder.setNumberOfThreads(1);
+		finder.start();
+
+		// the first ontology is rolled back, its occurrences must not be written with the second one
+		String o2 = entries.get(1).getPhysicalURI().toString();
+		assertEquals(Collections.singletonList(o2), query("SELECT url FROM Ontology"));
+		assertEquals(Collections.singletonList("2"), query("SELECT COUNT(*) FROM Ontology_Pattern op "
+				+ "JOIN Ontology o ON op.ontology_id = o.id WHERE o.url = '" + o2 + "'"));
+		assertEquals(Collections.singletonList("2"), query("SELECT COUNT(*) FROM Ontology_Pattern"));
+
+		// the rolled back ontology is not regarded as processed
+		finder.start();
+		assertEquals(2, query("SELECT url FROM Ontology").size());
+		assertEquals(Collections.singletonList("4"), query("SELECT COUNT(*) FROM Ontology_Pattern"));
+	}
+
+	@Test(timeout = 60000)
+	public void testWriterStopped() throws Exception {
+		// more ontologies than fit into the queue of a single worker
+		for (int i = 3; i <= 8; i++) {
+			addOntology("o" + i, "SubClassOf(:A" + i + " :B)");
+		}
+		ClassLoader cl = getClass().getClassLoader();
+		Connection conn = (Connection) Proxy.newProxyInstance(cl, new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+			if (method.getName().equals("commit")) {
+				throw new Error("Writer died");
+			}
+			return invoke(db, method, args);
+		});
+
+		OWLAxiomPatternFinder finder = new OWLAxiomPatternFinder(repository(), conn);
+		finder.setNumberOfThreads(1);
+		// must not block although nobody takes the patterns from the queue anymore
+		finder.start();
+		// only the first ontology has been written (and not committed) before the writer died
+		assertEquals(Collections.singletonList("1"), query("SELECT COUNT(*) FROM Ontology"));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testNoConnection() {
+		new OWLAxiomPatternFinder(repository(), null).start();
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.algorithms.schema;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.expr.E_Random;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+public class ClassCooccurrenceMatrixTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private Model model;
+
+	private OWLClass a = cls("A");
+	private OWLClass b = cls("B");
+	private OWLClass c = cls("C");
+
+	private OWLClass cls(String name) {
+		return df.getOWLClass(IRI.create(NS + name));
+	}
+
+	@Before
+	public void setUp() {
+		model = ModelFactory.createDefaultModel();
+		Resource clsA = model.createResource(NS + "A");
+		Resource clsB = model.createResource(NS + "B");
+		Resource clsC = model.createResource(NS + "C");
+
+		// A(a_i), 0 <= i < 10
+		// B(a_i), 0 <= i < 7
+		// C(a_i), 8 <= i < 12
+		for (int i = 0; i < 12; i++) {
+			Resource ind = model.createResource(NS + "a" + i);
+			if (i < 10) {
+				ind.addProperty(RDF.type, clsA);
+			}
+			if (i < 7) {
+				ind.addProperty(RDF.type, clsB);
+			}
+			if (i >= 8) {
+				ind.addProperty(RDF.type, clsC);
+			}
+			ind.addProperty(RDF.type, OWL.Thing);
+		}
+	}
+
+	private void assertCounts(ClassCooccurrenceMatrix matrix) {
+		assertEquals(12, matrix.getNrOfInstances());
+		assertEquals(3, matrix.getClasses().size());
+		assertEquals(2, matrix.getNrOfCooccurringPairs());
+
+		assertEquals(10, matrix.getPopularity(a));
+		assertEquals(7, matrix.getPopularity(b));
+		assertEquals(4, matrix.getPopularity(c));
+		assertEquals(0, matrix.getPopularity(df.getOWLThing()));
+
+		assertEquals(7, matrix.getOverlap(a, b));
+		assertEquals(7, matrix.getOverlap(b, a));
+		assertEquals(2, matrix.getOverlap(a, c));
+		assertEquals(0, matrix.getOverlap(b, c));
+		assertEquals(10, matrix.getOverlap(a, a));
+		assertEquals(0, matrix.getOverlap(a, cls("D")));
+	}
+
+	@Test
+	public void testComputeFromModel() {
+		assertCounts(ClassCooccurrenceMatrix.compute(model));
+	}
+
+	@Test
+	public void testComputeFromEndpoint() {
+		// a small page size splits the types of instances across pages
+		ClassCooccurrenceMatrix matrix = new ClassCooccurrenceMatrix();
+		matrix.addAll(new QueryExecutionFactoryModel(model), 3);
+		assertCounts(matrix);
+	}
+
+	@Test
+	public void testComputeFromEndpointWithUnstableOrder() {
+		// an endpoint which returns rows that are equal w.r.t. the ORDER BY clause
+		// in a different order for each query
+		QueryExecutionFactory qef = new QueryExecutionFactoryDecorator(new QueryExecutionFactoryModel(model)) {
+			@Override
+			public QueryExecution createQueryExecution(Query query) {
+				Query shuffled = query.cloneQuery();
+				shuffled.addOrderBy(new E_Random(), Query.ORDER_DEFAULT);
+				return super.createQueryExecution(shuffled);
+			}
+		};
+		// blank nodes are ignored
+		model.createResource().addProperty(RDF.type, model.createResource(NS + "A"));
+
+		ClassCooccurrenceMatrix matrix = new ClassCooccurrenceMatrix();
+		matrix.addAll(qef, 3);
+		assertCounts(matrix);
+	}
+
+	@Test
+	public void testManyPairs() {
+		ClassCooccurrenceMatrix matrix = new ClassCooccurrenceMatrix();
+		List<OWLClass> types = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			types.add(cls("C" + i));
+		}
+		matrix.addInstance(types);
+		matrix.addInstance(types.subList(0, 50));
+
+		assertEquals(100 * 99 / 2, matrix.getNrOfCooccurringPairs());
+		assertEquals(2, matrix.getOverlap(cls("C3"), cls("C42")));
+		assertEquals(1, matrix.getOverlap(cls("C99"), cls("C3")));
+	}
+}
@@ -1,45 +1,119 @@
-/**
- * Copyright (C) 2007 - 2016, Jens Lehmann
- *
- * This file is part of DL-Learner.
- *
- * DL-Learner is free software; you can redistribute it and/or modify
- * it under the terms of the GNU General Public License as published by
- * the Free Software Foundation; either version 3 of the License, or
- * (at your option) any later version.
- *
- * DL-Learner is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
- * GNU General Public License for more details.
- *
- * You should have received a copy of the GNU General Public License
- * along with this program.  If not, see <http://www.gnu.org/licenses/>.
- */
-package org.dllearner.core;
-
-import java.util.Collection;
-
-import org.junit.Assert;
-import org.junit.Test;
-
-/**
- * Created with IntelliJ IDEA.
- * User: Chris
- * Date: 4/17/12
- * Time: 9:16 PM
- *
- * Tests for the AnnComponentManager
- */
-public class AnnComponentManagerTest {
-
-
-    @Test
-    public void testGetComponentsOfType() {
-
-        Collection<Class<? extends Component>> components = AnnComponentManager.getInstance().getComponentsOfType(ReasonerComponent.class);
-//        System.out.println(components);
-        // currently: [class org.dllearner.reasoning.OWLAPIReasoner, class org.dllearner.reasoning.FastInstanceChecker]
-        Assert.assertTrue(components.size() >= 1);
-    }
-}
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.dllearner.core.annotations.ComponentIndexProcessor;
+import org.dllearner.core.config.ConfigOption;
+import org.junit.Assert;
+import org.reflections.util.ClasspathHelper;
+import org.junit.Test;
+
+/**
+ * Created with IntelliJ IDEA.
+ * User: Chris
+ * Date: 4/17/12
+ * Time: 9:16 PM
+ *
+ * Tests for the AnnComponentManager
+ */
+public class AnnComponentManagerTest {
+
+
+    @Test
+    public void testGetComponentsOfType() {
+
+        Collection<Class<? extends Component>> components = AnnComponentManager.getInstance().getComponentsOfType(ReasonerComponent.class);
+//        System.out.println(components);
+        // currently: [class org.dllearner.reasoning.OWLAPIReasoner, class org.dllearner.reasoning.FastInstanceChecker]
+        Assert.assertTrue(components.size() >= 1);
+    }
+
+    @Test
+    public void testGetConfigOptionsMatchesReflection() {
+        for (Class<? extends Component> component : AnnComponentManager.getInstance().getComponents()) {
+            Set<Field> expected = new HashSet<>();
+            for (Class<?> c = component; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (field.isAnnotationPresent(ConfigOption.class)) {
+                        expected.add(field);
+                    }
+                }
+            }
+            Assert.assertEquals(component.getName(), expected, AnnComponentManager.getConfigOptions(component));
+        }
+    }
+
+    @Test
+    public void testComponentIndexInClassDirectory() throws Exception {
+        File dir = Files.createTempDirectory("dllearner-index").toFile();
+        dir.deleteOnExit();
+        File indexFile = new File(dir, ComponentIndexProcessor.INDEX_RESOURCE);
+        indexFile.getParentFile().mkdirs();
+        indexFile.deleteOnExit();
+        Files.write(indexFile.toPath(), Arrays.asList(
+                "C org.dllearner.reasoning.ClosedWorldReasoner",
+                "O org.dllearner.reasoning.ClosedWorldReasoner materialize useMaterializationCaching"), StandardCharsets.UTF_8);
+
+        // an index in a class directory can be partial and has to be checked by the component manager
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{dir.toURI().toURL()}, null)) {
+            ComponentIndex index = ComponentIndex.load(loader);
+            Assert.assertNotNull(index);
+            Assert.assertTrue(index.isInClassDirectory());
+            Assert.assertEquals(Arrays.asList("org.dllearner.reasoning.ClosedWorldReasoner"), index.getComponentClassNames());
+        }
+    }
+
+    @Test
+    public void testUnindexedRoots() throws Exception {
+        // a module with an index and one built without the annotation processor
+        File indexedDir = Files.createTempDirectory("dllearner-indexed").toFile();
+        File unindexedDir = Files.createTempDirectory("dllearner-unindexed").toFile();
+        for (File dir : Arrays.asList(indexedDir, unindexedDir)) {
+            new File(dir, "org/dllearner").mkdirs();
+        }
+        File indexFile = new File(indexedDir, ComponentIndexProcessor.INDEX_RESOURCE);
+        indexFile.getParentFile().mkdirs();
+        Files.write(indexFile.toPath(), Arrays.asList(
+                "C org.dllearner.reasoning.ClosedWorldReasoner"), StandardCharsets.UTF_8);
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{indexedDir.toURI().toURL(), unindexedDir.toURI().toURL()}, null)) {
+            ComponentIndex index = ComponentIndex.load(loader);
+            Assert.assertNotNull(index);
+            Set<URL> roots = ClasspathHelper.forPackage("org.dllearner", loader).stream()
+                    .filter(url -> url.toExternalForm().contains("dllearner-"))
+                    .collect(Collectors.toSet());
+            Assert.assertEquals(2, roots.size());
+            Set<URL> unindexed = index.getUnindexedRoots(roots);
+            Assert.assertEquals(1, unindexed.size());
+            Assert.assertEquals(new File(unindexed.iterator().next().toURI()), unindexedDir.getCanonicalFile());
+        }
+    }
+}
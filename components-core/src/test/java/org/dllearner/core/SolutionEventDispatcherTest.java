@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.dllearner.learningproblems.ScoreSimple;
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLClassImpl;
+
+/**
+ * Tests for the asynchronous delivery of solution events.
+ */
+public class SolutionEventDispatcherTest {
+
+	private static EvaluatedDescription<ScoreSimple> solution(String name, double accuracy) {
+		return new EvaluatedDescription<>(new OWLClassImpl(IRI.create("http://example.org/" + name)), new ScoreSimple(accuracy));
+	}
+
+	private static LearningProgress progress(int expressionTests) {
+		return new LearningProgress(expressionTests, expressionTests, 0, 0, 0);
+	}
+
+	@Test
+	public void testSlowListenerDoesNotBlockAndOrderIsKept() throws Exception {
+		SolutionEventDispatcher dispatcher = new SolutionEventDispatcher();
+
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch finished = new CountDownLatch(1);
+		List<Double> accuracies = new CopyOnWriteArrayList<>();
+		List<Integer> progressReports = new CopyOnWriteArrayList<>();
+
+		dispatcher.addListener(new SolutionListener() {
+			@Override
+			public void newBestSolution(EvaluatedDescription<? extends Score> solution, LearningProgress progress) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				accuracies.add(solution.getAccuracy());
+			}
+
+			@Override
+			public void progress(LearningProgress progress) {
+				progressReports.add(progress.getExpressionTests());
+			}
+
+			@Override
+			public void learningFinished(LearningProgress progress) {
+				finished.countDown();
+			}
+		});
+
+		// the listener blocks, but firing must return immediately
+		long start = System.nanoTime();
+		for (int i = 1; i <= 10; i++) {
+			dispatcher.fireNewBestSolution(solution("C" + i, i / 10d), progress(i));
+			for (int j = 0; j < 100; j++) {
+				dispatcher.fireProgress(progress(i * 100 + j));
+			}
+		}
+		dispatcher.fireFinished(progress(2000));
+		Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+
+		release.countDown();
+		Assert.assertTrue(finished.await(10, TimeUnit.SECONDS));
+
+		// all solutions in order
+		Assert.assertEquals(10, accuracies.size());
+		for (int i = 0; i < accuracies.size(); i++) {
+			Assert.assertEquals((i + 1) / 10d, accuracies.get(i), 0.0001);
+		}
+		// progress coalesced, but the latest report was delivered
+		Assert.assertTrue(progressReports.size() < 1000);
+		Assert.assertEquals(Integer.valueOf(1099), progressReports.get(progressReports.size() - 1));
+	}
+
+	@Test
+	public void testNoListeners() {
+		SolutionEventDispatcher dispatcher = new SolutionEventDispatcher();
+		Assert.assertFalse(dispatcher.hasListeners());
+		// must not fail or queue anything
+		dispatcher.fireNewBestSolution(solution("A", 1d), progress(1));
+		dispatcher.fireProgress(progress(1));
+	}
+}
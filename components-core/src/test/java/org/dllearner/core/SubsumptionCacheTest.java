@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.dllearner.core.SubsumptionCache.Relation;
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the memo of subsumption and disjointness checks.
+ */
+public class SubsumptionCacheTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+	private final OWLClassExpression aAndB = df.getOWLObjectIntersectionOf(a, b);
+
+	@Test
+	public void testHitsAndMisses() throws Exception {
+		SubsumptionCache cache = new SubsumptionCache(100);
+		AtomicInteger calls = new AtomicInteger();
+
+		Assert.assertTrue(cache.get(Relation.SUBCLASS_OF, aAndB, a, () -> calls.incrementAndGet() > 0));
+		Assert.assertTrue(cache.get(Relation.SUBCLASS_OF, aAndB, a, () -> calls.incrementAndGet() > 0));
+		Assert.assertEquals(1, calls.get());
+		Assert.assertEquals(1, cache.getHits());
+		Assert.assertEquals(1, cache.getMisses());
+
+		// subsumption is not symmetric
+		Assert.assertNull(cache.getIfPresent(Relation.SUBCLASS_OF, a, aAndB));
+		Assert.assertFalse(cache.get(Relation.SUBCLASS_OF, a, aAndB, () -> false));
+		Assert.assertEquals(2, cache.getMisses());
+	}
+
+	@Test
+	public void testSymmetricRelations() throws Exception {
+		SubsumptionCache cache = new SubsumptionCache(100);
+		cache.get(Relation.DISJOINT, a, b, () -> true);
+		Assert.assertEquals(Boolean.TRUE, cache.getIfPresent(Relation.DISJOINT, b, a));
+		Assert.assertNull(cache.getIfPresent(Relation.EQUIVALENT, b, a));
+	}
+
+	@Test
+	public void testEvictionAndInvalidation() throws Exception {
+		SubsumptionCache cache = new SubsumptionCache(1);
+		cache.get(Relation.SUBCLASS_OF, aAndB, a, () -> true);
+		cache.get(Relation.SUBCLASS_OF, aAndB, b, () -> true);
+		Assert.assertEquals(1, cache.size());
+
+		cache.invalidateAll();
+		Assert.assertEquals(0, cache.size());
+	}
+
+	@Test(expected = ReasoningMethodUnsupportedException.class)
+	public void testUnsupportedChecksAreNotCached() throws Exception {
+		SubsumptionCache cache = new SubsumptionCache(100);
+		try {
+			cache.get(Relation.SUBCLASS_OF, a, b, () -> {
+				throw new ReasoningMethodUnsupportedException();
+			});
+		} finally {
+			Assert.assertEquals(0, cache.size());
+		}
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.core.owl;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the transitive queries of the class hierarchy.
+ */
+public class ClassHierarchyTest {
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClassExpression top = df.getOWLThing();
+	private final OWLClassExpression bottom = df.getOWLNothing();
+	private final OWLClassExpression a = cls("A");
+	private final OWLClassExpression b = cls("B");
+	private final OWLClassExpression c = cls("C");
+	private final OWLClassExpression d = cls("D");
+	private final OWLClassExpression e = cls("E");
+	private final OWLClassExpression e2 = cls("E2");
+
+	private ClassHierarchy hierarchy;
+
+	private OWLClassExpression cls(String name) {
+		return df.getOWLClass(IRI.create("http://dl-learner.org/test#" + name));
+	}
+
+	private void add(SortedMap<OWLClassExpression, SortedSet<OWLClassExpression>> up,
+					 SortedMap<OWLClassExpression, SortedSet<OWLClassExpression>> down,
+					 OWLClassExpression sub, OWLClassExpression sup) {
+		up.computeIfAbsent(sub, k -> new TreeSet<>()).add(sup);
+		down.computeIfAbsent(sup, k -> new TreeSet<>()).add(sub);
+	}
+
+	@Before
+	public void setUp() {
+		SortedMap<OWLClassExpression, SortedSet<OWLClassExpression>> up = new TreeMap<>();
+		SortedMap<OWLClassExpression, SortedSet<OWLClassExpression>> down = new TreeMap<>();
+		// A, B < Thing; C < A, B (diamond); D < C; E = E2 (cycle) < D; Nothing < E, E2
+		add(up, down, a, top);
+		add(up, down, b, top);
+		add(up, down, c, a);
+		add(up, down, c, b);
+		add(up, down, d, c);
+		add(up, down, e, d);
+		add(up, down, e, e2);
+		add(up, down, e2, e);
+		add(up, down, bottom, e);
+		add(up, down, bottom, e2);
+		up.put(top, new TreeSet<>());
+		down.put(bottom, new TreeSet<>());
+		hierarchy = new ClassHierarchy(up, down);
+	}
+
+	@Test
+	public void testTransitiveSubAndSuperClasses() {
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(c, d, e, e2, bottom)), hierarchy.getSubClasses(a, false));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(a, b, c, d, e, e2, bottom)), hierarchy.getSubClasses(top, false));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(e2, d, c, a, b, top)), hierarchy.getSuperClasses(e, false));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(e, e2, d, c, a, b, top)), hierarchy.getSuperClasses(bottom, false));
+
+		// transitive queries must not change the direct children
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(c)), hierarchy.getSubClasses(a, true));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(a, b)), hierarchy.getSubClasses(top, true));
+	}
+
+	@Test
+	public void testSubsumption() {
+		hierarchy.precompute();
+		Assert.assertTrue(hierarchy.isSubclassOf(d, a));
+		Assert.assertTrue(hierarchy.isSubclassOf(e, b));
+		Assert.assertTrue(hierarchy.isSubclassOf(e, e2));
+		Assert.assertTrue(hierarchy.isSubclassOf(e2, e));
+		Assert.assertTrue(hierarchy.isSubclassOf(a, a));
+		Assert.assertTrue(hierarchy.isSubclassOf(bottom, top));
+		Assert.assertFalse(hierarchy.isSubclassOf(a, b));
+		Assert.assertFalse(hierarchy.isSubclassOf(a, d));
+		Assert.assertTrue(hierarchy.isParentOf(c, e2));
+		Assert.assertFalse(hierarchy.isSubclassOf(cls("Unknown"), top));
+	}
+
+	@Test
+	public void testViews() {
+		SortedSet<OWLClassExpression> view = hierarchy.getChildrenView(a, false);
+		Assert.assertSame(view, hierarchy.getChildrenView(a, false));
+		try {
+			view.add(top);
+			Assert.fail("view must be unmodifiable");
+		} catch (UnsupportedOperationException expected) {
+			// expected
+		}
+
+		// copies can still be modified
+		SortedSet<OWLClassExpression> copy = hierarchy.getSubClasses(a, false);
+		copy.clear();
+		Assert.assertEquals(5, hierarchy.getSubClasses(a, false).size());
+
+		// the class views agree with the copying methods
+		Assert.assertEquals(hierarchy.getSubClasses(top, true), hierarchy.getSubClassesView(top, true));
+		Assert.assertEquals(hierarchy.getSuperClasses(e, false), hierarchy.getSuperClassesView(e, false));
+		Assert.assertTrue(hierarchy.getSubClassesView(bottom, true).isEmpty());
+		Assert.assertTrue(hierarchy.getSuperClassesView(top, false).isEmpty());
+	}
+
+	@Test
+	public void testViewsDoNotModifyHierarchy() {
+		// a reflexive entry as returned by some reasoners
+		hierarchy.getHierarchyDown().get(a).add(a);
+		hierarchy.getHierarchyUp().get(a).add(a);
+
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(c)), hierarchy.getSubClassesView(a, true));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(top)), hierarchy.getSuperClassesView(a, true));
+
+		// the sets of the hierarchy are shared, thus, must not be changed by a query
+		Assert.assertTrue(hierarchy.getHierarchyDown().get(a).contains(a));
+		Assert.assertTrue(hierarchy.getHierarchyUp().get(a).contains(a));
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.delay.core.QueryExecutionFactoryDelay;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.ResultSetRewindable;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
+import org.dllearner.kb.SparqlEndpointKS;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for the asynchronous and rate limited execution of SPARQL queries.
+ */
+public class AsyncQueryExecutorTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private Model createModel() {
+		Model model = ModelFactory.createDefaultModel();
+		Resource cls = model.createResource(NS + "A");
+		for (int i = 0; i < 10; i++) {
+			model.createResource(NS + "i" + i).addProperty(RDF.type, cls);
+		}
+		return model;
+	}
+
+	private QueryExecutionFactory createQef() {
+		return new QueryExecutionFactoryModel(createModel());
+	}
+
+	@Test
+	public void testAsyncQueries() throws Exception {
+		AsyncQueryExecutor executor = new AsyncQueryExecutor(createQef(), 3);
+
+		List<CompletableFuture<ResultSetRewindable>> futures = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(executor.select("SELECT ?s WHERE {?s a <" + NS + "A>}"));
+		}
+		for (CompletableFuture<ResultSetRewindable> future : futures) {
+			Assert.assertEquals(10, future.get().size());
+		}
+
+		Assert.assertTrue(executor.ask("ASK {<" + NS + "i1> a <" + NS + "A>}").get());
+		Assert.assertEquals(10, executor.construct("CONSTRUCT WHERE {?s a ?o}").get().size());
+		executor.shutdown();
+	}
+
+	@Test
+	public void testTokenBucket() throws Exception {
+		// 20 queries per second, i.e. 40 queries need at least ~1s after the initial burst
+		QueryExecutionFactory qef = new QueryExecutionFactoryDelay(createQef(), new TokenBucketDelayer(20));
+		AsyncQueryExecutor executor = new AsyncQueryExecutor(qef, 8);
+
+		long start = System.currentTimeMillis();
+		List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+		for (int i = 0; i < 40; i++) {
+			futures.add(executor.ask("ASK {?s ?p ?o}"));
+		}
+		for (CompletableFuture<Boolean> future : futures) {
+			Assert.assertTrue(future.get());
+		}
+		long duration = System.currentTimeMillis() - start;
+		Assert.assertTrue("rate limit not applied: " + duration + "ms", duration >= 900);
+		executor.shutdown();
+	}
+
+	@Test
+	public void testCloseKnowledgeSource() throws Exception {
+		SparqlEndpointKS ks = new LocalModelBasedSparqlEndpointKS(createModel());
+		ks.init();
+
+		AsyncQueryExecutor executor = ks.getAsyncQueryExecutor();
+		Assert.assertTrue(ks.askAsync("ASK {?s ?p ?o}").get());
+		ks.close();
+		try {
+			executor.ask("ASK {?s ?p ?o}");
+			Assert.fail("the thread pool has not been shut down");
+		} catch (RejectedExecutionException e) {
+			// expected
+		}
+
+		// a new pool is created on demand
+		Assert.assertNotSame(executor, ks.getAsyncQueryExecutor());
+		Assert.assertTrue(ks.askAsync("ASK {?s ?p ?o}").get());
+		ks.close();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidMaxConcurrentQueries() {
+		new SparqlEndpointKS(createQef()).setMaxConcurrentQueries(0);
+	}
+}
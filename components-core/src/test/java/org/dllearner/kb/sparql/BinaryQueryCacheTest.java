@@ -0,0 +1,174 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.kb.sparql;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.sparql.core.Var;
+import org.apache.jena.sparql.engine.binding.Binding;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the binary SPARQL query cache.
+ */
+public class BinaryQueryCacheTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private File dir;
+	private Model model;
+	private BinaryQueryCache cache;
+	private QueryExecutionFactory qef;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("sparql-cache").toFile();
+		model = ModelFactory.createDefaultModel();
+		Resource cls = model.createResource(NS + "A");
+		for (int i = 0; i < 10; i++) {
+			model.createResource(NS + "i" + i)
+					.addProperty(RDF.type, cls)
+					.addProperty(RDFS.label, "individual " + i, "en")
+					.addLiteral(RDFS.comment, i);
+		}
+		model.createResource().addProperty(RDF.type, cls);
+		cache = new BinaryQueryCache(dir, 0);
+		qef = new QueryExecutionFactoryBinaryCache(new QueryExecutionFactoryModel(model), cache);
+	}
+
+	@After
+	public void tearDown() {
+		cache.clear();
+		dir.delete();
+	}
+
+	private int count(String query) {
+		int cnt = 0;
+		try (QueryExecution qe = qef.createQueryExecution(query)) {
+			ResultSet rs = qe.execSelect();
+			while (rs.hasNext()) {
+				rs.next();
+				cnt++;
+			}
+		}
+		return cnt;
+	}
+
+	@Test
+	public void testSelect() {
+		String query = "SELECT ?s ?label ?c WHERE {?s a <" + NS + "A> OPTIONAL {?s <" + RDFS.label + "> ?label ; <" + RDFS.comment + "> ?c}}";
+		Assert.assertEquals(11, count(query));
+		Assert.assertEquals(0, cache.getHits());
+
+		// changes of the data are not visible as long as the cached result is valid
+		model.removeAll();
+		Assert.assertEquals(11, count(query));
+		// formatting does not matter
+		Assert.assertEquals(11, count(query.replace(" ", "  ")));
+		Assert.assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void testTerms() {
+		// URIs, blank nodes, language tagged and typed literals
+		String query = "SELECT ?s ?p ?o WHERE {?s ?p ?o}";
+		Set<Triple> expected = model.getGraph().find(Node.ANY, Node.ANY, Node.ANY).toSet();
+		for (int i = 0; i < 2; i++) {
+			Set<Triple> actual = new HashSet<>();
+			try (QueryExecution qe = qef.createQueryExecution(query)) {
+				ResultSet rs = qe.execSelect();
+				while (rs.hasNext()) {
+					Binding binding = rs.nextBinding();
+					actual.add(Triple.create(binding.get(Var.alloc("s")), binding.get(Var.alloc("p")), binding.get(Var.alloc("o"))));
+				}
+			}
+			Assert.assertEquals(expected, actual);
+		}
+		Assert.assertEquals(1, cache.getHits());
+	}
+
+	@Test
+	public void testAskAndConstruct() {
+		String ask = "ASK {<" + NS + "i1> a <" + NS + "A>}";
+		String construct = "CONSTRUCT WHERE {?s a ?o}";
+		try (QueryExecution qe = qef.createQueryExecution(ask)) {
+			Assert.assertTrue(qe.execAsk());
+		}
+		try (QueryExecution qe = qef.createQueryExecution(construct)) {
+			Assert.assertEquals(11, qe.execConstruct().size());
+		}
+		model.removeAll();
+		try (QueryExecution qe = qef.createQueryExecution(ask)) {
+			Assert.assertTrue(qe.execAsk());
+		}
+		try (QueryExecution qe = qef.createQueryExecution(construct)) {
+			Assert.assertEquals(11, qe.execConstruct().size());
+		}
+		Assert.assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void testTruncatedHeader() throws Exception {
+		String query = "SELECT ?s WHERE {?s a <" + NS + "A>}";
+		byte[] data = BinaryResultCodec.encodeAsk(query, true, 0);
+		Assert.assertNotNull(BinaryResultCodec.readHeader(ByteBuffer.wrap(data)));
+		int headerLength = 4 + 2 + 1 + 8 + 4 + query.length();
+		for (int length = 0; length < headerLength; length++) {
+			Assert.assertNull(BinaryResultCodec.readHeader(ByteBuffer.wrap(Arrays.copyOf(data, length))));
+		}
+
+		// a truncated file is a miss
+		Assert.assertEquals(11, count(query));
+		File[] files = dir.listFiles();
+		Assert.assertEquals(1, files.length);
+		Files.write(files[0].toPath(), Arrays.copyOf(Files.readAllBytes(files[0].toPath()), 12));
+		Assert.assertEquals(11, count(query));
+		Assert.assertEquals(0, cache.getHits());
+	}
+
+	@Test
+	public void testExpiration() throws Exception {
+		cache = new BinaryQueryCache(dir, 1);
+		qef = new QueryExecutionFactoryBinaryCache(new QueryExecutionFactoryModel(model), cache);
+		String query = "SELECT ?s WHERE {?s a <" + NS + "A>}";
+		Assert.assertEquals(11, count(query));
+		Thread.sleep(10);
+		model.removeAll();
+		Assert.assertEquals(0, count(query));
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.learningproblems;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.dllearner.utilities.datastructures.SortedSetTuple;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+import com.google.common.collect.Sets;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the inference of example coverage from cached operand coverages.
+ */
+public class EvaluationCacheTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+	private final OWLClass c = df.getOWLClass(IRI.create(NS + "C"));
+
+	private List<OWLIndividual> ind;
+
+	@Before
+	public void setUp() {
+		ind = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			ind.add(df.getOWLNamedIndividual(IRI.create(NS + "i" + i)));
+		}
+	}
+
+	private Set<OWLIndividual> inds(int... indexes) {
+		Set<OWLIndividual> set = Sets.newTreeSet();
+		for (int i : indexes) {
+			set.add(ind.get(i));
+		}
+		return set;
+	}
+
+	private EvaluationCache newCache(boolean closedWorld) {
+		EvaluationCache cache = new EvaluationCache(ind, 100, closedWorld);
+		// A = {0,1,2}, B = {1,2,3}
+		cache.put(a, inds(0, 1, 2), inds(3, 4, 5));
+		cache.put(b, inds(1, 2, 3), inds(0, 4, 5));
+		return cache;
+	}
+
+	@Test
+	public void testConjunction() {
+		EvaluationCache cache = newCache(false);
+		SortedSetTuple<OWLIndividual> t = cache.infer(df.getOWLObjectIntersectionOf(a, b));
+		Assert.assertEquals(inds(1, 2), t.getPosSet());
+		Assert.assertEquals(inds(0, 3, 4, 5), t.getNegSet());
+		Assert.assertEquals(1, cache.getHits());
+
+		// nothing is known about C, but the non-instances of A are non-instances of the conjunction
+		t = cache.infer(df.getOWLObjectIntersectionOf(a, c));
+		Assert.assertTrue(t.getPosSet().isEmpty());
+		Assert.assertEquals(inds(3, 4, 5), t.getNegSet());
+		Assert.assertEquals(1, cache.getPartialHits());
+	}
+
+	@Test
+	public void testDisjunction() {
+		SortedSetTuple<OWLIndividual> t = newCache(false).infer(df.getOWLObjectUnionOf(a, b));
+		Assert.assertEquals(inds(0, 1, 2, 3), t.getPosSet());
+		Assert.assertTrue(t.getNegSet().isEmpty());
+
+		t = newCache(true).infer(df.getOWLObjectUnionOf(a, b));
+		Assert.assertEquals(inds(0, 1, 2, 3), t.getPosSet());
+		Assert.assertEquals(inds(4, 5), t.getNegSet());
+	}
+
+	@Test
+	public void testNegation() {
+		SortedSetTuple<OWLIndividual> t = newCache(false).infer(df.getOWLObjectComplementOf(a));
+		Assert.assertTrue(t.getPosSet().isEmpty());
+		Assert.assertEquals(inds(0, 1, 2), t.getNegSet());
+
+		t = newCache(true).infer(df.getOWLObjectComplementOf(a));
+		Assert.assertEquals(inds(3, 4, 5), t.getPosSet());
+		Assert.assertEquals(inds(0, 1, 2), t.getNegSet());
+	}
+
+	@Test
+	public void testNestedAndPartialCoverage() {
+		EvaluationCache cache = newCache(false);
+		// only a part of the examples has been evaluated for C
+		cache.put(c, inds(0, 2), inds(1));
+		SortedSetTuple<OWLIndividual> t = cache.infer(
+				df.getOWLObjectIntersectionOf(c, df.getOWLObjectUnionOf(a, b)));
+		Assert.assertEquals(inds(0, 2), t.getPosSet());
+		Assert.assertEquals(inds(1), t.getNegSet());
+
+		Assert.assertEquals(0, cache.infer(df.getOWLClass(IRI.create(NS + "D"))).getCompleteSet().size());
+		Assert.assertEquals(1, cache.getMisses());
+	}
+
+	@Test
+	public void testSizeBound() {
+		EvaluationCache cache = new EvaluationCache(ind, 1, false);
+		cache.put(a, inds(0), inds(1));
+		cache.put(b, inds(0), inds(1));
+		Assert.assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void testConcurrentPuts() throws Exception {
+		EvaluationCache cache = new EvaluationCache(ind, 100, false);
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		for (int i = 0; i < ind.size(); i++) {
+			int k = i;
+			pool.submit(() -> cache.put(a, inds(k), inds()));
+		}
+		pool.shutdown();
+		Assert.assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		Assert.assertEquals(inds(0, 1, 2, 3, 4, 5), cache.infer(a).getPosSet());
+	}
+}
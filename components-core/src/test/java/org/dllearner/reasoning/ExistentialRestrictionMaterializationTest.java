@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+public class ExistentialRestrictionMaterializationTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+	private final OWLDataFactory df = man.getOWLDataFactory();
+
+	private OWLClass cls(String name) {
+		return df.getOWLClass(IRI.create(NS + name));
+	}
+
+	private void subClassOf(OWLOntology ontology, OWLClassExpression sub, OWLClassExpression sup) {
+		man.addAxiom(ontology, df.getOWLSubClassOfAxiom(sub, sup));
+	}
+
+	@Test
+	public void testCycle() throws Exception {
+		OWLOntology ontology = man.createOntology();
+		OWLClass a = cls("A");
+		OWLClass b = cls("B");
+		OWLClassExpression some = df.getOWLObjectSomeValuesFrom(df.getOWLObjectProperty(IRI.create(NS + "r")), cls("C"));
+		subClassOf(ontology, a, b);
+		subClassOf(ontology, b, a);
+		subClassOf(ontology, a, some);
+
+		// the super classes of B computed on the cycle while materializing A must not be reused
+		ExistentialRestrictionMaterialization mat = new ExistentialRestrictionMaterialization(ontology);
+		assertEquals(Collections.singleton(some), mat.materialize(a));
+		assertEquals(Collections.singleton(some), mat.materialize(b));
+
+		mat = new ExistentialRestrictionMaterialization(ontology);
+		assertEquals(Collections.singleton(some), mat.materialize(b));
+		assertEquals(Collections.singleton(some), mat.materialize(a));
+	}
+
+	@Test
+	public void testParallel() throws Exception {
+		OWLOntology ontology = man.createOntology();
+		OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "r"));
+		List<OWLClass> classes = new ArrayList<>();
+		for (int i = 0; i < 30; i++) {
+			classes.add(cls("C" + i));
+		}
+		// a random hierarchy with cycles and existential restrictions
+		Random rnd = new Random(123);
+		for (OWLClass sub : classes) {
+			for (int i = 0; i < 1; i++) {
+				subClassOf(ontology, sub, classes.get(rnd.nextInt(classes.size())));
+			}
+			if (rnd.nextInt(3) == 0) {
+				subClassOf(ontology, sub, df.getOWLObjectSomeValuesFrom(r, classes.get(rnd.nextInt(classes.size()))));
+			}
+		}
+
+		for (int run = 0; run < 5; run++) {
+			Map<OWLClass, Set<OWLClassExpression>> materialized =
+					new ExistentialRestrictionMaterialization(ontology).materialize(classes);
+			for (OWLClass cls : classes) {
+				// each class computed without any shared state
+				Set<OWLClassExpression> expected = new ExistentialRestrictionMaterialization(ontology).materialize(cls);
+				assertEquals(cls.toString(), expected, materialized.get(cls));
+			}
+		}
+	}
+}
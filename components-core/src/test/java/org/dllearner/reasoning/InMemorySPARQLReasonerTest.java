@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.OWL2;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests that the index based {@link InMemorySPARQLReasoner} returns the same
+ * results as the SPARQL based {@link SPARQLReasoner}.
+ */
+public class InMemorySPARQLReasonerTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+	private final OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "r"));
+	private final OWLDataProperty d = df.getOWLDataProperty(IRI.create(NS + "d"));
+
+	private Model model;
+	private SPARQLReasoner sparqlReasoner;
+	private InMemorySPARQLReasoner reasoner;
+
+	@Before
+	public void setUp() throws Exception {
+		model = ModelFactory.createDefaultModel();
+		Resource clsA = model.createResource(NS + "A");
+		Resource clsB = model.createResource(NS + "B");
+		Property prop = model.createProperty(NS + "r");
+		Property dataProp = model.createProperty(NS + "d");
+
+		for (int i = 0; i < 50; i++) {
+			Resource ind = model.createResource(NS + "i" + i);
+			ind.addProperty(RDF.type, OWL2.NamedIndividual);
+			if (i % 2 == 0) {
+				ind.addProperty(RDF.type, clsA);
+			}
+			if (i % 3 == 0) {
+				ind.addProperty(RDF.type, clsB);
+				ind.addProperty(prop, model.createResource(NS + "i" + (i + 1)));
+				ind.addProperty(prop, model.createResource());
+			}
+			ind.addLiteral(dataProp, i);
+		}
+		// blank nodes are not returned as individuals
+		model.createResource().addProperty(RDF.type, clsA);
+
+		sparqlReasoner = new SPARQLReasoner(model);
+		sparqlReasoner.init();
+		reasoner = new InMemorySPARQLReasoner(model);
+		reasoner.init();
+	}
+
+	@Test
+	public void testIndividuals() {
+		Assert.assertEquals(sparqlReasoner.getIndividuals(), reasoner.getIndividuals());
+		Assert.assertEquals(sparqlReasoner.getIndividuals(a), reasoner.getIndividuals(a));
+		Assert.assertEquals(sparqlReasoner.getIndividuals(b), reasoner.getIndividuals(b));
+		Assert.assertEquals(25, reasoner.getIndividuals(a).size());
+
+		Set<OWLIndividual> candidates = new TreeSet<>();
+		for (int i = 0; i < 10; i++) {
+			candidates.add(df.getOWLNamedIndividual(IRI.create(NS + "i" + i)));
+		}
+		Assert.assertEquals(sparqlReasoner.hasType(b, candidates), reasoner.hasType(b, candidates));
+		Assert.assertEquals(sparqlReasoner.getIndividualsCount(a, candidates), reasoner.getIndividualsCount(a, candidates));
+
+		OWLIndividual ind = df.getOWLNamedIndividual(IRI.create(NS + "i6"));
+		Assert.assertTrue(reasoner.hasType(a, ind));
+		Assert.assertTrue(reasoner.hasType(b, ind));
+		Assert.assertFalse(reasoner.hasType(a, df.getOWLNamedIndividual(IRI.create(NS + "i3"))));
+
+		// complex class expressions are delegated to SPARQL
+		Assert.assertEquals(sparqlReasoner.getIndividuals(df.getOWLObjectIntersectionOf(a, b)),
+				reasoner.getIndividuals(df.getOWLObjectIntersectionOf(a, b)));
+	}
+
+	@Test
+	public void testPopularity() {
+		Assert.assertEquals(sparqlReasoner.getPopularity(a), reasoner.getPopularity(a));
+		Assert.assertEquals(sparqlReasoner.getPopularity(r), reasoner.getPopularity(r));
+		Assert.assertEquals(sparqlReasoner.getPopularity(d), reasoner.getPopularity(d));
+		OWLIndividual ind = df.getOWLNamedIndividual(IRI.create(NS + "i6"));
+		Assert.assertEquals(sparqlReasoner.getPopularity(ind.asOWLNamedIndividual()), reasoner.getPopularity(ind.asOWLNamedIndividual()));
+		Assert.assertEquals(sparqlReasoner.getPopularityOf(b), reasoner.getPopularityOf(b));
+		Assert.assertEquals(sparqlReasoner.getIndividualsCount(a), reasoner.getIndividualsCount(a));
+		Assert.assertEquals(sparqlReasoner.getPropertyCount(r), reasoner.getPropertyCount(r));
+	}
+
+	@Test
+	public void testPropertyMembers() {
+		Assert.assertEquals(sparqlReasoner.getPropertyMembers(r), reasoner.getPropertyMembers(r));
+		Assert.assertEquals(sparqlReasoner.getDatatypeMembers(d), reasoner.getDatatypeMembers(d));
+	}
+
+	@Test
+	public void testModelChanges() {
+		Assert.assertEquals(26, reasoner.getPopularity(a));
+		model.createResource(NS + "j").addProperty(RDF.type, model.createResource(NS + "A"));
+		Assert.assertEquals(27, reasoner.getPopularity(a));
+		Assert.assertEquals(sparqlReasoner.getIndividuals(a), reasoner.getIndividuals(a));
+	}
+}
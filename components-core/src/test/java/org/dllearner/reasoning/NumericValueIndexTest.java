@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.*;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the retrieval of individuals by value ranges.
+ */
+public class NumericValueIndexTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private OWLIndividual ind(int i) {
+		return df.getOWLNamedIndividual(IRI.create(NS + "ind" + i));
+	}
+
+	@Test
+	public void testRanges() {
+		Map<OWLIndividual, SortedSet<Double>> mapping = new HashMap<>();
+		mapping.put(ind(1), new TreeSet<>(Arrays.asList(1.0, 7.5)));
+		mapping.put(ind(2), new TreeSet<>(Collections.singletonList(5.3)));
+		mapping.put(ind(3), new TreeSet<>(Arrays.asList(-2.0, 5.3)));
+		mapping.put(ind(4), new TreeSet<>());
+
+		NumericValueIndex index = new NumericValueIndex(mapping);
+		Assert.assertEquals(5, index.size());
+
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(ind(1), ind(2), ind(3))),
+				index.getIndividuals(5.3, Double.MAX_VALUE));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(ind(2), ind(3))), index.getIndividuals(5.3, 5.3));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(ind(1), ind(3))), index.getIndividuals(-Double.MAX_VALUE, 1.0));
+		Assert.assertTrue(index.getIndividuals(7.6, 100).isEmpty());
+		Assert.assertTrue(index.getIndividuals(2, 1).isEmpty());
+		Assert.assertTrue(new NumericValueIndex(null).getIndividuals(0, 1).isEmpty());
+	}
+
+	@Test
+	public void testSpecialValues() {
+		Map<OWLIndividual, SortedSet<Double>> mapping = new HashMap<>();
+		mapping.put(ind(1), new TreeSet<>(Arrays.asList(-0.0, 3.0)));
+		mapping.put(ind(2), new TreeSet<>(Arrays.asList(0.0, Double.NaN)));
+		mapping.put(ind(3), new TreeSet<>(Arrays.asList(3.0, Double.NEGATIVE_INFINITY)));
+
+		NumericValueIndex index = new NumericValueIndex(mapping);
+		// NaN is not indexed, -0.0 and 0.0 are distinct but equal in a range
+		Assert.assertEquals(5, index.size());
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(ind(1), ind(2))), index.getIndividuals(0, 0));
+		Assert.assertEquals(new TreeSet<>(Arrays.asList(ind(1), ind(3))), index.getIndividuals(3, 3));
+		Assert.assertEquals(new TreeSet<>(Collections.singletonList(ind(3))),
+				index.getIndividuals(Double.NEGATIVE_INFINITY, -1));
+	}
+
+	@Test
+	public void testAgainstScan() {
+		Random rnd = new Random(42);
+		Map<OWLIndividual, SortedSet<Integer>> mapping = new HashMap<>();
+		for (int i = 0; i < 200; i++) {
+			SortedSet<Integer> values = new TreeSet<>();
+			for (int j = rnd.nextInt(4); j > 0; j--) {
+				values.add(rnd.nextInt(100) - 50);
+			}
+			mapping.put(ind(i), values);
+		}
+		NumericValueIndex index = new NumericValueIndex(mapping);
+
+		for (int k = 0; k < 100; k++) {
+			int min = rnd.nextInt(120) - 60;
+			int max = min + rnd.nextInt(40);
+
+			SortedSet<OWLIndividual> expected = new TreeSet<>();
+			for (Map.Entry<OWLIndividual, SortedSet<Integer>> entry : mapping.entrySet()) {
+				for (Integer value : entry.getValue()) {
+					if (value >= min && value <= max) {
+						expected.add(entry.getKey());
+						break;
+					}
+				}
+			}
+			Assert.assertEquals(expected, index.getIndividuals(min, max));
+		}
+	}
+}
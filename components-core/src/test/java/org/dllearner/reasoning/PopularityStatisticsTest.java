@@ -0,0 +1,162 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.io.File;
+import java.util.Map;
+
+import org.aksw.jena_sparql_api.core.QueryExecutionFactory;
+import org.aksw.jena_sparql_api.core.QueryExecutionFactoryDecorator;
+import org.aksw.jena_sparql_api.model.QueryExecutionFactoryModel;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.OWL;
+import org.apache.jena.vocabulary.RDF;
+import org.dllearner.reasoning.SPARQLReasoner.PopularityType;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the computation and persistence of popularity statistics.
+ */
+public class PopularityStatisticsTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private Model model;
+
+	@Before
+	public void setUp() {
+		model = ModelFactory.createDefaultModel();
+		for (int c = 0; c < 30; c++) {
+			Resource cls = model.createResource(NS + "C" + c, OWL.Class);
+			for (int i = 0; i <= c; i++) {
+				model.createResource(NS + "i" + i).addProperty(RDF.type, cls);
+			}
+		}
+		Property p = model.createProperty(NS + "p");
+		p.addProperty(RDF.type, OWL.ObjectProperty);
+		for (int i = 0; i < 7; i++) {
+			model.createResource(NS + "i" + i).addProperty(p, model.createResource(NS + "i" + (i + 1)));
+		}
+	}
+
+	private void assertCounts(Map<String, Integer> counts) {
+		Assert.assertEquals(30, counts.size());
+		for (int c = 0; c < 30; c++) {
+			Assert.assertEquals(Integer.valueOf(c + 1), counts.get(NS + "C" + c));
+		}
+	}
+
+	@Test
+	public void testPagedGroupBy() {
+		PopularityStatistics statistics = new PopularityStatistics(new QueryExecutionFactoryModel(model));
+		statistics.setPageSize(7);
+		assertCounts(statistics.compute(PopularityType.CLASS));
+		Assert.assertTrue(statistics.isComplete(PopularityType.CLASS));
+		Assert.assertEquals(Integer.valueOf(7), statistics.compute(PopularityType.OBJECT_PROPERTY).get(NS + "p"));
+		Assert.assertTrue(statistics.compute(PopularityType.DATA_PROPERTY).isEmpty());
+	}
+
+	@Test
+	public void testPartitions() {
+		// an endpoint which fails to answer queries over all entities at once
+		QueryExecutionFactory qef = new QueryExecutionFactoryDecorator(new QueryExecutionFactoryModel(model)) {
+			@Override
+			public QueryExecution createQueryExecution(String queryString) {
+				if (!queryString.contains("MD5")) {
+					throw new RuntimeException("timeout");
+				}
+				return super.createQueryExecution(queryString);
+			}
+		};
+		PopularityStatistics statistics = new PopularityStatistics(qef);
+		statistics.setNrOfThreads(3);
+		assertCounts(statistics.compute(PopularityType.CLASS));
+	}
+
+	@Test
+	public void testPersistence() throws Exception {
+		File file = File.createTempFile("popularity", ".tsv");
+		file.deleteOnExit();
+
+		PopularityStatistics statistics = new PopularityStatistics(new QueryExecutionFactoryModel(model));
+		statistics.compute(PopularityType.CLASS);
+		statistics.put(PopularityType.DATA_PROPERTY, NS + "d", 42);
+		statistics.save(file);
+
+		// nothing has to be computed again
+		PopularityStatistics loaded = new PopularityStatistics(new QueryExecutionFactoryModel(ModelFactory.createDefaultModel()));
+		loaded.load(file);
+		Assert.assertTrue(loaded.isComplete(PopularityType.CLASS));
+		Assert.assertFalse(loaded.isComplete(PopularityType.DATA_PROPERTY));
+		assertCounts(loaded.compute(PopularityType.CLASS));
+		Assert.assertEquals(Integer.valueOf(42), loaded.get(PopularityType.DATA_PROPERTY, NS + "d"));
+
+		loaded.invalidate(PopularityType.CLASS);
+		Assert.assertTrue(loaded.compute(PopularityType.CLASS).isEmpty());
+	}
+
+	@Test
+	public void testOtherEndpoint() throws Exception {
+		File file = File.createTempFile("popularity", ".tsv");
+		file.deleteOnExit();
+
+		PopularityStatistics statistics = new PopularityStatistics(new QueryExecutionFactoryModel(model));
+		statistics.compute(PopularityType.CLASS);
+		statistics.save(file);
+
+		// the statistics of another endpoint are ignored
+		QueryExecutionFactory qef = new QueryExecutionFactoryDecorator(new QueryExecutionFactoryModel(model)) {
+			@Override
+			public String getId() {
+				return "http://dl-learner.org/sparql";
+			}
+		};
+		PopularityStatistics other = new PopularityStatistics(qef);
+		Assert.assertFalse(other.load(file));
+		Assert.assertFalse(other.isComplete(PopularityType.CLASS));
+		Assert.assertNull(other.get(PopularityType.CLASS, NS + "C0"));
+	}
+
+	@Test
+	public void testSaveOnRelease() throws Exception {
+		File file = File.createTempFile("popularity", ".tsv");
+		file.delete();
+		file.deleteOnExit();
+
+		SPARQLReasoner reasoner = new SPARQLReasoner(model);
+		reasoner.setPopularityStatisticsFile(file.getPath());
+		reasoner.init();
+		Assert.assertEquals(3, reasoner.getPopularity(new OWLDataFactoryImpl().getOWLClass(IRI.create(NS + "C2"))));
+		Assert.assertFalse(file.exists());
+		reasoner.releaseKB();
+
+		PopularityStatistics loaded = new PopularityStatistics(new QueryExecutionFactoryModel(model));
+		Assert.assertTrue(loaded.load(file));
+		Assert.assertEquals(Integer.valueOf(3), loaded.get(PopularityType.CLASS, NS + "C2"));
+	}
+}
@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.reasoning;
+
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import com.google.common.collect.Sets;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the chunked and cached instance retrieval of the SPARQL reasoner.
+ */
+public class SPARQLRetrievalEngineTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+	private final OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "r"));
+
+	private SPARQLReasoner reasoner;
+	private Set<OWLIndividual> examples;
+
+	@Before
+	public void setUp() throws Exception {
+		Model model = ModelFactory.createDefaultModel();
+		Resource clsA = model.createResource(NS + "A");
+		Resource clsB = model.createResource(NS + "B");
+		Property prop = model.createProperty(NS + "r");
+
+		examples = new TreeSet<>();
+		for (int i = 0; i < 100; i++) {
+			Resource ind = model.createResource(NS + "i" + i);
+			if (i % 2 == 0) {
+				ind.addProperty(RDF.type, clsA);
+			}
+			if (i % 3 == 0) {
+				Resource filler = model.createResource(NS + "f" + i);
+				filler.addProperty(RDF.type, i % 5 == 0 ? clsB : clsA);
+				ind.addProperty(prop, filler);
+			}
+			// only a subset of the individuals are examples
+			if (i % 4 != 1) {
+				examples.add(df.getOWLNamedIndividual(IRI.create(ind.getURI())));
+			}
+		}
+
+		reasoner = new SPARQLReasoner(model);
+		reasoner.setUseValueLists(true);
+		// force multiple chunks executed in parallel
+		reasoner.setValuesChunkSize(7);
+		reasoner.setNrOfRetrievalThreads(3);
+		reasoner.init();
+	}
+
+	private SortedSet<OWLIndividual> expected(OWLClassExpression ce) {
+		return new TreeSet<>(Sets.intersection(reasoner.getIndividuals(ce, 0), examples));
+	}
+
+	@Test
+	public void testRetrievalMatchesUnrestrictedQuery() {
+		OWLClassExpression someB = df.getOWLObjectSomeValuesFrom(r, b);
+		OWLClassExpression[] expressions = {
+				a,
+				someB,
+				df.getOWLObjectIntersectionOf(a, someB),
+				df.getOWLObjectIntersectionOf(a, df.getOWLObjectSomeValuesFrom(r, a)),
+				df.getOWLObjectUnionOf(b, someB),
+				df.getOWLObjectIntersectionOf(a, df.getOWLObjectIntersectionOf(a, someB))
+		};
+		for (OWLClassExpression ce : expressions) {
+			SortedSet<OWLIndividual> expected = expected(ce);
+			Assert.assertEquals(ce.toString(), expected, reasoner.getIndividuals(ce, examples));
+			Assert.assertEquals(ce.toString(), expected.size(), reasoner.getIndividualsCount(ce, examples));
+			// second time from cache
+			Assert.assertEquals(ce.toString(), expected, reasoner.getIndividuals(ce, examples));
+		}
+	}
+
+	@Test
+	public void testCountWithoutCache() {
+		OWLClassExpression ce = df.getOWLObjectIntersectionOf(a, df.getOWLObjectSomeValuesFrom(r, a));
+		int expected = expected(ce).size();
+		reasoner.getRetrievalEngine().clearCache();
+		Assert.assertEquals(expected, reasoner.getIndividualsCount(ce, examples));
+	}
+
+	@Test
+	public void testCachedOperandsAreReused() {
+		SPARQLRetrievalEngine engine = reasoner.getRetrievalEngine();
+		OWLClassExpression someB = df.getOWLObjectSomeValuesFrom(r, b);
+
+		reasoner.getIndividuals(a, examples);
+		reasoner.getIndividuals(someB, examples);
+		long queries = engine.getNrOfQueries();
+
+		// both operands are cached, thus no query is needed for the conjunction
+		Assert.assertEquals(expected(df.getOWLObjectIntersectionOf(a, someB)),
+				reasoner.getIndividuals(df.getOWLObjectIntersectionOf(someB, a), examples));
+		Assert.assertEquals(queries, engine.getNrOfQueries());
+		Assert.assertTrue(engine.getCacheHits() >= 2);
+	}
+}
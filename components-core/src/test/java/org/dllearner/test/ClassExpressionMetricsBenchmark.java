@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.dllearner.algorithms.celoe.OENode;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.dllearner.test.junit.TestOntologies;
+import org.dllearner.test.junit.TestOntologies.TestOntology;
+import org.dllearner.utilities.owl.OWLClassExpressionLengthCalculator;
+import org.dllearner.utilities.owl.OWLClassExpressionUtils;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.util.MaximumModalDepthFinder;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Microbenchmark of the refinement and node creation loop of CELOE, comparing
+ * the former computation of the structural metrics of class expressions (a new
+ * length calculator per call, depth computation synchronized on a shared
+ * visitor) with the cached metrics of {@link OWLClassExpressionUtils}.
+ * <p>
+ * Usage: <code>ClassExpressionMetricsBenchmark [threads] [rounds]</code>
+ */
+public class ClassExpressionMetricsBenchmark {
+
+	private static final int MAX_LENGTH = 6;
+	private static final int MAX_DEPTH = 4;
+
+	private static final MaximumModalDepthFinder SHARED_DEPTH_FINDER = new MaximumModalDepthFinder();
+
+	// the former implementation of OWLClassExpressionUtils
+	private static int uncachedLength(OWLClassExpression ce) {
+		return new OWLClassExpressionLengthCalculator().getLength(ce);
+	}
+
+	private static int uncachedDepth(OWLClassExpression ce) {
+		synchronized (SHARED_DEPTH_FINDER) {
+			return ce.accept(SHARED_DEPTH_FINDER);
+		}
+	}
+
+	private static long run(RhoDRDown op, List<OWLClassExpression> seeds, boolean cached) {
+		long nodes = 0;
+		for (OWLClassExpression seed : seeds) {
+			Set<OWLClassExpression> refinements = op.refine(seed, MAX_LENGTH);
+			for (OWLClassExpression refinement : refinements) {
+				// same checks as in CELOE#computeNextRefinements and the OENode constructor
+				int length = cached ? OWLClassExpressionUtils.getLength(refinement) : uncachedLength(refinement);
+				int depth = cached ? OWLClassExpressionUtils.getDepth(refinement) : uncachedDepth(refinement);
+				if (length > 1 && depth <= MAX_DEPTH) {
+					if (cached) {
+						new OENode(refinement, 0);
+					} else {
+						uncachedLength(refinement);
+					}
+					nodes++;
+				}
+			}
+		}
+		return nodes;
+	}
+
+	private static long measure(RhoDRDown op, List<OWLClassExpression> seeds, boolean cached, int threads, int rounds) throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		List<Future<Long>> futures = new ArrayList<>();
+		for (int i = 0; i < rounds; i++) {
+			futures.add(pool.submit(() -> run(op, seeds, cached)));
+		}
+		for (Future<Long> future : futures) {
+			future.get();
+		}
+		long duration = System.nanoTime() - start;
+		pool.shutdown();
+		return duration;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+
+		AbstractReasonerComponent reasoner = TestOntologies.getTestOntology(TestOntology.CARCINOGENESIS);
+
+		RhoDRDown op = new RhoDRDown();
+		op.setReasoner(reasoner);
+		op.setSubHierarchy(reasoner.getClassHierarchy());
+		op.setObjectPropertyHierarchy(reasoner.getObjectPropertyHierarchy());
+		op.setDataPropertyHierarchy(reasoner.getDatatypePropertyHierarchy());
+		op.init();
+
+		// the refinements of the refinements of TOP are the seeds of each round
+		List<OWLClassExpression> seeds = new ArrayList<>();
+		for (OWLClassExpression ce : op.refine(new OWLDataFactoryImpl().getOWLThing(), 3)) {
+			seeds.add(ce);
+		}
+
+		// warm up
+		measure(op, seeds, false, threads, 5);
+		measure(op, seeds, true, threads, 5);
+
+		long before = measure(op, seeds, false, threads, rounds);
+		long after = measure(op, seeds, true, threads, rounds);
+
+		System.out.println(seeds.size() + " seeds, " + rounds + " rounds, " + threads + " threads");
+		System.out.printf("uncached metrics: %d ms%n", before / 1000000);
+		System.out.printf("cached metrics:   %d ms%n", after / 1000000);
+	}
+}
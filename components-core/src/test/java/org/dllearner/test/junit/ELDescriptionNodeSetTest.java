@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.test.junit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.dllearner.algorithms.el.ELDescriptionNode;
+import org.dllearner.algorithms.el.ELDescriptionNodeSet;
+import org.dllearner.algorithms.el.ELDescriptionTree;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.test.junit.TestOntologies.TestOntology;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLObjectPropertyImpl;
+
+/**
+ * Tests for the bit set based node sets of EL description trees, in
+ * particular for sets spanning several 64 bit words.
+ */
+public class ELDescriptionNodeSetTest {
+
+	private static final int NR_OF_NODES = 150;
+
+	private ELDescriptionTree tree;
+
+	@Before
+	public void setUp() {
+		AbstractReasonerComponent rs = TestOntologies.getTestOntology(TestOntology.EMPTY);
+		tree = new ELDescriptionTree(rs);
+		ELDescriptionNode root = new ELDescriptionNode(tree);
+		OWLObjectProperty p = new OWLObjectPropertyImpl(IRI.create("p"));
+		for (int i = 1; i < NR_OF_NODES; i++) {
+			new ELDescriptionNode(root, p);
+		}
+	}
+
+	private ELDescriptionNodeSet set(int... indexes) {
+		ELDescriptionNodeSet set = new ELDescriptionNodeSet(tree);
+		for (int index : indexes) {
+			set.add(tree.getNodeByIndex(index));
+		}
+		return set;
+	}
+
+	private Set<ELDescriptionNode> nodes(int... indexes) {
+		Set<ELDescriptionNode> nodes = new HashSet<>();
+		for (int index : indexes) {
+			nodes.add(tree.getNodeByIndex(index));
+		}
+		return nodes;
+	}
+
+	@Test
+	public void testCopyOnWrite() {
+		ELDescriptionNodeSet original = set(1, 63, 64, 130);
+		ELDescriptionNodeSet copy = new ELDescriptionNodeSet(tree, original);
+		assertEquals(original, copy);
+
+		// modifying the copy does not change the original
+		copy.add(tree.getNodeByIndex(65));
+		copy.remove(tree.getNodeByIndex(63));
+		assertEquals(nodes(1, 63, 64, 130), original);
+		assertEquals(4, original.size());
+		assertEquals(nodes(1, 64, 65, 130), copy);
+
+		// and vice versa
+		ELDescriptionNodeSet copy2 = new ELDescriptionNodeSet(tree, original);
+		original.removeAll(set(1, 130));
+		original.addAll(set(149));
+		assertEquals(nodes(1, 63, 64, 130), copy2);
+		assertEquals(nodes(63, 64, 149), original);
+
+		// the bulk operations copy as well
+		ELDescriptionNodeSet copy3 = new ELDescriptionNodeSet(tree, copy2);
+		copy3.retainAll(set(64, 130));
+		assertEquals(nodes(1, 63, 64, 130), copy2);
+		assertEquals(nodes(64, 130), copy3);
+		copy3.clear();
+		assertTrue(copy3.isEmpty());
+		assertEquals(4, copy2.size());
+	}
+
+	@Test
+	public void testIterationAcrossWords() {
+		int[] indexes = {0, 1, 62, 63, 64, 65, 127, 128, 149};
+		ELDescriptionNodeSet set = set(indexes);
+		List<ELDescriptionNode> expected = new ArrayList<>();
+		for (int index : indexes) {
+			expected.add(tree.getNodeByIndex(index));
+		}
+		assertEquals(expected, new ArrayList<>(set));
+
+		// removing nodes while iterating
+		Iterator<ELDescriptionNode> it = set.iterator();
+		while (it.hasNext()) {
+			ELDescriptionNode node = it.next();
+			if (node == tree.getNodeByIndex(63) || node == tree.getNodeByIndex(64)) {
+				it.remove();
+			}
+		}
+		assertEquals(nodes(0, 1, 62, 65, 127, 128, 149), set);
+		assertEquals(7, set.size());
+		assertFalse(set.contains(tree.getNodeByIndex(64)));
+
+		// a set whose words are all empty apart from the last one
+		assertEquals(Arrays.asList(tree.getNodeByIndex(149)), new ArrayList<>(set(149)));
+		assertFalse(new ELDescriptionNodeSet(tree).iterator().hasNext());
+	}
+
+	@Test
+	public void testDifferenceUnion() {
+		Set<ELDescriptionNode> all = new HashSet<>();
+		Set<ELDescriptionNode> exclude = new HashSet<>();
+		Set<ELDescriptionNode> include = new HashSet<>();
+		ELDescriptionNodeSet allSet = new ELDescriptionNodeSet(tree);
+		ELDescriptionNodeSet excludeSet = new ELDescriptionNodeSet(tree);
+		ELDescriptionNodeSet includeSet = new ELDescriptionNodeSet(tree);
+		for (int i = 0; i < NR_OF_NODES; i++) {
+			ELDescriptionNode node = tree.getNodeByIndex(i);
+			// the sets span a different number of words
+			if (i % 3 == 0 && i < 100) {
+				all.add(node);
+				allSet.add(node);
+			}
+			if (i % 2 == 0) {
+				exclude.add(node);
+				excludeSet.add(node);
+			}
+			if (i % 7 == 0 && i > 60) {
+				include.add(node);
+				includeSet.add(node);
+			}
+		}
+
+		Set<ELDescriptionNode> expected = new HashSet<>(all);
+		expected.removeAll(exclude);
+		expected.addAll(include);
+
+		ELDescriptionNodeSet result = allSet.differenceUnion(excludeSet, includeSet);
+		assertEquals(expected, result);
+		assertEquals(expected.size(), result.size());
+		// the operands are not changed
+		assertEquals(all, allSet);
+		assertEquals(exclude, excludeSet);
+		assertEquals(include, includeSet);
+
+		// an empty set
+		assertEquals(include, new ELDescriptionNodeSet(tree).differenceUnion(excludeSet, includeSet));
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.dllearner.learningproblems.AccMethodFMeasure;
+import org.dllearner.learningproblems.EvaluationCache;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.dllearner.utilities.ReasoningUtils.CoverageCount;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLIndividual;
+
+import com.google.common.collect.Sets;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+/**
+ * Tests for the count-only and batch coverage computation.
+ */
+public class ReasoningUtilsTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+
+	private Model model;
+	private SPARQLReasoner reasoner;
+	private Set<OWLIndividual> pos;
+	private Set<OWLIndividual> neg;
+	private List<OWLClassExpression> concepts;
+
+	@Before
+	public void setUp() throws Exception {
+		model = ModelFactory.createDefaultModel();
+		Resource clsA = model.createResource(NS + "A");
+		Resource clsB = model.createResource(NS + "B");
+		pos = new TreeSet<>();
+		neg = new TreeSet<>();
+		for (int i = 0; i < 40; i++) {
+			Resource ind = model.createResource(NS + "i" + i);
+			if (i % 2 == 0) {
+				ind.addProperty(RDF.type, clsA);
+			}
+			if (i % 3 == 0) {
+				ind.addProperty(RDF.type, clsB);
+			}
+			(i < 20 ? pos : neg).add(df.getOWLNamedIndividual(IRI.create(ind.getURI())));
+		}
+		reasoner = new SPARQLReasoner(model);
+		reasoner.init();
+
+		concepts = Arrays.asList(a, b, df.getOWLObjectIntersectionOf(a, b), df.getOWLObjectUnionOf(a, b), a);
+	}
+
+	private void assertCounts(CoverageCount[] cc, OWLClassExpression concept) {
+		Set<OWLIndividual> instances = reasoner.getIndividuals(concept);
+		Assert.assertEquals(Sets.intersection(pos, instances).size(), cc[0].trueCount);
+		Assert.assertEquals(Sets.difference(pos, instances).size(), cc[0].falseCount);
+		Assert.assertEquals(Sets.intersection(neg, instances).size(), cc[1].trueCount);
+		Assert.assertEquals(Sets.difference(neg, instances).size(), cc[1].falseCount);
+	}
+
+	@Test
+	public void testCoverageCount() {
+		ReasoningUtils utils = new ReasoningUtils(reasoner);
+		List<CoverageCount[]> counts = utils.getCoverageCounts(concepts, pos, neg);
+		for (int i = 0; i < concepts.size(); i++) {
+			assertCounts(counts.get(i), concepts.get(i));
+		}
+	}
+
+	@Test
+	public void testCoverageCountOnExampleBits() throws Exception {
+		// an instance which is not an example
+		model.createResource(NS + "x").addProperty(RDF.type, model.createResource(NS + "A"));
+		SPARQLReasoner reasoner = new SPARQLReasoner(model);
+		reasoner.init();
+
+		for (boolean useInstanceChecks : new boolean[] {false, true}) {
+			reasoner.setUseInstanceChecks(useInstanceChecks);
+			ReasoningUtils utils = new ReasoningUtils(reasoner);
+			for (OWLClassExpression concept : concepts) {
+				assertCounts(utils.getCoverageCount(concept, pos, neg), concept);
+			}
+			// duplicates are counted once, also for collections seen before
+			List<OWLIndividual> posList = new ArrayList<>(pos);
+			posList.addAll(pos);
+			CoverageCount[] cc = utils.getCoverageCount(a, posList, neg);
+			Assert.assertEquals(20, cc[0].total);
+			Assert.assertEquals(10, cc[0].trueCount);
+			Assert.assertEquals(10, cc[1].trueCount);
+		}
+	}
+
+	@Test
+	public void testCachedCoverageCount() {
+		ReasoningUtils utils = new ReasoningUtils(reasoner);
+		EvaluationCache cache = new EvaluationCache(Sets.union(pos, neg), 100, true);
+		utils.setEvaluationCache(cache);
+
+		List<CoverageCount[]> counts = utils.getCoverageCounts(concepts, pos, neg);
+		for (int i = 0; i < concepts.size(); i++) {
+			assertCounts(counts.get(i), concepts.get(i));
+		}
+		// the intersection, the union and the repeated concept are inferred under closed world semantics
+		Assert.assertEquals(3, cache.getHits());
+
+		// sets which contain other individuals than the examples of the cache
+		Set<OWLIndividual> other = new TreeSet<>(pos);
+		other.add(df.getOWLNamedIndividual(IRI.create(NS + "x")));
+		Assert.assertEquals(10, utils.getCoverageCount(a, other)[0].trueCount);
+	}
+
+	@Test
+	public void testCachedCoverageChecksUndeterminedExamples() throws Exception {
+		// fails if all instances of a concept are retrieved instead of checking the undetermined examples
+		SPARQLReasoner checkingReasoner = new SPARQLReasoner(model) {
+			@Override
+			public SortedSet<OWLIndividual> getIndividualsImpl(OWLClassExpression description) {
+				throw new AssertionError("instances of " + description + " retrieved");
+			}
+		};
+		checkingReasoner.init();
+		Assert.assertFalse(checkingReasoner.isUseInstanceChecks());
+
+		ReasoningUtils utils = new ReasoningUtils(checkingReasoner);
+		utils.setEvaluationCache(new EvaluationCache(Sets.union(pos, neg), 100, true));
+
+		ReasoningUtils.Coverage[] coverage = utils.getCoverage(a, pos, neg);
+		Assert.assertEquals(10, coverage[0].trueCount);
+		Assert.assertEquals(10, coverage[1].trueCount);
+		for (OWLClassExpression concept : concepts) {
+			assertCounts(utils.getCoverageCount(concept, pos, neg), concept);
+		}
+		// the bit sets of unchanged collections are reused
+		List<OWLIndividual> posList = new ArrayList<>(pos);
+		Assert.assertEquals(7, utils.getCoverageCount(b, posList)[0].trueCount);
+		Assert.assertEquals(7, utils.getCoverageCount(b, posList)[0].trueCount);
+	}
+
+	@Test
+	public void testBatchAccuracy() {
+		ReasoningUtils utils = new ReasoningUtils(reasoner);
+		AccMethodFMeasure acc = new AccMethodFMeasure(true);
+		double[] batch = utils.getAccuracyOrTooWeak2(acc, concepts, new ArrayList<>(pos), new ArrayList<>(neg), 1.0);
+		for (int i = 0; i < concepts.size(); i++) {
+			Assert.assertEquals(utils.getAccuracyOrTooWeak2(acc, concepts.get(i), pos, neg, 1.0), batch[i], 1e-9);
+		}
+	}
+}
@@ -2,13 +2,19 @@ package org.dllearner.utilities.owl;
 
 import com.clarkparsia.owlapiv3.XSD;
 import org.dllearner.core.StringRenderer;
+import org.junit.Assert;
 import org.junit.Test;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.vocab.OWLFacet;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 import uk.ac.manchester.cs.owl.owlapi.OWLDataPropertyImpl;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Test OWL Class Expresssions
@@ -64,4 +70,43 @@ public class OWLClassExpressionTest {
 			System.err.println("length of " + ce[i] + " is " + lengths[i]);
 		}
 	}
+
+	@Test
+	public void cachedMetrics() throws Exception {
+		OWLDataFactory df = new OWLDataFactoryImpl();
+		OWLObjectProperty op = df.getOWLObjectProperty(IRI.create("op1"));
+		OWLClass a = df.getOWLClass(IRI.create("A"));
+		OWLClass b = df.getOWLClass(IRI.create("B"));
+
+		// A AND EXISTS op1.(B AND FORALL op1.A)
+		OWLClassExpression ce = df.getOWLObjectIntersectionOf(a,
+				df.getOWLObjectSomeValuesFrom(op, df.getOWLObjectIntersectionOf(b, df.getOWLObjectAllValuesFrom(op, a))));
+
+		OWLClassExpressionLengthMetric metric = OWLClassExpressionLengthMetric.getOCELMetric();
+		int length = new OWLClassExpressionLengthCalculator().getLength(ce);
+		int ocelLength = new OWLClassExpressionLengthCalculator(metric).getLength(ce);
+
+		// the same expression is evaluated concurrently, and the results must
+		// not depend on which thread computed them first
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		List<Future<int[]>> futures = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			futures.add(pool.submit(() -> new int[]{
+					OWLClassExpressionUtils.getLength(ce),
+					OWLClassExpressionUtils.getLength(ce, metric),
+					OWLClassExpressionUtils.getDepth(ce),
+					OWLClassExpressionUtils.getArity(ce)}));
+		}
+		for (Future<int[]> future : futures) {
+			int[] metrics = future.get();
+			Assert.assertEquals(length, metrics[0]);
+			Assert.assertEquals(ocelLength, metrics[1]);
+			Assert.assertEquals(2, metrics[2]);
+			Assert.assertEquals(2, metrics[3]);
+		}
+		pool.shutdown();
+
+		Assert.assertEquals(0, OWLClassExpressionUtils.getDepth(a));
+		Assert.assertEquals(1, OWLClassExpressionUtils.getLength(a));
+	}
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.owl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.dllearner.core.owl.OWLObjectIntersectionOfImplExt;
+import org.dllearner.utilities.datastructures.LongHashSet;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import com.google.common.collect.Lists;
+
+import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
+
+public class RedundancyIndexTest {
+
+	private static final String NS = "http://dl-learner.org/test#";
+
+	private final OWLDataFactory df = new OWLDataFactoryImpl();
+
+	private final OWLClass a = df.getOWLClass(IRI.create(NS + "A"));
+	private final OWLClass b = df.getOWLClass(IRI.create(NS + "B"));
+	private final OWLClass c = df.getOWLClass(IRI.create(NS + "C"));
+	private final OWLObjectProperty r = df.getOWLObjectProperty(IRI.create(NS + "r"));
+
+	@Test
+	public void testSyntacticVariants() {
+		OWLClassExpressionFingerprinter fingerprinter = new OWLClassExpressionFingerprinter(df);
+
+		// nested and reordered conjunctions, duplicate operands
+		long abc = fingerprinter.fingerprint(df.getOWLObjectIntersectionOf(a, df.getOWLObjectIntersectionOf(b, c)));
+		assertEquals(abc, fingerprinter.fingerprint(df.getOWLObjectIntersectionOf(df.getOWLObjectIntersectionOf(c, b), a)));
+		assertEquals(abc, fingerprinter.fingerprint(new OWLObjectIntersectionOfImplExt(Lists.newArrayList(a, b, c, a))));
+		assertEquals(abc, fingerprinter.fingerprint(df.getOWLObjectIntersectionOf(a, b, c, df.getOWLThing())));
+
+		// negation normal form
+		assertEquals(
+				fingerprinter.fingerprint(df.getOWLObjectUnionOf(df.getOWLObjectComplementOf(a), df.getOWLObjectComplementOf(b))),
+				fingerprinter.fingerprint(df.getOWLObjectComplementOf(df.getOWLObjectIntersectionOf(a, b))));
+		assertEquals(
+				fingerprinter.fingerprint(df.getOWLObjectAllValuesFrom(r, df.getOWLObjectComplementOf(a))),
+				fingerprinter.fingerprint(df.getOWLObjectComplementOf(df.getOWLObjectSomeValuesFrom(r, a))));
+
+		// variants inside of restrictions
+		assertEquals(
+				fingerprinter.fingerprint(df.getOWLObjectSomeValuesFrom(r, df.getOWLObjectUnionOf(a, df.getOWLObjectUnionOf(b, c)))),
+				fingerprinter.fingerprint(df.getOWLObjectSomeValuesFrom(r, df.getOWLObjectUnionOf(c, b, a))));
+	}
+
+	@Test
+	public void testDifferentExpressions() {
+		OWLClassExpressionFingerprinter fingerprinter = new OWLClassExpressionFingerprinter(df);
+
+		assertNotEquals(fingerprinter.fingerprint(df.getOWLObjectIntersectionOf(a, b)),
+				fingerprinter.fingerprint(df.getOWLObjectUnionOf(a, b)));
+		assertNotEquals(fingerprinter.fingerprint(df.getOWLObjectSomeValuesFrom(r, a)),
+				fingerprinter.fingerprint(df.getOWLObjectAllValuesFrom(r, a)));
+		assertNotEquals(fingerprinter.fingerprint(df.getOWLObjectMinCardinality(2, r, a)),
+				fingerprinter.fingerprint(df.getOWLObjectMinCardinality(3, r, a)));
+		assertNotEquals(fingerprinter.fingerprint(df.getOWLObjectSomeValuesFrom(r, a)),
+				fingerprinter.fingerprint(df.getOWLObjectSomeValuesFrom(df.getOWLObjectInverseOf(r), a)));
+		assertNotEquals(fingerprinter.fingerprint(a), fingerprinter.fingerprint(df.getOWLObjectComplementOf(a)));
+	}
+
+	@Test
+	public void testIndex() {
+		RedundancyIndex index = new RedundancyIndex();
+		assertTrue(index.add(df.getOWLObjectIntersectionOf(a, b)));
+		assertFalse(index.add(df.getOWLObjectIntersectionOf(b, a)));
+		assertTrue(index.contains(new OWLObjectIntersectionOfImplExt(Lists.newArrayList(b, a, b))));
+		assertFalse(index.contains(a));
+		assertTrue(index.add(a));
+		assertEquals(2, index.size());
+
+		index.clear();
+		assertEquals(0, index.size());
+		assertFalse(index.contains(a));
+	}
+
+	@Test
+	public void testLongHashSet() {
+		for (boolean offHeap : new boolean[]{false, true}) {
+			LongHashSet set = new LongHashSet(4, offHeap);
+			// forces the table to grow several times
+			for (long i = -5000; i < 5000; i++) {
+				assertTrue(set.add(i * 31));
+			}
+			assertEquals(10000, set.size());
+			for (long i = -5000; i < 5000; i++) {
+				assertTrue(set.contains(i * 31));
+				assertFalse(set.add(i * 31));
+				assertFalse(set.contains(i * 31 + 1));
+			}
+			assertEquals(10000, set.size());
+		}
+	}
+}
@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.utilities.profiling;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ProfilerTest {
+
+	@After
+	public void tearDown() {
+		Profiler.setEnabled(false);
+		Profiler.reset();
+	}
+
+	private TimerStatistics statistics(ProfileReport report, String name) {
+		for (TimerStatistics s : report.getStatistics()) {
+			if(s.getName().equals(name)) {
+				return s;
+			}
+		}
+		return null;
+	}
+
+	@Test
+	public void testDisabledTimerRecordsNothing() {
+		Timer timer = Profiler.timer("test.disabled", ProfileCategory.OTHER);
+		assertSame(timer, Profiler.timer("test.disabled", ProfileCategory.OTHER));
+
+		Profiler.setEnabled(false);
+		long start = timer.start();
+		assertEquals(Timer.DISABLED, start);
+		timer.stop(start);
+		timer.record(100);
+		assertEquals(0, timer.getStatistics().getCount());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCategoryMismatch() {
+		Profiler.timer("test.category", ProfileCategory.REFINEMENT);
+		Profiler.timer("test.category", ProfileCategory.EVALUATION);
+	}
+
+	@Test
+	public void testAccumulationAcrossThreads() throws Exception {
+		Timer timer = Profiler.timer("test.threads", ProfileCategory.EVALUATION);
+		Profiler.setEnabled(true);
+		ProfileReport before = Profiler.snapshot();
+
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				for (int i = 1; i <= 1000; i++) {
+					timer.record(i);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		TimerStatistics s = statistics(Profiler.snapshot().since(before, 1_000_000_000L), "test.threads");
+		assertEquals(4000, s.getCount());
+		assertEquals(4 * 500500, s.getTotalNs());
+		assertEquals(1, s.getMinNs());
+		assertEquals(1000, s.getMaxNs());
+		assertEquals(500.5, s.getMeanNs(), 1e-9);
+
+		timer.reset();
+		assertEquals(0, timer.getStatistics().getCount());
+	}
+
+	@Test
+	public void testExport() throws Exception {
+		Timer refinement = Profiler.timer("test.export.refinement", ProfileCategory.REFINEMENT);
+		Timer evaluation = Profiler.timer("test.export.evaluation", ProfileCategory.EVALUATION);
+		Profiler.setEnabled(true);
+		ProfileReport before = Profiler.snapshot();
+		refinement.record(2_000_000);
+		refinement.record(1_000_000);
+		evaluation.record(500_000_000);
+
+		ProfileReport report = Profiler.snapshot().since(before, 1_000_000_000L);
+		assertEquals(2, report.getStatistics().size());
+		assertEquals(3_000_000, report.getTotalNs(ProfileCategory.REFINEMENT));
+		assertEquals(500_000_000, report.getTotalNs(ProfileCategory.EVALUATION));
+
+		String json = report.toJSON();
+		assertTrue(json.contains("\"wallTimeNs\": 1000000000"));
+		assertTrue(json.contains("{\"name\": \"test.export.refinement\", \"category\": \"REFINEMENT\", \"count\": 2, \"totalNs\": 3000000"));
+
+		String[] csv = report.toCSV().split("\n");
+		assertEquals(3, csv.length);
+		assertEquals("test.export.evaluation,EVALUATION,1,500000000,500000000,500000000,500000000", csv[1]);
+
+		String prometheus = report.toPrometheus();
+		assertTrue(prometheus.contains("# TYPE dllearner_timer_seconds_total counter"));
+		assertTrue(prometheus.contains("dllearner_timer_seconds_total{timer=\"test.export.evaluation\",category=\"evaluation\"} 0.5\n"));
+		assertTrue(prometheus.contains("dllearner_timer_calls_total{timer=\"test.export.refinement\",category=\"refinement\"} 2\n"));
+
+		assertTrue(report.toString().contains("(50.0%)"));
+
+		File file = File.createTempFile("profile", ".csv");
+		file.deleteOnExit();
+		report.write(file);
+		assertEquals(report.toCSV(), new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+	}
+}
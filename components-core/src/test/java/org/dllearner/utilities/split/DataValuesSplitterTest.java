@@ -21,7 +21,10 @@ package org.dllearner.utilities.split;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.dllearner.core.AbstractReasonerComponent;
 import org.dllearner.core.ComponentInitException;
@@ -33,12 +36,19 @@ import org.dllearner.reasoning.OWLAPIReasoner;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLOntology;
 
 import com.google.common.collect.Sets;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
 import uk.ac.manchester.cs.owl.owlapi.OWLDataFactoryImpl;
 
 /**
@@ -163,6 +173,28 @@ public class DataValuesSplitterTest {
 		System.out.println(splitter.computeSplits());
 	}
 	
+	/**
+	 * Splits computed in parallel or on demand have to be the same as the ones
+	 * computed sequentially.
+	 */
+	@Test
+	public void testComputeSplitsParallelAndLazy() throws Exception {
+		DefaultNumericValuesSplitter splitter = new DefaultNumericValuesSplitter(reasoner, df, 4);
+		splitter.init();
+		Map<OWLDataProperty, List<OWLLiteral>> expected = splitter.computeSplits();
+
+		splitter.setNrOfThreads(4);
+		assertEquals(expected, splitter.computeSplits());
+
+		LazySplitMap lazySplits = new LazySplitMap();
+		lazySplits.addSplitter(splitter);
+		OWLDataProperty dp = df.getOWLDataProperty(IRI.create("http://example.org/r"));
+		assertFalse(lazySplits.isComputed(dp));
+		assertEquals(expected.get(dp), lazySplits.get(dp));
+		assertTrue(lazySplits.isComputed(dp));
+		assertEquals(new TreeMap<>(expected), new TreeMap<>(lazySplits));
+	}
+	
 	/**
 	 * Test method for {@link org.dllearner.utilities.split.OptimizedNumericValuesSplitter#computeSplits()}.
 	 * @throws ComponentInitException 
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.cli;
+
+import org.apache.log4j.Level;
+import org.dllearner.algorithms.celoe.CELOEBatchLearner;
+import org.dllearner.algorithms.celoe.CELOEBatchLearner.TSVResultWriter;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.config.ConfigOption;
+import org.dllearner.refinementoperators.RhoDRDown;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Command line interface which learns class expressions for many classes of the
+ * knowledge base in one run by means of the {@link CELOEBatchLearner}. It is
+ * selected in a conf file by
+ * <pre>
+ * cli.type = "org.dllearner.cli.CELOEBatchCLI"
+ * cli.classes = {"ex:A", "ex:B"}
+ * cli.outputFile = "results.tsv"
+ * </pre>
+ * The knowledge source and the reasoner are taken from the conf file, as well as a
+ * refinement operator of type {@link RhoDRDown} if one is configured.
+ * If no classes are given, all classes of the reasoner are learned.
+ */
+public class CELOEBatchCLI extends CLIBase2 {
+
+	private static Logger logger = LoggerFactory.getLogger(CELOEBatchCLI.class);
+
+	@ConfigOption(description = "The classes to learn class expressions for. All classes of the reasoner if empty.")
+	private Set<OWLClass> classes = new TreeSet<>();
+
+	@ConfigOption(defaultValue = "number of available processors", description = "The number of classes learned in parallel.")
+	private int nrOfThreads = Runtime.getRuntime().availableProcessors();
+
+	@ConfigOption(defaultValue = "10", description = "The maximum execution time of CELOE per class in seconds.")
+	private int maxExecutionTimeInSecondsPerClass = 10;
+
+	@ConfigOption(defaultValue = "true", description = "Whether to learn equivalent classes (or super classes otherwise).")
+	private boolean equivalence = true;
+
+	@ConfigOption(defaultValue = "5", description = "The noise in percent of CELOE.")
+	private double noisePercentage = 5;
+
+	@ConfigOption(defaultValue = "10", description = "The maximum number of class expressions returned per class.")
+	private int maxNrOfResults = 10;
+
+	@ConfigOption(defaultValue = "batch-results.tsv", description = "The file the results are appended to, see CELOEBatchLearner.TSVResultWriter.")
+	private String outputFile = "batch-results.tsv";
+
+	@Override
+	public void run() {
+		try {
+			org.apache.log4j.Logger.getLogger("org.dllearner").setLevel(Level.toLevel(logLevel.toUpperCase()));
+		} catch (Exception e) {
+			logger.warn("Error setting log level to " + logLevel);
+		}
+
+		AbstractReasonerComponent rs = getMainReasonerComponent();
+
+		CELOEBatchLearner learner = new CELOEBatchLearner(rs);
+		Map<String, RhoDRDown> operators = context.getBeansOfType(RhoDRDown.class);
+		if (!operators.isEmpty()) {
+			learner.setOperator(operators.values().iterator().next());
+		}
+		learner.setNrOfThreads(nrOfThreads);
+		learner.setMaxExecutionTimeInSecondsPerClass(maxExecutionTimeInSecondsPerClass);
+		learner.setEquivalence(equivalence);
+		learner.setNoisePercentage(noisePercentage);
+		learner.setMaxNrOfResults(maxNrOfResults);
+
+		Set<OWLClass> classesToLearn = classes.isEmpty() ? rs.getClasses() : classes;
+		logger.info("Learning class expressions for " + classesToLearn.size() + " classes, results are written to " + outputFile);
+
+		File file = new File(outputFile);
+		createIfNotExists(file);
+		try (TSVResultWriter writer = new TSVResultWriter(file)) {
+			learner.addResultHandler(writer);
+			learner.start(classesToLearn);
+		} catch (IOException | ComponentInitException e) {
+			throw new RuntimeException("Batch learning failed.", e);
+		}
+	}
+
+	public Set<OWLClass> getClasses() {
+		return classes;
+	}
+
+	public void setClasses(Set<OWLClass> classes) {
+		this.classes = classes;
+	}
+
+	public int getNrOfThreads() {
+		return nrOfThreads;
+	}
+
+	public void setNrOfThreads(int nrOfThreads) {
+		this.nrOfThreads = nrOfThreads;
+	}
+
+	public int getMaxExecutionTimeInSecondsPerClass() {
+		return maxExecutionTimeInSecondsPerClass;
+	}
+
+	public void setMaxExecutionTimeInSecondsPerClass(int maxExecutionTimeInSecondsPerClass) {
+		this.maxExecutionTimeInSecondsPerClass = maxExecutionTimeInSecondsPerClass;
+	}
+
+	public boolean isEquivalence() {
+		return equivalence;
+	}
+
+	public void setEquivalence(boolean equivalence) {
+		this.equivalence = equivalence;
+	}
+
+	public double getNoisePercentage() {
+		return noisePercentage;
+	}
+
+	public void setNoisePercentage(double noisePercentage) {
+		this.noisePercentage = noisePercentage;
+	}
+
+	public int getMaxNrOfResults() {
+		return maxNrOfResults;
+	}
+
+	public void setMaxNrOfResults(int maxNrOfResults) {
+		this.maxNrOfResults = maxNrOfResults;
+	}
+
+	public String getOutputFile() {
+		return outputFile;
+	}
+
+	public void setOutputFile(String outputFile) {
+		this.outputFile = outputFile;
+	}
+}
@@ -51,16 +51,25 @@ public class ClientState {
 	private Set<AbstractKnowledgeSource> knowledgeSources = new HashSet<>();
 	
 	private Map<Integer, SparqlQuery> queryIDs = new HashMap<>();
+
+	// the jobs executing the queries
+	private Map<Integer, Integer> queryJobIDs = new HashMap<>();
 	
 	private AbstractClassExpressionLearningProblem learningProblem;
 	
 	private AbstractReasonerComponent reasonerComponent;
+
+	// the registry the reasoner was acquired from if it is shared with other sessions
+	private ReasonerRegistry reasonerRegistry;
 	
 	private AbstractCELA learningAlgorithm;
 
 	private Random rand=new Random();
 	
 	private boolean isAlgorithmRunning = false;
+
+	// time of the last access to this session, used to evict idle sessions
+	private volatile long lastAccess = System.currentTimeMillis();
 	
 	private int generateComponentID(AbstractComponent component) {
 		int id;
@@ -88,6 +97,22 @@ public class ClientState {
 	public SparqlQuery getQuery(int id){
 		return queryIDs.get(id);
 	}
+
+	/**
+	 * @param queryID the query ID
+	 * @param jobID the ID of the job executing the query
+	 */
+	public void setQueryJobID(int queryID, int jobID) {
+		queryJobIDs.put(queryID, jobID);
+	}
+
+	/**
+	 * @param queryID the query ID
+	 * @return the ID of the job executing the query or <code>null</code> if it is not executed asynchronously
+	 */
+	public Integer getQueryJobID(int queryID) {
+		return queryJobIDs.get(queryID);
+	}
 	
 	/**
 	 * @return the isAlgorithmRunning
@@ -166,16 +191,66 @@ public class ClientState {
 
 	/**
 	 * Sets the reasoner component and creates the corresponding
-	 * <code>ReasonerComponent</code> instance.
+	 * <code>ReasonerComponent</code> instance. A shared reasoner used so far
+	 * is returned to its registry.
 	 * 
 	 * @param reasonerComponent the reasonerComponent to set
 	 */
 	public int setReasonerComponent(AbstractReasonerComponent reasonerComponent) {
+		releaseSharedReasoner();
 		this.reasonerComponent = reasonerComponent;
 //		reasoningService = new ReasonerComponent(reasonerComponent);
 		return generateComponentID(reasonerComponent);
 	}
 
+	/**
+	 * Replaces the reasoner of this session by an already initialised reasoner
+	 * shared with other sessions. The component ID of the reasoner remains valid
+	 * and the learning problem and algorithm are updated accordingly.
+	 * 
+	 * @param sharedReasoner the shared reasoner
+	 * @param registry the registry the reasoner was acquired from
+	 */
+	public void setSharedReasoner(AbstractReasonerComponent sharedReasoner, ReasonerRegistry registry) {
+		for(Map.Entry<Integer, AbstractComponent> entry : componentIDs.entrySet()) {
+			if(entry.getValue() == reasonerComponent) {
+				entry.setValue(sharedReasoner);
+			}
+		}
+		reasonerComponent = sharedReasoner;
+		reasonerRegistry = registry;
+		if(learningProblem != null) {
+			learningProblem.setReasoner(sharedReasoner);
+		}
+		if(learningAlgorithm != null) {
+			learningAlgorithm.setReasoner(sharedReasoner);
+		}
+	}
+
+	/**
+	 * @return whether the reasoner of this session is shared with other sessions
+	 */
+	public boolean isReasonerShared() {
+		return reasonerRegistry != null;
+	}
+
+	/**
+	 * @param component a component of this session
+	 * @return whether the component is shared with other sessions and thus must not be changed
+	 */
+	public boolean isShared(AbstractComponent component) {
+		return isReasonerShared() && component == reasonerComponent;
+	}
+
+	// returns the shared reasoner to the registry, its component IDs become invalid
+	private void releaseSharedReasoner() {
+		if(reasonerRegistry != null) {
+			componentIDs.values().removeIf(component -> component == reasonerComponent);
+			reasonerRegistry.release(reasonerComponent);
+			reasonerRegistry = null;
+		}
+	}
+
 	/**
 	 * @return the learningAlgorithm
 	 */
@@ -222,4 +297,34 @@ public class ClientState {
 	public Set<AbstractKnowledgeSource> getKnowledgeSources() {
 		return knowledgeSources;
 	}
+
+	/**
+	 * Marks the session as accessed.
+	 */
+	public void touch() {
+		lastAccess = System.currentTimeMillis();
+	}
+
+	/**
+	 * @return the time of the last access to this session in milliseconds
+	 */
+	public long getLastAccess() {
+		return lastAccess;
+	}
+
+	/**
+	 * Stops a running learning algorithm and releases the knowledge base
+	 * held by the reasoner of this session. Shared reasoners are not released
+	 * here, but returned to the {@link ReasonerRegistry}.
+	 */
+	public void release() {
+		if(learningAlgorithm != null && learningAlgorithm.isRunning()) {
+			learningAlgorithm.stop();
+		}
+		if(isReasonerShared()) {
+			releaseSharedReasoner();
+		} else if(reasonerComponent != null) {
+			reasonerComponent.releaseKB();
+		}
+	}
 }
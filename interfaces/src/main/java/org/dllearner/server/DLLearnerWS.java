@@ -45,6 +45,10 @@ import java.lang.reflect.InvocationTargetException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * DL-Learner web service interface. The web service makes use of the component
@@ -62,10 +66,37 @@ public class DLLearnerWS {
 
 	private static Logger logger = Logger.getLogger(DLLearnerWS.class);
 
-	private Map<Integer, ClientState> clients = new TreeMap<>();
+	private Map<Integer, ClientState> clients = new ConcurrentHashMap<>();
 	private Random rand=new Random();
 	private static AnnComponentManager cm = AnnComponentManager.getInstance();
 
+	// limits of the job execution, can be overridden by system properties
+	private static final int NR_OF_WORKERS = Integer.getInteger("dllearner.ws.workers", Runtime.getRuntime().availableProcessors());
+	private static final int JOB_QUEUE_CAPACITY = Integer.getInteger("dllearner.ws.queueCapacity", 100);
+	private static final int MAX_JOBS_PER_SESSION = Integer.getInteger("dllearner.ws.maxJobsPerSession", 5);
+	private static final long SESSION_TIMEOUT_MINUTES = Long.getLong("dllearner.ws.sessionTimeout", 60);
+	private static final long FINISHED_JOB_TTL_MINUTES = Long.getLong("dllearner.ws.finishedJobTTL", 10);
+
+	// sharing of initialised reasoners among sessions, disabled by default because
+	// the jobs of different sessions run in parallel, thus, the reasoner must support concurrent calls
+	private static final boolean SHARE_REASONERS = Boolean.parseBoolean(System.getProperty("dllearner.ws.shareReasoners", "false"));
+	private static final int MAX_UNUSED_REASONERS = Integer.getInteger("dllearner.ws.maxUnusedReasoners", 10);
+	private static final double MAX_HEAP_USAGE = Double.parseDouble(System.getProperty("dllearner.ws.maxHeapUsage", "0.8"));
+
+	private JobManager jobManager = new JobManager(NR_OF_WORKERS, JOB_QUEUE_CAPACITY, MAX_JOBS_PER_SESSION,
+			TimeUnit.MINUTES.toMillis(FINISHED_JOB_TTL_MINUTES));
+	private ScheduledExecutorService sessionEvictor;
+	private ReasonerRegistry reasonerRegistry = new ReasonerRegistry(MAX_UNUSED_REASONERS, MAX_HEAP_USAGE);
+
+	public DLLearnerWS() {
+		sessionEvictor = Executors.newSingleThreadScheduledExecutor(r -> {
+			Thread t = new Thread(r, "dllearner-ws-session-evictor");
+			t.setDaemon(true);
+			return t;
+		});
+		sessionEvictor.scheduleWithFixedDelay(this::evictIdleSessions, 1, 1, TimeUnit.MINUTES);
+	}
+
 	/**
 	 * Conversion between different data structures.
 	 * 
@@ -172,8 +203,7 @@ public class DLLearnerWS {
 		int id;
 		do {
 			id = Math.abs(rand.nextInt());
-		} while(clients.containsKey(id));
-		clients.put(id, new ClientState());
+		} while(clients.putIfAbsent(id, new ClientState()) != null);
 		logger.info("New client " + id + " at DL-Learner web service.");
 		return id;
 	}
@@ -391,18 +421,28 @@ public class DLLearnerWS {
 	}
 
 	/**
-	 * Initialise all components.
+	 * Initialise all components. If reasoner sharing is enabled (system property
+	 * <code>dllearner.ws.shareReasoners</code>, which requires reasoners supporting
+	 * concurrent calls), sessions using the same knowledge sources and reasoner
+	 * configuration get the same reasoner instance, which is then initialised only once.
 	 * @param id Session ID.
 	 * @throws ComponentInitException Thrown if an error occurs during component initialisation.
 	 */
 	@WebMethod
 	public void initAll(int id) throws ClientNotKnownException, ComponentInitException {
 		ClientState state = getState(id);
-		logger.info("Initializing knowledge sources...");
-		for(AbstractKnowledgeSource ks : state.getKnowledgeSources())
-			ks.init();
-		logger.info("Initializing reasoner...");
-		state.getReasonerComponent().init();
+		if(SHARE_REASONERS) {
+			if(!state.isReasonerShared()) {
+				logger.info("Acquiring shared reasoner...");
+				state.setSharedReasoner(reasonerRegistry.acquire(state.getReasonerComponent()), reasonerRegistry);
+			}
+		} else {
+			logger.info("Initializing knowledge sources...");
+			for(AbstractKnowledgeSource ks : state.getKnowledgeSources())
+				ks.init();
+			logger.info("Initializing reasoner...");
+			state.getReasonerComponent().init();
+		}
 		logger.info("Initializing learning problem...");
 		state.getLearningProblem().init();
 		logger.info("Initializing learning algorithm...");
@@ -416,11 +456,14 @@ public class DLLearnerWS {
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException Thrown if the component is unknown.
 	 * @throws ComponentInitException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void init(int id, int componentID) throws ClientNotKnownException, ComponentInitException {
+	public void init(int id, int componentID) throws ClientNotKnownException, ComponentInitException, SharedComponentException {
 		ClientState state = getState(id);
 		AbstractComponent component = state.getComponent(componentID);
+		if(state.isShared(component))
+			throw new SharedComponentException(componentID);
 		component.init();
 	}
 
@@ -504,24 +547,19 @@ public class DLLearnerWS {
 
 	/**
 	 * Starts the learning algorithm and returns immediately. The learning
-	 * algorithm is executed in its own thread and can be queried and
-	 * controlled using other Web Service methods.
+	 * algorithm is executed by the worker pool of the web service and can be
+	 * queried and controlled using other Web Service methods.
 	 *
 	 * @param id Session ID.
+	 * @return The ID of the learning job, see {@link #getJobStatus(int, int)}.
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobRejectedException Thrown if the web service is overloaded or the client has too many pending jobs.
 	 */
 	@WebMethod
-	public void learnThreaded(int id) throws ClientNotKnownException {
+	public int learnThreaded(int id) throws ClientNotKnownException, JobRejectedException {
 		final ClientState state = getState(id);
-		Thread learningThread = new Thread() {
-			@Override
-			public void run() {
-//				state.setAlgorithmRunning(true);
-				state.getLearningAlgorithm().start();
-//				state.setAlgorithmRunning(false);
-			}
-		};
-		learningThread.start();
+		final AbstractCELA la = state.getLearningAlgorithm();
+		return jobManager.submit(id, la::start, la::stop).getID();
 	}
 
 	/**
@@ -646,6 +684,67 @@ public class DLLearnerWS {
 		getState(id).getLearningAlgorithm().stop();
 	}
 
+	////////////////////////////////////////
+	//    job and session management      //
+	////////////////////////////////////////
+
+	/**
+	 * Returns the status of an asynchronously executed job. Jobs which are not
+	 * queued or running anymore are forgotten after some time (system property
+	 * <code>dllearner.ws.finishedJobTTL</code>, default 10 minutes).
+	 * @param sessionID The session ID.
+	 * @param jobID The job ID.
+	 * @return One of "QUEUED", "RUNNING", "FINISHED", "FAILED" or "CANCELLED".
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobNotKnownException Thrown if the job is not known in this session.
+	 */
+	@WebMethod
+	public String getJobStatus(int sessionID, int jobID) throws ClientNotKnownException, JobNotKnownException {
+		return getJob(sessionID, jobID).getStatus().name();
+	}
+
+	/**
+	 * Returns the error message of a failed job.
+	 * @param sessionID The session ID.
+	 * @param jobID The job ID.
+	 * @return The error message or an empty string if the job did not fail.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobNotKnownException Thrown if the job is not known in this session.
+	 */
+	@WebMethod
+	public String getJobError(int sessionID, int jobID) throws ClientNotKnownException, JobNotKnownException {
+		Throwable error = getJob(sessionID, jobID).getError();
+		return error == null ? "" : error.toString();
+	}
+
+	/**
+	 * Cancels a queued or running job.
+	 * @param sessionID The session ID.
+	 * @param jobID The job ID.
+	 * @return True if the job was still queued or running, false otherwise.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobNotKnownException Thrown if the job is not known in this session.
+	 */
+	@WebMethod
+	public boolean cancelJob(int sessionID, int jobID) throws ClientNotKnownException, JobNotKnownException {
+		return jobManager.cancel(getJob(sessionID, jobID).getID());
+	}
+
+	/**
+	 * Closes the session, i.e. cancels all its jobs and releases the
+	 * knowledge base held by its reasoner.
+	 * @param id The session ID.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 */
+	@WebMethod
+	public void closeSession(int id) throws ClientNotKnownException {
+		ClientState state = clients.remove(id);
+		if(state == null)
+			throw new ClientNotKnownException(id);
+		releaseSession(id, state);
+		logger.info("Client " + id + " closed its session.");
+	}
+
 	/////////////////////////////////////////
 	// methods for component configuration //
 	/////////////////////////////////////////
@@ -696,9 +795,10 @@ public class DLLearnerWS {
 	 * @param value
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryInt(int sessionID, int componentID, String optionName, Integer value) throws ClientNotKnownException, UnknownComponentException	{
+	public void applyConfigEntryInt(int sessionID, int componentID, String optionName, Integer value) throws ClientNotKnownException, UnknownComponentException, SharedComponentException	{
 		applyConfigEntry(sessionID, componentID,optionName,value);
 	}
 
@@ -710,9 +810,10 @@ public class DLLearnerWS {
 	 * @param value
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryString(int sessionID, int componentID, String optionName, String value) throws ClientNotKnownException, UnknownComponentException {
+	public void applyConfigEntryString(int sessionID, int componentID, String optionName, String value) throws ClientNotKnownException, UnknownComponentException, SharedComponentException {
 		applyConfigEntry(sessionID, componentID,optionName,value);
 	}
 
@@ -725,9 +826,10 @@ public class DLLearnerWS {
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
 	 * @throws MalformedURLException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryURL(int sessionID, int componentID, String optionName, String value) throws ClientNotKnownException, UnknownComponentException, MalformedURLException {
+	public void applyConfigEntryURL(int sessionID, int componentID, String optionName, String value) throws ClientNotKnownException, UnknownComponentException, SharedComponentException, MalformedURLException {
 		// URLs are passed as String and then converted
 		URL url = new URL(value);
 		applyConfigEntry(sessionID, componentID,optionName,url);
@@ -741,9 +843,10 @@ public class DLLearnerWS {
 	 * @param value
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryStringArray(int sessionID, int componentID, String optionName, String[] value) throws ClientNotKnownException, UnknownComponentException {
+	public void applyConfigEntryStringArray(int sessionID, int componentID, String optionName, String[] value) throws ClientNotKnownException, UnknownComponentException, SharedComponentException {
 		Set<String> stringSet = new TreeSet<>(Arrays.asList(value));
 		applyConfigEntry(sessionID, componentID,optionName,stringSet);
 	}
@@ -757,9 +860,10 @@ public class DLLearnerWS {
 	 * @param values
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryStringTupleList(int sessionID, int componentID, String optionName, String[] keys, String[] values) throws ClientNotKnownException, UnknownComponentException {
+	public void applyConfigEntryStringTupleList(int sessionID, int componentID, String optionName, String[] keys, String[] values) throws ClientNotKnownException, UnknownComponentException, SharedComponentException {
 		List<StringTuple> tuples = new LinkedList<>();
 		for(int i=0; i<keys.length; i++) {
 			StringTuple st = new StringTuple(keys[i],values[i]);
@@ -777,9 +881,10 @@ public class DLLearnerWS {
 	 * @param value
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
 	@WebMethod
-	public void applyConfigEntryBoolean(int sessionID, int componentID, String optionName, Boolean value) throws ClientNotKnownException, UnknownComponentException	{
+	public void applyConfigEntryBoolean(int sessionID, int componentID, String optionName, Boolean value) throws ClientNotKnownException, UnknownComponentException, SharedComponentException	{
 		applyConfigEntry(sessionID, componentID,optionName,value);
 	}
 
@@ -791,10 +896,13 @@ public class DLLearnerWS {
 	 * @param value
 	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
 	 * @throws UnknownComponentException
+	 * @throws SharedComponentException Thrown if the component is shared with other sessions.
 	 */
-	private void applyConfigEntry(int sessionID, int componentID, String optionName, Object value) throws ClientNotKnownException {
+	private void applyConfigEntry(int sessionID, int componentID, String optionName, Object value) throws ClientNotKnownException, SharedComponentException {
 		ClientState state = getState(sessionID);
 		AbstractComponent component = state.getComponent(componentID);
+		if(state.isShared(component))
+			throw new SharedComponentException(componentID);
 		System.out.println("Config option->" + component + "::" + optionName + "=" + value);
 		try {
 			Field field = component.getClass().getDeclaredField(optionName);
@@ -1009,29 +1117,53 @@ public class DLLearnerWS {
 		//else return SparqlQuery.getAsXMLString(state.getQuery(queryID).send());
 	}
 
+	/**
+	 * Executes a SPARQL query asynchronously. The job executing the query can be
+	 * obtained by {@link #getSparqlQueryJob(int, int)}.
+	 * @param sessionID The session ID.
+	 * @param componentID The ID of the SPARQL knowledge source.
+	 * @param query The SPARQL query.
+	 * @return The query ID.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobRejectedException Thrown if the job queue is full or the session has too many pending jobs.
+	 */
 	@WebMethod
-	public int sparqlQueryThreaded(int sessionID, int componentID, String query) throws ClientNotKnownException
+	public int sparqlQueryThreaded(int sessionID, int componentID, String query) throws ClientNotKnownException, JobRejectedException
 	{
 		final ClientState state = getState(sessionID);
 		AbstractComponent component = state.getComponent(componentID);
 		final SparqlKnowledgeSource ks=(SparqlKnowledgeSource)component;
 		final int id=state.addQuery(ks.sparqlQuery(query));
-		Thread sparqlThread = new Thread() {
-			@Override
-			public void run() {
-				if (ks.isUseCache()){
-					Cache cache=new Cache(ks.getCacheDir());
-					cache.executeSparqlQuery(state.getQuery(id));
-				}
-				else{
-					state.getQuery(id).send();
-				}
+		JobManager.Job job = jobManager.submit(sessionID, () -> {
+			if (ks.isUseCache()){
+				Cache cache=new Cache(ks.getCacheDir());
+				cache.executeSparqlQuery(state.getQuery(id));
+			}
+			else{
+				state.getQuery(id).send();
 			}
-		};
-		sparqlThread.start();
+		}, () -> state.getQuery(id).stop());
+		state.setQueryJobID(id, job.getID());
 		return id;
 	}
 
+	/**
+	 * Returns the job executing a query started by {@link #sparqlQueryThreaded(int, int, String)},
+	 * which can be used to poll its status or to cancel it.
+	 * @param sessionID The session ID.
+	 * @param queryID The query ID.
+	 * @return The job ID.
+	 * @throws ClientNotKnownException Thrown if client (session ID) is not known.
+	 * @throws JobNotKnownException Thrown if the query is not executed by a job of this session.
+	 */
+	@WebMethod
+	public int getSparqlQueryJob(int sessionID, int queryID) throws ClientNotKnownException, JobNotKnownException {
+		Integer jobID = getState(sessionID).getQueryJobID(queryID);
+		if(jobID == null)
+			throw new JobNotKnownException(sessionID, queryID);
+		return getJob(sessionID, jobID).getID();
+	}
+
 	@WebMethod
 	public String sparqlQuery(int sessionID, int componentID, String query) throws ClientNotKnownException
 	{
@@ -1071,14 +1203,21 @@ public class DLLearnerWS {
 	public boolean isSparqlQueryRunning(int sessionID, int queryID) throws ClientNotKnownException
 	{
 		ClientState state = getState(sessionID);
-		return state.getQuery(queryID).isRunning();
+		// a query waiting for a worker counts as running
+		Integer jobID = state.getQueryJobID(queryID);
+		JobManager.Job job = jobID == null ? null : jobManager.getJob(jobID);
+		return state.getQuery(queryID).isRunning() || (job != null && job.getStatus().isActive());
 	}
 
 	@WebMethod
 	public void stopSparqlThread(int sessionID, int queryID) throws ClientNotKnownException
 	{
 		ClientState state = getState(sessionID);
-		state.getQuery(queryID).stop();
+		// cancelling the job also removes a query still waiting for a worker
+		Integer jobID = state.getQueryJobID(queryID);
+		if(jobID == null || !jobManager.cancel(jobID)) {
+			state.getQuery(queryID).stop();
+		}
 	}
 
 	@WebMethod
@@ -1160,9 +1299,45 @@ public class DLLearnerWS {
 		ClientState state = clients.get(id);
 		if(state==null)
 			throw new ClientNotKnownException(id);
+		state.touch();
 		return state;
 	}
 
+	// returns the job of the session or throws job not known exception
+	private JobManager.Job getJob(int sessionID, int jobID) throws ClientNotKnownException, JobNotKnownException {
+		getState(sessionID);
+		JobManager.Job job = jobManager.getJob(jobID);
+		if(job == null || job.getSessionID() != sessionID)
+			throw new JobNotKnownException(sessionID, jobID);
+		return job;
+	}
+
+	private void releaseSession(int id, ClientState state) {
+		jobManager.removeSession(id);
+		try {
+			state.release();
+		} catch (Exception e) {
+			logger.warn("Failed to release resources of client " + id + ".", e);
+		}
+	}
+
+	// removes sessions which have not been accessed within the session timeout
+	// and have no queued or running jobs, as well as old finished jobs
+	private void evictIdleSessions() {
+		jobManager.purgeFinishedJobs();
+		long threshold = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES);
+		for (Map.Entry<Integer, ClientState> entry : clients.entrySet()) {
+			int id = entry.getKey();
+			ClientState state = entry.getValue();
+			if (state.getLastAccess() < threshold
+					&& jobManager.getNrOfActiveJobs(id) == 0
+					&& clients.remove(id, state)) {
+				releaseSession(id, state);
+				logger.info("Evicted idle client " + id + " from DL-Learner web service.");
+			}
+		}
+	}
+
 	@SuppressWarnings({"unchecked"})
 	private <T> T getConfigOptionValue(int sessionID, int componentID, String optionName, Class<T> clazz) throws ClientNotKnownException, UnknownComponentException, ConfigOptionTypeException {
 		Object value = getConfigOptionValue(sessionID, componentID, optionName);
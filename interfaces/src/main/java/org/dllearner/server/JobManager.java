@@ -0,0 +1,309 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Executes long running tasks of the web service (learning, SPARQL queries)
+ * on a bounded pool of worker threads. Jobs are queued in a bounded queue,
+ * and submissions are rejected if either the queue is full or the session
+ * already has too many queued or running jobs.
+ * <p>
+ * Finished, failed and cancelled jobs are kept for a fixed time, such that
+ * clients can poll their status and error, and are removed afterwards.
+ */
+public class JobManager {
+
+	private static Logger logger = Logger.getLogger(JobManager.class);
+
+	public enum JobStatus {
+		QUEUED, RUNNING, FINISHED, FAILED, CANCELLED;
+
+		public boolean isActive() {
+			return this == QUEUED || this == RUNNING;
+		}
+	}
+
+	/**
+	 * A job submitted to the web service.
+	 */
+	public static class Job {
+
+		private final int id;
+		private final int sessionID;
+		private final Runnable onCancel;
+		private final AtomicReference<JobStatus> status = new AtomicReference<>(JobStatus.QUEUED);
+		private volatile Throwable error;
+		private volatile Future<?> future;
+		private volatile long finishTime;
+		// whether the job was subtracted from the active jobs of its session
+		private final AtomicBoolean released = new AtomicBoolean();
+
+		private Job(int id, int sessionID, Runnable onCancel) {
+			this.id = id;
+			this.sessionID = sessionID;
+			this.onCancel = onCancel;
+		}
+
+		public int getID() {
+			return id;
+		}
+
+		public int getSessionID() {
+			return sessionID;
+		}
+
+		public JobStatus getStatus() {
+			return status.get();
+		}
+
+		/**
+		 * @return the error thrown by the job if its status is
+		 * {@link JobStatus#FAILED}, otherwise <code>null</code>
+		 */
+		public Throwable getError() {
+			return error;
+		}
+	}
+
+	public static final long DEFAULT_FINISHED_JOB_TTL = TimeUnit.MINUTES.toMillis(10);
+
+	private final ThreadPoolExecutor executor;
+	private final int maxJobsPerSession;
+	private final long finishedJobTTL;
+
+	private final Map<Integer, Job> jobs = new ConcurrentHashMap<>();
+	private final AtomicInteger jobIDs = new AtomicInteger();
+
+	// the number of queued and running jobs per session
+	private final Map<Integer, AtomicInteger> activeJobs = new ConcurrentHashMap<>();
+	// jobs which are not active anymore, in the order they finished
+	private final Queue<Job> finishedJobs = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * @param nrOfWorkers the max. number of jobs executed in parallel
+	 * @param queueCapacity the max. number of jobs waiting for execution
+	 * @param maxJobsPerSession the max. number of queued or running jobs per session
+	 */
+	public JobManager(int nrOfWorkers, int queueCapacity, int maxJobsPerSession) {
+		this(nrOfWorkers, queueCapacity, maxJobsPerSession, DEFAULT_FINISHED_JOB_TTL);
+	}
+
+	/**
+	 * @param nrOfWorkers the max. number of jobs executed in parallel
+	 * @param queueCapacity the max. number of jobs waiting for execution
+	 * @param maxJobsPerSession the max. number of queued or running jobs per session
+	 * @param finishedJobTTL the time in ms a job is kept after it finished, failed or
+	 *                       got cancelled
+	 */
+	public JobManager(int nrOfWorkers, int queueCapacity, int maxJobsPerSession, long finishedJobTTL) {
+		this.maxJobsPerSession = maxJobsPerSession;
+		this.finishedJobTTL = finishedJobTTL;
+		AtomicInteger threadCounter = new AtomicInteger();
+		executor = new ThreadPoolExecutor(nrOfWorkers, nrOfWorkers,
+				0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity),
+				r -> {
+					Thread t = new Thread(r, "dllearner-ws-worker-" + threadCounter.incrementAndGet());
+					t.setDaemon(true);
+					return t;
+				},
+				new ThreadPoolExecutor.AbortPolicy());
+	}
+
+	/**
+	 * Submits a task for asynchronous execution.
+	 * 
+	 * @param sessionID the session the task belongs to
+	 * @param task the task
+	 * @param onCancel called if the job gets cancelled while running, e.g. to stop
+	 *                 the learning algorithm smoothly; can be <code>null</code>
+	 * @return the job
+	 * @throws JobRejectedException if the queue is full or the session has too many pending jobs
+	 */
+	public synchronized Job submit(int sessionID, Runnable task, Runnable onCancel) throws JobRejectedException {
+		purgeFinishedJobs();
+
+		AtomicInteger nrOfActiveJobs = activeJobs.computeIfAbsent(sessionID, id -> new AtomicInteger());
+		if (nrOfActiveJobs.get() >= maxJobsPerSession) {
+			throw new JobRejectedException("client " + sessionID + " already has " + maxJobsPerSession + " pending jobs");
+		}
+
+		final Job job = new Job(jobIDs.incrementAndGet(), sessionID, onCancel);
+		nrOfActiveJobs.incrementAndGet();
+		jobs.put(job.id, job);
+		try {
+			job.future = executor.submit(() -> {
+				try {
+					if (!job.status.compareAndSet(JobStatus.QUEUED, JobStatus.RUNNING)) {
+						return;
+					}
+					try {
+						task.run();
+						finish(job, JobStatus.RUNNING, JobStatus.FINISHED);
+					} catch (Throwable t) {
+						logger.error("Job " + job.id + " of client " + sessionID + " failed.", t);
+						job.error = t;
+						finish(job, JobStatus.RUNNING, JobStatus.FAILED);
+					}
+				} finally {
+					release(job);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.id);
+			release(job);
+			throw new JobRejectedException("job queue is full (" + executor.getQueue().size() + " jobs waiting)");
+		}
+		logger.debug("Submitted job " + job.id + " of client " + sessionID + ".");
+		return job;
+	}
+
+	// changes the status of an active job, the job counts as finished only
+	// for the thread which succeeds in changing the status
+	private boolean finish(Job job, JobStatus expected, JobStatus status) {
+		if (!job.status.compareAndSet(expected, status)) {
+			return false;
+		}
+		job.finishTime = System.currentTimeMillis();
+		finishedJobs.add(job);
+		return true;
+	}
+
+	// subtracts the job from the active jobs of its session once it does not
+	// occupy a worker anymore, i.e. a cancelled job still counts until it stopped
+	private void release(Job job) {
+		if (job.released.compareAndSet(false, true)) {
+			AtomicInteger nrOfActiveJobs = activeJobs.get(job.sessionID);
+			if (nrOfActiveJobs != null) {
+				nrOfActiveJobs.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Removes all jobs which finished, failed or got cancelled longer ago than the
+	 * time to live of finished jobs.
+	 */
+	public void purgeFinishedJobs() {
+		long threshold = System.currentTimeMillis() - finishedJobTTL;
+		Job job;
+		while ((job = finishedJobs.peek()) != null && job.finishTime <= threshold) {
+			if (finishedJobs.remove(job)) {
+				jobs.remove(job.id);
+			}
+		}
+	}
+
+	/**
+	 * @param jobID the job ID
+	 * @return the job or <code>null</code> if not known
+	 */
+	public Job getJob(int jobID) {
+		return jobs.get(jobID);
+	}
+
+	/**
+	 * Cancels the given job. Queued jobs are removed from the queue, running jobs
+	 * are interrupted and the cancel callback of the job is invoked. A running job
+	 * counts as active job of its session until it actually stopped.
+	 * 
+	 * @param jobID the job ID
+	 * @return <code>true</code> if the job was still active, otherwise <code>false</code>
+	 */
+	public synchronized boolean cancel(int jobID) {
+		Job job = jobs.get(jobID);
+		if (job == null) {
+			return false;
+		}
+		JobStatus old;
+		do {
+			old = job.status.get();
+			if (!old.isActive()) {
+				return false;
+			}
+		} while (!finish(job, old, JobStatus.CANCELLED));
+		if (old == JobStatus.QUEUED) {
+			// the task will not be executed anymore
+			release(job);
+		} else if (job.onCancel != null) {
+			job.onCancel.run();
+		}
+		job.future.cancel(true);
+		executor.purge();
+		return true;
+	}
+
+	/**
+	 * Cancels all active jobs of the session and removes all its jobs.
+	 * 
+	 * @param sessionID the session ID
+	 */
+	public void removeSession(int sessionID) {
+		for (Job job : getJobs(sessionID)) {
+			cancel(job.id);
+			jobs.remove(job.id);
+		}
+		activeJobs.remove(sessionID);
+	}
+
+	/**
+	 * @param sessionID the session ID
+	 * @return all jobs of the session
+	 */
+	public Collection<Job> getJobs(int sessionID) {
+		return jobs.values().stream()
+				.filter(job -> job.sessionID == sessionID)
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * @param sessionID the session ID
+	 * @return the number of queued and running jobs of the session, including
+	 * cancelled jobs which did not stop yet
+	 */
+	public int getNrOfActiveJobs(int sessionID) {
+		AtomicInteger nrOfActiveJobs = activeJobs.get(sessionID);
+		return nrOfActiveJobs == null ? 0 : nrOfActiveJobs.get();
+	}
+
+	/**
+	 * Stops accepting new jobs and interrupts the running ones.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+}
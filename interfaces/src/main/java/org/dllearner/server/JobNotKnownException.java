@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+/**
+ * Exception for indicating that a job ID is not known in the given session.
+ */
+public class JobNotKnownException extends Exception {
+
+	private static final long serialVersionUID = -2279472064329118411L;
+
+	public JobNotKnownException(int sessionID, int jobID) {
+		super("Job with id " + jobID + " is not known for client " + sessionID + ".");
+	}
+
+}
@@ -0,0 +1,363 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.core.AnnComponentManager;
+import org.dllearner.core.Component;
+import org.dllearner.core.ComponentInitException;
+import org.dllearner.core.KnowledgeSource;
+import org.semanticweb.owlapi.model.IRI;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+/**
+ * Server-wide registry of initialised reasoners which are shared among all
+ * client sessions using the same knowledge sources and reasoner configuration.
+ * Reasoners are keyed by a fingerprint of the configuration of the reasoner
+ * and its knowledge sources and are reference counted. Reasoners which are not
+ * used by any session anymore are kept for later reuse and evicted in LRU order
+ * if there are too many of them or the heap usage exceeds a threshold.
+ * <p>
+ * The shared reasoners are meant to be used read-only, i.e. sessions must not
+ * change their knowledge sources or configuration after they have been acquired,
+ * which is why the web service rejects changes of a shared reasoner.
+ * As sessions can run their jobs at the same time, a shared reasoner may get
+ * concurrent calls, thus, sharing must only be enabled for reasoners which
+ * support concurrent calls.
+ * <p>
+ * Options are compared by value only if their value is fully determined by it,
+ * e.g. strings, numbers and IRIs. Local files referenced by the options are
+ * compared by a hash of their content, and all other objects, e.g. ontologies
+ * loaded in memory, by identity.
+ */
+public class ReasonerRegistry {
+
+	private static Logger logger = Logger.getLogger(ReasonerRegistry.class);
+
+	private static class Entry {
+		final String key;
+		final FutureTask<AbstractReasonerComponent> reasoner;
+		int refCount = 0;
+
+		Entry(String key, FutureTask<AbstractReasonerComponent> reasoner) {
+			this.key = key;
+			this.reasoner = reasoner;
+		}
+	}
+
+	// entries in access order, i.e. the least recently used entry comes first
+	private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<AbstractReasonerComponent, Entry> reasoner2Entry = new IdentityHashMap<>();
+
+	private final int maxUnusedReasoners;
+	private final double maxHeapUsage;
+
+	// unique IDs of objects which are fingerprinted by identity
+	private static final Map<Object, Long> identities = new MapMaker().weakKeys().makeMap();
+	private static final AtomicLong identityCounter = new AtomicLong();
+
+	/**
+	 * @param maxUnusedReasoners the max. number of reasoners kept without being used by a session
+	 * @param maxHeapUsage the fraction of the max. heap size above which unused reasoners are evicted
+	 */
+	public ReasonerRegistry(int maxUnusedReasoners, double maxHeapUsage) {
+		this.maxUnusedReasoners = maxUnusedReasoners;
+		this.maxHeapUsage = maxHeapUsage;
+	}
+
+	/**
+	 * Returns the shared reasoner for the given reasoner configuration. If there is
+	 * none yet, the knowledge sources and the reasoner are initialised, which happens
+	 * only once per key even if several sessions request it concurrently.
+	 * Each call has to be followed by a call to {@link #release(AbstractReasonerComponent)}
+	 * once the session does not need the reasoner anymore.
+	 * 
+	 * @param reasoner the (not yet initialised) reasoner of the session
+	 * @return the shared, initialised reasoner
+	 * @throws ComponentInitException if the initialisation failed
+	 */
+	public AbstractReasonerComponent acquire(AbstractReasonerComponent reasoner) throws ComponentInitException {
+		String key = fingerprint(reasoner);
+
+		Entry entry;
+		boolean created = false;
+		synchronized (this) {
+			entry = entries.get(key);
+			if (entry == null) {
+				// free memory before another reasoner gets initialised
+				evictUnused();
+				entry = new Entry(key, new FutureTask<>(initTask(reasoner)));
+				entries.put(key, entry);
+				created = true;
+			}
+			entry.refCount++;
+		}
+
+		if (created) {
+			logger.info("Initializing shared reasoner " + key);
+			entry.reasoner.run();
+		} else {
+			logger.info("Reusing shared reasoner " + key);
+		}
+
+		try {
+			AbstractReasonerComponent shared = entry.reasoner.get();
+			synchronized (this) {
+				reasoner2Entry.put(shared, entry);
+			}
+			return shared;
+		} catch (InterruptedException | ExecutionException e) {
+			synchronized (this) {
+				entry.refCount--;
+				if (entries.get(key) == entry) {
+					entries.remove(key);
+				}
+			}
+			if (e instanceof InterruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			Throwable cause = e.getCause() != null ? e.getCause() : e;
+			if (cause instanceof ComponentInitException) {
+				throw (ComponentInitException) cause;
+			}
+			throw new ComponentInitException(cause);
+		}
+	}
+
+	/**
+	 * Releases a reasoner previously returned by {@link #acquire(AbstractReasonerComponent)}.
+	 * 
+	 * @param reasoner the shared reasoner
+	 */
+	public synchronized void release(AbstractReasonerComponent reasoner) {
+		Entry entry = reasoner2Entry.get(reasoner);
+		if (entry == null) {
+			logger.warn("Tried to release reasoner " + reasoner + " which is not registered.");
+			return;
+		}
+		entry.refCount--;
+		evictUnused();
+	}
+
+	/**
+	 * @return the number of reasoners currently held by the registry
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	// evict unused reasoners in LRU order if there are too many of them or the heap usage is too high
+	private void evictUnused() {
+		int unused = (int) entries.values().stream().filter(e -> e.refCount == 0).count();
+		Iterator<Entry> it = entries.values().iterator();
+		while (it.hasNext() && unused > 0 && (unused > maxUnusedReasoners || heapUsage() > maxHeapUsage)) {
+			Entry entry = it.next();
+			if (entry.refCount == 0 && entry.reasoner.isDone()) {
+				it.remove();
+				unused--;
+				try {
+					AbstractReasonerComponent reasoner = entry.reasoner.get();
+					reasoner2Entry.remove(reasoner);
+					reasoner.releaseKB();
+				} catch (Exception e) {
+					logger.warn("Failed to release shared reasoner " + entry.key, e);
+				}
+				logger.info("Evicted shared reasoner " + entry.key);
+			}
+		}
+	}
+
+	private static double heapUsage() {
+		Runtime rt = Runtime.getRuntime();
+		return (double) (rt.totalMemory() - rt.freeMemory()) / rt.maxMemory();
+	}
+
+	private static Callable<AbstractReasonerComponent> initTask(AbstractReasonerComponent reasoner) {
+		return () -> {
+			for (KnowledgeSource ks : reasoner.getSources()) {
+				ks.init();
+			}
+			reasoner.init();
+			return reasoner;
+		};
+	}
+
+	/**
+	 * Computes a key for the reasoner based on its type, its config options and
+	 * those of its knowledge sources.
+	 * 
+	 * @param reasoner the reasoner
+	 * @return the fingerprint
+	 */
+	public static String fingerprint(AbstractReasonerComponent reasoner) {
+		return fingerprint(reasoner, new IdentityHashMap<>());
+	}
+
+	private static String fingerprint(Object value, Map<Object, Boolean> visited) {
+		if (value == null) {
+			return "null";
+		}
+		if (value instanceof Component) {
+			if (visited.put(value, Boolean.TRUE) != null) {
+				return value.getClass().getName();
+			}
+			Set<Field> fields = AnnComponentManager.getConfigOptions(((Component) value).getClass());
+			if (fields.isEmpty()) {
+				// the state is not given by config options, e.g. an ontology set programmatically
+				return identity(value);
+			}
+			SortedMap<String, String> options = new TreeMap<>();
+			SortedMap<String, Object> values = new TreeMap<>();
+			for (Field field : fields) {
+				try {
+					field.setAccessible(true);
+					Object fieldValue = field.get(value);
+					values.put(field.getName(), fieldValue);
+					options.put(field.getName(), fingerprint(fieldValue, visited));
+				} catch (IllegalAccessException | RuntimeException e) {
+					return identity(value);
+				}
+			}
+			if (value instanceof KnowledgeSource) {
+				File file = localDocument(values);
+				if (file != null) {
+					options.put("#content", fingerprint(file, visited));
+				}
+			}
+			return value.getClass().getName() + options;
+		}
+		if (value instanceof Set) {
+			// the order of sets is not relevant
+			Set<String> fingerprints = new TreeSet<>();
+			for (Object o : (Collection<?>) value) {
+				fingerprints.add(fingerprint(o, visited));
+			}
+			return fingerprints.toString();
+		}
+		if (value instanceof Collection) {
+			StringBuilder sb = new StringBuilder("[");
+			for (Object o : (Collection<?>) value) {
+				sb.append(fingerprint(o, visited)).append(",");
+			}
+			return sb.append("]").toString();
+		}
+		if (value instanceof Map) {
+			SortedMap<String, String> fingerprints = new TreeMap<>();
+			for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+				fingerprints.put(fingerprint(e.getKey(), visited), fingerprint(e.getValue(), visited));
+			}
+			return fingerprints.toString();
+		}
+		if (value instanceof File) {
+			return "file:" + ((File) value).getAbsolutePath() + "#" + contentHash((File) value);
+		}
+		if (value instanceof URL) {
+			File file = toLocalFile((URL) value);
+			return file != null ? fingerprint(file, visited) : value.toString();
+		}
+		if (value instanceof String || value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum || value instanceof Class
+				|| value instanceof URI || value instanceof IRI) {
+			return value.toString();
+		}
+		return identity(value);
+	}
+
+	// a unique token for the object, which is never assigned to another object
+	private static String identity(Object value) {
+		long id = identities.computeIfAbsent(value, o -> identityCounter.incrementAndGet());
+		return value.getClass().getName() + "@" + id;
+	}
+
+	private static String contentHash(File file) {
+		if (!file.isFile()) {
+			return "missing";
+		}
+		try {
+			return Files.hash(file, Hashing.murmur3_128()).toString();
+		} catch (IOException e) {
+			logger.warn("Failed to read " + file + ", the reasoner will not be shared.", e);
+			return String.valueOf(identityCounter.incrementAndGet());
+		}
+	}
+
+	private static File toLocalFile(URL url) {
+		if (!"file".equals(url.getProtocol())) {
+			return null;
+		}
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return new File(url.getPath());
+		}
+	}
+
+	// file based knowledge sources refer to their document by a URL or by a file name
+	// which is relative to a base directory, see OWLFile and KBFile
+	private static File localDocument(Map<String, Object> options) {
+		Object fileName = options.get("fileName");
+		if (fileName instanceof String) {
+			Path path = Paths.get((String) fileName);
+			Object baseDir = options.get("baseDir");
+			if (!path.isAbsolute() && baseDir instanceof String) {
+				path = Paths.get((String) baseDir, (String) fileName);
+			}
+			return path.normalize().toFile();
+		}
+		Object url = options.get("url");
+		if (url instanceof URL) {
+			return null; // already fingerprinted by its content
+		}
+		if (url instanceof String) {
+			try {
+				return toLocalFile(new URL((String) url));
+			} catch (IOException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+}
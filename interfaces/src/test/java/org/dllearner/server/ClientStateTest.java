@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.jena.rdf.model.ModelFactory;
+import org.dllearner.core.AbstractReasonerComponent;
+import org.dllearner.kb.LocalModelBasedSparqlEndpointKS;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.junit.Test;
+
+/**
+ * Tests the handling of shared reasoners in {@link ClientState}.
+ *
+ */
+public class ClientStateTest {
+
+	// unused reasoners are evicted immediately
+	private final ReasonerRegistry registry = new ReasonerRegistry(0, 1.0);
+
+	private static SPARQLReasoner reasoner() {
+		return new SPARQLReasoner(new LocalModelBasedSparqlEndpointKS(ModelFactory.createDefaultModel()));
+	}
+
+	@Test
+	public void testSetReasonerReleasesSharedReasoner() throws Exception {
+		ClientState state = new ClientState();
+		SPARQLReasoner reasoner = reasoner();
+		int id = state.setReasonerComponent(reasoner);
+		state.setSharedReasoner(registry.acquire(reasoner), registry);
+		assertTrue(state.isReasonerShared());
+		assertTrue(state.isShared(state.getComponent(id)));
+		assertEquals(1, registry.size());
+
+		SPARQLReasoner other = reasoner();
+		int otherID = state.setReasonerComponent(other);
+		assertFalse(state.isReasonerShared());
+		assertFalse(state.isShared(state.getComponent(otherID)));
+		// the shared reasoner cannot be reached anymore by its ID
+		assertNull(state.getComponent(id));
+		assertEquals(0, registry.size());
+	}
+
+	@Test
+	public void testReleaseReturnsSharedReasoner() throws Exception {
+		ClientState state = new ClientState();
+		SPARQLReasoner reasoner = reasoner();
+		state.setReasonerComponent(reasoner);
+		AbstractReasonerComponent shared = registry.acquire(reasoner);
+		state.setSharedReasoner(shared, registry);
+		assertEquals(1, registry.size());
+
+		state.release();
+		assertFalse(state.isReasonerShared());
+		assertEquals(0, registry.size());
+	}
+}
@@ -0,0 +1,239 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.dllearner.server.JobManager.Job;
+import org.dllearner.server.JobManager.JobStatus;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Tests the limits, the cancellation and the cleanup of jobs in {@link JobManager}.
+ */
+public class JobManagerTest {
+
+	private JobManager jobManager;
+
+	// blocks the workers until the end of the test
+	private final CountDownLatch release = new CountDownLatch(1);
+
+	@After
+	public void tearDown() {
+		release.countDown();
+		if (jobManager != null) {
+			jobManager.shutdown();
+		}
+	}
+
+	private Runnable blocking() {
+		return () -> {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		};
+	}
+
+	private static void awaitStatus(Job job, JobStatus status) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (job.getStatus() != status && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		assertEquals(status, job.getStatus());
+	}
+
+	private void awaitActiveJobs(int sessionID, int nrOfActiveJobs) throws InterruptedException {
+		long end = System.currentTimeMillis() + 5000;
+		while (jobManager.getNrOfActiveJobs(sessionID) != nrOfActiveJobs && System.currentTimeMillis() < end) {
+			Thread.sleep(5);
+		}
+		assertEquals(nrOfActiveJobs, jobManager.getNrOfActiveJobs(sessionID));
+	}
+
+	@Test
+	public void testRejectWhenSessionLimitReached() throws Exception {
+		jobManager = new JobManager(4, 10, 2);
+
+		jobManager.submit(1, blocking(), null);
+		jobManager.submit(1, blocking(), null);
+		assertEquals(2, jobManager.getNrOfActiveJobs(1));
+
+		try {
+			jobManager.submit(1, blocking(), null);
+			fail("third job of the session should have been rejected");
+		} catch (JobRejectedException e) {
+			// expected
+		}
+		assertEquals(2, jobManager.getNrOfActiveJobs(1));
+
+		// other sessions are not affected
+		jobManager.submit(2, blocking(), null);
+		assertEquals(1, jobManager.getNrOfActiveJobs(2));
+	}
+
+	@Test
+	public void testRejectWhenQueueFull() throws Exception {
+		jobManager = new JobManager(1, 1, 10);
+
+		Job running = jobManager.submit(1, blocking(), null);
+		awaitStatus(running, JobStatus.RUNNING);
+		Job queued = jobManager.submit(1, blocking(), null);
+		assertEquals(JobStatus.QUEUED, queued.getStatus());
+
+		try {
+			jobManager.submit(2, blocking(), null);
+			fail("job should have been rejected because the queue is full");
+		} catch (JobRejectedException e) {
+			// expected
+		}
+		// rejected jobs are neither counted nor kept
+		assertEquals(0, jobManager.getNrOfActiveJobs(2));
+		assertTrue(jobManager.getJobs(2).isEmpty());
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		jobManager = new JobManager(1, 10, 10);
+
+		AtomicBoolean stopped = new AtomicBoolean();
+		Job running = jobManager.submit(1, blocking(), () -> stopped.set(true));
+		awaitStatus(running, JobStatus.RUNNING);
+
+		AtomicBoolean executed = new AtomicBoolean();
+		Job queued = jobManager.submit(1, () -> executed.set(true), null);
+		assertEquals(2, jobManager.getNrOfActiveJobs(1));
+
+		// a queued job is never executed
+		assertTrue(jobManager.cancel(queued.getID()));
+		assertEquals(JobStatus.CANCELLED, queued.getStatus());
+		assertEquals(1, jobManager.getNrOfActiveJobs(1));
+
+		// a running job gets its cancel callback invoked
+		assertTrue(jobManager.cancel(running.getID()));
+		assertEquals(JobStatus.CANCELLED, running.getStatus());
+		assertTrue(stopped.get());
+		awaitActiveJobs(1, 0);
+
+		// cancelling twice has no effect
+		assertFalse(jobManager.cancel(running.getID()));
+		assertEquals(0, jobManager.getNrOfActiveJobs(1));
+
+		// the worker is free again
+		Job next = jobManager.submit(1, () -> {}, null);
+		awaitStatus(next, JobStatus.FINISHED);
+		assertFalse(executed.get());
+	}
+
+	@Test
+	public void testCancelledJobCountsUntilStopped() throws Exception {
+		jobManager = new JobManager(2, 10, 1);
+
+		// a job which ignores interrupts
+		CountDownLatch stop = new CountDownLatch(1);
+		Job running = jobManager.submit(1, () -> {
+			while (stop.getCount() > 0) {
+				try {
+					stop.await();
+				} catch (InterruptedException e) {
+					// ignored
+				}
+			}
+		}, null);
+		awaitStatus(running, JobStatus.RUNNING);
+		assertTrue(jobManager.cancel(running.getID()));
+		assertEquals(JobStatus.CANCELLED, running.getStatus());
+
+		// the job still occupies a worker
+		assertEquals(1, jobManager.getNrOfActiveJobs(1));
+		try {
+			jobManager.submit(1, blocking(), null);
+			fail("job should have been rejected because the cancelled job is still running");
+		} catch (JobRejectedException e) {
+			// expected
+		}
+
+		stop.countDown();
+		awaitActiveJobs(1, 0);
+		jobManager.submit(1, blocking(), null);
+	}
+
+	@Test
+	public void testFailedJob() throws Exception {
+		jobManager = new JobManager(1, 10, 10);
+
+		Job job = jobManager.submit(1, () -> {
+			throw new IllegalStateException("failure");
+		}, null);
+		awaitStatus(job, JobStatus.FAILED);
+		assertTrue(job.getError() instanceof IllegalStateException);
+		assertEquals(0, jobManager.getNrOfActiveJobs(1));
+	}
+
+	@Test
+	public void testFinishedJobsArePurged() throws Exception {
+		jobManager = new JobManager(2, 10, 1, TimeUnit.HOURS.toMillis(1));
+
+		Job job = jobManager.submit(1, () -> {}, null);
+		awaitStatus(job, JobStatus.FINISHED);
+
+		// the status can still be polled within the time to live
+		jobManager.purgeFinishedJobs();
+		assertEquals(job, jobManager.getJob(job.getID()));
+		// finished jobs do not count against the session limit
+		jobManager.submit(1, blocking(), null);
+
+		jobManager.shutdown();
+		jobManager = new JobManager(2, 10, 1, 0);
+		job = jobManager.submit(1, () -> {}, null);
+		awaitStatus(job, JobStatus.FINISHED);
+		jobManager.purgeFinishedJobs();
+		assertNull(jobManager.getJob(job.getID()));
+		assertTrue(jobManager.getJobs(1).isEmpty());
+	}
+
+	@Test
+	public void testRemoveSession() throws Exception {
+		jobManager = new JobManager(1, 10, 10);
+
+		Job running = jobManager.submit(1, blocking(), null);
+		Job queued = jobManager.submit(1, blocking(), null);
+		Job other = jobManager.submit(2, blocking(), null);
+
+		jobManager.removeSession(1);
+		assertEquals(JobStatus.CANCELLED, running.getStatus());
+		assertEquals(JobStatus.CANCELLED, queued.getStatus());
+		assertNull(jobManager.getJob(running.getID()));
+		assertNull(jobManager.getJob(queued.getID()));
+		assertEquals(0, jobManager.getNrOfActiveJobs(1));
+
+		assertEquals(other, jobManager.getJob(other.getID()));
+		assertEquals(1, jobManager.getNrOfActiveJobs(2));
+	}
+}
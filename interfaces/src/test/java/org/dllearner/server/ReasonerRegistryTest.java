@@ -0,0 +1,89 @@
+/**
+ * Copyright (C) 2007 - 2016, Jens Lehmann
+ *
+ * This file is part of DL-Learner.
+ *
+ * DL-Learner is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation; either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * DL-Learner is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.dllearner.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+import org.dllearner.core.KnowledgeSource;
+import org.dllearner.kb.OWLAPIOntology;
+import org.dllearner.kb.OWLFile;
+import org.dllearner.reasoning.SPARQLReasoner;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+/**
+ * Tests the keys of shared reasoners in {@link ReasonerRegistry}.
+ */
+public class ReasonerRegistryTest {
+
+	private static SPARQLReasoner reasoner(KnowledgeSource ks) {
+		SPARQLReasoner reasoner = new SPARQLReasoner();
+		reasoner.setSources(ks);
+		return reasoner;
+	}
+
+	@Test
+	public void testInMemoryOntologiesByIdentity() throws Exception {
+		OWLOntologyManager man = OWLManager.createOWLOntologyManager();
+		IRI iri = IRI.create("http://example.org/ontology");
+		OWLAPIOntology ks1 = new OWLAPIOntology(man.createOntology(iri));
+		OWLAPIOntology ks2 = new OWLAPIOntology(OWLManager.createOWLOntologyManager().createOntology(iri));
+
+		// same ontology ID and axioms, but different objects
+		assertNotEquals(ReasonerRegistry.fingerprint(reasoner(ks1)), ReasonerRegistry.fingerprint(reasoner(ks2)));
+		assertEquals(ReasonerRegistry.fingerprint(reasoner(ks1)), ReasonerRegistry.fingerprint(reasoner(ks1)));
+	}
+
+	@Test
+	public void testFilesByContent() throws Exception {
+		File file = File.createTempFile("dllearner-registry", ".ttl");
+		file.deleteOnExit();
+		Files.write(file.toPath(), Collections.singletonList("<http://example.org/a> a <http://example.org/A> ."), StandardCharsets.UTF_8);
+
+		OWLFile ks1 = new OWLFile();
+		ks1.setFileName(file.getName());
+		ks1.setBaseDir(file.getParent());
+		OWLFile ks2 = new OWLFile();
+		ks2.setFileName(file.getName());
+		ks2.setBaseDir(file.getParent());
+
+		String fingerprint = ReasonerRegistry.fingerprint(reasoner(ks1));
+		assertEquals(fingerprint, ReasonerRegistry.fingerprint(reasoner(ks2)));
+
+		// the file changed on disk
+		Files.write(file.toPath(), Collections.singletonList("<http://example.org/b> a <http://example.org/A> ."), StandardCharsets.UTF_8);
+		assertNotEquals(fingerprint, ReasonerRegistry.fingerprint(reasoner(ks2)));
+
+		// the same file referenced by its URL
+		OWLFile ks3 = new OWLFile(file.toURI().toURL());
+		assertNotEquals(fingerprint, ReasonerRegistry.fingerprint(reasoner(ks3)));
+		Files.write(file.toPath(), Collections.singletonList("<http://example.org/a> a <http://example.org/A> ."), StandardCharsets.UTF_8);
+		String urlFingerprint = ReasonerRegistry.fingerprint(reasoner(ks3));
+		Files.write(file.toPath(), Collections.singletonList("<http://example.org/c> a <http://example.org/A> ."), StandardCharsets.UTF_8);
+		assertNotEquals(urlFingerprint, ReasonerRegistry.fingerprint(reasoner(ks3)));
+	}
+}